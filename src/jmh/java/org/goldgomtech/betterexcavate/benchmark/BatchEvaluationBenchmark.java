@@ -0,0 +1,88 @@
+package org.goldgomtech.betterexcavate.benchmark;
+
+import org.goldgomtech.betterexcavate.BatchEvaluator;
+import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.HardnessTables;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 逐个调用标量方法与 BatchEvaluator.evaluateBatch 的对比
+ * batchVector 在单独的fork中开启向量路径
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchEvaluationBenchmark {
+
+    static final int SIZE = 1024;
+
+    @Param({"linear", "logarithmic", "exponential", "quadratic"})
+    public String method;
+
+    private double[] toolHardness;
+    private float[] blockHardness;
+    private float[] outSpeed;
+    private byte[] outMode;
+
+    @Setup
+    public void setup() {
+        MinecraftBootstrap.init();
+        BenchmarkConfig.applyDefaults();
+        Config.speedCalculationMethod = method;
+        Config.tables = HardnessTables.compile();
+
+        SplittableRandom random = new SplittableRandom(42);
+        toolHardness = new double[SIZE];
+        blockHardness = new float[SIZE];
+        outSpeed = new float[SIZE];
+        outMode = new byte[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            toolHardness[i] = 0.5 + random.nextDouble() * 5.0;
+            blockHardness[i] = (float) (random.nextDouble() * 50.0);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void perPair(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(Config.calculateCustomMiningSpeed(toolHardness[i], blockHardness[i]));
+            blackhole.consume(Config.getMiningMode(blockHardness[i], toolHardness[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void batch(Blackhole blackhole) {
+        BatchEvaluator.evaluateBatch(toolHardness, blockHardness, outSpeed, outMode);
+        blackhole.consume(outSpeed);
+        blackhole.consume(outMode);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Dbetterexcavate.vectorBatch=true"})
+    public void batchVector(Blackhole blackhole) {
+        BatchEvaluator.evaluateBatch(toolHardness, blockHardness, outSpeed, outMode);
+        blackhole.consume(outSpeed);
+        blackhole.consume(outMode);
+    }
+}
@@ -0,0 +1,68 @@
+package org.goldgomtech.betterexcavate.benchmark;
+
+import net.minecraftforge.common.ForgeConfigSpec;
+import org.goldgomtech.betterexcavate.Config;
+
+import java.util.List;
+
+/**
+ * 基准测试使用的配置
+ * 基准测试不经过Forge配置加载，直接把Config中计算相关的静态字段设为 {@link Config#SPEC} 中定义的默认值。
+ * 不调用 Config.load()，以免启动指标导出、日志、工具硬度探测等后台任务
+ */
+final class BenchmarkConfig {
+
+    private BenchmarkConfig() {
+    }
+
+    static void applyDefaults() {
+        Config.toolHardnessMap = Config.parseToolHardness(defaultValue("toolHardness"));
+        Config.defaultHardness = defaultValue("defaultHardness");
+        Config.hardnessMultiplier = defaultValue("hardnessMultiplier");
+        Config.enableDropControl = defaultValue("enableDropControl");
+        Config.enableToolDamageOnInvalidMining = defaultValue("enableToolDamageOnInvalidMining");
+        Config.toolDamageHardnessThreshold = defaultValue("toolDamageHardnessThreshold");
+
+        Config.enableSurroundingBlocksModifier = defaultValue("enableSurroundingBlocksModifier");
+        Config.minSpeedMultiplier = defaultValue("minSpeedMultiplier");
+        Config.maxSpeedMultiplier = defaultValue("maxSpeedMultiplier");
+        Config.speedCurveType = defaultValue("speedCurveType");
+        // 探测在后台线程中进行，基准测试只使用配置的工具硬度
+        Config.autoDetectToolHardness = false;
+
+        Config.enableDurabilitySpeedPenalty = defaultValue("enableDurabilitySpeedPenalty");
+        Config.enableDurabilityHardnessPenalty = defaultValue("enableDurabilityHardnessPenalty");
+        Config.maxDurabilitySpeedPenalty = defaultValue("maxDurabilitySpeedPenalty");
+        Config.maxDurabilityHardnessPenalty = defaultValue("maxDurabilityHardnessPenalty");
+        Config.durabilityPenaltyCurve = defaultValue("durabilityPenaltyCurve");
+
+        Config.enableWrongToolPenalty = defaultValue("enableWrongToolPenalty");
+        Config.wrongToolSpeedPenalty = defaultValue("wrongToolSpeedPenalty");
+        Config.bypassVanillaToolRestrictions = defaultValue("bypassVanillaToolRestrictions");
+
+        Config.useCustomSpeedCalculation = defaultValue("useCustomSpeedCalculation");
+        Config.speedCalculationMethod = defaultValue("speedCalculationMethod");
+        Config.baseMiningSpeed = defaultValue("baseMiningSpeed");
+        Config.maxSpeedMultiplierCustom = defaultValue("maxSpeedMultiplierCustom");
+
+        Config.enableSlowMiningWithoutDrops = defaultValue("enableSlowMiningWithoutDrops");
+        Config.slowMiningHardnessMultiplier = defaultValue("slowMiningHardnessMultiplier");
+        Config.slowMiningSpeedPenalty = defaultValue("slowMiningSpeedPenalty");
+
+        Config.enchantmentHardnessModifiers = defaultValue("enchantmentHardnessModifiers");
+        Config.nbtHardnessModifiers = defaultValue("nbtHardnessModifiers");
+        Config.depthHardnessScaling = defaultValue("depthHardnessScaling");
+        Config.hardnessVariance = defaultValue("hardnessVariance");
+
+        Config.enableDebugLogging = false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T defaultValue(String path) {
+        Object spec = Config.SPEC.getSpec().get(path);
+        if (!(spec instanceof ForgeConfigSpec.ValueSpec valueSpec)) {
+            throw new IllegalStateException("Unknown config entry " + path);
+        }
+        return (T) valueSpec.getDefault();
+    }
+}
@@ -0,0 +1,142 @@
+package org.goldgomtech.betterexcavate.benchmark;
+
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.HardnessTables;
+import org.goldgomtech.betterexcavate.MiningCalculator;
+import org.goldgomtech.betterexcavate.StackHardness;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 挖掘速度和挖掘模式的计算，直接调用Mixin使用的 {@link StackHardness} 和 {@link MiningCalculator}
+ * 原版速度、方块硬度和周围相同方块数量预先生成，代替世界访问；不包括按位置的硬度修正。
+ * 基准测试不应用Mixin，物品堆上没有硬度缓存，StackHardness 每次都完整计算工具硬度，结果是缓存未命中时的开销
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DestroySpeedPipelineBenchmark {
+
+    static final int SIZE = 1024;
+
+    @Param({"true", "false"})
+    public boolean customSpeedCalculation;
+
+    private ItemStack[] heldItems;
+    private BlockState[] states;
+    private float[] vanillaSpeeds;
+    private int[] identicalBlocks;
+
+    @Setup
+    public void setup() {
+        MinecraftBootstrap.init();
+        BenchmarkConfig.applyDefaults();
+        Config.useCustomSpeedCalculation = customSpeedCalculation;
+        Config.tables = HardnessTables.compile();
+
+        ItemStack[] tools = {
+                ItemStack.EMPTY,
+                new ItemStack(Items.WOODEN_PICKAXE),
+                new ItemStack(Items.IRON_PICKAXE),
+                new ItemStack(Items.DIAMOND_PICKAXE),
+                new ItemStack(Items.IRON_SHOVEL),
+                new ItemStack(Items.STICK)
+        };
+        // 部分工具使用半耐久版本，覆盖耐久度惩罚
+        ItemStack worn = new ItemStack(Items.DIAMOND_PICKAXE);
+        worn.setDamageValue(worn.getMaxDamage() / 2);
+        tools[3] = worn;
+
+        BlockState[] blocks = {
+                Blocks.STONE.defaultBlockState(),
+                Blocks.DEEPSLATE.defaultBlockState(),
+                Blocks.IRON_ORE.defaultBlockState(),
+                Blocks.OBSIDIAN.defaultBlockState(),
+                Blocks.DIRT.defaultBlockState(),
+                Blocks.OAK_LOG.defaultBlockState(),
+                Blocks.BEDROCK.defaultBlockState()
+        };
+
+        SplittableRandom random = new SplittableRandom(42);
+        heldItems = new ItemStack[SIZE];
+        states = new BlockState[SIZE];
+        vanillaSpeeds = new float[SIZE];
+        identicalBlocks = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            heldItems[i] = tools[random.nextInt(tools.length)];
+            states[i] = blocks[random.nextInt(blocks.length)];
+            vanillaSpeeds[i] = heldItems[i].getDestroySpeed(states[i]);
+            identicalBlocks[i] = random.nextInt(7);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void destroySpeed(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(destroySpeed(heldItems[i], states[i], vanillaSpeeds[i], identicalBlocks[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void miningMode(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(miningMode(heldItems[i], states[i]));
+        }
+    }
+
+    private static float destroySpeed(ItemStack heldItem, BlockState blockState, float originalSpeed, int neighbours) {
+        float blockHardness = blockState.getDestroySpeed(null, null);
+        if (blockHardness < 0) {
+            return originalSpeed;
+        }
+
+        boolean hasTool = !heldItem.isEmpty();
+        float toolSpeed = originalSpeed;
+        if (hasTool && (Config.bypassVanillaToolRestrictions || originalSpeed == 1.0f)) {
+            toolSpeed = heldItem.getDestroySpeed(blockState);
+        }
+
+        double toolHardness = StackHardness.getToolHardness(heldItem);
+        boolean isWrongTool = Config.enableWrongToolPenalty && hasTool && !Config.isCorrectToolType(heldItem, blockState);
+        int identical = Config.enableSurroundingBlocksModifier ? neighbours : MiningCalculator.NO_SURROUNDING_COUNT;
+
+        return MiningCalculator.calculateDestroySpeed(Config.tables, originalSpeed, toolSpeed, hasTool,
+                toolHardness, Config.getWearPercentage(heldItem), isWrongTool, blockHardness, identical);
+    }
+
+    private static int miningMode(ItemStack heldItem, BlockState blockState) {
+        float blockHardness = blockState.getDestroySpeed(null, null);
+        if (blockHardness < 0) {
+            return 0;
+        }
+
+        double effectiveToolHardness = StackHardness.getEffectiveHardness(heldItem);
+        if (Config.enableWrongToolPenalty && !heldItem.isEmpty() && !Config.isCorrectToolType(heldItem, blockState)) {
+            effectiveToolHardness *= MiningCalculator.WRONG_TOOL_HARDNESS_FACTOR;
+        }
+        return MiningCalculator.getMiningMode(Config.tables, blockHardness, effectiveToolHardness);
+    }
+}
@@ -0,0 +1,57 @@
+package org.goldgomtech.betterexcavate.benchmark;
+
+import org.goldgomtech.betterexcavate.Config;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Config.calculateDurabilityPenalty 各惩罚曲线的耗时
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DurabilityPenaltyBenchmark {
+
+    static final int SIZE = 1024;
+
+    @Param({"linear", "quadratic", "exponential"})
+    public String curve;
+
+    private double[] wearPercentage;
+
+    @Setup
+    public void setup() {
+        BenchmarkConfig.applyDefaults();
+        Config.durabilityPenaltyCurve = curve;
+
+        // 从全新到完全磨损均匀分布，包含全新工具的0值
+        wearPercentage = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            wearPercentage[i] = (double) i / (SIZE - 1);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void calculateDurabilityPenalty(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(Config.calculateDurabilityPenalty(wearPercentage[i], Config.maxDurabilityHardnessPenalty));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.goldgomtech.betterexcavate.benchmark;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+
+/**
+ * 初始化原版注册表，使基准测试可以创建方块状态和物品堆栈
+ * 不启动服务器也不加载世界，标签未绑定，只适合不依赖标签的计算
+ */
+final class MinecraftBootstrap {
+
+    private static boolean initialized;
+
+    private MinecraftBootstrap() {
+    }
+
+    static synchronized void init() {
+        if (!initialized) {
+            SharedConstants.tryDetectVersion();
+            Bootstrap.bootStrap();
+            initialized = true;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.goldgomtech.betterexcavate.benchmark;
+
+import org.goldgomtech.betterexcavate.Config;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Config.getMiningMode 的耗时
+ * 输入混合了不可破坏、正常挖掘、缓慢挖掘和无法挖掘四种结果，用于观察分支预测的影响
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MiningModeBenchmark {
+
+    static final int SIZE = 1024;
+
+    @Param({"true", "false"})
+    public boolean slowMining;
+
+    private double[] toolHardness;
+    private float[] blockHardness;
+
+    @Setup
+    public void setup() {
+        BenchmarkConfig.applyDefaults();
+        Config.enableSlowMiningWithoutDrops = slowMining;
+
+        SplittableRandom random = new SplittableRandom(42);
+        toolHardness = new double[SIZE];
+        blockHardness = new float[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            toolHardness[i] = 0.5 + random.nextDouble() * 5.0;
+            // 约5%的方块不可破坏
+            blockHardness[i] = random.nextInt(20) == 0 ? -1.0f : (float) (random.nextDouble() * 12.0);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void getMiningMode(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(Config.getMiningMode(blockHardness[i], toolHardness[i]));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.goldgomtech.betterexcavate.benchmark;
+
+import org.goldgomtech.betterexcavate.Config;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Config.calculateCustomMiningSpeed 各计算方法的耗时
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpeedCalculationBenchmark {
+
+    static final int SIZE = 1024;
+
+    @Param({"linear", "inverse", "logarithmic", "exponential", "quadratic"})
+    public String method;
+
+    private double[] toolHardness;
+    private float[] blockHardness;
+
+    @Setup
+    public void setup() {
+        BenchmarkConfig.applyDefaults();
+        Config.speedCalculationMethod = method;
+
+        // 覆盖工具硬度不足、相当和远超方块硬度的情况
+        SplittableRandom random = new SplittableRandom(42);
+        toolHardness = new double[SIZE];
+        blockHardness = new float[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            toolHardness[i] = 0.5 + random.nextDouble() * 5.0;
+            blockHardness[i] = (float) (random.nextDouble() * 50.0);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void calculateCustomMiningSpeed(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(Config.calculateCustomMiningSpeed(toolHardness[i], blockHardness[i]));
+        }
+    }
+}
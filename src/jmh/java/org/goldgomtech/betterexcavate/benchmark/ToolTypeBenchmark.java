@@ -0,0 +1,72 @@
+package org.goldgomtech.betterexcavate.benchmark;
+
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import org.goldgomtech.betterexcavate.Config;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Config.isCorrectToolType 的耗时
+ * 组合覆盖：正确工具、错误工具、没有特定工具要求的方块，以及非工具物品
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ToolTypeBenchmark {
+
+    private ItemStack[] tools;
+    private BlockState[] states;
+
+    @Setup
+    public void setup() {
+        MinecraftBootstrap.init();
+        BenchmarkConfig.applyDefaults();
+
+        tools = new ItemStack[] {
+                new ItemStack(Items.IRON_PICKAXE),
+                new ItemStack(Items.DIAMOND_AXE),
+                new ItemStack(Items.STONE_SHOVEL),
+                new ItemStack(Items.GOLDEN_HOE),
+                new ItemStack(Items.IRON_SWORD),
+                new ItemStack(Items.STICK)
+        };
+        states = new BlockState[] {
+                Blocks.STONE.defaultBlockState(),
+                Blocks.DEEPSLATE_DIAMOND_ORE.defaultBlockState(),
+                Blocks.OAK_LOG.defaultBlockState(),
+                Blocks.DIRT.defaultBlockState(),
+                Blocks.OAK_LEAVES.defaultBlockState(),
+                Blocks.WHITE_WOOL.defaultBlockState(),
+                Blocks.GLASS.defaultBlockState(),
+                Blocks.COBWEB.defaultBlockState()
+        };
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(6 * 8)
+    public void isCorrectToolType(Blackhole blackhole) {
+        for (ItemStack tool : tools) {
+            for (BlockState state : states) {
+                blackhole.consume(Config.isCorrectToolType(tool, state));
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.goldgomtech.betterexcavate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 批量挖掘速度和挖掘模式计算
+ * 面向一次需要大量（工具硬度, 方块硬度）组合的调用方（平衡矩阵、覆盖层、自动化模组等）。
+ * 计算方法的选择提到循环外，每种方法一个循环，循环体内只有 min/max 和条件选择，
+ * 便于JIT展开并自动向量化。
+ *
+ * 与逐个调用 {@link Config#calculateCustomMiningSpeed} / {@link Config#getMiningMode} 的结果对比：
+ * <ul>
+ *   <li>标量路径：运算顺序与标量方法相同，结果逐位一致</li>
+ *   <li>向量路径：对数使用向量库实现，速度的相对误差不超过 {@link #VECTOR_RELATIVE_TOLERANCE}；
+ *       挖掘模式始终由标量路径计算，结果一致</li>
+ * </ul>
+ *
+ * 向量路径使用 jdk.incubator.vector，默认关闭。实现位于单独的 vector 源码集，不打包进模组jar，
+ * 只在基准测试等把它放在类路径上的环境中可用；还需要以 --add-modules jdk.incubator.vector 启动
+ * 并设置系统属性 -Dbetterexcavate.vectorBatch=true，不可用时自动回退到标量路径
+ */
+public final class BatchEvaluator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    /** 向量路径的速度相对误差上限 */
+    public static final double VECTOR_RELATIVE_TOLERANCE = 1.0e-6;
+
+    /** 少于这个数量时向量路径的准备开销不划算 */
+    private static final int VECTOR_MIN_LENGTH = 64;
+
+    private static final double LN2 = Math.log(2);
+
+    private static final String VECTOR_KERNEL_CLASS = "org.goldgomtech.betterexcavate.VectorBatchKernel";
+
+    // 向量路径，不可用时为null
+    private static final SpeedKernel VECTOR_KERNEL = loadVectorKernel();
+
+    /**
+     * 批量速度计算的另一种实现，与 {@link #speeds} 的结果在 {@link #VECTOR_RELATIVE_TOLERANCE} 内一致
+     */
+    interface SpeedKernel {
+        void speeds(HardnessTables tables, double[] toolHardness, float[] blockHardness, float[] outSpeed, int length);
+    }
+
+    private BatchEvaluator() {
+    }
+
+    /**
+     * 使用当前生效的配置批量计算
+     * @param toolHardness 有效工具硬度（已应用耐久度和错误工具惩罚）
+     * @param blockHardness 方块硬度，长度不小于toolHardness
+     * @param outSpeed 输出挖掘速度，与 {@link Config#calculateCustomMiningSpeed} 相同
+     * @param outMode 输出挖掘模式，与 {@link Config#getMiningMode} 相同：0=无法挖掘，1=正常挖掘，2=缓慢挖掘无掉落
+     */
+    public static void evaluateBatch(double[] toolHardness, float[] blockHardness, float[] outSpeed, byte[] outMode) {
+        evaluateBatch(Config.tables, toolHardness, blockHardness, outSpeed, outMode);
+    }
+
+    /**
+     * 使用指定配置批量计算，参数含义同 {@link #evaluateBatch(double[], float[], float[], byte[])}
+     */
+    public static void evaluateBatch(HardnessTables tables, double[] toolHardness, float[] blockHardness,
+                                     float[] outSpeed, byte[] outMode) {
+        int length = toolHardness.length;
+        if (blockHardness.length < length || outSpeed.length < length || outMode.length < length) {
+            throw new IllegalArgumentException("Batch arrays shorter than toolHardness (" + length + ")");
+        }
+
+        if (VECTOR_KERNEL != null && length >= VECTOR_MIN_LENGTH) {
+            VECTOR_KERNEL.speeds(tables, toolHardness, blockHardness, outSpeed, length);
+        } else {
+            speeds(tables, toolHardness, blockHardness, outSpeed, length);
+        }
+        modes(tables, toolHardness, blockHardness, outMode, length);
+    }
+
+    /**
+     * 标量路径的速度计算，与 {@link MiningCalculator#calculateCustomMiningSpeed} 逐位一致
+     */
+    static void speeds(HardnessTables tables, double[] toolHardness, float[] blockHardness, float[] outSpeed, int length) {
+        double base = tables.getBaseMiningSpeed();
+        double maxMultiplier = tables.getMaxSpeedMultiplierCustom();
+
+        switch (tables.getSpeedCalculationMethod()) {
+            case "linear" -> {
+                for (int i = 0; i < length; i++) {
+                    float block = blockHardness[i];
+                    double ratio = toolHardness[i] / block;
+                    double multiplier = Math.max(Math.min(ratio, maxMultiplier), 0.01);
+                    outSpeed[i] = block <= 0 ? (float) base : (float) (base * multiplier);
+                }
+            }
+            case "inverse" -> {
+                for (int i = 0; i < length; i++) {
+                    float block = blockHardness[i];
+                    double multiplier = Math.max(Math.min(toolHardness[i] / Math.max(block, 0.1), maxMultiplier), 0.01);
+                    outSpeed[i] = block <= 0 ? (float) base : (float) (base * multiplier);
+                }
+            }
+            case "exponential" -> {
+                for (int i = 0; i < length; i++) {
+                    float block = blockHardness[i];
+                    double ratio = toolHardness[i] / block;
+                    double curve = ratio >= 1.0 ? Math.pow(ratio, 0.5) : ratio * ratio;
+                    double multiplier = Math.max(Math.min(curve, maxMultiplier), 0.01);
+                    outSpeed[i] = block <= 0 ? (float) base : (float) (base * multiplier);
+                }
+            }
+            case "quadratic" -> {
+                for (int i = 0; i < length; i++) {
+                    float block = blockHardness[i];
+                    double ratio = toolHardness[i] / block;
+                    double curve = ratio >= 1.0 ? 1.0 + (ratio - 1.0) * 0.5 : ratio * ratio;
+                    double multiplier = Math.max(Math.min(curve, maxMultiplier), 0.01);
+                    outSpeed[i] = block <= 0 ? (float) base : (float) (base * multiplier);
+                }
+            }
+            // logarithmic 和未知方法（与标量方法的default分支一致）
+            default -> {
+                boolean clampSmallRatio = "logarithmic".equals(tables.getSpeedCalculationMethod());
+                for (int i = 0; i < length; i++) {
+                    float block = blockHardness[i];
+                    double ratio = toolHardness[i] / block;
+                    double curve = Math.min(Math.log(ratio + 1) / LN2, maxMultiplier);
+                    if (clampSmallRatio && ratio <= 0.001) {
+                        curve = 0.01;
+                    }
+                    double multiplier = Math.max(curve, 0.01);
+                    outSpeed[i] = block <= 0 ? (float) base : (float) (base * multiplier);
+                }
+            }
+        }
+    }
+
+    /**
+     * 挖掘模式：以比较结果组合代替分支，与 {@link MiningCalculator#getMiningMode} 一致
+     */
+    static void modes(HardnessTables tables, double[] toolHardness, float[] blockHardness, byte[] outMode, int length) {
+        double hardnessMultiplier = tables.getHardnessMultiplier();
+        // 未启用缓慢挖掘时用-∞作为上限，使缓慢挖掘条件恒为假
+        double slowMultiplier = tables.isSlowMiningWithoutDropsEnabled()
+                ? tables.getSlowMiningHardnessMultiplier() : Double.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < length; i++) {
+            double tool = toolHardness[i];
+            float block = blockHardness[i];
+            int breakable = block >= 0 ? 1 : 0;
+            int normal = block <= tool * hardnessMultiplier ? 1 : 0;
+            int slow = block <= tool * slowMultiplier ? 1 : 0;
+            // normal=1 -> 1；normal=0且slow=1 -> 2；否则 0
+            outMode[i] = (byte) (breakable * (normal | ((slow & ~normal) << 1)));
+        }
+    }
+
+    private static SpeedKernel loadVectorKernel() {
+        if (!Boolean.getBoolean("betterexcavate.vectorBatch")) {
+            return null;
+        }
+        try {
+            SpeedKernel kernel = (SpeedKernel) Class.forName(VECTOR_KERNEL_CLASS).getDeclaredConstructor().newInstance();
+            LOGGER.info("[BetterExcavate] Vectorized batch evaluation enabled");
+            return kernel;
+        } catch (Throwable t) {
+            // 不在类路径上时抛出 ClassNotFoundException，缺少 --add-modules jdk.incubator.vector 时抛出 NoClassDefFoundError
+            LOGGER.warn("[BetterExcavate] Vectorized batch evaluation unavailable, using scalar path: {}", t.toString());
+            return null;
+        }
+    }
+}
@@ -19,6 +19,7 @@ import net.minecraftforge.fml.event.lifecycle.FMLCommonSetupEvent;
 import net.minecraftforge.fml.javafmlmod.FMLJavaModLoadingContext;
 import net.minecraftforge.registries.DeferredRegister;
 import net.minecraftforge.registries.ForgeRegistries;
+import org.goldgomtech.betterexcavate.network.BetterExcavateNetwork;
 import org.slf4j.Logger;
 
 // The value here should match an entry in the META-INF/mods.toml file
@@ -62,6 +63,9 @@ public class BetterExcavate {
     private void commonSetup(final FMLCommonSetupEvent event) {
         // Some common setup code
         LOGGER.info("HELLO FROM COMMON SETUP");
+
+        // 注册硬度表同步的网络通道
+        event.enqueueWork(BetterExcavateNetwork::register);
     }
     
     private void clientSetup(final FMLClientSetupEvent event) {
@@ -77,6 +81,12 @@ public class BetterExcavate {
     public void onServerStarting(ServerStartingEvent event) {
         // Do something when the server starts
         LOGGER.info("HELLO from server starting");
+
+        // 加载存档时物品ID可能被重新映射，按当前注册表重新编译硬度表
+        Config.compileTables();
+
+        // 可选的预热阶段，在玩家加入前填充缓存并让JIT编译挖掘热路径
+        MiningWarmup.run(event.getServer());
     }
 
     // You can use EventBusSubscriber to automatically register all static methods in the class annotated with @SubscribeEvent
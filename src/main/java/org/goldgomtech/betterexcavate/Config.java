@@ -3,14 +3,20 @@ package org.goldgomtech.betterexcavate;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
-import net.minecraft.world.item.Tiers;
-import net.minecraft.world.item.TieredItem;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraftforge.common.ForgeConfigSpec;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.event.config.ModConfigEvent;
 import net.minecraftforge.registries.ForgeRegistries;
+import org.goldgomtech.betterexcavate.automation.AutomationMining;
+import org.goldgomtech.betterexcavate.journal.BreakJournal;
+import org.goldgomtech.betterexcavate.metrics.Metrics;
+import org.goldgomtech.betterexcavate.multiblock.AreaMining;
+import org.goldgomtech.betterexcavate.multiblock.ChainMining;
+import org.goldgomtech.betterexcavate.network.HardnessSync;
+import org.goldgomtech.betterexcavate.shadow.ShadowEvaluator;
+import org.goldgomtech.betterexcavate.trace.MiningTrace;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -171,13 +177,173 @@ public class Config
             .defineInRange("slowMiningSpeedPenalty", 0.8, 0.0, 1.0);
 
     private static final ForgeConfigSpec.BooleanValue ENABLE_DEBUG_LOGGING = BUILDER
-            .comment("Enable debug logging for BetterExcavate mod. When disabled, all logs are suppressed for better performance.")
+            .comment("Enable debug logging for BetterExcavate mod. Mining decisions are recorded into the trace buffer (see /betterexcavate trace) and only formatted when dumped. When disabled, all logs are suppressed for better performance.")
             .define("enableDebugLogging", false);
 
-    static final ForgeConfigSpec SPEC = BUILDER.build();
+    private static final ForgeConfigSpec.IntValue TRACE_BUFFER_SIZE = BUILDER
+            .comment("Number of trace entries kept in memory (rounded down to a power of two). The oldest entries are overwritten.")
+            .defineInRange("traceBufferSize", 4096, 256, 1 << 20);
+
+    private static final ForgeConfigSpec.DoubleValue TRACE_SAMPLE_RATE = BUILDER
+            .comment("Fraction of traced mining decisions that are recorded (1.0 = all).")
+            .defineInRange("traceSampleRate", 1.0, 0.0, 1.0);
+
+    private static final ForgeConfigSpec.IntValue TRACE_MAX_PER_SECOND = BUILDER
+            .comment("Maximum number of trace entries recorded per second across all players.")
+            .defineInRange("traceMaxPerSecond", 200, 1, 100000);
+
+    // Startup warm-up
+    private static final ForgeConfigSpec.BooleanValue ENABLE_STARTUP_WARMUP = BUILDER
+            .comment("Run the mining calculations over a sample of tools and block states when the server starts, so the first players to mine don't hit cold caches and interpreted code.")
+            .define("enableStartupWarmup", false);
+
+    private static final ForgeConfigSpec.IntValue WARMUP_BUDGET_MILLIS = BUILDER
+            .comment("Maximum time in milliseconds spent on the startup warm-up.")
+            .defineInRange("warmupBudgetMillis", 2000, 100, 60000);
+
+    // Metrics
+    private static final ForgeConfigSpec.BooleanValue ENABLE_METRICS = BUILDER
+            .comment("Collect counters and latency histograms for the mining handlers. When disabled, each instrumented call costs a single boolean check.")
+            .define("enableMetrics", false);
+
+    private static final ForgeConfigSpec.BooleanValue ENABLE_METRICS_JMX = BUILDER
+            .comment("Expose the metrics as JMX MBeans under the org.goldgomtech.betterexcavate domain (requires enableMetrics).")
+            .define("enableMetricsJmx", true);
+
+    private static final ForgeConfigSpec.ConfigValue<String> METRICS_TEXTFILE_PATH = BUILDER
+            .comment("File the metrics are periodically written to in Prometheus text format, for node_exporter's textfile collector (e.g. /var/lib/node_exporter/textfile_collector/betterexcavate.prom). Relative paths are resolved against the game directory. Empty disables the export.")
+            .define("metricsTextfilePath", "");
+
+    private static final ForgeConfigSpec.IntValue METRICS_EXPORT_INTERVAL_SECONDS = BUILDER
+            .comment("Interval in seconds between metrics textfile writes.")
+            .defineInRange("metricsExportIntervalSeconds", 15, 1, 3600);
+
+    // Block break journal
+    private static final ForgeConfigSpec.BooleanValue ENABLE_BREAK_JOURNAL = BUILDER
+            .comment("Record every survival block break decision (tick, dimension, position, block state, tool, damage, mining mode, mining duration) into a binary journal for balancing analysis. Records are written by a background thread; convert them with /betterexcavate journal export or the exportJournal Gradle task.")
+            .define("enableBreakJournal", false);
+
+    private static final ForgeConfigSpec.ConfigValue<String> BREAK_JOURNAL_DIRECTORY = BUILDER
+            .comment("Directory the journal files are written to. Relative paths are resolved against the game directory.")
+            .define("breakJournalDirectory", "betterexcavate/journal");
+
+    private static final ForgeConfigSpec.IntValue BREAK_JOURNAL_FILE_SIZE_MB = BUILDER
+            .comment("Size of each journal file in MiB. Each record takes 40 bytes; a new file is started when the current one is full. " +
+                    "Files are allocated at full size when they are created, so the journal uses up to breakJournalFileSizeMb * breakJournalMaxFiles MiB of disk.")
+            .defineInRange("breakJournalFileSizeMb", 64, 1, 2047);
+
+    private static final ForgeConfigSpec.IntValue BREAK_JOURNAL_MAX_FILES = BUILDER
+            .comment("Number of journal files kept. The oldest files are deleted when a new one is started.")
+            .defineInRange("breakJournalMaxFiles", 32, 1, 10000);
+
+    private static final ForgeConfigSpec.IntValue BREAK_JOURNAL_QUEUE_SIZE = BUILDER
+            .comment("Number of records that can wait for the writer thread (rounded down to a power of two). Records are dropped, not delayed, when the queue is full.")
+            .defineInRange("breakJournalQueueSize", 65536, 1024, 1 << 22);
+
+    // Shadow config
+    private static final ForgeConfigSpec.ConfigValue<String> SHADOW_CONFIG_FILE = BUILDER
+            .comment("Proposed config file (relative to the config directory) evaluated next to the active one on a sampled fraction of mining decisions. Only divergence statistics are collected, gameplay is unaffected. See /betterexcavate shadow status. Empty disables shadow evaluation.")
+            .define("shadowConfigFile", "");
+
+    private static final ForgeConfigSpec.IntValue SHADOW_BUDGET_MICROS_PER_SECOND = BUILDER
+            .comment("Server time in microseconds per second that shadow evaluation may spend. The sample rate adapts to stay within this budget.")
+            .defineInRange("shadowBudgetMicrosPerSecond", 2000, 10, 1_000_000);
+
+    // Chain mining
+    private static final ForgeConfigSpec.BooleanValue ENABLE_CHAIN_MINING = BUILDER
+            .comment("Break connected blocks of the same type (ore veins, tree trunks) after the player breaks one of them. Each block is checked against the tool hardness rules on its own and consumes durability.")
+            .define("enableChainMining", false);
+
+    private static final ForgeConfigSpec.BooleanValue CHAIN_MINING_REQUIRES_SNEAK = BUILDER
+            .comment("Only chain mine while the player is sneaking.")
+            .define("chainMiningRequiresSneak", true);
+
+    private static final ForgeConfigSpec.ConfigValue<List<? extends String>> CHAIN_MINING_BLOCKS = BUILDER
+            .comment("Blocks that can be chain mined. Entries are block ids or block tags prefixed with '#'.")
+            .defineListAllowEmpty("chainMiningBlocks", List.of("#forge:ores", "#minecraft:logs"), Config::validateBlockOrTag);
+
+    private static final ForgeConfigSpec.IntValue CHAIN_MINING_MAX_BLOCKS = BUILDER
+            .comment("Maximum number of extra blocks broken by one chain.")
+            .defineInRange("chainMiningMaxBlocks", 64, 1, 4096);
+
+    private static final ForgeConfigSpec.IntValue CHAIN_MINING_BLOCKS_PER_TICK = BUILDER
+            .comment("Maximum number of chain mined blocks broken per server tick, shared by all players. Larger chains continue over the following ticks.")
+            .defineInRange("chainMiningBlocksPerTick", 16, 1, 1024);
+
+    private static final ForgeConfigSpec.IntValue CHAIN_MINING_MICROS_PER_TICK = BUILDER
+            .comment("Server time in microseconds chain mining may spend per tick.")
+            .defineInRange("chainMiningMicrosPerTick", 2000, 50, 50000);
+
+    // Area mining
+    private static final ForgeConfigSpec.BooleanValue ENABLE_AREA_MINING = BUILDER
+            .comment("Let the tools listed in areaMiningTools break a square area perpendicular to the mined face. Only blocks the tool is the correct type for and hard enough to mine are included; the slowest of them sets the break time.")
+            .define("enableAreaMining", false);
+
+    private static final ForgeConfigSpec.ConfigValue<List<? extends String>> AREA_MINING_TOOLS = BUILDER
+            .comment("Area mining tools in format 'toolname:size', where size is 3 (3x3) or 5 (5x5), e.g. 'minecraft:netherite_pickaxe:3'.")
+            .defineListAllowEmpty("areaMiningTools", List.of(), Config::validateAreaToolConfig);
+
+    private static final ForgeConfigSpec.BooleanValue AREA_MINING_SNEAK_TO_DISABLE = BUILDER
+            .comment("Mine a single block while sneaking.")
+            .define("areaMiningSneakToDisable", true);
+
+    // Automation (FakePlayer) mining
+    private static final ForgeConfigSpec.BooleanValue AUTOMATION_FAST_PATH = BUILDER
+            .comment("Handle blocks broken by FakePlayers (quarries, drills, turtles) through a lean path: no mining session tracking, no raycasts, and decisions cached per item and block state. The settings below only apply to this path.")
+            .define("automationFastPath", true);
+
+    private static final ForgeConfigSpec.DoubleValue AUTOMATION_HARDNESS_MULTIPLIER = BUILDER
+            .comment("Multiplier applied to the tool hardness of FakePlayers.")
+            .defineInRange("automationHardnessMultiplier", 1.0, 0.01, 100.0);
+
+    private static final ForgeConfigSpec.DoubleValue AUTOMATION_SPEED_MULTIPLIER = BUILDER
+            .comment("Multiplier applied to the mining speed of FakePlayers.")
+            .defineInRange("automationSpeedMultiplier", 1.0, 0.01, 100.0);
+
+    private static final ForgeConfigSpec.BooleanValue AUTOMATION_DROP_CONTROL = BUILDER
+            .comment("Apply drop control (cancel unmineable blocks, no drops from slow mining) to FakePlayers. Requires enableDropControl.")
+            .define("automationDropControl", true);
+
+    private static final ForgeConfigSpec.BooleanValue AUTOMATION_DURABILITY_PENALTY = BUILDER
+            .comment("Apply the durability speed and hardness penalties to FakePlayer tools.")
+            .define("automationDurabilityPenalty", false);
+
+    private static final ForgeConfigSpec.BooleanValue AUTOMATION_COUNT_NEIGHBOURS = BUILDER
+            .comment("Apply the surrounding blocks speed modifier to FakePlayers. This needs a raycast per speed calculation, so their speed is then calculated through the normal path.")
+            .define("automationCountNeighbours", false);
+
+    // Tool hardness modifiers
+    private static final ForgeConfigSpec.ConfigValue<List<? extends String>> ENCHANTMENT_HARDNESS_MODIFIERS = BUILDER
+            .comment("Tool hardness modifiers per enchantment in format 'enchantment:perLevel'. The hardness is multiplied by (1 + perLevel * level), e.g. 'minecraft:efficiency:0.05' adds 5% per Efficiency level.")
+            .defineListAllowEmpty("enchantmentHardnessModifiers", List.of(), Config::validateEnchantmentModifier);
+
+    private static final ForgeConfigSpec.ConfigValue<List<? extends String>> NBT_HARDNESS_MODIFIERS = BUILDER
+            .comment("Tool hardness multipliers applied when a stack has an NBT tag, in format 'path:multiplier'. Nested tags are separated by dots, e.g. 'Unbreakable:1.5'.")
+            .defineListAllowEmpty("nbtHardnessModifiers", List.of(), Config::validateNbtModifier);
+
+    // Depth scaling
+    private static final ForgeConfigSpec.ConfigValue<List<? extends String>> DEPTH_HARDNESS_SCALING = BUILDER
+            .comment("Block hardness multipliers by dimension and Y level, in format 'dimension=curve'. The curve is a constant ('1.5'), "
+                    + "points interpolated linearly between them ('64:1.0,0:1.25,-64:1.5'), or 'depth(y0,base,perBlock)' which is base above y0 "
+                    + "and grows by perBlock for every block below it, e.g. 'minecraft:overworld=depth(0,1.0,0.01)'.")
+            .defineListAllowEmpty("depthHardnessScaling", List.of(), Config::validateDepthScaling);
+
+    // Hardness variance
+    private static final ForgeConfigSpec.DoubleValue HARDNESS_VARIANCE = BUILDER
+            .comment("Per-position block hardness variance as a fraction, e.g. 0.1 makes each block between 10% softer and 10% harder. "
+                    + "The factor is derived from the world seed, the block position and the block state, so it is the same every session and on client and server. 0 disables it.")
+            .defineInRange("hardnessVariance", 0.0, 0.0, 0.9);
+
+    // Client overlay
+    private static final ForgeConfigSpec.IntValue OVERLAY_RADIUS = BUILDER
+            .comment("Radius in chunk sections (16 blocks) around the player in which the client overlay highlights blocks the held tool cannot mine or can only slow-mine.")
+            .defineInRange("overlayRadius", 2, 1, 6);
+
+    public static final ForgeConfigSpec SPEC = BUILDER.build();
 
     // Tool hardness values
-    public static java.util.Map<String, Double> toolHardnessMap;
+    // 整体替换而不是原地修改，后台检测完成时原子地发布新映射
+    public static volatile java.util.Map<String, Double> toolHardnessMap;
     public static double defaultHardness;
     public static double hardnessMultiplier;
     public static boolean enableDropControl;
@@ -218,6 +384,127 @@ public class Config
     
     // Debug logging
     public static boolean enableDebugLogging;
+    public static int traceBufferSize;
+    public static double traceSampleRate;
+    public static int traceMaxPerSecond;
+
+    // Startup warm-up
+    public static boolean enableStartupWarmup;
+    public static int warmupBudgetMillis;
+
+    // Metrics
+    public static boolean enableMetrics;
+    public static boolean enableMetricsJmx;
+    public static String metricsTextfilePath;
+    public static int metricsExportIntervalSeconds;
+
+    // Block break journal
+    public static boolean enableBreakJournal;
+    public static String breakJournalDirectory;
+    public static int breakJournalFileSizeMb;
+    public static int breakJournalMaxFiles;
+    public static int breakJournalQueueSize;
+
+    // Shadow config
+    public static String shadowConfigFile;
+    public static int shadowBudgetMicrosPerSecond;
+
+    // Chain mining
+    public static boolean enableChainMining;
+    public static boolean chainMiningRequiresSneak;
+    public static List<? extends String> chainMiningBlocks = List.of();
+    public static int chainMiningMaxBlocks;
+    public static int chainMiningBlocksPerTick;
+    public static int chainMiningMicrosPerTick;
+
+    // Area mining
+    public static boolean enableAreaMining;
+    public static List<? extends String> areaMiningTools = List.of();
+    public static boolean areaMiningSneakToDisable;
+
+    // Automation (FakePlayer) mining
+    public static boolean automationFastPath;
+    public static double automationHardnessMultiplier;
+    public static double automationSpeedMultiplier;
+    public static boolean automationDropControl;
+    public static boolean automationDurabilityPenalty;
+    public static boolean automationCountNeighbours;
+
+    // Tool hardness modifiers
+    public static List<? extends String> enchantmentHardnessModifiers = List.of();
+    public static List<? extends String> nbtHardnessModifiers = List.of();
+
+    // Depth scaling
+    public static List<? extends String> depthHardnessScaling = List.of();
+
+    // Hardness variance
+    public static double hardnessVariance;
+
+    // Client overlay
+    public static int overlayRadius;
+
+    // 当前生效的编译硬度表（客户端连接远程服务器时为服务端同步来的版本）
+    public static volatile HardnessTables tables;
+
+    private static boolean validateBlockOrTag(final Object obj)
+    {
+        if (!(obj instanceof String entry)) {
+            return false;
+        }
+        return ResourceLocation.tryParse(entry.startsWith("#") ? entry.substring(1) : entry) != null;
+    }
+
+    private static boolean validateAreaToolConfig(final Object obj)
+    {
+        if (!(obj instanceof String configLine)) {
+            return false;
+        }
+        String[] parts = configLine.split(":");
+        return parts.length == 3 && (parts[2].equals("3") || parts[2].equals("5"));
+    }
+
+    private static boolean validateEnchantmentModifier(final Object obj)
+    {
+        if (!(obj instanceof String configLine)) {
+            return false;
+        }
+        int separator = configLine.lastIndexOf(':');
+        if (separator <= 0) {
+            return false;
+        }
+        try {
+            Double.parseDouble(configLine.substring(separator + 1));
+            return ResourceLocation.tryParse(configLine.substring(0, separator)) != null;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean validateNbtModifier(final Object obj)
+    {
+        if (!(obj instanceof String configLine)) {
+            return false;
+        }
+        int separator = configLine.lastIndexOf(':');
+        if (separator <= 0) {
+            return false;
+        }
+        try {
+            return Double.parseDouble(configLine.substring(separator + 1)) >= 0.0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean validateDepthScaling(final Object obj)
+    {
+        if (!(obj instanceof String configLine)) {
+            return false;
+        }
+        int separator = configLine.indexOf('=');
+        return separator > 0 && ResourceLocation.tryParse(configLine.substring(0, separator).trim()) != null
+                && DepthScaling.parse(configLine.substring(separator + 1)) != null;
+    }
 
     private static boolean validateToolConfig(final Object obj)
     {
@@ -260,219 +547,37 @@ public class Config
         return "linear".equals(method) || "inverse".equals(method) || "logarithmic".equals(method) || 
                "exponential".equals(method) || "quadratic".equals(method);
     }
-    
-    /**
-     * 自动检测并更新工具硬度配置
-     */
-    private static void autoDetectAndUpdateToolHardness() {
-        Logger logger = LoggerFactory.getLogger("BetterExcavate");
-        logger.info("[BetterExcavate] Starting automatic tool hardness detection...");
-        
-        java.util.List<String> newToolConfigs = new java.util.ArrayList<>(TOOL_HARDNESS_CONFIG.get());
-        int addedTools = 0;
-        
-        // 遍历所有注册的物品
-        for (Item item : ForgeRegistries.ITEMS) {
-            ResourceLocation itemId = ForgeRegistries.ITEMS.getKey(item);
-            if (itemId == null) continue;
-            
-            String toolName = itemId.toString();
-            
-            // 如果工具已在配置中，跳过
-            if (toolHardnessMap.containsKey(toolName)) continue;
-            
-            double hardness = -1;
-            
-            // 检查是否为分层工具（TieredItem）
-            if (item instanceof TieredItem tieredItem) {
-                boolean isSword = toolName.toLowerCase().contains("sword");
-                hardness = getTierHardness(tieredItem.getTier(), isSword);
-            } else {
-                // 检查是否为其他类型的挖掘工具
-                hardness = getToolHardnessByBehavior(item, toolName);
-            }
-            
-            if (hardness > 0) {
-                String configEntry = toolName + ":" + hardness;
-                newToolConfigs.add(configEntry);
-                toolHardnessMap.put(toolName, hardness);
-                addedTools++;
-                
-                logger.info("[BetterExcavate] Added tool: {} with hardness: {}", toolName, hardness);
-            }
-        }
-        
-        if (addedTools > 0) {
-            logger.info("[BetterExcavate] Auto-detected {} new tools and added to configuration", addedTools);
-            logger.info("[BetterExcavate] ================== NEW TOOL CONFIGURATIONS ==================");
-            logger.info("[BetterExcavate] Add the following lines to your config file under 'toolHardness':");
-            
-            // 只输出新添加的工具配置
-            for (String config : newToolConfigs) {
-                if (!TOOL_HARDNESS_CONFIG.get().contains(config)) {
-                    logger.info("[BetterExcavate] \"{}\"", config);
-                }
-            }
-            logger.info("[BetterExcavate] ============================================================");
-        } else {
-            logger.info("[BetterExcavate] No new tools detected, all known tools already configured");
-        }
-    }
-    
-    /**
-     * 根据工具等级获取对应的硬度值
-     */
-    private static double getTierHardness(net.minecraft.world.item.Tier tier) {
-        return getTierHardness(tier, false);
-    }
-    
+
     /**
-     * 根据工具等级获取对应的硬度值
-     * @param tier 工具等级
-     * @param isSword 是否为剑类武器
+     * 计算工具耐久磨损惩罚系数
+     * @param itemStack 工具物品堆栈
+     * @param maxPenalty 最大惩罚值 (0.0 到 1.0)
+     * @return 惩罚系数 (0.0 = 最大惩罚, 1.0 = 无惩罚)
      */
-    private static double getTierHardness(net.minecraft.world.item.Tier tier, boolean isSword) {
-        double baseHardness;
-        
-        // 根据原版工具等级分配基础硬度值
-        if (tier == Tiers.WOOD) {
-            baseHardness = 2.1;  // 木制工具
-        } else if (tier == Tiers.STONE) {
-            baseHardness = 3.5;  // 石制工具
-        } else if (tier == Tiers.IRON) {
-            baseHardness = 5.0;  // 铁制工具
-        } else if (tier == Tiers.GOLD) {
-            baseHardness = 2.1;  // 金工具（等级与木制相同）
-        } else if (tier == Tiers.DIAMOND) {
-            baseHardness = 60.0; // 钻石工具（可以挖掘黑曜石 硬度50）
-        } else if (tier == Tiers.NETHERITE) {
-            baseHardness = 110.0; // 下界合金工具
-        } else {
-            // 对于模组工具，根据其等级进行计算
-            int level = tier.getLevel();
-            if (level <= 0) {
-                baseHardness = 2.1; // 木制等级
-            } else if (level == 1) {
-                baseHardness = 3.5; // 石制等级
-            } else if (level == 2) {
-                baseHardness = 5.0; // 铁制等级
-            } else if (level == 3) {
-                baseHardness = 60.0; // 钻石等级
-            } else if (level == 4) {
-                baseHardness = 110.0; // 下界合金等级
-            } else {
-                // 超过下界合金等级，每级增加100
-                baseHardness = 110.0 + (level - 4) * 100.0;
-            }
-        }
-        
-        // 如果是剑类武器，硬度降低50%
-        if (isSword) {
-            baseHardness = baseHardness * 0.5;
-        }
-        
-        return baseHardness;
+    public static double calculateDurabilityPenalty(ItemStack itemStack, double maxPenalty) {
+        return calculateDurabilityPenalty(getWearPercentage(itemStack), maxPenalty);
     }
 
     /**
-     * 根据工具行为和名称推测工具硬度
+     * 获取工具的磨损百分比
+     * @param itemStack 工具物品堆栈
+     * @return 磨损百分比 (0.0 = 全新或不可损坏, 1.0 = 完全磨损)
      */
-    private static double getToolHardnessByBehavior(Item item, String toolName) {
-        // 创建物品堆栈用于测试
-        ItemStack stack = new ItemStack(item);
-        
-        // 测试对不同方块的挖掘速度来推测工具等级
-        float stoneSpeed = stack.getDestroySpeed(Blocks.STONE.defaultBlockState());
-        float ironSpeed = stack.getDestroySpeed(Blocks.IRON_ORE.defaultBlockState());
-        float diamondSpeed = stack.getDestroySpeed(Blocks.DIAMOND_ORE.defaultBlockState());
-        float obsidianSpeed = stack.getDestroySpeed(Blocks.OBSIDIAN.defaultBlockState());
-        
-        // 如果对石头有效果，认为是挖掘工具
-        if (stoneSpeed > 1.0f) {
-            // 根据对不同材料的挖掘效果推测等级
-            if (obsidianSpeed > 1.0f) {
-                return 60.0; // 钻石级别或更高（可以挖掘黑曜石）
-            } else if (diamondSpeed > 1.0f) {
-                return 5.0;  // 铁级别
-            } else if (ironSpeed > 1.0f) {
-                return 3.5;  // 石级别
-            } else {
-                return 2.1;  // 木级别
-            }
-        }
-        
-        // 根据工具名称推测（备用方案）
-        String lowerName = toolName.toLowerCase();
-        if (lowerName.contains("sword")) {
-            // 剑类工具挖掘硬度降低50%
-            if (lowerName.contains("wood")) return 1.0;
-            if (lowerName.contains("stone")) return 1.7;
-            if (lowerName.contains("iron")) return 2.5;
-            if (lowerName.contains("gold")) return 1.0;
-            if (lowerName.contains("diamond")) return 30.0;
-            if (lowerName.contains("netherite")) return 55.0;
-        } else {
-            // 其他工具保持原有硬度
-            if (lowerName.contains("wood")) return 2.1;
-            if (lowerName.contains("stone")) return 3.5;
-            if (lowerName.contains("iron")) return 5.0;
-            if (lowerName.contains("gold")) return 2.1;
-            if (lowerName.contains("diamond")) return 60.0;
-            if (lowerName.contains("netherite")) return 110.0;
-        }
-        
-        // 如果包含挖掘相关词汇，给予默认硬度
-        if (lowerName.contains("pickaxe") || lowerName.contains("axe") || 
-            lowerName.contains("shovel") || lowerName.contains("hoe") || 
-            lowerName.contains("sword") || lowerName.contains("tool")) {
-            return defaultHardness;
+    public static double getWearPercentage(ItemStack itemStack) {
+        if (itemStack.isEmpty() || !itemStack.isDamageableItem()) {
+            return 0.0;
         }
-        
-        return -1; // 不是挖掘工具
+        return (double) itemStack.getDamageValue() / itemStack.getMaxDamage();
     }
 
     /**
-     * 计算工具耐久磨损惩罚系数
-     * @param itemStack 工具物品堆栈
+     * 根据磨损百分比计算耐久磨损惩罚系数
+     * @param wearPercentage 磨损百分比 (0.0 = 全新, 1.0 = 完全磨损)
      * @param maxPenalty 最大惩罚值 (0.0 到 1.0)
      * @return 惩罚系数 (0.0 = 最大惩罚, 1.0 = 无惩罚)
      */
-    public static double calculateDurabilityPenalty(ItemStack itemStack, double maxPenalty) {
-        if (itemStack.isEmpty() || !itemStack.isDamageableItem()) {
-            return 1.0; // 无惩罚
-        }
-
-        // 计算磨损百分比 (0.0 = 全新, 1.0 = 完全磨损)
-        double wearPercentage = (double) itemStack.getDamageValue() / itemStack.getMaxDamage();
-        
-        // 根据配置的曲线类型计算惩罚
-        double penaltyFactor;
-        switch (durabilityPenaltyCurve) {
-            case "linear":
-                // 线性惩罚：磨损与惩罚成正比
-                penaltyFactor = wearPercentage;
-                break;
-            case "quadratic":
-                // 二次惩罚：早期惩罚较小，后期急剧增加
-                penaltyFactor = wearPercentage * wearPercentage;
-                break;
-            case "exponential":
-                // 指数惩罚：使用自然对数函数，前50%惩罚因子控制在0.2以内
-                // 使用 f(x) = ln(1 + 0.65x) / ln(1.65) 的函数，确保50%磨损时惩罚因子为0.2
-                if (wearPercentage == 0) {
-                    penaltyFactor = 0;
-                } else {
-                    penaltyFactor = Math.log(1 + 0.65 * wearPercentage) / Math.log(1.65);
-                }
-                break;
-            default:
-                penaltyFactor = wearPercentage;
-                break;
-        }
-        
-        // 应用最大惩罚限制并返回乘数 (1.0 - 惩罚 = 剩余效果)
-        double actualPenalty = penaltyFactor * maxPenalty;
-        return 1.0 - actualPenalty;
+    public static double calculateDurabilityPenalty(double wearPercentage, double maxPenalty) {
+        return MiningCalculator.calculateDurabilityPenalty(wearPercentage, maxPenalty, durabilityPenaltyCurve);
     }
 
     /**
@@ -676,69 +781,8 @@ public class Config
      * @return 挖掘速度 (方块/秒)
      */
     public static float calculateCustomMiningSpeed(double toolHardness, float blockHardness) {
-        if (blockHardness <= 0) {
-            return (float) baseMiningSpeed; // 对于硬度为0的方块，使用基础速度
-        }
-        
-        double hardnessRatio = toolHardness / blockHardness;
-        double speedMultiplier;
-        
-        switch (speedCalculationMethod) {
-            case "linear":
-                // 线性关系：速度与硬度比值成正比
-                speedMultiplier = Math.min(hardnessRatio, maxSpeedMultiplierCustom);
-                break;
-                
-            case "inverse":
-                // 反比关系：速度与方块硬度成反比，与工具硬度成正比
-                speedMultiplier = toolHardness / Math.max(blockHardness, 0.1);
-                speedMultiplier = Math.min(speedMultiplier, maxSpeedMultiplierCustom);
-                break;
-                
-            case "logarithmic":
-                // 对数关系：速度增长随硬度比值对数增长
-                if (hardnessRatio <= 0.001) {
-                    speedMultiplier = 0.01;
-                } else {
-                    speedMultiplier = Math.log(hardnessRatio + 1) / Math.log(2);
-                    speedMultiplier = Math.min(speedMultiplier, maxSpeedMultiplierCustom);
-                }
-                break;
-                
-            case "exponential":
-                // 指数关系：当硬度比值大于1时，速度指数增长
-                if (hardnessRatio >= 1.0) {
-                    speedMultiplier = Math.pow(hardnessRatio, 0.5); // 开方，避免增长过快
-                } else {
-                    speedMultiplier = hardnessRatio * hardnessRatio; // 平方，低硬度时速度下降更快
-                }
-                speedMultiplier = Math.min(speedMultiplier, maxSpeedMultiplierCustom);
-                break;
-                
-            case "quadratic":
-                // 二次关系：平滑的二次曲线
-                if (hardnessRatio >= 1.0) {
-                    // 当硬度足够时，速度适度增长
-                    double excess = hardnessRatio - 1.0;
-                    speedMultiplier = 1.0 + excess * 0.5; // 线性增长，但增长率较低
-                } else {
-                    // 当硬度不足时，速度二次下降
-                    speedMultiplier = hardnessRatio * hardnessRatio;
-                }
-                speedMultiplier = Math.min(speedMultiplier, maxSpeedMultiplierCustom);
-                break;
-                
-            default:
-                // 默认使用对数方法
-                speedMultiplier = Math.log(hardnessRatio + 1) / Math.log(2);
-                speedMultiplier = Math.min(speedMultiplier, maxSpeedMultiplierCustom);
-                break;
-        }
-        
-        // 确保速度不会过低
-        speedMultiplier = Math.max(speedMultiplier, 0.01);
-        
-        return (float) (baseMiningSpeed * speedMultiplier);
+        return MiningCalculator.calculateCustomMiningSpeed(toolHardness, blockHardness,
+                speedCalculationMethod, baseMiningSpeed, maxSpeedMultiplierCustom);
     }
 
     /**
@@ -748,43 +792,24 @@ public class Config
      * @return 挖掘模式：0=无法挖掘，1=正常挖掘有掉落，2=缓慢挖掘无掉落
      */
     public static int getMiningMode(float blockHardness, double effectiveToolHardness) {
-        if (blockHardness < 0) {
-            return 0; // 不可破坏的方块
-        }
-        
-        double maxMineableHardness = effectiveToolHardness * hardnessMultiplier;
-        
-        if (blockHardness <= maxMineableHardness) {
-            return 1; // 正常挖掘，有掉落物
-        }
-        
-        if (enableSlowMiningWithoutDrops) {
-            double maxSlowMineableHardness = effectiveToolHardness * slowMiningHardnessMultiplier;
-            if (blockHardness <= maxSlowMineableHardness) {
-                return 2; // 缓慢挖掘，无掉落物
-            }
-        }
-        
-        return 0; // 无法挖掘
+        return MiningCalculator.getMiningMode(blockHardness, effectiveToolHardness,
+                hardnessMultiplier, enableSlowMiningWithoutDrops, slowMiningHardnessMultiplier);
     }
 
     @SubscribeEvent
     static void onLoad(final ModConfigEvent event)
+    {
+        load();
+    }
+
+    /**
+     * 从配置文件读取所有值并重新编译硬度表
+     * 除配置加载/重载外，客户端断开远程服务器时也会调用以恢复本地配置
+     */
+    public static void load()
     {
         // Load tool hardness configuration
-        toolHardnessMap = new java.util.HashMap<>();
-        for (String configLine : TOOL_HARDNESS_CONFIG.get()) {
-            String[] parts = configLine.split(":");
-            if (parts.length == 3) {
-                try {
-                    String toolName = parts[0] + ":" + parts[1];
-                    double hardness = Double.parseDouble(parts[2]);
-                    toolHardnessMap.put(toolName, hardness);
-                } catch (NumberFormatException e) {
-                    // Skip invalid entries
-                }
-            }
-        }
+        java.util.Map<String, Double> configuredHardness = parseToolHardness(TOOL_HARDNESS_CONFIG.get());
         defaultHardness = DEFAULT_HARDNESS.get();
         hardnessMultiplier = HARDNESS_MULTIPLIER.get();
         enableDropControl = ENABLE_DROP_CONTROL.get();
@@ -811,10 +836,89 @@ public class Config
         slowMiningHardnessMultiplier = SLOW_MINING_HARDNESS_MULTIPLIER.get();
         slowMiningSpeedPenalty = SLOW_MINING_SPEED_PENALTY.get();
         enableDebugLogging = ENABLE_DEBUG_LOGGING.get();
-        
-        // 自动检测工具硬度
+        traceBufferSize = TRACE_BUFFER_SIZE.get();
+        traceSampleRate = TRACE_SAMPLE_RATE.get();
+        traceMaxPerSecond = TRACE_MAX_PER_SECOND.get();
+        MiningTrace.applyConfig();
+        enableStartupWarmup = ENABLE_STARTUP_WARMUP.get();
+        warmupBudgetMillis = WARMUP_BUDGET_MILLIS.get();
+        enableMetrics = ENABLE_METRICS.get();
+        enableMetricsJmx = ENABLE_METRICS_JMX.get();
+        metricsTextfilePath = METRICS_TEXTFILE_PATH.get();
+        metricsExportIntervalSeconds = METRICS_EXPORT_INTERVAL_SECONDS.get();
+        Metrics.applyConfig();
+        enableBreakJournal = ENABLE_BREAK_JOURNAL.get();
+        breakJournalDirectory = BREAK_JOURNAL_DIRECTORY.get();
+        breakJournalFileSizeMb = BREAK_JOURNAL_FILE_SIZE_MB.get();
+        breakJournalMaxFiles = BREAK_JOURNAL_MAX_FILES.get();
+        breakJournalQueueSize = BREAK_JOURNAL_QUEUE_SIZE.get();
+        BreakJournal.applyConfig();
+        shadowConfigFile = SHADOW_CONFIG_FILE.get();
+        shadowBudgetMicrosPerSecond = SHADOW_BUDGET_MICROS_PER_SECOND.get();
+        ShadowEvaluator.applyConfig();
+        enableChainMining = ENABLE_CHAIN_MINING.get();
+        chainMiningRequiresSneak = CHAIN_MINING_REQUIRES_SNEAK.get();
+        chainMiningBlocks = CHAIN_MINING_BLOCKS.get();
+        chainMiningMaxBlocks = CHAIN_MINING_MAX_BLOCKS.get();
+        chainMiningBlocksPerTick = CHAIN_MINING_BLOCKS_PER_TICK.get();
+        chainMiningMicrosPerTick = CHAIN_MINING_MICROS_PER_TICK.get();
+        ChainMining.applyConfig();
+        enableAreaMining = ENABLE_AREA_MINING.get();
+        areaMiningTools = AREA_MINING_TOOLS.get();
+        areaMiningSneakToDisable = AREA_MINING_SNEAK_TO_DISABLE.get();
+        AreaMining.applyConfig();
+        automationFastPath = AUTOMATION_FAST_PATH.get();
+        automationHardnessMultiplier = AUTOMATION_HARDNESS_MULTIPLIER.get();
+        automationSpeedMultiplier = AUTOMATION_SPEED_MULTIPLIER.get();
+        automationDropControl = AUTOMATION_DROP_CONTROL.get();
+        automationDurabilityPenalty = AUTOMATION_DURABILITY_PENALTY.get();
+        automationCountNeighbours = AUTOMATION_COUNT_NEIGHBOURS.get();
+        AutomationMining.applyConfig();
+        enchantmentHardnessModifiers = ENCHANTMENT_HARDNESS_MODIFIERS.get();
+        nbtHardnessModifiers = NBT_HARDNESS_MODIFIERS.get();
+        depthHardnessScaling = DEPTH_HARDNESS_SCALING.get();
+        hardnessVariance = HARDNESS_VARIANCE.get();
+        overlayRadius = OVERLAY_RADIUS.get();
+        StackHardness.invalidate();
+        
+        // 自动检测工具硬度：立即合并已有的探测结果，新物品在后台探测完成后发布
         if (autoDetectToolHardness) {
-            autoDetectAndUpdateToolHardness();
+            ToolHardnessDetector.detect(configuredHardness);
+        } else {
+            ToolHardnessDetector.cancel();
+            toolHardnessMap = configuredHardness;
+        }
+
+        compileTables();
+    }
+
+    /**
+     * 解析 'toolname:hardness' 格式的工具硬度配置，跳过无效条目
+     */
+    public static java.util.Map<String, Double> parseToolHardness(List<? extends String> configLines)
+    {
+        java.util.Map<String, Double> configuredHardness = new java.util.HashMap<>();
+        for (String configLine : configLines) {
+            String[] parts = configLine.split(":");
+            if (parts.length == 3) {
+                try {
+                    String toolName = parts[0] + ":" + parts[1];
+                    double hardness = Double.parseDouble(parts[2]);
+                    configuredHardness.put(toolName, hardness);
+                } catch (NumberFormatException e) {
+                    // Skip invalid entries
+                }
+            }
         }
+        return configuredHardness;
+    }
+
+    /**
+     * 根据当前的配置值重新编译硬度表，并通知同步逻辑
+     */
+    public static void compileTables()
+    {
+        tables = HardnessTables.compile();
+        HardnessSync.onTablesCompiled(tables);
     }
 }
@@ -0,0 +1,149 @@
+package org.goldgomtech.betterexcavate;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按维度和Y坐标缩放方块硬度
+ * 每个维度配置一条曲线（常数、折线上的点或深度公式），硬度表中只保存曲线本身；
+ * 第一次在某个维度查询时按该维度的高度范围把曲线展开成以 (y - minBuildHeight) 为下标的 float[]，
+ * 之后每次查询只是一次数组读取。硬度表重新编译后展开的结果整体丢弃
+ */
+public final class DepthScaling {
+
+    /**
+     * 一条缩放曲线
+     */
+    public interface Curve {
+        float multiplierAt(int y);
+    }
+
+    // 没有配置曲线的维度
+    private static final float[] NONE = new float[0];
+
+    private record Compiled(HardnessTables tables, Map<ResourceKey<Level>, float[]> levels) {
+    }
+
+    private static volatile Compiled compiled;
+
+    private DepthScaling() {
+    }
+
+    /**
+     * 解析曲线，格式为以下之一：
+     * 常数 '1.5'；
+     * 点 'y:倍数,y:倍数,...'，点之间线性插值，两端之外保持端点的值；
+     * 深度公式 'depth(y0,基础倍数,每格增量)'，y0以上为基础倍数，每向下一格增加增量
+     * @return 曲线，格式无效时返回null
+     */
+    public static Curve parse(String spec) {
+        String text = spec.trim();
+        try {
+            if (text.startsWith("depth(") && text.endsWith(")")) {
+                String[] args = text.substring(6, text.length() - 1).split(",");
+                if (args.length != 3) {
+                    return null;
+                }
+                int topY = Integer.parseInt(args[0].trim());
+                float base = Float.parseFloat(args[1].trim());
+                float perBlock = Float.parseFloat(args[2].trim());
+                return y -> Math.max(0.0f, base + perBlock * Math.max(0, topY - y));
+            }
+            if (text.indexOf(':') < 0) {
+                float constant = Float.parseFloat(text);
+                return constant < 0 ? null : y -> constant;
+            }
+            String[] points = text.split(",");
+            int[] ys = new int[points.length];
+            float[] multipliers = new float[points.length];
+            Integer[] order = new Integer[points.length];
+            for (int i = 0; i < points.length; i++) {
+                String[] parts = points[i].split(":");
+                if (parts.length != 2) {
+                    return null;
+                }
+                ys[i] = Integer.parseInt(parts[0].trim());
+                multipliers[i] = Float.parseFloat(parts[1].trim());
+                if (multipliers[i] < 0) {
+                    return null;
+                }
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(ys[a], ys[b]));
+            int[] sortedY = new int[points.length];
+            float[] sortedMultipliers = new float[points.length];
+            for (int i = 0; i < points.length; i++) {
+                sortedY[i] = ys[order[i]];
+                sortedMultipliers[i] = multipliers[order[i]];
+            }
+            return y -> interpolate(sortedY, sortedMultipliers, y);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static float interpolate(int[] ys, float[] multipliers, int y) {
+        if (y <= ys[0]) {
+            return multipliers[0];
+        }
+        int last = ys.length - 1;
+        if (y >= ys[last]) {
+            return multipliers[last];
+        }
+        for (int i = 1; i <= last; i++) {
+            if (y <= ys[i]) {
+                float t = (float) (y - ys[i - 1]) / (ys[i] - ys[i - 1]);
+                return multipliers[i - 1] + (multipliers[i] - multipliers[i - 1]) * t;
+            }
+        }
+        return multipliers[last];
+    }
+
+    /**
+     * 方块硬度在该维度该高度的倍数，没有配置曲线时为1
+     */
+    public static float getMultiplier(Level level, int y) {
+        HardnessTables tables = Config.tables;
+        if (tables == null || !tables.hasDepthScaling()) {
+            return 1.0f;
+        }
+        Compiled current = compiled;
+        if (current == null || current.tables() != tables) {
+            current = new Compiled(tables, new ConcurrentHashMap<>());
+            compiled = current;
+        }
+        ResourceKey<Level> dimension = level.dimension();
+        float[] table = current.levels().get(dimension);
+        if (table == null) {
+            table = expand(tables.getDepthCurve(dimension.location()), level);
+            current.levels().put(dimension, table);
+        }
+        if (table.length == 0) {
+            return 1.0f;
+        }
+        int index = y - level.getMinBuildHeight();
+        // 建筑高度之外（例如虚空中）使用边界上的值
+        if (index < 0) {
+            index = 0;
+        } else if (index >= table.length) {
+            index = table.length - 1;
+        }
+        return table[index];
+    }
+
+    private static float[] expand(Curve curve, Level level) {
+        if (curve == null) {
+            return NONE;
+        }
+        int minY = level.getMinBuildHeight();
+        float[] table = new float[Math.max(level.getHeight(), 1)];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = curve.multiplierAt(minY + i);
+        }
+        return table;
+    }
+}
@@ -0,0 +1,57 @@
+package org.goldgomtech.betterexcavate;
+
+import org.goldgomtech.betterexcavate.metrics.Histogram;
+import org.goldgomtech.betterexcavate.metrics.Metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 处理器耗时统计
+ * 累计BetterExcavate事件处理器和Mixin中花费的时间，供负载测试按tick读取；
+ * 启用指标时同时记录到对应处理器的耗时直方图。
+ * 两者都未启用时每次调用只有布尔判断
+ */
+public final class HandlerTimer {
+
+    private static volatile boolean enabled;
+    private static final LongAdder elapsedNanos = new LongAdder();
+
+    private HandlerTimer() {
+    }
+
+    /**
+     * 处理器开始时调用
+     * @return 开始时间，未启用时为0
+     */
+    public static long start() {
+        return enabled || Metrics.enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * 处理器结束时调用，传入start()的返回值
+     * @param histogram 该处理器的耗时直方图
+     */
+    public static void stop(long start, Histogram histogram) {
+        if (start != 0L) {
+            long elapsed = System.nanoTime() - start;
+            if (enabled) {
+                elapsedNanos.add(elapsed);
+            }
+            if (Metrics.enabled) {
+                histogram.record(elapsed);
+            }
+        }
+    }
+
+    public static void setEnabled(boolean value) {
+        elapsedNanos.reset();
+        enabled = value;
+    }
+
+    /**
+     * 读取并清零自上次调用以来累计的耗时
+     */
+    public static long drainNanos() {
+        return elapsedNanos.sumThenReset();
+    }
+}
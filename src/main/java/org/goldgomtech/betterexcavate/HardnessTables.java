@@ -0,0 +1,699 @@
+package org.goldgomtech.betterexcavate;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.enchantment.Enchantment;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译后的硬度表
+ * 将Config中的工具硬度映射、曲线参数和开关压缩为不可变快照，
+ * 以紧凑的二进制形式在服务端与客户端之间同步，并用内容哈希标识
+ */
+public final class HardnessTables {
+
+    /** 二进制格式版本，格式变化时递增 */
+    private static final int FORMAT_VERSION = 4;
+    /** 解码时允许的最大物品ID，防止损坏的数据导致巨大的数组分配 */
+    private static final int MAX_TOOL_ID = 1 << 20;
+    /** 解码时允许的最大修正条目数 */
+    private static final int MAX_MODIFIERS = 1024;
+
+    static final String[] SPEED_CURVE_TYPES = {"linear", "logarithmic"};
+    static final String[] DURABILITY_PENALTY_CURVES = {"linear", "quadratic", "exponential"};
+    static final String[] SPEED_CALCULATION_METHODS = {"linear", "inverse", "logarithmic", "exponential", "quadratic"};
+
+    // 开关位
+    private static final int FLAG_DROP_CONTROL = 1;
+    private static final int FLAG_TOOL_DAMAGE_ON_INVALID_MINING = 1 << 1;
+    private static final int FLAG_SURROUNDING_BLOCKS_MODIFIER = 1 << 2;
+    private static final int FLAG_DURABILITY_SPEED_PENALTY = 1 << 3;
+    private static final int FLAG_DURABILITY_HARDNESS_PENALTY = 1 << 4;
+    private static final int FLAG_WRONG_TOOL_PENALTY = 1 << 5;
+    private static final int FLAG_BYPASS_VANILLA_TOOL_RESTRICTIONS = 1 << 6;
+    private static final int FLAG_CUSTOM_SPEED_CALCULATION = 1 << 7;
+    private static final int FLAG_SLOW_MINING_WITHOUT_DROPS = 1 << 8;
+
+    /** 按物品数字ID索引的工具硬度，NaN表示未配置（使用默认硬度） */
+    private final double[] toolHardness;
+    private final int flags;
+    private final byte speedCurveType;
+    private final byte durabilityPenaltyCurve;
+    private final byte speedCalculationMethod;
+
+    private final double defaultHardness;
+    private final double hardnessMultiplier;
+    private final double toolDamageHardnessThreshold;
+    private final double minSpeedMultiplier;
+    private final double maxSpeedMultiplier;
+    private final double maxDurabilitySpeedPenalty;
+    private final double maxDurabilityHardnessPenalty;
+    private final double wrongToolSpeedPenalty;
+    private final double baseMiningSpeed;
+    private final double maxSpeedMultiplierCustom;
+    private final double slowMiningHardnessMultiplier;
+    private final double slowMiningSpeedPenalty;
+    private final double hardnessVariance;
+
+    /** 附魔修正：附魔ID、每级的硬度增量比例，以及解析后的附魔（未知附魔为null） */
+    private final String[] enchantmentIds;
+    private final double[] enchantmentPerLevel;
+    private final Enchantment[] enchantments;
+    /** NBT修正：以点分隔的标签路径和存在该标签时的硬度倍数 */
+    private final String[] nbtPaths;
+    private final String[][] nbtPathKeys;
+    private final double[] nbtMultipliers;
+    /** 深度缩放：维度ID和对应的曲线定义，以及解析后的曲线（无效定义不包含在内） */
+    private final String[] depthDimensions;
+    private final String[] depthCurveSpecs;
+    private final Map<ResourceLocation, DepthScaling.Curve> depthCurves;
+
+    /** 二进制形式，序列化一次后缓存，发送时直接复用 */
+    private final byte[] encoded;
+    private final long hash;
+
+    private HardnessTables(double[] toolHardness, int flags, byte speedCurveType, byte durabilityPenaltyCurve,
+                           byte speedCalculationMethod, double[] parameters, String[] enchantmentIds,
+                           double[] enchantmentPerLevel, String[] nbtPaths, double[] nbtMultipliers,
+                           String[] depthDimensions, String[] depthCurveSpecs) {
+        this.toolHardness = toolHardness;
+        this.flags = flags;
+        this.speedCurveType = speedCurveType;
+        this.durabilityPenaltyCurve = durabilityPenaltyCurve;
+        this.speedCalculationMethod = speedCalculationMethod;
+        this.defaultHardness = parameters[0];
+        this.hardnessMultiplier = parameters[1];
+        this.toolDamageHardnessThreshold = parameters[2];
+        this.minSpeedMultiplier = parameters[3];
+        this.maxSpeedMultiplier = parameters[4];
+        this.maxDurabilitySpeedPenalty = parameters[5];
+        this.maxDurabilityHardnessPenalty = parameters[6];
+        this.wrongToolSpeedPenalty = parameters[7];
+        this.baseMiningSpeed = parameters[8];
+        this.maxSpeedMultiplierCustom = parameters[9];
+        this.slowMiningHardnessMultiplier = parameters[10];
+        this.slowMiningSpeedPenalty = parameters[11];
+        this.hardnessVariance = parameters[12];
+        this.enchantmentIds = enchantmentIds;
+        this.enchantmentPerLevel = enchantmentPerLevel;
+        this.enchantments = new Enchantment[enchantmentIds.length];
+        for (int i = 0; i < enchantmentIds.length; i++) {
+            ResourceLocation id = ResourceLocation.tryParse(enchantmentIds[i]);
+            if (id != null && ForgeRegistries.ENCHANTMENTS.containsKey(id)) {
+                enchantments[i] = ForgeRegistries.ENCHANTMENTS.getValue(id);
+            }
+        }
+        this.nbtPaths = nbtPaths;
+        this.nbtPathKeys = new String[nbtPaths.length][];
+        for (int i = 0; i < nbtPaths.length; i++) {
+            nbtPathKeys[i] = nbtPaths[i].split("\\.");
+        }
+        this.nbtMultipliers = nbtMultipliers;
+        this.depthDimensions = depthDimensions;
+        this.depthCurveSpecs = depthCurveSpecs;
+        this.depthCurves = new HashMap<>();
+        for (int i = 0; i < depthDimensions.length; i++) {
+            ResourceLocation dimension = ResourceLocation.tryParse(depthDimensions[i]);
+            DepthScaling.Curve curve = DepthScaling.parse(depthCurveSpecs[i]);
+            if (dimension != null && curve != null) {
+                depthCurves.put(dimension, curve);
+            }
+        }
+        this.encoded = encode();
+        this.hash = hashBytes(encoded);
+    }
+
+    /**
+     * 根据Config当前加载的值编译硬度表
+     * 物品数字ID依赖注册表同步状态，因此客户端在连接服务器后需要重新编译
+     */
+    public static HardnessTables compile() {
+        return compile(Config.toolHardnessMap, Map.of());
+    }
+
+    /**
+     * 用给定的配置值编译硬度表，不影响Config当前生效的值
+     * @param hardnessMap 工具ID -> 硬度
+     * @param values 配置项名称 -> 值（与配置文件中的键相同），缺少的项使用Config当前的值
+     */
+    public static HardnessTables compile(Map<String, Double> hardnessMap, Map<String, ?> values) {
+        int maxId = -1;
+        int[] ids = new int[hardnessMap.size()];
+        double[] hardnessValues = new double[ids.length];
+        int count = 0;
+        for (Map.Entry<String, Double> entry : hardnessMap.entrySet()) {
+            ResourceLocation itemId = ResourceLocation.tryParse(entry.getKey());
+            if (itemId == null || !ForgeRegistries.ITEMS.containsKey(itemId)) {
+                continue;
+            }
+            int id = Item.getId(ForgeRegistries.ITEMS.getValue(itemId));
+            ids[count] = id;
+            hardnessValues[count] = entry.getValue();
+            count++;
+            maxId = Math.max(maxId, id);
+        }
+
+        double[] toolHardness = new double[maxId + 1];
+        Arrays.fill(toolHardness, Double.NaN);
+        for (int i = 0; i < count; i++) {
+            toolHardness[ids[i]] = hardnessValues[i];
+        }
+
+        int flags = 0;
+        if (bool(values, "enableDropControl", Config.enableDropControl)) flags |= FLAG_DROP_CONTROL;
+        if (bool(values, "enableToolDamageOnInvalidMining", Config.enableToolDamageOnInvalidMining)) flags |= FLAG_TOOL_DAMAGE_ON_INVALID_MINING;
+        if (bool(values, "enableSurroundingBlocksModifier", Config.enableSurroundingBlocksModifier)) flags |= FLAG_SURROUNDING_BLOCKS_MODIFIER;
+        if (bool(values, "enableDurabilitySpeedPenalty", Config.enableDurabilitySpeedPenalty)) flags |= FLAG_DURABILITY_SPEED_PENALTY;
+        if (bool(values, "enableDurabilityHardnessPenalty", Config.enableDurabilityHardnessPenalty)) flags |= FLAG_DURABILITY_HARDNESS_PENALTY;
+        if (bool(values, "enableWrongToolPenalty", Config.enableWrongToolPenalty)) flags |= FLAG_WRONG_TOOL_PENALTY;
+        if (bool(values, "bypassVanillaToolRestrictions", Config.bypassVanillaToolRestrictions)) flags |= FLAG_BYPASS_VANILLA_TOOL_RESTRICTIONS;
+        if (bool(values, "useCustomSpeedCalculation", Config.useCustomSpeedCalculation)) flags |= FLAG_CUSTOM_SPEED_CALCULATION;
+        if (bool(values, "enableSlowMiningWithoutDrops", Config.enableSlowMiningWithoutDrops)) flags |= FLAG_SLOW_MINING_WITHOUT_DROPS;
+
+        double[] parameters = {
+                number(values, "defaultHardness", Config.defaultHardness),
+                number(values, "hardnessMultiplier", Config.hardnessMultiplier),
+                number(values, "toolDamageHardnessThreshold", Config.toolDamageHardnessThreshold),
+                number(values, "minSpeedMultiplier", Config.minSpeedMultiplier),
+                number(values, "maxSpeedMultiplier", Config.maxSpeedMultiplier),
+                number(values, "maxDurabilitySpeedPenalty", Config.maxDurabilitySpeedPenalty),
+                number(values, "maxDurabilityHardnessPenalty", Config.maxDurabilityHardnessPenalty),
+                number(values, "wrongToolSpeedPenalty", Config.wrongToolSpeedPenalty),
+                number(values, "baseMiningSpeed", Config.baseMiningSpeed),
+                number(values, "maxSpeedMultiplierCustom", Config.maxSpeedMultiplierCustom),
+                number(values, "slowMiningHardnessMultiplier", Config.slowMiningHardnessMultiplier),
+                number(values, "slowMiningSpeedPenalty", Config.slowMiningSpeedPenalty),
+                number(values, "hardnessVariance", Config.hardnessVariance)
+        };
+
+        List<String> enchantmentIds = new ArrayList<>();
+        List<Double> enchantmentPerLevel = new ArrayList<>();
+        for (String entry : list(values, "enchantmentHardnessModifiers", Config.enchantmentHardnessModifiers)) {
+            int separator = entry.lastIndexOf(':');
+            try {
+                double perLevel = Double.parseDouble(entry.substring(separator + 1));
+                enchantmentIds.add(entry.substring(0, Math.max(separator, 0)));
+                enchantmentPerLevel.add(perLevel);
+            } catch (NumberFormatException e) {
+                // 跳过无效条目
+            }
+        }
+        List<String> nbtPaths = new ArrayList<>();
+        List<Double> nbtMultipliers = new ArrayList<>();
+        for (String entry : list(values, "nbtHardnessModifiers", Config.nbtHardnessModifiers)) {
+            int separator = entry.lastIndexOf(':');
+            try {
+                double multiplier = Double.parseDouble(entry.substring(separator + 1));
+                if (separator > 0) {
+                    nbtPaths.add(entry.substring(0, separator));
+                    nbtMultipliers.add(multiplier);
+                }
+            } catch (NumberFormatException e) {
+                // 跳过无效条目
+            }
+        }
+        List<String> depthDimensions = new ArrayList<>();
+        List<String> depthCurveSpecs = new ArrayList<>();
+        for (String entry : list(values, "depthHardnessScaling", Config.depthHardnessScaling)) {
+            int separator = entry.indexOf('=');
+            if (separator > 0) {
+                depthDimensions.add(entry.substring(0, separator).trim());
+                depthCurveSpecs.add(entry.substring(separator + 1).trim());
+            }
+        }
+
+        return new HardnessTables(toolHardness, flags,
+                indexOf(SPEED_CURVE_TYPES, string(values, "speedCurveType", Config.speedCurveType)),
+                indexOf(DURABILITY_PENALTY_CURVES, string(values, "durabilityPenaltyCurve", Config.durabilityPenaltyCurve)),
+                indexOf(SPEED_CALCULATION_METHODS, string(values, "speedCalculationMethod", Config.speedCalculationMethod)),
+                parameters, enchantmentIds.toArray(new String[0]),
+                enchantmentPerLevel.stream().mapToDouble(Double::doubleValue).toArray(),
+                nbtPaths.toArray(new String[0]), nbtMultipliers.stream().mapToDouble(Double::doubleValue).toArray(),
+                depthDimensions.toArray(new String[0]), depthCurveSpecs.toArray(new String[0]));
+    }
+
+    /**
+     * 从二进制形式还原硬度表
+     * @throws IllegalArgumentException 如果格式版本不匹配或数据损坏
+     */
+    public static HardnessTables decode(byte[] data) {
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.wrappedBuffer(data));
+        int version = buf.readVarInt();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported hardness table format " + version);
+        }
+
+        int flags = buf.readVarInt();
+        byte speedCurveType = checkIndex(buf.readByte(), SPEED_CURVE_TYPES);
+        byte durabilityPenaltyCurve = checkIndex(buf.readByte(), DURABILITY_PENALTY_CURVES);
+        byte speedCalculationMethod = checkIndex(buf.readByte(), SPEED_CALCULATION_METHODS);
+
+        double[] parameters = new double[13];
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = buf.readDouble();
+        }
+
+        // 稀疏存储：只写入已配置的条目，ID按升序差分编码
+        int length = buf.readVarInt();
+        int entries = buf.readVarInt();
+        if (length < 0 || length > MAX_TOOL_ID || entries < 0 || entries > length) {
+            throw new IllegalArgumentException("Invalid tool table size " + length + "/" + entries);
+        }
+        double[] toolHardness = new double[length];
+        Arrays.fill(toolHardness, Double.NaN);
+        int id = 0;
+        for (int i = 0; i < entries; i++) {
+            id += buf.readVarInt();
+            if (id >= length) {
+                throw new IllegalArgumentException("Tool id " + id + " out of range " + length);
+            }
+            toolHardness[id] = buf.readDouble();
+        }
+
+        int enchantmentCount = readCount(buf);
+        String[] enchantmentIds = new String[enchantmentCount];
+        double[] enchantmentPerLevel = new double[enchantmentCount];
+        for (int i = 0; i < enchantmentCount; i++) {
+            enchantmentIds[i] = buf.readUtf();
+            enchantmentPerLevel[i] = buf.readDouble();
+        }
+        int nbtCount = readCount(buf);
+        String[] nbtPaths = new String[nbtCount];
+        double[] nbtMultipliers = new double[nbtCount];
+        for (int i = 0; i < nbtCount; i++) {
+            nbtPaths[i] = buf.readUtf();
+            nbtMultipliers[i] = buf.readDouble();
+        }
+        int depthCount = readCount(buf);
+        String[] depthDimensions = new String[depthCount];
+        String[] depthCurveSpecs = new String[depthCount];
+        for (int i = 0; i < depthCount; i++) {
+            depthDimensions[i] = buf.readUtf();
+            depthCurveSpecs[i] = buf.readUtf();
+        }
+
+        return new HardnessTables(toolHardness, flags, speedCurveType, durabilityPenaltyCurve,
+                speedCalculationMethod, parameters, enchantmentIds, enchantmentPerLevel, nbtPaths, nbtMultipliers,
+                depthDimensions, depthCurveSpecs);
+    }
+
+    private byte[] encode() {
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+        buf.writeVarInt(FORMAT_VERSION);
+        buf.writeVarInt(flags);
+        buf.writeByte(speedCurveType);
+        buf.writeByte(durabilityPenaltyCurve);
+        buf.writeByte(speedCalculationMethod);
+
+        buf.writeDouble(defaultHardness);
+        buf.writeDouble(hardnessMultiplier);
+        buf.writeDouble(toolDamageHardnessThreshold);
+        buf.writeDouble(minSpeedMultiplier);
+        buf.writeDouble(maxSpeedMultiplier);
+        buf.writeDouble(maxDurabilitySpeedPenalty);
+        buf.writeDouble(maxDurabilityHardnessPenalty);
+        buf.writeDouble(wrongToolSpeedPenalty);
+        buf.writeDouble(baseMiningSpeed);
+        buf.writeDouble(maxSpeedMultiplierCustom);
+        buf.writeDouble(slowMiningHardnessMultiplier);
+        buf.writeDouble(slowMiningSpeedPenalty);
+        buf.writeDouble(hardnessVariance);
+
+        int entries = 0;
+        for (double value : toolHardness) {
+            if (!Double.isNaN(value)) entries++;
+        }
+        buf.writeVarInt(toolHardness.length);
+        buf.writeVarInt(entries);
+        int previousId = 0;
+        for (int id = 0; id < toolHardness.length; id++) {
+            if (!Double.isNaN(toolHardness[id])) {
+                buf.writeVarInt(id - previousId);
+                buf.writeDouble(toolHardness[id]);
+                previousId = id;
+            }
+        }
+
+        buf.writeVarInt(enchantmentIds.length);
+        for (int i = 0; i < enchantmentIds.length; i++) {
+            buf.writeUtf(enchantmentIds[i]);
+            buf.writeDouble(enchantmentPerLevel[i]);
+        }
+        buf.writeVarInt(nbtPaths.length);
+        for (int i = 0; i < nbtPaths.length; i++) {
+            buf.writeUtf(nbtPaths[i]);
+            buf.writeDouble(nbtMultipliers[i]);
+        }
+        buf.writeVarInt(depthDimensions.length);
+        for (int i = 0; i < depthDimensions.length; i++) {
+            buf.writeUtf(depthDimensions[i]);
+            buf.writeUtf(depthCurveSpecs[i]);
+        }
+
+        byte[] data = new byte[buf.readableBytes()];
+        buf.readBytes(data);
+        buf.release();
+        return data;
+    }
+
+    /**
+     * 将硬度表写回Config的静态字段，使挖掘逻辑使用这份数据
+     * 用于客户端应用服务端同步来的硬度表
+     */
+    public void applyToConfig() {
+        Map<String, Double> hardnessMap = new HashMap<>();
+        for (int id = 0; id < toolHardness.length; id++) {
+            if (Double.isNaN(toolHardness[id])) continue;
+            Item item = Item.byId(id);
+            // 未知ID会回退为空气，跳过
+            if (Item.getId(item) != id) continue;
+            ResourceLocation itemId = ForgeRegistries.ITEMS.getKey(item);
+            if (itemId != null) {
+                hardnessMap.put(itemId.toString(), toolHardness[id]);
+            }
+        }
+
+        Config.toolHardnessMap = hardnessMap;
+        Config.defaultHardness = defaultHardness;
+        Config.hardnessMultiplier = hardnessMultiplier;
+        Config.toolDamageHardnessThreshold = toolDamageHardnessThreshold;
+        Config.minSpeedMultiplier = minSpeedMultiplier;
+        Config.maxSpeedMultiplier = maxSpeedMultiplier;
+        Config.maxDurabilitySpeedPenalty = maxDurabilitySpeedPenalty;
+        Config.maxDurabilityHardnessPenalty = maxDurabilityHardnessPenalty;
+        Config.wrongToolSpeedPenalty = wrongToolSpeedPenalty;
+        Config.baseMiningSpeed = baseMiningSpeed;
+        Config.maxSpeedMultiplierCustom = maxSpeedMultiplierCustom;
+        Config.slowMiningHardnessMultiplier = slowMiningHardnessMultiplier;
+        Config.slowMiningSpeedPenalty = slowMiningSpeedPenalty;
+        Config.hardnessVariance = hardnessVariance;
+
+        Config.enableDropControl = (flags & FLAG_DROP_CONTROL) != 0;
+        Config.enableToolDamageOnInvalidMining = (flags & FLAG_TOOL_DAMAGE_ON_INVALID_MINING) != 0;
+        Config.enableSurroundingBlocksModifier = (flags & FLAG_SURROUNDING_BLOCKS_MODIFIER) != 0;
+        Config.enableDurabilitySpeedPenalty = (flags & FLAG_DURABILITY_SPEED_PENALTY) != 0;
+        Config.enableDurabilityHardnessPenalty = (flags & FLAG_DURABILITY_HARDNESS_PENALTY) != 0;
+        Config.enableWrongToolPenalty = (flags & FLAG_WRONG_TOOL_PENALTY) != 0;
+        Config.bypassVanillaToolRestrictions = (flags & FLAG_BYPASS_VANILLA_TOOL_RESTRICTIONS) != 0;
+        Config.useCustomSpeedCalculation = (flags & FLAG_CUSTOM_SPEED_CALCULATION) != 0;
+        Config.enableSlowMiningWithoutDrops = (flags & FLAG_SLOW_MINING_WITHOUT_DROPS) != 0;
+
+        Config.speedCurveType = SPEED_CURVE_TYPES[speedCurveType];
+        Config.durabilityPenaltyCurve = DURABILITY_PENALTY_CURVES[durabilityPenaltyCurve];
+        Config.speedCalculationMethod = SPEED_CALCULATION_METHODS[speedCalculationMethod];
+
+        List<String> enchantmentModifiers = new ArrayList<>(enchantmentIds.length);
+        for (int i = 0; i < enchantmentIds.length; i++) {
+            enchantmentModifiers.add(enchantmentIds[i] + ":" + enchantmentPerLevel[i]);
+        }
+        List<String> nbtModifiers = new ArrayList<>(nbtPaths.length);
+        for (int i = 0; i < nbtPaths.length; i++) {
+            nbtModifiers.add(nbtPaths[i] + ":" + nbtMultipliers[i]);
+        }
+        Config.enchantmentHardnessModifiers = enchantmentModifiers;
+        Config.nbtHardnessModifiers = nbtModifiers;
+
+        List<String> depthScaling = new ArrayList<>(depthDimensions.length);
+        for (int i = 0; i < depthDimensions.length; i++) {
+            depthScaling.add(depthDimensions[i] + "=" + depthCurveSpecs[i]);
+        }
+        Config.depthHardnessScaling = depthScaling;
+    }
+
+    /**
+     * 获取二进制形式（调用方不应修改返回的数组）
+     */
+    public byte[] getEncoded() {
+        return encoded;
+    }
+
+    /**
+     * 二进制形式的内容哈希，用于判断客户端是否已持有相同的硬度表
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * 已配置硬度的工具数量
+     */
+    public int getToolCount() {
+        int count = 0;
+        for (double value : toolHardness) {
+            if (!Double.isNaN(value)) count++;
+        }
+        return count;
+    }
+
+    /**
+     * 获取工具硬度，未配置的物品使用默认硬度
+     */
+    public double getToolHardness(Item item) {
+        int id = Item.getId(item);
+        if (id >= 0 && id < toolHardness.length) {
+            double value = toolHardness[id];
+            if (!Double.isNaN(value)) {
+                return value;
+            }
+        }
+        return defaultHardness;
+    }
+
+    /**
+     * 物品是否在硬度表中配置了硬度
+     */
+    public boolean isConfigured(Item item) {
+        int id = Item.getId(item);
+        return id >= 0 && id < toolHardness.length && !Double.isNaN(toolHardness[id]);
+    }
+
+    /**
+     * 是否配置了附魔或NBT硬度修正
+     */
+    public boolean hasStackModifiers() {
+        return enchantments.length != 0 || nbtPaths.length != 0;
+    }
+
+    /**
+     * 按物品堆的附魔和NBT修正工具硬度
+     * 每个附魔按 (1 + 每级增量 * 等级) 相乘，每个存在的NBT标签按其倍数相乘，结果不小于0
+     */
+    public double applyStackModifiers(double toolHardness, ItemStack stack) {
+        CompoundTag tag = stack.getTag();
+        if (tag == null || !hasStackModifiers()) {
+            return toolHardness;
+        }
+        double result = toolHardness;
+        for (int i = 0; i < enchantments.length; i++) {
+            if (enchantments[i] != null) {
+                int level = stack.getEnchantmentLevel(enchantments[i]);
+                if (level > 0) {
+                    result *= Math.max(0.0, 1.0 + enchantmentPerLevel[i] * level);
+                }
+            }
+        }
+        for (int i = 0; i < nbtPathKeys.length; i++) {
+            if (hasPath(tag, nbtPathKeys[i])) {
+                result *= nbtMultipliers[i];
+            }
+        }
+        return Math.max(0.0, result);
+    }
+
+    /**
+     * 是否为任何维度配置了深度缩放
+     */
+    public boolean hasDepthScaling() {
+        return !depthCurves.isEmpty();
+    }
+
+    /**
+     * 获取维度的深度缩放曲线
+     * @return 曲线，未配置时为null
+     */
+    public DepthScaling.Curve getDepthCurve(ResourceLocation dimension) {
+        return depthCurves.get(dimension);
+    }
+
+    private static boolean hasPath(CompoundTag tag, String[] keys) {
+        Tag current = tag;
+        for (String key : keys) {
+            if (!(current instanceof CompoundTag compound)) {
+                return false;
+            }
+            current = compound.get(key);
+            if (current == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isDropControlEnabled() {
+        return (flags & FLAG_DROP_CONTROL) != 0;
+    }
+
+    public boolean isToolDamageOnInvalidMiningEnabled() {
+        return (flags & FLAG_TOOL_DAMAGE_ON_INVALID_MINING) != 0;
+    }
+
+    public boolean isSurroundingBlocksModifierEnabled() {
+        return (flags & FLAG_SURROUNDING_BLOCKS_MODIFIER) != 0;
+    }
+
+    public boolean isDurabilitySpeedPenaltyEnabled() {
+        return (flags & FLAG_DURABILITY_SPEED_PENALTY) != 0;
+    }
+
+    public boolean isDurabilityHardnessPenaltyEnabled() {
+        return (flags & FLAG_DURABILITY_HARDNESS_PENALTY) != 0;
+    }
+
+    public boolean isWrongToolPenaltyEnabled() {
+        return (flags & FLAG_WRONG_TOOL_PENALTY) != 0;
+    }
+
+    public boolean isBypassVanillaToolRestrictions() {
+        return (flags & FLAG_BYPASS_VANILLA_TOOL_RESTRICTIONS) != 0;
+    }
+
+    public boolean isCustomSpeedCalculation() {
+        return (flags & FLAG_CUSTOM_SPEED_CALCULATION) != 0;
+    }
+
+    public boolean isSlowMiningWithoutDropsEnabled() {
+        return (flags & FLAG_SLOW_MINING_WITHOUT_DROPS) != 0;
+    }
+
+    public String getSpeedCurveType() {
+        return SPEED_CURVE_TYPES[speedCurveType];
+    }
+
+    public String getDurabilityPenaltyCurve() {
+        return DURABILITY_PENALTY_CURVES[durabilityPenaltyCurve];
+    }
+
+    public String getSpeedCalculationMethod() {
+        return SPEED_CALCULATION_METHODS[speedCalculationMethod];
+    }
+
+    public double getDefaultHardness() {
+        return defaultHardness;
+    }
+
+    public double getHardnessMultiplier() {
+        return hardnessMultiplier;
+    }
+
+    public double getToolDamageHardnessThreshold() {
+        return toolDamageHardnessThreshold;
+    }
+
+    public double getMinSpeedMultiplier() {
+        return minSpeedMultiplier;
+    }
+
+    public double getMaxSpeedMultiplier() {
+        return maxSpeedMultiplier;
+    }
+
+    public double getMaxDurabilitySpeedPenalty() {
+        return maxDurabilitySpeedPenalty;
+    }
+
+    public double getMaxDurabilityHardnessPenalty() {
+        return maxDurabilityHardnessPenalty;
+    }
+
+    public double getWrongToolSpeedPenalty() {
+        return wrongToolSpeedPenalty;
+    }
+
+    public double getBaseMiningSpeed() {
+        return baseMiningSpeed;
+    }
+
+    public double getMaxSpeedMultiplierCustom() {
+        return maxSpeedMultiplierCustom;
+    }
+
+    public double getSlowMiningHardnessMultiplier() {
+        return slowMiningHardnessMultiplier;
+    }
+
+    public double getSlowMiningSpeedPenalty() {
+        return slowMiningSpeedPenalty;
+    }
+
+    public double getHardnessVariance() {
+        return hardnessVariance;
+    }
+
+    /**
+     * 64位FNV-1a哈希
+     */
+    static long hashBytes(byte[] data) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : data) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private static boolean bool(Map<String, ?> values, String key, boolean fallback) {
+        Object value = values.get(key);
+        return value instanceof Boolean b ? b : fallback;
+    }
+
+    private static double number(Map<String, ?> values, String key, double fallback) {
+        Object value = values.get(key);
+        return value instanceof Number n ? n.doubleValue() : fallback;
+    }
+
+    private static String string(Map<String, ?> values, String key, String fallback) {
+        Object value = values.get(key);
+        return value instanceof String s ? s : fallback;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<? extends String> list(Map<String, ?> values, String key, List<? extends String> fallback) {
+        Object value = values.get(key);
+        return value instanceof List<?> l ? (List<? extends String>) l : fallback;
+    }
+
+    private static int readCount(FriendlyByteBuf buf) {
+        int count = buf.readVarInt();
+        if (count < 0 || count > MAX_MODIFIERS) {
+            throw new IllegalArgumentException("Invalid modifier count " + count);
+        }
+        return count;
+    }
+
+    private static byte indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return (byte) i;
+            }
+        }
+        return 0;
+    }
+
+    private static byte checkIndex(byte index, String[] values) {
+        if (index < 0 || index >= values.length) {
+            throw new IllegalArgumentException("Invalid option index " + index);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,48 @@
+package org.goldgomtech.betterexcavate;
+
+import net.minecraft.world.level.Level;
+import org.goldgomtech.betterexcavate.mixin.BiomeManagerAccessor;
+
+/**
+ * 按位置确定的方块硬度随机波动
+ * 波动系数由世界种子的哈希、打包的方块坐标和方块状态ID经过整数哈希得到，
+ * 同一个方块在每次进入游戏时、在服务端和客户端上都相同。计算只有几次乘法和移位，不分配对象也不使用Random
+ */
+public final class HardnessVariance {
+
+    private HardnessVariance() {
+    }
+
+    /**
+     * 方块硬度的波动系数，范围 [1 - variance, 1 + variance)，未启用时为1
+     * @param packedPos BlockPos.asLong
+     * @param stateId Block.getId(state)
+     */
+    public static float getFactor(Level level, long packedPos, int stateId) {
+        HardnessTables tables = Config.tables;
+        if (tables == null) {
+            return 1.0f;
+        }
+        double variance = tables.getHardnessVariance();
+        if (variance <= 0.0) {
+            return 1.0f;
+        }
+        long seed = ((BiomeManagerAccessor) level.getBiomeManager()).betterexcavate$getBiomeZoomSeed();
+        // 取高53位得到 [0, 1) 的均匀分布，再映射到 [-1, 1)
+        double unit = (hash(seed, packedPos, stateId) >>> 11) * 0x1.0p-53;
+        return (float) (1.0 + variance * (unit * 2.0 - 1.0));
+    }
+
+    /**
+     * 把三个输入混合后经过MurmurHash3的64位终结步骤
+     */
+    static long hash(long seed, long packedPos, int stateId) {
+        long h = seed ^ packedPos * 0x9E3779B97F4A7C15L ^ stateId * 0xC2B2AE3D27D4EB4FL;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,328 @@
+package org.goldgomtech.betterexcavate;
+
+/**
+ * 挖掘速度计算
+ * InventoryMixin中与世界状态无关的纯数值部分，输入全部为基本类型，
+ * 配置参数来自硬度表快照或显式传入，便于在Mixin之外（基准测试、预热、离线评估等）
+ * 用任意一份配置运行完整的计算流程
+ */
+public final class MiningCalculator {
+
+    /** 错误工具类型时的工具硬度系数（降低20%） */
+    public static final double WRONG_TOOL_HARDNESS_FACTOR = 0.8;
+
+    /** 表示未统计周围方块（功能关闭或没有瞄准方块） */
+    public static final int NO_SURROUNDING_COUNT = -1;
+
+    private MiningCalculator() {
+    }
+
+    /**
+     * 计算最终挖掘速度
+     * @param tables 使用的配置
+     * @param vanillaSpeed 原版计算的挖掘速度
+     * @param toolSpeed 工具本身对该方块的挖掘速度（不需要绕过原版限制时可传入vanillaSpeed）
+     * @param hasTool 是否手持物品
+     * @param toolHardness 工具硬度（未应用任何惩罚）
+     * @param wearPercentage 工具磨损百分比 (0.0 到 1.0)
+     * @param wrongTool 是否为错误的工具类型
+     * @param blockHardness 方块硬度，必须 >= 0
+     * @param identicalBlocks 周围相同方块数量 (0-6)，未统计时为 {@link #NO_SURROUNDING_COUNT}
+     * @return 最终挖掘速度
+     */
+    public static float calculateDestroySpeed(HardnessTables tables, float vanillaSpeed, float toolSpeed, boolean hasTool,
+                                              double toolHardness, double wearPercentage, boolean wrongTool,
+                                              float blockHardness, int identicalBlocks) {
+        float originalSpeed = resolveBaseSpeed(tables, vanillaSpeed, toolSpeed, hasTool);
+        double effectiveToolHardness = getEffectiveToolHardness(tables, toolHardness, wearPercentage, hasTool, wrongTool);
+
+        // 根据配置选择速度计算方法
+        float finalSpeed;
+        if (tables.isCustomSpeedCalculation()) {
+            // 使用自定义速度计算，完全基于硬度计算
+            finalSpeed = calculateCustomMiningSpeed(effectiveToolHardness, blockHardness, tables.getSpeedCalculationMethod(),
+                    tables.getBaseMiningSpeed(), tables.getMaxSpeedMultiplierCustom());
+        } else {
+            // 使用原有的基于原版速度的修正方法
+            double hardnessRatio = effectiveToolHardness / blockHardness;
+            finalSpeed = originalSpeed * calculateSpeedMultiplier(hardnessRatio, tables.getHardnessMultiplier());
+        }
+
+        // 周围方块修正
+        float surroundingMultiplier = 1.0f;
+        if (tables.isSurroundingBlocksModifierEnabled() && identicalBlocks != NO_SURROUNDING_COUNT) {
+            surroundingMultiplier = calculateSurroundingBlocksMultiplier(tables, identicalBlocks);
+        }
+
+        // 耐久度速度惩罚
+        float durabilitySpeedMultiplier = 1.0f;
+        if (tables.isDurabilitySpeedPenaltyEnabled() && hasTool) {
+            durabilitySpeedMultiplier = (float) calculateDurabilityPenalty(wearPercentage,
+                    tables.getMaxDurabilitySpeedPenalty(), tables.getDurabilityPenaltyCurve());
+        }
+
+        // 错误工具类型惩罚（速度惩罚）
+        float wrongToolMultiplier = 1.0f;
+        if (tables.isWrongToolPenaltyEnabled() && wrongTool) {
+            wrongToolMultiplier = 1.0f - (float) tables.getWrongToolSpeedPenalty();
+        }
+
+        return finalSpeed * surroundingMultiplier * durabilitySpeedMultiplier * wrongToolMultiplier;
+    }
+
+    /**
+     * 根据配置决定是否绕过原版的工具类型限制
+     * @return 用于后续计算的基础速度
+     */
+    public static float resolveBaseSpeed(HardnessTables tables, float vanillaSpeed, float toolSpeed, boolean hasTool) {
+        if (!hasTool) {
+            return vanillaSpeed;
+        }
+        if (tables.isBypassVanillaToolRestrictions()) {
+            // 如果工具速度比原版计算的速度更高，说明原版施加了限制
+            // 特殊情况：原版强制为1.0但工具本身有挖掘能力
+            if (toolSpeed > vanillaSpeed || (toolSpeed > 1.0f && vanillaSpeed == 1.0f)) {
+                return toolSpeed;
+            }
+        } else if (vanillaSpeed == 1.0f && toolSpeed > 1.0f) {
+            // 不绕过原版限制时，只在检测到明显的错误工具惩罚时才调整
+            return toolSpeed;
+        }
+        return vanillaSpeed;
+    }
+
+    /**
+     * 应用耐久度惩罚和错误工具类型惩罚后的有效工具硬度
+     */
+    public static double getEffectiveToolHardness(HardnessTables tables, double toolHardness, double wearPercentage,
+                                                  boolean hasTool, boolean wrongTool) {
+        double effectiveToolHardness = toolHardness;
+        if (tables.isDurabilityHardnessPenaltyEnabled() && hasTool) {
+            effectiveToolHardness *= calculateDurabilityPenalty(wearPercentage,
+                    tables.getMaxDurabilityHardnessPenalty(), tables.getDurabilityPenaltyCurve());
+        }
+        if (tables.isWrongToolPenaltyEnabled() && wrongTool) {
+            effectiveToolHardness *= WRONG_TOOL_HARDNESS_FACTOR;
+        }
+        return effectiveToolHardness;
+    }
+
+    /**
+     * 使用ln()曲线计算挖掘速度修正系数
+     * @param hardnessRatio 工具硬度/方块硬度的比值
+     * @param multiplier 硬度倍数配置
+     * @return 速度修正系数 (0.0 到 1.0+)
+     */
+    public static float calculateSpeedMultiplier(double hardnessRatio, double multiplier) {
+        // 如果工具硬度足够（比值 >= 倍数），保持原速度或稍微提升
+        if (hardnessRatio >= multiplier) {
+            // 可以稍微提升速度，但不要过分
+            return Math.min(1.0f + (float)(hardnessRatio - multiplier) * 0.1f, 2.0f);
+        }
+
+        // 如果工具硬度不足，使用ln()曲线急剧降低速度
+        // 当hardnessRatio接近0时，速度接近0
+        // 当hardnessRatio = multiplier时，速度 = 1
+        double x = hardnessRatio / multiplier;
+
+        if (x <= 0.001) {
+            // 极小的比值，几乎无法挖掘
+            return 0.001f;
+        }
+
+        // 使用 ln(x + 1) / ln(2) 的变形，使得x=1时结果为1，x=0时结果为0
+        // 进一步调整为更陡峭的曲线
+        double logValue = Math.log(x * Math.E + 1) / Math.E;
+
+        // 再应用一个平方来让曲线更陡峭
+        float result = (float)(logValue * logValue);
+
+        // 确保结果在合理范围内
+        return Math.max(0.001f, Math.min(result, 1.0f));
+    }
+
+    /**
+     * 根据周围相同方块数量计算速度修正系数
+     * @param identicalBlocks 周围相同方块数量 (0-6)
+     * @return 速度修正系数
+     */
+    public static float calculateSurroundingBlocksMultiplier(HardnessTables tables, int identicalBlocks) {
+        double minSpeedMultiplier = tables.getMinSpeedMultiplier();
+        double maxSpeedMultiplier = tables.getMaxSpeedMultiplier();
+        if (identicalBlocks == 0) {
+            return (float) maxSpeedMultiplier;
+        }
+
+        // 计算归一化的方块数量 (0到1之间)
+        double normalizedCount = identicalBlocks / 6.0;
+
+        double multiplier;
+        if ("logarithmic".equals(tables.getSpeedCurveType())) {
+            // 对数曲线：开始下降很快，后面趋于平缓
+            // 使用 1 - log(1 + x * 9) / log(10) 这样当x=0时结果为1，当x=1时结果约为0
+            multiplier = 1.0 - Math.log(1 + normalizedCount * 9) / Math.log(10);
+        } else {
+            // 线性曲线：均匀下降
+            multiplier = 1.0 - normalizedCount;
+        }
+
+        // 将结果映射到配置的范围内
+        double range = maxSpeedMultiplier - minSpeedMultiplier;
+        multiplier = minSpeedMultiplier + multiplier * range;
+
+        return (float) Math.max(minSpeedMultiplier, Math.min(multiplier, maxSpeedMultiplier));
+    }
+
+    /**
+     * 根据磨损百分比计算耐久磨损惩罚系数
+     * @param wearPercentage 磨损百分比 (0.0 = 全新, 1.0 = 完全磨损)
+     * @param maxPenalty 最大惩罚值 (0.0 到 1.0)
+     * @param curve 惩罚曲线：linear、quadratic 或 exponential
+     * @return 惩罚系数 (0.0 = 最大惩罚, 1.0 = 无惩罚)
+     */
+    public static double calculateDurabilityPenalty(double wearPercentage, double maxPenalty, String curve) {
+        // 根据配置的曲线类型计算惩罚
+        double penaltyFactor;
+        switch (curve) {
+            case "linear":
+                // 线性惩罚：磨损与惩罚成正比
+                penaltyFactor = wearPercentage;
+                break;
+            case "quadratic":
+                // 二次惩罚：早期惩罚较小，后期急剧增加
+                penaltyFactor = wearPercentage * wearPercentage;
+                break;
+            case "exponential":
+                // 指数惩罚：使用自然对数函数，前50%惩罚因子控制在0.2以内
+                // 使用 f(x) = ln(1 + 0.65x) / ln(1.65) 的函数，确保50%磨损时惩罚因子为0.2
+                if (wearPercentage == 0) {
+                    penaltyFactor = 0;
+                } else {
+                    penaltyFactor = Math.log(1 + 0.65 * wearPercentage) / Math.log(1.65);
+                }
+                break;
+            default:
+                penaltyFactor = wearPercentage;
+                break;
+        }
+
+        // 应用最大惩罚限制并返回乘数 (1.0 - 惩罚 = 剩余效果)
+        double actualPenalty = penaltyFactor * maxPenalty;
+        return 1.0 - actualPenalty;
+    }
+
+    /**
+     * 计算自定义挖掘速度
+     * @param toolHardness 工具硬度
+     * @param blockHardness 方块硬度
+     * @param method 计算方法：linear、inverse、logarithmic、exponential 或 quadratic
+     * @param baseMiningSpeed 基础挖掘速度
+     * @param maxSpeedMultiplierCustom 速度倍数上限
+     * @return 挖掘速度 (方块/秒)
+     */
+    public static float calculateCustomMiningSpeed(double toolHardness, float blockHardness, String method,
+                                                   double baseMiningSpeed, double maxSpeedMultiplierCustom) {
+        if (blockHardness <= 0) {
+            return (float) baseMiningSpeed; // 对于硬度为0的方块，使用基础速度
+        }
+
+        double hardnessRatio = toolHardness / blockHardness;
+        double speedMultiplier;
+
+        switch (method) {
+            case "linear":
+                // 线性关系：速度与硬度比值成正比
+                speedMultiplier = Math.min(hardnessRatio, maxSpeedMultiplierCustom);
+                break;
+
+            case "inverse":
+                // 反比关系：速度与方块硬度成反比，与工具硬度成正比
+                speedMultiplier = toolHardness / Math.max(blockHardness, 0.1);
+                speedMultiplier = Math.min(speedMultiplier, maxSpeedMultiplierCustom);
+                break;
+
+            case "logarithmic":
+                // 对数关系：速度增长随硬度比值对数增长
+                if (hardnessRatio <= 0.001) {
+                    speedMultiplier = 0.01;
+                } else {
+                    speedMultiplier = Math.log(hardnessRatio + 1) / Math.log(2);
+                    speedMultiplier = Math.min(speedMultiplier, maxSpeedMultiplierCustom);
+                }
+                break;
+
+            case "exponential":
+                // 指数关系：当硬度比值大于1时，速度指数增长
+                if (hardnessRatio >= 1.0) {
+                    speedMultiplier = Math.pow(hardnessRatio, 0.5); // 开方，避免增长过快
+                } else {
+                    speedMultiplier = hardnessRatio * hardnessRatio; // 平方，低硬度时速度下降更快
+                }
+                speedMultiplier = Math.min(speedMultiplier, maxSpeedMultiplierCustom);
+                break;
+
+            case "quadratic":
+                // 二次关系：平滑的二次曲线
+                if (hardnessRatio >= 1.0) {
+                    // 当硬度足够时，速度适度增长
+                    double excess = hardnessRatio - 1.0;
+                    speedMultiplier = 1.0 + excess * 0.5; // 线性增长，但增长率较低
+                } else {
+                    // 当硬度不足时，速度二次下降
+                    speedMultiplier = hardnessRatio * hardnessRatio;
+                }
+                speedMultiplier = Math.min(speedMultiplier, maxSpeedMultiplierCustom);
+                break;
+
+            default:
+                // 默认使用对数方法
+                speedMultiplier = Math.log(hardnessRatio + 1) / Math.log(2);
+                speedMultiplier = Math.min(speedMultiplier, maxSpeedMultiplierCustom);
+                break;
+        }
+
+        // 确保速度不会过低
+        speedMultiplier = Math.max(speedMultiplier, 0.01);
+
+        return (float) (baseMiningSpeed * speedMultiplier);
+    }
+
+    /**
+     * 检查挖掘模式
+     * @param blockHardness 方块硬度
+     * @param effectiveToolHardness 有效工具硬度
+     * @param hardnessMultiplier 硬度倍数
+     * @param slowMiningWithoutDrops 是否启用缓慢挖掘无掉落
+     * @param slowMiningHardnessMultiplier 缓慢挖掘的硬度倍数
+     * @return 挖掘模式：0=无法挖掘，1=正常挖掘有掉落，2=缓慢挖掘无掉落
+     */
+    public static int getMiningMode(float blockHardness, double effectiveToolHardness, double hardnessMultiplier,
+                                    boolean slowMiningWithoutDrops, double slowMiningHardnessMultiplier) {
+        if (blockHardness < 0) {
+            return 0; // 不可破坏的方块
+        }
+
+        double maxMineableHardness = effectiveToolHardness * hardnessMultiplier;
+
+        if (blockHardness <= maxMineableHardness) {
+            return 1; // 正常挖掘，有掉落物
+        }
+
+        if (slowMiningWithoutDrops) {
+            double maxSlowMineableHardness = effectiveToolHardness * slowMiningHardnessMultiplier;
+            if (blockHardness <= maxSlowMineableHardness) {
+                return 2; // 缓慢挖掘，无掉落物
+            }
+        }
+
+        return 0; // 无法挖掘
+    }
+
+    /**
+     * 按给定配置检查挖掘模式
+     */
+    public static int getMiningMode(HardnessTables tables, float blockHardness, double effectiveToolHardness) {
+        return getMiningMode(blockHardness, effectiveToolHardness, tables.getHardnessMultiplier(),
+                tables.isSlowMiningWithoutDropsEnabled(), tables.getSlowMiningHardnessMultiplier());
+    }
+}
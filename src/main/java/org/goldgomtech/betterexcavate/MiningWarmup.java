@@ -0,0 +1,169 @@
+package org.goldgomtech.betterexcavate;
+
+import net.minecraft.core.BlockPos;
+import com.mojang.authlib.GameProfile;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.common.util.FakePlayer;
+import net.minecraftforge.common.util.FakePlayerFactory;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 服务器启动预热
+ * 在玩家加入前用一组有代表性的（工具 × 方块状态）组合运行挖掘计算，
+ * 填充查找表和缓存，并让JIT提前编译挖掘热路径，避免首批玩家挖掘时出现tick卡顿
+ */
+public final class MiningWarmup {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    /** 参与预热的方块状态数量上限，按步长从注册表中均匀抽样 */
+    private static final int MAX_BLOCK_STATES = 1024;
+
+    /** 每执行这么多次计算检查一次时间预算 */
+    private static final int BUDGET_CHECK_INTERVAL = 64;
+
+    private static final GameProfile WARMUP_PROFILE = new GameProfile(
+            UUID.nameUUIDFromBytes("betterexcavate-warmup".getBytes(StandardCharsets.UTF_8)), "[BetterExcavate Warmup]");
+
+    private MiningWarmup() {
+    }
+
+    public static void run(MinecraftServer server) {
+        if (!Config.enableStartupWarmup) {
+            return;
+        }
+        if (Config.enableDebugLogging) {
+            // 调试追踪会记录每次计算，预热会用假玩家的记录填满追踪缓冲区
+            LOGGER.info("[BetterExcavate] Skipping startup warm-up while debug logging is enabled");
+            return;
+        }
+
+        ServerLevel level = server.overworld();
+        List<ItemStack> tools = collectTools();
+        List<BlockState> states = collectBlockStates();
+
+        // 模拟玩家不是FakePlayer，预热的是真实玩家经过InventoryMixin的完整路径
+        SimulatedPlayer player = new SimulatedPlayer(level, WARMUP_PROFILE);
+        // FakePlayer走自动化快速路径，单独预热；它由所有模组共享，预热结束后恢复其状态
+        FakePlayer automation = Config.automationFastPath ? FakePlayerFactory.getMinecraft(level) : null;
+        ItemStack previousItem = automation != null ? automation.getMainHandItem() : ItemStack.EMPTY;
+        Vec3 previousPosition = automation != null ? automation.position() : Vec3.ZERO;
+        // 放在出生点附近，避免周围方块检测时加载新的区块
+        BlockPos spawn = level.getSharedSpawnPos();
+        player.moveTo(spawn.getX() + 0.5, spawn.getY() + 1, spawn.getZ() + 0.5);
+        if (automation != null) {
+            automation.moveTo(spawn.getX() + 0.5, spawn.getY() + 1, spawn.getZ() + 0.5);
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + Config.warmupBudgetMillis * 1_000_000L;
+        long evaluations = 0;
+        int passes = 0;
+        double sink = 0;
+
+        try {
+            outer:
+            while (true) {
+                for (ItemStack tool : tools) {
+                    player.setItemInHand(InteractionHand.MAIN_HAND, tool);
+                    if (automation != null) {
+                        automation.setItemInHand(InteractionHand.MAIN_HAND, tool);
+                    }
+                    // 与InventoryMixin相同的工具硬度来源（提供者、附魔和NBT修正）
+                    boolean hasTool = !tool.isEmpty();
+                    double toolHardness = StackHardness.getToolHardness(tool);
+                    double wearPercentage = Config.getWearPercentage(tool);
+
+                    for (BlockState state : states) {
+                        // 完整的挖掘速度计算（经过InventoryMixin）
+                        sink += player.getInventory().getDestroySpeed(state);
+                        if (automation != null) {
+                            sink += automation.getInventory().getDestroySpeed(state);
+                        }
+
+                        // 各个计算步骤单独运行，覆盖挖掘速度计算之外的调用方
+                        float blockHardness = state.getDestroySpeed(level, spawn);
+                        if (blockHardness >= 0) {
+                            boolean isWrongTool = Config.enableWrongToolPenalty && hasTool && !Config.isCorrectToolType(tool, state);
+                            double effectiveToolHardness = MiningCalculator.getEffectiveToolHardness(Config.tables,
+                                    toolHardness, wearPercentage, hasTool, isWrongTool);
+                            sink += Config.getMiningMode(blockHardness, effectiveToolHardness);
+                            sink += Config.calculateCustomMiningSpeed(effectiveToolHardness, blockHardness);
+                        }
+
+                        evaluations++;
+                        if (evaluations % BUDGET_CHECK_INTERVAL == 0 && System.nanoTime() >= deadline) {
+                            break outer;
+                        }
+                    }
+                }
+                passes++;
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("[BetterExcavate] Startup warm-up aborted: {}", e.toString());
+        } finally {
+            if (automation != null) {
+                automation.setItemInHand(InteractionHand.MAIN_HAND, previousItem);
+                automation.moveTo(previousPosition.x, previousPosition.y, previousPosition.z);
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+        LOGGER.info("[BetterExcavate] Startup warm-up ran {} evaluations ({} tools x {} block states, {} full passes) in {} ms",
+                evaluations, tools.size(), states.size(), passes, elapsedMillis);
+        LOGGER.debug("[BetterExcavate] Warm-up checksum: {}", sink);
+    }
+
+    /**
+     * 空手、每个已配置硬度的工具，以及可损坏工具的半耐久版本
+     */
+    private static List<ItemStack> collectTools() {
+        List<ItemStack> tools = new ArrayList<>();
+        tools.add(ItemStack.EMPTY);
+        for (String toolName : Config.toolHardnessMap.keySet()) {
+            ResourceLocation itemId = ResourceLocation.tryParse(toolName);
+            if (itemId == null || !ForgeRegistries.ITEMS.containsKey(itemId)) continue;
+            Item item = ForgeRegistries.ITEMS.getValue(itemId);
+            ItemStack stack = new ItemStack(item);
+            tools.add(stack);
+            if (stack.isDamageableItem()) {
+                ItemStack worn = stack.copy();
+                worn.setDamageValue(stack.getMaxDamage() / 2);
+                tools.add(worn);
+            }
+        }
+        return tools;
+    }
+
+    /**
+     * 从方块注册表中均匀抽样的默认方块状态
+     */
+    private static List<BlockState> collectBlockStates() {
+        Collection<Block> blocks = ForgeRegistries.BLOCKS.getValues();
+        int stride = Math.max(1, blocks.size() / MAX_BLOCK_STATES);
+        List<BlockState> states = new ArrayList<>();
+        int index = 0;
+        for (Block block : blocks) {
+            if (index++ % stride == 0) {
+                states.add(block.defaultBlockState());
+            }
+        }
+        return states;
+    }
+}
@@ -0,0 +1,123 @@
+package org.goldgomtech.betterexcavate;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import org.goldgomtech.betterexcavate.zone.HardnessZone;
+import org.goldgomtech.betterexcavate.zone.HardnessZones;
+
+/**
+ * 与位置相关的方块硬度修正
+ * 所有读取方块硬度后参与挖掘模式和挖掘速度计算的地方都通过这里，使破坏处理、速度计算和显示保持一致。
+ * 不知道位置时（例如原版的 Inventory.getDestroySpeed 只传入方块状态）使用未修正的硬度。
+ * 目前包括按维度和高度的缩放（{@link DepthScaling}）、按位置的随机波动（{@link HardnessVariance}）和硬度区域（{@link HardnessZones}）
+ */
+public final class PositionalHardness {
+
+    /**
+     * 由Mixin实现，在玩家上记录正在计算挖掘速度或掉落的方块位置
+     * 挖掘位置由Forge的 Player.getDigSpeed(BlockState, BlockPos) 在调用 Inventory.getDestroySpeed 之前设置，返回时清除；
+     * 收获位置由 ServerPlayerGameMode.destroyBlock 在判断 hasCorrectToolForDrops 之前设置，返回时清除；
+     * 连锁挖掘和范围挖掘（BlockBreaker）对每个方块临时设置为该方块的位置
+     */
+    public interface DigTarget {
+        BlockPos betterexcavate$getDigPos();
+
+        BlockPos betterexcavate$getHarvestPos();
+
+        void betterexcavate$setHarvestPos(BlockPos pos);
+    }
+
+    private PositionalHardness() {
+    }
+
+    /**
+     * 该位置所在的硬度区域
+     * 同一次计算中需要多次用到区域时（硬度修正、强制模式、无法挖掘），先查找一次再传给下面带区域参数的方法
+     * @return 区域，不在任何区域中或不知道位置时为null
+     */
+    public static HardnessZone findZone(Level level, BlockPos pos) {
+        if (level == null || pos == null) {
+            return null;
+        }
+        return HardnessZones.find(level, pos);
+    }
+
+    /**
+     * 修正方块硬度
+     * @param blockHardness 方块本身的硬度，小于等于0（不可破坏或瞬间破坏）时原样返回
+     * @return 该位置上参与计算的硬度
+     */
+    public static float apply(Level level, BlockPos pos, BlockState state, float blockHardness) {
+        if (blockHardness <= 0 || level == null || pos == null) {
+            return blockHardness;
+        }
+        return apply(level, pos, state, blockHardness, HardnessZones.find(level, pos));
+    }
+
+    /**
+     * 使用已查找的区域修正方块硬度
+     * @param zone {@link #findZone} 的结果
+     */
+    public static float apply(Level level, BlockPos pos, BlockState state, float blockHardness, HardnessZone zone) {
+        if (blockHardness <= 0 || level == null || pos == null) {
+            return blockHardness;
+        }
+        float result = blockHardness * DepthScaling.getMultiplier(level, pos.getY())
+                * HardnessVariance.getFactor(level, pos.asLong(), Block.getId(state));
+        if (zone != null) {
+            result *= zone.hardnessMultiplier();
+        }
+        return result;
+    }
+
+    /**
+     * 应用硬度区域强制的挖掘模式
+     * @param miningMode 按硬度计算出的挖掘模式
+     * @return 区域强制的模式，没有时原样返回
+     */
+    public static int overrideMode(Level level, BlockPos pos, int miningMode) {
+        return overrideMode(findZone(level, pos), miningMode);
+    }
+
+    /**
+     * 应用已查找的区域强制的挖掘模式
+     * @param zone {@link #findZone} 的结果
+     */
+    public static int overrideMode(HardnessZone zone, int miningMode) {
+        return zone == null || zone.mode() == HardnessZone.Mode.DEFAULT ? miningMode : zone.mode().getMiningMode();
+    }
+
+    /**
+     * 该位置是否在强制无法挖掘的硬度区域中，挖掘速度此时为0
+     */
+    public static boolean isUnmineable(Level level, BlockPos pos) {
+        return isUnmineable(findZone(level, pos));
+    }
+
+    /**
+     * 已查找的区域是否强制无法挖掘
+     * @param zone {@link #findZone} 的结果
+     */
+    public static boolean isUnmineable(HardnessZone zone) {
+        return zone != null && zone.mode() == HardnessZone.Mode.UNMINEABLE;
+    }
+
+    /**
+     * 玩家正在计算挖掘速度的方块位置
+     * @return 位置，不在 getDigSpeed 调用中或调用方没有提供位置时为null
+     */
+    public static BlockPos getDigPos(Player player) {
+        return ((DigTarget) player).betterexcavate$getDigPos();
+    }
+
+    /**
+     * 玩家正在破坏、需要判断掉落的方块位置
+     * @return 位置，不在 destroyBlock 调用中时为null
+     */
+    public static BlockPos getHarvestPos(Player player) {
+        return ((DigTarget) player).betterexcavate$getHarvestPos();
+    }
+}
@@ -0,0 +1,20 @@
+package org.goldgomtech.betterexcavate;
+
+import com.mojang.authlib.GameProfile;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.common.util.FakePlayerNetHandler;
+
+/**
+ * 预热和负载测试使用的模拟玩家
+ * 与 FakePlayer 一样不加入玩家列表、网络包被丢弃，但不是 FakePlayer，
+ * 因此不会进入自动化挖掘的快速路径（{@link org.goldgomtech.betterexcavate.automation.AutomationMining}），
+ * 而是和真实玩家一样经过 InventoryMixin、PlayerMixin 和挖掘会话跟踪
+ */
+public class SimulatedPlayer extends ServerPlayer {
+
+    public SimulatedPlayer(ServerLevel level, GameProfile profile) {
+        super(level.getServer(), level, profile);
+        this.connection = new FakePlayerNetHandler(level.getServer(), this);
+    }
+}
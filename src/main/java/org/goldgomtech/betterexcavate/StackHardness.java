@@ -0,0 +1,126 @@
+package org.goldgomtech.betterexcavate;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import org.goldgomtech.betterexcavate.integration.ToolHardnessProvider;
+import org.goldgomtech.betterexcavate.integration.ToolHardnessProviders;
+import org.goldgomtech.betterexcavate.metrics.Metrics;
+
+/**
+ * 缓存在物品堆上的工具硬度
+ * 工具硬度由ToolHardnessProvider或硬度表决定，再乘以附魔和NBT修正；有效硬度在此基础上应用耐久度硬度惩罚。
+ * 结果保存在物品堆的一个瞬态字段中（见 ItemStackHardnessMixin），不写入NBT也不随物品复制，
+ * 之后的调用只需比较硬度表、代和NBT对象即可直接返回，不读取NBT内容。
+ *
+ * 耐久、附魔和自定义数据都保存在NBT中。ItemStackHardnessMixin 在修改NBT的方法（getOrCreateTag、setTag 等，
+ * 包括 setDamageValue 和 enchant）被调用时清除缓存，因此只有物品堆真正可能变化时才会重新计算。
+ * 提供者的结果与硬度表无关，其他硬度表（如影子配置）的计算复用物品堆上缓存的提供者结果，只重新应用硬度表。
+ * 没有应用Mixin时（如基准测试）每次调用都重新计算
+ */
+public final class StackHardness {
+
+    /**
+     * 由Mixin实现，在物品堆上保存缓存
+     */
+    public interface Holder {
+        Object betterexcavate$getHardnessCache();
+
+        void betterexcavate$setHardnessCache(Object cache);
+    }
+
+    /**
+     * 一个物品堆的缓存结果
+     * @param tag 计算时的NBT对象，用于识别被整体替换的NBT
+     * @param providedHardness ToolHardnessProvider的结果，没有提供者处理时为 {@link ToolHardnessProvider#NOT_HANDLED}
+     * @param toolHardness 应用附魔和NBT修正后、未应用耐久度惩罚的工具硬度
+     * @param effectiveHardness 应用耐久度硬度惩罚后的硬度（不含错误工具惩罚，它取决于方块）
+     */
+    private record Cached(HardnessTables tables, int generation, CompoundTag tag, double providedHardness,
+                          double toolHardness, double effectiveHardness) {
+    }
+
+    // ToolHardnessProvider的结果可能变化时递增，使所有物品堆上的缓存失效
+    private static volatile int generation;
+
+    private StackHardness() {
+    }
+
+    /**
+     * 使所有缓存失效，配置重载时调用
+     */
+    public static synchronized void invalidate() {
+        generation++;
+    }
+
+    /**
+     * 当前硬度表下的工具硬度（含附魔和NBT修正，不含耐久度惩罚）
+     */
+    public static double getToolHardness(ItemStack stack) {
+        return getToolHardness(Config.tables, stack);
+    }
+
+    /**
+     * 工具硬度（含附魔和NBT修正，不含耐久度惩罚），空手时为默认硬度
+     */
+    public static double getToolHardness(HardnessTables tables, ItemStack stack) {
+        if (stack.isEmpty()) {
+            return tables.getDefaultHardness();
+        }
+        return resolve(tables, stack).toolHardness();
+    }
+
+    /**
+     * 当前硬度表下应用耐久度硬度惩罚后的有效硬度，空手时为默认硬度
+     */
+    public static double getEffectiveHardness(ItemStack stack) {
+        HardnessTables tables = Config.tables;
+        if (stack.isEmpty()) {
+            return tables.getDefaultHardness();
+        }
+        return resolve(tables, stack).effectiveHardness();
+    }
+
+    /**
+     * 由ToolHardnessProvider决定的工具硬度
+     * @return 工具硬度，没有提供者处理时返回 {@link ToolHardnessProvider#NOT_HANDLED}
+     */
+    public static double getProvidedHardness(ItemStack stack) {
+        if (stack.isEmpty()) {
+            return ToolHardnessProvider.NOT_HANDLED;
+        }
+        return resolve(Config.tables, stack).providedHardness();
+    }
+
+    private static Cached resolve(HardnessTables tables, ItemStack stack) {
+        Holder holder = (Object) stack instanceof Holder h ? h : null;
+        CompoundTag tag = stack.getTag();
+        int currentGeneration = generation;
+        // 物品堆没有变化时，缓存的提供者结果对任何硬度表都有效
+        Cached valid = holder != null && holder.betterexcavate$getHardnessCache() instanceof Cached cached
+                && cached.generation() == currentGeneration && cached.tag() == tag ? cached : null;
+        if (valid != null && valid.tables() == tables) {
+            return valid;
+        }
+
+        boolean live = tables == Config.tables;
+        double providedHardness = valid != null ? valid.providedHardness() : ToolHardnessProviders.getProvidedHardness(stack);
+        double toolHardness = providedHardness;
+        if (Double.isNaN(toolHardness)) {
+            Item item = stack.getItem();
+            toolHardness = tables.getToolHardness(item);
+            if (live) {
+                (tables.isConfigured(item) ? Metrics.TOOL_HARDNESS_HITS : Metrics.TOOL_HARDNESS_MISSES).increment();
+            }
+        }
+        toolHardness = tables.applyStackModifiers(toolHardness, stack);
+        double effectiveHardness = MiningCalculator.getEffectiveToolHardness(tables, toolHardness,
+                Config.getWearPercentage(stack), true, false);
+        Cached cached = new Cached(tables, currentGeneration, tag, providedHardness,
+                toolHardness, effectiveHardness);
+        if (live && holder != null) {
+            holder.betterexcavate$setHardnessCache(cached);
+        }
+        return cached;
+    }
+}
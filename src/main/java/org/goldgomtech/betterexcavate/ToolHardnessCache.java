@@ -0,0 +1,134 @@
+package org.goldgomtech.betterexcavate;
+
+import net.minecraftforge.fml.ModList;
+import net.minecraftforge.fml.loading.FMLPaths;
+import net.minecraftforge.forgespi.language.IModInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 自动检测结果的持久化缓存
+ * 以模组列表（ID和版本）加检测算法版本的指纹为键，写入配置目录下的二进制文件。
+ * 指纹未变化时启动直接读取结果，完全跳过注册表探测。
+ * 文件很小，一次读入堆内存后立即关闭；不使用内存映射，否则在Windows上映射释放前无法替换文件
+ */
+public final class ToolHardnessCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    private static final String FILE_NAME = BetterExcavate.MODID + "-autodetect.bin";
+    private static final int MAGIC = 0x42455843; // "BEXC"
+    private static final int FORMAT_VERSION = 1;
+
+    private ToolHardnessCache() {
+    }
+
+    /**
+     * 读取缓存的检测结果
+     * @return 工具ID -> 探测结果；文件不存在、损坏或指纹不匹配时返回null
+     */
+    public static Map<String, Double> load() {
+        Path path = getPath();
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+
+        long fingerprint = computeFingerprint();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                LOGGER.info("[BetterExcavate] Ignoring auto-detect cache with unknown format");
+                return null;
+            }
+            if (buffer.getLong() != fingerprint) {
+                LOGGER.info("[BetterExcavate] Mod list changed since last auto-detection, tools will be probed again");
+                return null;
+            }
+
+            int count = buffer.getInt();
+            Map<String, Double> results = new HashMap<>(count * 2);
+            byte[] nameBytes = new byte[256];
+            for (int i = 0; i < count; i++) {
+                int length = buffer.getShort() & 0xffff;
+                if (length > nameBytes.length) {
+                    nameBytes = new byte[length];
+                }
+                buffer.get(nameBytes, 0, length);
+                results.put(new String(nameBytes, 0, length, StandardCharsets.UTF_8), buffer.getDouble());
+            }
+            return results;
+        } catch (IOException | BufferUnderflowException e) {
+            LOGGER.warn("[BetterExcavate] Could not read auto-detect cache {}: {}", path, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * 写入检测结果，先写临时文件再替换，避免中途崩溃留下损坏的缓存
+     */
+    public static void save(Map<String, Double> results) {
+        Path path = getPath();
+        Path tempPath = path.resolveSibling(FILE_NAME + ".tmp");
+
+        List<Map.Entry<String, Double>> entries = new ArrayList<>(results.entrySet());
+        entries.sort(Map.Entry.comparingByKey());
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(computeFingerprint());
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Double> entry : entries) {
+                    byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                    out.writeShort(name.length);
+                    out.write(name);
+                    out.writeDouble(entry.getValue());
+                }
+            }
+            try {
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            LOGGER.debug("[BetterExcavate] Saved {} auto-detected tools to {}", entries.size(), path);
+        } catch (IOException e) {
+            LOGGER.warn("[BetterExcavate] Could not write auto-detect cache {}: {}", path, e.toString());
+        }
+    }
+
+    private static Path getPath() {
+        return FMLPaths.CONFIGDIR.get().resolve(FILE_NAME);
+    }
+
+    /**
+     * 模组列表指纹：按ID排序的模组ID和版本，加上检测算法版本
+     */
+    private static long computeFingerprint() {
+        List<IModInfo> mods = new ArrayList<>(ModList.get().getMods());
+        mods.sort(Comparator.comparing(IModInfo::getModId));
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("algorithm=").append(ToolHardnessDetector.ALGORITHM_VERSION).append('\n');
+        for (IModInfo mod : mods) {
+            builder.append(mod.getModId()).append('@').append(mod.getVersion()).append('\n');
+        }
+        return HardnessTables.hashBytes(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,384 @@
+package org.goldgomtech.betterexcavate;
+
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Tier;
+import net.minecraft.world.item.TieredItem;
+import net.minecraft.world.item.Tiers;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.fml.DistExecutor;
+import net.minecraftforge.fml.loading.FMLEnvironment;
+import net.minecraftforge.registries.ForgeRegistries;
+import net.minecraftforge.server.ServerLifecycleHooks;
+import org.goldgomtech.betterexcavate.client.ClientTablesSync;
+import org.goldgomtech.betterexcavate.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 工具硬度自动检测
+ * 在后台使用ForkJoin把注册表切分成多段并行探测，完成后在主线程一次性发布到硬度表。
+ * 探测结果在多次配置重载之间复用，重载时只探测上次之后新出现的物品。
+ * 探测失败的物品不记录结果，下次重载时重新探测；有失败时也不写入持久化缓存，
+ * 因为读取缓存后不再扫描注册表，失败的物品会被永久当作非工具
+ */
+public final class ToolHardnessDetector {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    /**
+     * 检测算法版本，修改探测逻辑时递增，使持久化缓存失效
+     */
+    public static final int ALGORITHM_VERSION = 1;
+
+    /** 每个ForkJoin子任务最多探测的物品数量 */
+    private static final int SPLIT_THRESHOLD = 256;
+
+    /** 非工具物品在探测结果中的标记值 */
+    private static final double NOT_A_TOOL = -1;
+
+    /** 识别为工具但使用默认硬度的标记值 */
+    private static final double USE_DEFAULT_HARDNESS = 0;
+
+    // 所有已探测物品的结果（物品ID -> 硬度，非工具为-1）
+    private static final Map<String, Double> probedItems = new ConcurrentHashMap<>();
+
+    // 每次配置加载递增，用于丢弃已过期的后台任务结果
+    private static final AtomicInteger generation = new AtomicInteger();
+
+    // 是否已尝试读取持久化缓存
+    private static boolean cacheChecked;
+
+    // 探测结果是否已覆盖整个注册表（注册表在加载完成后不再变化）
+    private static volatile boolean registryCovered;
+
+    private ToolHardnessDetector() {
+    }
+
+    /**
+     * 将已有的探测结果与配置合并后立即发布到Config.toolHardnessMap，并在后台探测尚未探测过的物品
+     * 后台任务完成前，新物品使用默认硬度
+     * @param configured 配置文件中的工具硬度（优先于探测结果）
+     */
+    public static synchronized void detect(Map<String, Double> configured) {
+        int currentGeneration = generation.incrementAndGet();
+
+        // 首次检测时尝试读取缓存，模组列表未变化则完全跳过注册表探测
+        if (!cacheChecked) {
+            cacheChecked = true;
+            Map<String, Double> cached = ToolHardnessCache.load();
+            (cached != null ? Metrics.AUTODETECT_CACHE_HITS : Metrics.AUTODETECT_CACHE_MISSES).increment();
+            if (cached != null) {
+                probedItems.putAll(cached);
+                registryCovered = true;
+                LOGGER.info("[BetterExcavate] Loaded {} auto-detected tools from cache", cached.size());
+            }
+        }
+
+        List<Item> pending = new ArrayList<>();
+        List<String> pendingNames = new ArrayList<>();
+        if (!registryCovered) {
+            for (Item item : ForgeRegistries.ITEMS.getValues()) {
+                ResourceLocation itemId = ForgeRegistries.ITEMS.getKey(item);
+                if (itemId == null) continue;
+                String toolName = itemId.toString();
+                if (!probedItems.containsKey(toolName)) {
+                    pending.add(item);
+                    pendingNames.add(toolName);
+                }
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            Item[] items = pending.toArray(new Item[0]);
+            String[] names = pendingNames.toArray(new String[0]);
+            Map<String, Double> configuredSnapshot = Map.copyOf(configured);
+            CompletableFuture.runAsync(() -> {
+                long start = System.nanoTime();
+                AtomicInteger failed = new AtomicInteger();
+                int found = new ProbeTask(items, names, 0, items.length, failed).invoke();
+                long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+                // 合并在后台完成，替换硬度表交给主线程，不与读取 Config.tables 的逻辑并发
+                Map<String, Double> merged = merge(configuredSnapshot);
+                executeOnMainThread(() -> publish(currentGeneration, configuredSnapshot, merged,
+                        items.length, found, elapsedMillis));
+                if (failed.get() == 0) {
+                    registryCovered = true;
+                    ToolHardnessCache.save(getDetectedTools());
+                } else {
+                    LOGGER.warn("[BetterExcavate] Failed to probe {} items, they will be probed again on the next config reload",
+                            failed.get());
+                }
+            }, ForkJoinPool.commonPool()).exceptionally(e -> {
+                LOGGER.error("[BetterExcavate] Tool hardness detection failed", e);
+                return null;
+            });
+        }
+
+        Config.toolHardnessMap = merge(configured);
+    }
+
+    /**
+     * 使正在运行的探测任务的结果失效（例如关闭了自动检测）
+     */
+    public static synchronized void cancel() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * 在主线程执行：客户端上是客户端主线程（同步来的服务端硬度表也在这里应用），
+     * 专用服务端上是服务端线程；服务端尚未启动时没有其他读取者，直接执行
+     */
+    private static void executeOnMainThread(Runnable task) {
+        if (FMLEnvironment.dist == Dist.CLIENT) {
+            DistExecutor.unsafeRunWhenOn(Dist.CLIENT, () -> () -> ClientTablesSync.execute(task));
+            return;
+        }
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server != null) {
+            server.execute(task);
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * 后台探测完成后在主线程调用，替换合并好的硬度表
+     */
+    private static synchronized void publish(int taskGeneration, Map<String, Double> configured, Map<String, Double> merged,
+                                             int probedCount, int found, long elapsedMillis) {
+        if (taskGeneration != generation.get()) {
+            // 配置已再次加载，由新任务发布结果
+            return;
+        }
+
+        Config.toolHardnessMap = merged;
+        Config.compileTables();
+
+        int added = merged.size() - configured.size();
+        LOGGER.info("[BetterExcavate] Tool hardness detection probed {} items in {} ms, found {} tools ({} not in config)",
+                probedCount, elapsedMillis, found, added);
+
+        if (Config.enableDebugLogging && added > 0) {
+            LOGGER.info("[BetterExcavate] ================== NEW TOOL CONFIGURATIONS ==================");
+            LOGGER.info("[BetterExcavate] Add the following lines to your config file under 'toolHardness':");
+            merged.forEach((toolName, hardness) -> {
+                if (!configured.containsKey(toolName)) {
+                    LOGGER.info("[BetterExcavate] \"{}:{}\"", toolName, hardness);
+                }
+            });
+            LOGGER.info("[BetterExcavate] ============================================================");
+        }
+    }
+
+    /**
+     * 所有识别为工具的探测结果（包括使用默认硬度的工具），非工具物品不写入缓存
+     */
+    private static Map<String, Double> getDetectedTools() {
+        Map<String, Double> tools = new HashMap<>();
+        probedItems.forEach((toolName, hardness) -> {
+            if (hardness >= USE_DEFAULT_HARDNESS) {
+                tools.put(toolName, hardness);
+            }
+        });
+        return tools;
+    }
+
+    /**
+     * 将已有的探测结果与配置的工具硬度合并，配置文件中的值优先
+     * 只使用已完成的探测结果，不会触发新的探测
+     */
+    public static Map<String, Double> merge(Map<String, Double> configured) {
+        Map<String, Double> merged = new HashMap<>();
+        probedItems.forEach((toolName, hardness) -> {
+            if (hardness > 0) {
+                merged.put(toolName, hardness);
+            }
+        });
+        // 配置文件中的值优先
+        merged.putAll(configured);
+        return merged;
+    }
+
+    /**
+     * 探测单个物品的工具硬度
+     * @return 工具硬度，使用默认硬度的工具返回0，非挖掘工具返回-1
+     */
+    private static double probe(Item item, String toolName) {
+        // 检查是否为分层工具（TieredItem）
+        if (item instanceof TieredItem tieredItem) {
+            boolean isSword = toolName.toLowerCase().contains("sword");
+            return getTierHardness(tieredItem.getTier(), isSword);
+        }
+        // 检查是否为其他类型的挖掘工具
+        return getToolHardnessByBehavior(item, toolName);
+    }
+
+    /**
+     * 按数组区间切分的探测任务，返回区间内检测到的工具数量
+     */
+    private static final class ProbeTask extends RecursiveTask<Integer> {
+        private final Item[] items;
+        private final String[] names;
+        private final int from;
+        private final int to;
+        private final AtomicInteger failed;
+
+        ProbeTask(Item[] items, String[] names, int from, int to, AtomicInteger failed) {
+            this.items = items;
+            this.names = names;
+            this.from = from;
+            this.to = to;
+            this.failed = failed;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                int found = 0;
+                for (int i = from; i < to; i++) {
+                    double hardness;
+                    try {
+                        hardness = probe(items[i], names[i]);
+                    } catch (RuntimeException e) {
+                        // 个别模组物品在非主线程探测可能失败，本次视为非工具，不记录结果以便之后重新探测
+                        LOGGER.debug("[BetterExcavate] Failed to probe {}: {}", names[i], e.getMessage());
+                        failed.incrementAndGet();
+                        continue;
+                    }
+                    probedItems.put(names[i], hardness);
+                    if (hardness >= USE_DEFAULT_HARDNESS) {
+                        found++;
+                        LOGGER.debug("[BetterExcavate] Detected tool: {} with hardness: {}", names[i], hardness);
+                    }
+                }
+                return found;
+            }
+
+            int mid = (from + to) >>> 1;
+            ProbeTask left = new ProbeTask(items, names, from, mid, failed);
+            left.fork();
+            int right = new ProbeTask(items, names, mid, to, failed).compute();
+            return right + left.join();
+        }
+    }
+
+    /**
+     * 根据工具等级获取对应的硬度值
+     * @param tier 工具等级
+     * @param isSword 是否为剑类武器
+     */
+    private static double getTierHardness(Tier tier, boolean isSword) {
+        double baseHardness;
+        
+        // 根据原版工具等级分配基础硬度值
+        if (tier == Tiers.WOOD) {
+            baseHardness = 2.1;  // 木制工具
+        } else if (tier == Tiers.STONE) {
+            baseHardness = 3.5;  // 石制工具
+        } else if (tier == Tiers.IRON) {
+            baseHardness = 5.0;  // 铁制工具
+        } else if (tier == Tiers.GOLD) {
+            baseHardness = 2.1;  // 金工具（等级与木制相同）
+        } else if (tier == Tiers.DIAMOND) {
+            baseHardness = 60.0; // 钻石工具（可以挖掘黑曜石 硬度50）
+        } else if (tier == Tiers.NETHERITE) {
+            baseHardness = 110.0; // 下界合金工具
+        } else {
+            // 对于模组工具，根据其等级进行计算
+            int level = tier.getLevel();
+            if (level <= 0) {
+                baseHardness = 2.1; // 木制等级
+            } else if (level == 1) {
+                baseHardness = 3.5; // 石制等级
+            } else if (level == 2) {
+                baseHardness = 5.0; // 铁制等级
+            } else if (level == 3) {
+                baseHardness = 60.0; // 钻石等级
+            } else if (level == 4) {
+                baseHardness = 110.0; // 下界合金等级
+            } else {
+                // 超过下界合金等级，每级增加100
+                baseHardness = 110.0 + (level - 4) * 100.0;
+            }
+        }
+        
+        // 如果是剑类武器，硬度降低50%
+        if (isSword) {
+            baseHardness = baseHardness * 0.5;
+        }
+        
+        return baseHardness;
+    }
+
+    /**
+     * 根据工具行为和名称推测工具硬度
+     */
+    private static double getToolHardnessByBehavior(Item item, String toolName) {
+        // 创建物品堆栈用于测试
+        ItemStack stack = new ItemStack(item);
+        
+        // 测试对不同方块的挖掘速度来推测工具等级
+        float stoneSpeed = stack.getDestroySpeed(Blocks.STONE.defaultBlockState());
+        float ironSpeed = stack.getDestroySpeed(Blocks.IRON_ORE.defaultBlockState());
+        float diamondSpeed = stack.getDestroySpeed(Blocks.DIAMOND_ORE.defaultBlockState());
+        float obsidianSpeed = stack.getDestroySpeed(Blocks.OBSIDIAN.defaultBlockState());
+        
+        // 如果对石头有效果，认为是挖掘工具
+        if (stoneSpeed > 1.0f) {
+            // 根据对不同材料的挖掘效果推测等级
+            if (obsidianSpeed > 1.0f) {
+                return 60.0; // 钻石级别或更高（可以挖掘黑曜石）
+            } else if (diamondSpeed > 1.0f) {
+                return 5.0;  // 铁级别
+            } else if (ironSpeed > 1.0f) {
+                return 3.5;  // 石级别
+            } else {
+                return 2.1;  // 木级别
+            }
+        }
+        
+        // 根据工具名称推测（备用方案）
+        String lowerName = toolName.toLowerCase();
+        if (lowerName.contains("sword")) {
+            // 剑类工具挖掘硬度降低50%
+            if (lowerName.contains("wood")) return 1.0;
+            if (lowerName.contains("stone")) return 1.7;
+            if (lowerName.contains("iron")) return 2.5;
+            if (lowerName.contains("gold")) return 1.0;
+            if (lowerName.contains("diamond")) return 30.0;
+            if (lowerName.contains("netherite")) return 55.0;
+        } else {
+            // 其他工具保持原有硬度
+            if (lowerName.contains("wood")) return 2.1;
+            if (lowerName.contains("stone")) return 3.5;
+            if (lowerName.contains("iron")) return 5.0;
+            if (lowerName.contains("gold")) return 2.1;
+            if (lowerName.contains("diamond")) return 60.0;
+            if (lowerName.contains("netherite")) return 110.0;
+        }
+        
+        // 如果包含挖掘相关词汇，给予默认硬度
+        if (lowerName.contains("pickaxe") || lowerName.contains("axe") || 
+            lowerName.contains("shovel") || lowerName.contains("hoe") || 
+            lowerName.contains("sword") || lowerName.contains("tool")) {
+            // 不写入硬度表，随defaultHardness的变化生效
+            return USE_DEFAULT_HARDNESS;
+        }
+        
+        return NOT_A_TOOL; // 不是挖掘工具
+    }
+}
@@ -0,0 +1,310 @@
+package org.goldgomtech.betterexcavate.api;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.effect.MobEffectInstance;
+import net.minecraft.world.effect.MobEffectUtil;
+import net.minecraft.world.effect.MobEffects;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.enchantment.EnchantmentHelper;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.EmptyBlockGetter;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.common.ForgeMod;
+import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.MiningCalculator;
+import org.goldgomtech.betterexcavate.PositionalHardness;
+import org.goldgomtech.betterexcavate.StackHardness;
+import org.goldgomtech.betterexcavate.automation.AutomationMining;
+import org.goldgomtech.betterexcavate.zone.HardnessZone;
+
+/**
+ * 供其他模组（HUD、自动化、任务系统等）查询BetterExcavate挖掘规则的公开API
+ * 所有方法都使用与Mixin相同的计算（{@link MiningCalculator}、当前的 {@link Config#tables}、
+ * 物品堆上的 {@link StackHardness} 缓存），不会触发追踪、采样、影子评估等记录，也不会修改世界。
+ * 共享的缓存照常统计：计算工具硬度和走自动化快速路径时，会和Mixin中一样增加对应缓存的命中/未命中计数。
+ *
+ * 返回基本类型的重载不分配对象，适合每tick大量调用；带 {@link ItemStack} / {@link BlockState} 的方法
+ * 只是在这些重载之前取出工具硬度、磨损和方块硬度。可以在客户端和服务端调用，
+ * 客户端使用服务端同步过来的配置
+ */
+public final class BetterExcavateAPI {
+
+    /** 无法挖掘：破坏会被取消 */
+    public static final int MODE_UNMINEABLE = 0;
+
+    /** 正常挖掘，有掉落物 */
+    public static final int MODE_NORMAL = 1;
+
+    /** 缓慢挖掘，没有掉落物和经验 */
+    public static final int MODE_SLOW_NO_DROPS = 2;
+
+    /** {@link #estimateBreakTicks} 的返回值：方块无法被破坏 */
+    public static final int CANNOT_BREAK = -1;
+
+    private BetterExcavateAPI() {
+    }
+
+    // ==================== 工具硬度 ====================
+
+    /**
+     * 物品在硬度表中的工具硬度，未配置的物品返回默认硬度
+     * 不考虑 {@link org.goldgomtech.betterexcavate.integration.ToolHardnessProvider}，按NBT决定硬度的物品请使用 {@link #getToolHardness(ItemStack)}
+     */
+    public static double getToolHardness(Item item) {
+        return Config.tables.getToolHardness(item);
+    }
+
+    /**
+     * 工具硬度（含附魔和NBT修正，未应用任何惩罚），ToolHardnessProvider提供的硬度优先，空手时为默认硬度
+     */
+    public static double getToolHardness(ItemStack tool) {
+        return StackHardness.getToolHardness(tool);
+    }
+
+    /**
+     * 应用耐久度硬度惩罚后的有效工具硬度，与方块无关
+     */
+    public static double getEffectiveHardness(ItemStack tool) {
+        return StackHardness.getEffectiveHardness(tool);
+    }
+
+    /**
+     * 对指定方块的有效工具硬度：应用耐久度硬度惩罚，工具类型错误时再降低20%
+     */
+    public static double getEffectiveHardness(ItemStack tool, BlockState state) {
+        return getEffectiveHardness(getToolHardness(tool), Config.getWearPercentage(tool), !tool.isEmpty(),
+                isWrongTool(tool, state));
+    }
+
+    /**
+     * 有效工具硬度
+     * @param toolHardness 工具硬度（未应用任何惩罚）
+     * @param wearPercentage 工具磨损百分比 (0.0 到 1.0)
+     * @param hasTool 是否手持物品，空手时不应用耐久度惩罚
+     * @param wrongTool 是否为错误的工具类型
+     */
+    public static double getEffectiveHardness(double toolHardness, double wearPercentage, boolean hasTool, boolean wrongTool) {
+        return MiningCalculator.getEffectiveToolHardness(Config.tables, toolHardness, wearPercentage, hasTool, wrongTool);
+    }
+
+    /**
+     * 工具类型是否错误（只在启用错误工具惩罚时可能为true）
+     */
+    public static boolean isWrongTool(ItemStack tool, BlockState state) {
+        return Config.tables.isWrongToolPenaltyEnabled() && !tool.isEmpty() && !Config.isCorrectToolType(tool, state);
+    }
+
+    // ==================== 挖掘模式 ====================
+
+    /**
+     * 工具对方块的挖掘模式，方块硬度按方块的默认值计算（不依赖位置）
+     * 掉落物控制关闭时，可破坏的方块总是 {@link #MODE_NORMAL}
+     * @return {@link #MODE_UNMINEABLE}、{@link #MODE_NORMAL} 或 {@link #MODE_SLOW_NO_DROPS}
+     */
+    public static int getMiningMode(ItemStack tool, BlockState state) {
+        return getMiningMode(tool, state, state.getDestroySpeed(EmptyBlockGetter.INSTANCE, BlockPos.ZERO));
+    }
+
+    /**
+     * 工具对世界中某个位置的方块的挖掘模式，level 是 Level 时包含按维度、高度和硬度区域的修正
+     */
+    public static int getMiningMode(ItemStack tool, BlockGetter level, BlockPos pos) {
+        BlockState state = level.getBlockState(pos);
+        float blockHardness = getBlockHardness(level, pos, state);
+        int miningMode = getMiningMode(tool, state, blockHardness);
+        // 不可破坏的方块和掉落物控制关闭时不应用区域强制的模式
+        if (blockHardness < 0 || !Config.enableDropControl || !(level instanceof Level world)) {
+            return miningMode;
+        }
+        return PositionalHardness.overrideMode(world, pos, miningMode);
+    }
+
+    /**
+     * 世界中某个位置的方块参与计算的硬度（包含按维度、高度和硬度区域的修正）
+     * @return 硬度，不可破坏的方块为负数
+     */
+    public static float getBlockHardness(BlockGetter level, BlockPos pos, BlockState state) {
+        float blockHardness = state.getDestroySpeed(level, pos);
+        return level instanceof Level world ? PositionalHardness.apply(world, pos, state, blockHardness) : blockHardness;
+    }
+
+    /**
+     * 已知方块硬度时的挖掘模式
+     */
+    public static int getMiningMode(ItemStack tool, BlockState state, float blockHardness) {
+        if (blockHardness < 0) {
+            return MODE_UNMINEABLE;
+        }
+        if (!Config.enableDropControl) {
+            return MODE_NORMAL;
+        }
+        return getMiningMode(blockHardness, getEffectiveHardness(tool, state));
+    }
+
+    /**
+     * 按有效工具硬度和方块硬度计算挖掘模式，不考虑掉落物控制开关
+     */
+    public static int getMiningMode(float blockHardness, double effectiveToolHardness) {
+        return MiningCalculator.getMiningMode(Config.tables, blockHardness, effectiveToolHardness);
+    }
+
+    /**
+     * 破坏后是否有掉落物：BetterExcavate的挖掘模式为正常挖掘，且满足原版的正确工具要求
+     * 不触发Forge的 HarvestCheck 事件
+     */
+    public static boolean canHarvest(ItemStack tool, BlockState state) {
+        float blockHardness = state.getDestroySpeed(EmptyBlockGetter.INSTANCE, BlockPos.ZERO);
+        return getMiningMode(tool, state, blockHardness) == MODE_NORMAL && isVanillaHarvestable(tool, state, blockHardness);
+    }
+
+    /**
+     * 与PlayerMixin一致：挖掘模式（含错误工具惩罚）不是正常挖掘时没有正确工具，否则交给原版判断
+     * @param blockHardness 方块硬度；原版计算挖掘进度时不传入位置，PlayerMixin此时使用未按位置修正的硬度
+     */
+    private static boolean isVanillaHarvestable(ItemStack tool, BlockState state, float blockHardness) {
+        if (blockHardness >= 0 && getMiningMode(blockHardness, getEffectiveHardness(tool, state)) != MODE_NORMAL) {
+            return false;
+        }
+        return !state.requiresCorrectToolForDrops() || tool.isCorrectToolForDrops(state);
+    }
+
+    // ==================== 挖掘速度 ====================
+
+    /**
+     * 手持工具的挖掘速度（相当于经过InventoryMixin修正后的 Inventory.getDestroySpeed），
+     * 不包含效率附魔、药水效果和水下/空中惩罚
+     * @param blockHardness 方块硬度，必须 >= 0
+     * @param identicalBlocks 周围6面相同方块的数量，不统计时为 {@link MiningCalculator#NO_SURROUNDING_COUNT}
+     */
+    public static float getToolDestroySpeed(ItemStack tool, BlockState state, float blockHardness, int identicalBlocks) {
+        boolean hasTool = !tool.isEmpty();
+        float vanillaSpeed = tool.getDestroySpeed(state);
+        return MiningCalculator.calculateDestroySpeed(Config.tables, vanillaSpeed, vanillaSpeed, hasTool,
+                getToolHardness(tool), Config.getWearPercentage(tool), isWrongTool(tool, state), blockHardness, identicalBlocks);
+    }
+
+    /**
+     * 玩家用主手工具挖掘指定位置方块的速度，相当于 Player.getDigSpeed
+     * 包含BetterExcavate的修正、效率附魔、急迫/挖掘疲劳和水下/空中惩罚，不触发Forge的 BreakSpeed 事件
+     * （因此不包含其他模组和范围挖掘对速度的修改）
+     * @return 挖掘速度，方块不可破坏时为0
+     */
+    public static float getDestroySpeed(Player player, BlockState state, BlockPos pos) {
+        HardnessZone zone = PositionalHardness.findZone(player.level(), pos);
+        float blockHardness = state.getDestroySpeed(player.level(), pos);
+        if (blockHardness < 0 || PositionalHardness.isUnmineable(zone)) {
+            return 0.0F;
+        }
+        blockHardness = PositionalHardness.apply(player.level(), pos, state, blockHardness, zone);
+        ItemStack tool = player.getMainHandItem();
+        float speed;
+        if (!Config.automationCountNeighbours && AutomationMining.isAutomation(player)) {
+            speed = AutomationMining.getDestroySpeed(player, state, pos, zone, tool, tool.getDestroySpeed(state));
+        } else {
+            int identicalBlocks = Config.enableSurroundingBlocksModifier
+                    ? countIdenticalNeighbours(player.level(), pos, state.getBlock())
+                    : MiningCalculator.NO_SURROUNDING_COUNT;
+            speed = getToolDestroySpeed(tool, state, blockHardness, identicalBlocks);
+        }
+        return applyPlayerModifiers(player, tool, speed);
+    }
+
+    /**
+     * 玩家每tick的挖掘进度，与 BlockState.getDestroyProgress 相同，进度累计到1时方块被破坏
+     * @return 每tick的进度，无法挖掘时为0
+     */
+    public static float getDestroyProgress(Player player, BlockState state, BlockPos pos) {
+        float blockHardness = state.getDestroySpeed(player.level(), pos);
+        if (blockHardness < 0) {
+            return 0.0F;
+        }
+        // 位置修正只影响BetterExcavate的挖掘模式和速度曲线，原版的进度仍按方块本身的硬度计算
+        HardnessZone zone = PositionalHardness.findZone(player.level(), pos);
+        float scaledHardness = PositionalHardness.apply(player.level(), pos, state, blockHardness, zone);
+        ItemStack tool = player.getMainHandItem();
+        if (!player.isCreative() && (PositionalHardness.isUnmineable(zone)
+                || getMiningMode(tool, state, scaledHardness) == MODE_UNMINEABLE)) {
+            return 0.0F;
+        }
+        if (blockHardness == 0.0F) {
+            return 1.0F;
+        }
+        int divisor = isVanillaHarvestable(tool, state, blockHardness) ? 30 : 100;
+        return getDestroySpeed(player, state, pos) / blockHardness / divisor;
+    }
+
+    /**
+     * 估算玩家破坏方块需要的tick数
+     * @return 需要的tick数，瞬间破坏时为0，无法破坏时为 {@link #CANNOT_BREAK}
+     */
+    public static int estimateBreakTicks(Player player, BlockState state, BlockPos pos) {
+        if (player.isCreative()) {
+            return 0;
+        }
+        return estimateBreakTicks(getDestroyProgress(player, state, pos));
+    }
+
+    /**
+     * 由每tick的挖掘进度计算需要的tick数
+     */
+    public static int estimateBreakTicks(float progressPerTick) {
+        if (!(progressPerTick > 0.0F)) {
+            return CANNOT_BREAK;
+        }
+        if (progressPerTick >= 1.0F) {
+            return 0;
+        }
+        return (int) Math.ceil(1.0F / progressPerTick);
+    }
+
+    /**
+     * 统计6面相邻的相同方块数量，与InventoryMixin一致
+     */
+    private static int countIdenticalNeighbours(BlockGetter level, BlockPos pos, Block block) {
+        BlockPos.MutableBlockPos cursor = new BlockPos.MutableBlockPos();
+        int count = 0;
+        for (int i = 0; i < 6; i++) {
+            cursor.setWithOffset(pos, Direction.from3DDataValue(i));
+            if (level.getBlockState(cursor).is(block)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 原版 Player.getDigSpeed 在 Inventory.getDestroySpeed 之后应用的修正
+     */
+    private static float applyPlayerModifiers(Player player, ItemStack tool, float speed) {
+        if (speed > 1.0F) {
+            int efficiency = EnchantmentHelper.getBlockEfficiency(player);
+            if (efficiency > 0 && !tool.isEmpty()) {
+                speed += (float) (efficiency * efficiency + 1);
+            }
+        }
+        if (MobEffectUtil.hasDigSpeed(player)) {
+            speed *= 1.0F + (float) (MobEffectUtil.getDigSpeedAmplification(player) + 1) * 0.2F;
+        }
+        MobEffectInstance fatigue = player.getEffect(MobEffects.DIG_SLOWDOWN);
+        if (fatigue != null) {
+            speed *= switch (fatigue.getAmplifier()) {
+                case 0 -> 0.3F;
+                case 1 -> 0.09F;
+                case 2 -> 0.0027F;
+                default -> 8.1E-4F;
+            };
+        }
+        if (player.isEyeInFluidType(ForgeMod.WATER_TYPE.get()) && !EnchantmentHelper.hasAquaAffinity(player)) {
+            speed /= 5.0F;
+        }
+        if (!player.onGround()) {
+            speed /= 5.0F;
+        }
+        return speed;
+    }
+}
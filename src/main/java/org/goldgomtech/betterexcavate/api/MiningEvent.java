@@ -0,0 +1,118 @@
+package org.goldgomtech.betterexcavate.api;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+
+/**
+ * 一条BetterExcavate挖掘决策事件
+ * 对象由 {@link MiningEvents} 预先分配并反复复用，只在 {@link MiningEventListener#onMiningEvent} 调用期间有效
+ */
+public final class MiningEvent {
+
+    public enum Type {
+        /** 方块对工具来说太硬（挖掘模式0），破坏被取消 */
+        CANCELLED,
+        /** 缓慢挖掘（挖掘模式2），方块被破坏但没有掉落物和经验 */
+        SLOW_MINING,
+        /** 挖掘过硬的方块时工具损失了耐久，见 {@link #isToolBroken()} */
+        TOOL_DAMAGED
+    }
+
+    Type type;
+    long gameTime;
+    Player player;
+    ResourceKey<Level> dimension;
+    long packedPos;
+    BlockState state;
+    Item item;
+    int toolDamage;
+    int toolMaxDamage;
+    float blockHardness;
+    boolean toolBroken;
+
+    MiningEvent() {
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * 事件发生时的游戏刻
+     */
+    public long getGameTime() {
+        return gameTime;
+    }
+
+    /**
+     * 事件发生时的玩家，到处理事件时可能已经下线
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    public ResourceKey<Level> getDimension() {
+        return dimension;
+    }
+
+    /**
+     * 方块位置（{@link BlockPos#asLong()} 格式），不分配对象
+     */
+    public long getPackedPos() {
+        return packedPos;
+    }
+
+    public BlockPos getPos() {
+        return BlockPos.of(packedPos);
+    }
+
+    public BlockState getState() {
+        return state;
+    }
+
+    /**
+     * 玩家手持的物品，空手时为 {@link net.minecraft.world.item.Items#AIR}
+     */
+    public Item getItem() {
+        return item;
+    }
+
+    /**
+     * 事件发生后工具的已损耗耐久
+     */
+    public int getToolDamage() {
+        return toolDamage;
+    }
+
+    public int getToolMaxDamage() {
+        return toolMaxDamage;
+    }
+
+    /**
+     * 方块硬度，不可破坏的方块为 -1
+     */
+    public float getBlockHardness() {
+        return blockHardness;
+    }
+
+    /**
+     * {@link Type#TOOL_DAMAGED} 时工具是否因此完全损坏
+     */
+    public boolean isToolBroken() {
+        return toolBroken;
+    }
+
+    /**
+     * 归还槽位时清除对象引用，避免保留已卸载的世界或下线的玩家
+     */
+    void clear() {
+        player = null;
+        dimension = null;
+        state = null;
+        item = null;
+    }
+}
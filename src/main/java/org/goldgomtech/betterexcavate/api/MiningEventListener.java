@@ -0,0 +1,21 @@
+package org.goldgomtech.betterexcavate.api;
+
+/**
+ * BetterExcavate挖掘决策的监听器，通过 {@link MiningEvents#register} 注册
+ * 在服务端主线程的每个tick结束时，按发生顺序对本tick的每条事件调用一次
+ */
+@FunctionalInterface
+public interface MiningEventListener {
+
+    /**
+     * 处理一条事件
+     * 事件对象是环形缓冲区中复用的槽位，只在本次调用期间有效，不能保存引用；需要保留的数据请复制出来
+     */
+    void onMiningEvent(MiningEvent event);
+
+    /**
+     * 本tick的一批事件处理完后调用，可用于批量提交
+     */
+    default void onBatchEnd() {
+    }
+}
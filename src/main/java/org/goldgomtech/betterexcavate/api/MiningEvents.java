@@ -0,0 +1,176 @@
+package org.goldgomtech.betterexcavate.api;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.goldgomtech.betterexcavate.BetterExcavate;
+import org.goldgomtech.betterexcavate.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+
+/**
+ * BetterExcavate挖掘决策的事件流：挖掘模式0取消破坏、缓慢挖掘无掉落、挖掘过硬方块损坏工具
+ *
+ * 事件写入预先分配的环形缓冲区中复用的 {@link MiningEvent} 槽位，在服务端tick结束时按顺序批量交给监听器，
+ * 发布时不分配对象，也不会在BlockBreakHandler中间调用其他模组的代码。没有监听器时发布只需一次volatile读取。
+ * 缓冲区满时丢弃事件并计数。发布和处理都在服务端主线程，监听器可以在任意线程注册
+ */
+@Mod.EventBusSubscriber(modid = BetterExcavate.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public final class MiningEvents {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    // 每tick最多缓存的事件数，必须是2的幂
+    private static final int CAPACITY = 4096;
+
+    private static final MiningEvent[] ring = new MiningEvent[CAPACITY];
+    // 只在服务端主线程访问
+    private static long head;
+    private static long tail;
+
+    // 写时复制，没有监听器时为空数组
+    private static volatile MiningEventListener[] listeners = new MiningEventListener[0];
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            ring[i] = new MiningEvent();
+        }
+    }
+
+    private MiningEvents() {
+    }
+
+    /**
+     * 注册监听器，同一个监听器只注册一次
+     */
+    public static synchronized void register(MiningEventListener listener) {
+        MiningEventListener[] current = listeners;
+        for (MiningEventListener existing : current) {
+            if (existing == listener) {
+                return;
+            }
+        }
+        MiningEventListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    public static synchronized void unregister(MiningEventListener listener) {
+        MiningEventListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                MiningEventListener[] updated = new MiningEventListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 是否有监听器，发布方可以据此跳过准备事件数据
+     */
+    public static boolean hasListeners() {
+        return listeners.length != 0;
+    }
+
+    /**
+     * 发布挖掘模式0取消破坏或缓慢挖掘的事件
+     */
+    public static void publishBreak(MiningEvent.Type type, Player player, BlockPos pos, BlockState state, ItemStack tool,
+                                    float blockHardness) {
+        MiningEvent event = claim(player.level());
+        if (event != null) {
+            fill(event, type, player, pos, state, tool, blockHardness);
+            event.toolBroken = false;
+        }
+    }
+
+    /**
+     * 发布挖掘过硬方块时工具损失耐久的事件，在扣除耐久之后调用
+     */
+    public static void publishToolDamage(Player player, BlockPos pos, BlockState state, ItemStack tool,
+                                         float blockHardness, boolean broken) {
+        MiningEvent event = claim(player.level());
+        if (event != null) {
+            fill(event, MiningEvent.Type.TOOL_DAMAGED, player, pos, state, tool, blockHardness);
+            event.toolBroken = broken;
+        }
+    }
+
+    /**
+     * 占用下一个槽位
+     * @return 槽位；没有监听器、不在服务端或缓冲区已满时为null
+     */
+    private static MiningEvent claim(Level level) {
+        if (listeners.length == 0 || level.isClientSide()) {
+            return null;
+        }
+        if (tail - head >= CAPACITY) {
+            Metrics.MINING_EVENTS_DROPPED.increment();
+            return null;
+        }
+        return ring[(int) (tail++ & (CAPACITY - 1))];
+    }
+
+    private static void fill(MiningEvent event, MiningEvent.Type type, Player player, BlockPos pos, BlockState state,
+                             ItemStack tool, float blockHardness) {
+        Level level = player.level();
+        event.type = type;
+        event.gameTime = level.getGameTime();
+        event.player = player;
+        event.dimension = level.dimension();
+        event.packedPos = pos.asLong();
+        event.state = state;
+        event.item = tool.getItem();
+        event.toolDamage = tool.getDamageValue();
+        event.toolMaxDamage = tool.getMaxDamage();
+        event.blockHardness = blockHardness;
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || head == tail) {
+            return;
+        }
+        // 监听器处理期间新发布的事件留到下一tick
+        long end = tail;
+        MiningEventListener[] current = listeners;
+        while (head < end) {
+            MiningEvent miningEvent = ring[(int) (head & (CAPACITY - 1))];
+            for (MiningEventListener listener : current) {
+                try {
+                    listener.onMiningEvent(miningEvent);
+                } catch (RuntimeException e) {
+                    LOGGER.error("[BetterExcavate] Mining event listener {} failed", listener, e);
+                }
+            }
+            miningEvent.clear();
+            head++;
+        }
+        for (MiningEventListener listener : current) {
+            try {
+                listener.onBatchEnd();
+            } catch (RuntimeException e) {
+                LOGGER.error("[BetterExcavate] Mining event listener {} failed", listener, e);
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        while (head < tail) {
+            ring[(int) (head & (CAPACITY - 1))].clear();
+            head++;
+        }
+    }
+}
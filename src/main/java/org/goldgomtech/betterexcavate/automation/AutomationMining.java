@@ -0,0 +1,138 @@
+package org.goldgomtech.betterexcavate.automation;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.common.util.FakePlayer;
+import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.HardnessTables;
+import org.goldgomtech.betterexcavate.MiningCalculator;
+import org.goldgomtech.betterexcavate.PositionalHardness;
+import org.goldgomtech.betterexcavate.StackHardness;
+import org.goldgomtech.betterexcavate.metrics.Metrics;
+import org.goldgomtech.betterexcavate.zone.HardnessZone;
+
+/**
+ * 自动化挖掘（采石场、钻头、海龟等模组的 FakePlayer）的快速路径
+ * FakePlayer 的挖掘频率远高于真实玩家，而挖掘会话、射线检测和周围方块统计对它们没有意义。
+ * 这里按 (物品, 方块状态) 缓存错误工具判断和方块硬度，工具硬度来自物品堆上的 {@link StackHardness} 缓存，
+ * 每次挖掘只剩曲线计算。缓存的是方块本身的硬度，与位置相关的修正（{@link PositionalHardness}）每次单独应用。
+ *
+ * 缓存是直接映射的数组，每个槽位是一个不可变的 {@link Decision}，替换槽位是原子的；
+ * 配置重载或硬度表变化时整体丢弃
+ */
+public final class AutomationMining {
+
+    private static final int CACHE_SIZE = 4096;
+
+    /**
+     * 一个 (物品, 方块状态) 组合的缓存结果
+     */
+    private record Decision(long key, boolean wrongTool, float blockHardness) {
+    }
+
+    private record Cache(HardnessTables tables, Decision[] slots) {
+    }
+
+    private static volatile Cache cache = new Cache(null, new Decision[CACHE_SIZE]);
+
+    private AutomationMining() {
+    }
+
+    /**
+     * 是否走自动化快速路径
+     */
+    public static boolean isAutomation(Player player) {
+        return Config.automationFastPath && player instanceof FakePlayer;
+    }
+
+    /**
+     * 配置加载后调用：丢弃所有缓存的结果
+     */
+    public static void applyConfig() {
+        cache = new Cache(null, new Decision[CACHE_SIZE]);
+    }
+
+    private static Decision getDecision(BlockGetter level, BlockState state, ItemStack tool) {
+        HardnessTables tables = Config.tables;
+        Cache current = cache;
+        if (current.tables() != tables) {
+            // 硬度表重新编译过，旧的结果全部作废
+            current = new Cache(tables, new Decision[CACHE_SIZE]);
+            cache = current;
+        }
+        long key = ((long) Item.getId(tool.getItem()) << 32) | (Block.getId(state) & 0xFFFFFFFFL);
+        int slot = (int) (key ^ (key >>> 29) ^ (key >>> 41)) & (CACHE_SIZE - 1);
+        Decision decision = current.slots()[slot];
+        if (decision != null && decision.key() == key) {
+            Metrics.AUTOMATION_CACHE_HITS.increment();
+            return decision;
+        }
+        Metrics.AUTOMATION_CACHE_MISSES.increment();
+
+        boolean wrongTool = tables.isWrongToolPenaltyEnabled() && !tool.isEmpty() && !Config.isCorrectToolType(tool, state);
+        decision = new Decision(key, wrongTool, state.getDestroySpeed(level, null));
+        current.slots()[slot] = decision;
+        return decision;
+    }
+
+    /**
+     * 已乘以 automationHardnessMultiplier 的工具硬度（含附魔和NBT修正，缓存在物品堆上）
+     */
+    private static double getToolHardness(ItemStack tool) {
+        return StackHardness.getToolHardness(tool) * Config.automationHardnessMultiplier;
+    }
+
+    private static double getWear(ItemStack tool) {
+        return Config.automationDurabilityPenalty ? Config.getWearPercentage(tool) : 0.0;
+    }
+
+    /**
+     * Inventory.getDestroySpeed 的快速路径，不做射线检测和周围方块统计
+     * @param pos 方块位置，未知时为null（不做位置修正）
+     * @param zone 方块所在的硬度区域（{@link PositionalHardness#findZone}）
+     */
+    public static float getDestroySpeed(Player player, BlockState state, BlockPos pos, HardnessZone zone,
+                                        ItemStack tool, float originalSpeed) {
+        Decision decision = getDecision(player.level(), state, tool);
+        if (decision.blockHardness() < 0) {
+            return originalSpeed;
+        }
+        if (PositionalHardness.isUnmineable(zone)) {
+            return 0.0F;
+        }
+        float blockHardness = PositionalHardness.apply(player.level(), pos, state, decision.blockHardness(), zone);
+        HardnessTables tables = Config.tables;
+        boolean hasTool = !tool.isEmpty();
+        float toolSpeed = originalSpeed;
+        if (hasTool && (tables.isBypassVanillaToolRestrictions() || originalSpeed == 1.0f)) {
+            toolSpeed = tool.getDestroySpeed(state);
+        }
+        float speed = MiningCalculator.calculateDestroySpeed(tables, originalSpeed, toolSpeed, hasTool, getToolHardness(tool),
+                getWear(tool), decision.wrongTool(), blockHardness, MiningCalculator.NO_SURROUNDING_COUNT);
+        return speed * (float) Config.automationSpeedMultiplier;
+    }
+
+    /**
+     * 挖掘模式：0=无法挖掘，1=正常挖掘有掉落，2=缓慢挖掘无掉落
+     * 方块本身不可破坏（如基岩）时返回1，与普通路径一样不干预原版行为
+     * @param pos 方块位置，未知时为null（不做位置修正）
+     */
+    public static int getMiningMode(Player player, BlockState state, BlockPos pos, ItemStack tool) {
+        Decision decision = getDecision(player.level(), state, tool);
+        if (decision.blockHardness() < 0) {
+            return 1;
+        }
+        HardnessTables tables = Config.tables;
+        double effectiveToolHardness = MiningCalculator.getEffectiveToolHardness(tables, getToolHardness(tool),
+                getWear(tool), !tool.isEmpty(), decision.wrongTool());
+        HardnessZone zone = PositionalHardness.findZone(player.level(), pos);
+        int miningMode = MiningCalculator.getMiningMode(tables,
+                PositionalHardness.apply(player.level(), pos, state, decision.blockHardness(), zone), effectiveToolHardness);
+        return PositionalHardness.overrideMode(zone, miningMode);
+    }
+}
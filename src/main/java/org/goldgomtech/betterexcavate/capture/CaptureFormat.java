@@ -0,0 +1,81 @@
+package org.goldgomtech.betterexcavate.capture;
+
+import java.nio.ByteOrder;
+
+/**
+ * 挖掘速度输入采样文件的二进制格式
+ *
+ * <pre>
+ * 文件头（32字节）
+ *   0  int   魔数 "BEC1"
+ *   4  int   版本
+ *   8  int   记录长度
+ *   12 int   文件头长度
+ *   16 long  创建时间（毫秒）
+ *   24 long  保留
+ *
+ * 记录（40字节）
+ *   0  int   方块状态ID（Block.getId）
+ *   4  int   物品ID
+ *   8  int   工具已损耗的耐久
+ *   12 int   工具最大耐久，不可损坏时为0
+ *   16 float 方块硬度
+ *   20 float 原版挖掘速度
+ *   24 float 工具本身的挖掘速度
+ *   28 float 采样时实际返回的速度
+ *   32 byte  周围相同方块数量，未统计时为-1
+ *   33 byte  标志位（1 手持物品，2 工具类型正确）
+ *   34 byte  采样时的挖掘模式
+ *   35 byte  保留
+ *   36 float 采样时的工具硬度（含提供者、附魔和NBT修正，不含耐久和错误工具惩罚）
+ * </pre>
+ *
+ * 文件旁的 .dict 文本文件记录出现过的物品和方块状态ID对应的名称，
+ * 重放时按名称查找，因此可以在注册表ID不同的环境中重放
+ */
+final class CaptureFormat {
+
+    static final int MAGIC = 0x42454331;
+    static final int VERSION = 2;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    static final int HEADER_SIZE = 32;
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int RECORD_SIZE_OFFSET = 8;
+    static final int HEADER_SIZE_OFFSET = 12;
+    static final int CREATED_OFFSET = 16;
+
+    static final int RECORD_SIZE = 40;
+    static final int STATE_OFFSET = 0;
+    static final int ITEM_OFFSET = 4;
+    static final int DAMAGE_OFFSET = 8;
+    static final int MAX_DAMAGE_OFFSET = 12;
+    static final int HARDNESS_OFFSET = 16;
+    static final int VANILLA_SPEED_OFFSET = 20;
+    static final int TOOL_SPEED_OFFSET = 24;
+    static final int SPEED_OFFSET = 28;
+    static final int NEIGHBOURS_OFFSET = 32;
+    static final int FLAGS_OFFSET = 33;
+    static final int MODE_OFFSET = 34;
+    static final int TOOL_HARDNESS_OFFSET = 36;
+
+    static final byte FLAG_HAS_TOOL = 1;
+    static final byte FLAG_CORRECT_TOOL = 1 << 1;
+
+    static final String CAPTURE_EXTENSION = ".bec";
+    static final String DICTIONARY_EXTENSION = ".dict";
+
+    static final String DICT_STATE = "state";
+    static final String DICT_ITEM = "item";
+
+    private CaptureFormat() {
+    }
+
+    /**
+     * 采样文件对应的字典文件名
+     */
+    static String dictionaryName(String captureName) {
+        return captureName.substring(0, captureName.length() - CAPTURE_EXTENSION.length()) + DICTIONARY_EXTENSION;
+    }
+}
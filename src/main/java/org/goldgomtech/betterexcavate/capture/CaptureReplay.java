@@ -0,0 +1,344 @@
+package org.goldgomtech.betterexcavate.capture;
+
+import net.minecraft.resources.ResourceLocation;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.goldgomtech.betterexcavate.HardnessTables;
+import org.goldgomtech.betterexcavate.MiningCalculator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * 以另一套配置重放速度采样文件
+ * 每个文件由一个fork/join任务处理，记录直接从内存映射读取，重放中不分配对象。
+ * 采样时实际返回的速度和模式作为"旧"值，按新配置重新计算的作为"新"值，汇总为两者的分布。
+ * 工具硬度使用采样时记录的值，因此重放评估的是曲线、倍数和惩罚等配置的变化；工具硬度表的变化用 whatif 评估
+ */
+public final class CaptureReplay {
+
+    private static final float[] QUANTILES = {0.1f, 0.5f, 0.9f, 0.99f};
+    // 速度相对变化超过这个比例才算"改变"
+    private static final double CHANGE_THRESHOLD = 0.01;
+    // 每次映射的最大字节数
+    private static final long WINDOW_BYTES = 1L << 28;
+
+    private CaptureReplay() {
+    }
+
+    /**
+     * 列出目录中的采样文件；参数是文件时直接返回该文件
+     */
+    public static List<Path> listCaptures(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return List.of(path);
+        }
+        try (Stream<Path> stream = Files.list(path)) {
+            return stream.filter(file -> file.getFileName().toString().endsWith(CaptureFormat.CAPTURE_EXTENSION))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * 并行重放所有文件
+     * @param tables 要评估的配置
+     */
+    public static Report replay(List<Path> files, HardnessTables tables, ForkJoinPool pool) throws IOException {
+        long start = System.nanoTime();
+        List<ReplayTask> tasks = new ArrayList<>(files.size());
+        for (Path file : files) {
+            tasks.add(new ReplayTask(file, tables));
+        }
+        Report report = new Report(files.size());
+        try {
+            pool.invoke(new RecursiveTask<Void>() {
+                @Override
+                protected Void compute() {
+                    invokeAll(tasks);
+                    return null;
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        for (ReplayTask task : tasks) {
+            report.merge(task.join());
+        }
+        report.elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+        return report;
+    }
+
+    /**
+     * 重放单个文件
+     * 文件按记录对齐的窗口分段映射，单个映射不超过 {@link #WINDOW_BYTES}，因此可以重放超过2GB的文件
+     */
+    static Report replayFile(Path file, HardnessTables tables) throws IOException {
+        Report report = new Report(1);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(CaptureFormat.HEADER_SIZE).order(CaptureFormat.ORDER);
+            if (size < CaptureFormat.HEADER_SIZE || channel.read(header, 0) < CaptureFormat.HEADER_SIZE
+                    || header.getInt(CaptureFormat.MAGIC_OFFSET) != CaptureFormat.MAGIC
+                    || header.getInt(CaptureFormat.VERSION_OFFSET) != CaptureFormat.VERSION) {
+                throw new IOException("Not a BetterExcavate speed capture (version " + CaptureFormat.VERSION + "): " + file);
+            }
+            int headerSize = header.getInt(CaptureFormat.HEADER_SIZE_OFFSET);
+            int recordSize = header.getInt(CaptureFormat.RECORD_SIZE_OFFSET);
+            long count = (size - headerSize) / recordSize;
+
+            // 按名称把采样时的物品ID映射到当前注册表
+            boolean[] known = readKnownItems(file.resolveSibling(CaptureFormat.dictionaryName(file.getFileName().toString())));
+
+            long recordsPerWindow = WINDOW_BYTES / recordSize;
+            for (long first = 0; first < count; first += recordsPerWindow) {
+                int records = (int) Math.min(recordsPerWindow, count - first);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                        headerSize + first * recordSize, (long) records * recordSize);
+                buffer.order(CaptureFormat.ORDER);
+                for (int i = 0; i < records; i++) {
+                    replayRecord(buffer, i * recordSize, known, tables, report);
+                }
+            }
+        }
+        return report;
+    }
+
+    private static void replayRecord(ByteBuffer buffer, int base, boolean[] known, HardnessTables tables, Report report) {
+        int itemId = buffer.getInt(base + CaptureFormat.ITEM_OFFSET);
+        if (itemId < 0 || itemId >= known.length || !known[itemId]) {
+            report.skipped++;
+            return;
+        }
+        byte flags = buffer.get(base + CaptureFormat.FLAGS_OFFSET);
+        boolean hasTool = (flags & CaptureFormat.FLAG_HAS_TOOL) != 0;
+        boolean correctTool = (flags & CaptureFormat.FLAG_CORRECT_TOOL) != 0;
+        int damage = buffer.getInt(base + CaptureFormat.DAMAGE_OFFSET);
+        int maxDamage = buffer.getInt(base + CaptureFormat.MAX_DAMAGE_OFFSET);
+        float blockHardness = buffer.getFloat(base + CaptureFormat.HARDNESS_OFFSET);
+        float vanillaSpeed = buffer.getFloat(base + CaptureFormat.VANILLA_SPEED_OFFSET);
+        float toolSpeed = buffer.getFloat(base + CaptureFormat.TOOL_SPEED_OFFSET);
+        float oldSpeed = buffer.getFloat(base + CaptureFormat.SPEED_OFFSET);
+        int neighbours = buffer.get(base + CaptureFormat.NEIGHBOURS_OFFSET);
+        int oldMode = buffer.get(base + CaptureFormat.MODE_OFFSET);
+
+        // 工具硬度使用采样时的值，其中已包含提供者、附魔和NBT修正，重放不需要原来的物品堆
+        double toolHardness = hasTool ? buffer.getFloat(base + CaptureFormat.TOOL_HARDNESS_OFFSET) : tables.getDefaultHardness();
+        double wear = maxDamage > 0 ? (double) damage / maxDamage : 0.0;
+        boolean wrongTool = tables.isWrongToolPenaltyEnabled() && hasTool && !correctTool;
+        float newSpeed = MiningCalculator.calculateDestroySpeed(tables, vanillaSpeed, toolSpeed, hasTool,
+                toolHardness, wear, wrongTool, blockHardness, neighbours);
+        int newMode = MiningCalculator.getMiningMode(tables, blockHardness,
+                MiningCalculator.getEffectiveToolHardness(tables, toolHardness, wear, hasTool, wrongTool));
+
+        report.record(oldSpeed, newSpeed, oldMode, newMode);
+        if (neighbours == MiningCalculator.NO_SURROUNDING_COUNT && tables.isSurroundingBlocksModifierEnabled()) {
+            report.missingNeighbours++;
+        }
+    }
+
+    private static final class ReplayTask extends RecursiveTask<Report> {
+        private final Path file;
+        private final HardnessTables tables;
+
+        ReplayTask(Path file, HardnessTables tables) {
+            this.file = file;
+            this.tables = tables;
+        }
+
+        @Override
+        protected Report compute() {
+            try {
+                return replayFile(file, tables);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * 采样文件中出现、且在当前注册表中存在的物品，按采样时的ID索引
+     */
+    private static boolean[] readKnownItems(Path dictionary) throws IOException {
+        List<String> lines = Files.exists(dictionary) ? Files.readAllLines(dictionary, StandardCharsets.UTF_8) : List.of();
+        List<Integer> ids = new ArrayList<>();
+        int maxId = -1;
+        for (String line : lines) {
+            String[] parts = line.split("\t", 3);
+            if (parts.length != 3 || !CaptureFormat.DICT_ITEM.equals(parts[0])) {
+                continue;
+            }
+            ResourceLocation name = ResourceLocation.tryParse(parts[2]);
+            if (name == null || !ForgeRegistries.ITEMS.containsKey(name)) {
+                continue;
+            }
+            int id;
+            try {
+                id = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (id >= 0) {
+                ids.add(id);
+                maxId = Math.max(maxId, id);
+            }
+        }
+
+        boolean[] known = new boolean[maxId + 1];
+        for (int id : ids) {
+            known[id] = true;
+        }
+        return known;
+    }
+
+    /**
+     * 重放结果：新旧速度的分布、模式变化矩阵和速度变化统计
+     */
+    public static final class Report {
+        private final int files;
+        private long records;
+        private long skipped;
+        private long missingNeighbours;
+        private long changed;
+        private long elapsedMillis;
+        private final SpeedDistribution oldSpeeds = new SpeedDistribution();
+        private final SpeedDistribution newSpeeds = new SpeedDistribution();
+        // [旧模式][新模式]
+        private final long[][] modeTransitions = new long[3][3];
+
+        Report(int files) {
+            this.files = files;
+        }
+
+        void record(float oldSpeed, float newSpeed, int oldMode, int newMode) {
+            records++;
+            oldSpeeds.record(oldSpeed);
+            newSpeeds.record(newSpeed);
+            if (oldMode >= 0 && oldMode < 3 && newMode >= 0 && newMode < 3) {
+                modeTransitions[oldMode][newMode]++;
+            }
+            if (Math.abs(newSpeed - oldSpeed) > CHANGE_THRESHOLD * Math.max(Math.abs(oldSpeed), 1e-6)) {
+                changed++;
+            }
+        }
+
+        void merge(Report other) {
+            records += other.records;
+            skipped += other.skipped;
+            missingNeighbours += other.missingNeighbours;
+            changed += other.changed;
+            oldSpeeds.merge(other.oldSpeeds);
+            newSpeeds.merge(other.newSpeeds);
+            for (int i = 0; i < 3; i++) {
+                for (int j = 0; j < 3; j++) {
+                    modeTransitions[i][j] += other.modeTransitions[i][j];
+                }
+            }
+        }
+
+        public int getFiles() {
+            return files;
+        }
+
+        public long getRecords() {
+            return records;
+        }
+
+        /** 物品在当前注册表中不存在而跳过的记录数 */
+        public long getSkipped() {
+            return skipped;
+        }
+
+        /** 速度相对变化超过1%的记录数 */
+        public long getChanged() {
+            return changed;
+        }
+
+        /** 挖掘模式改变的记录数 */
+        public long getModeChanges() {
+            long total = 0;
+            for (int i = 0; i < 3; i++) {
+                for (int j = 0; j < 3; j++) {
+                    if (i != j) {
+                        total += modeTransitions[i][j];
+                    }
+                }
+            }
+            return total;
+        }
+
+        public long getTransitions(int oldMode, int newMode) {
+            return modeTransitions[oldMode][newMode];
+        }
+
+        public double getOldMeanSpeed() {
+            return oldSpeeds.mean();
+        }
+
+        public double getNewMeanSpeed() {
+            return newSpeeds.mean();
+        }
+
+        public float getOldSpeedQuantile(float q) {
+            return oldSpeeds.quantile(q);
+        }
+
+        public float getNewSpeedQuantile(float q) {
+            return newSpeeds.quantile(q);
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /**
+         * 写出完整的文本报告
+         */
+        public void write(Writer out) throws IOException {
+            out.write(String.format(Locale.ROOT, "files: %d%nrecords: %d%nskipped (unknown item): %d%nelapsed: %d ms%n",
+                    files, records, skipped, elapsedMillis));
+            if (missingNeighbours > 0) {
+                out.write(String.format(Locale.ROOT, "records without neighbour count (captured with the modifier disabled): %d%n",
+                        missingNeighbours));
+            }
+            out.write(String.format(Locale.ROOT, "speed changed by more than %.0f%%: %d%n%n", CHANGE_THRESHOLD * 100, changed));
+
+            out.write(String.format(Locale.ROOT, "%-8s %12s %12s%n", "speed", "old", "new"));
+            out.write(String.format(Locale.ROOT, "%-8s %12.4f %12.4f%n", "mean", oldSpeeds.mean(), newSpeeds.mean()));
+            for (float q : QUANTILES) {
+                out.write(String.format(Locale.ROOT, "%-8s %12.4f %12.4f%n", "p" + Math.round(q * 100),
+                        oldSpeeds.quantile(q), newSpeeds.quantile(q)));
+            }
+
+            out.write(String.format(Locale.ROOT, "%nmode transitions (rows old, columns new)%n%-8s %12s %12s %12s%n",
+                    "", "0", "1", "2"));
+            for (int i = 0; i < 3; i++) {
+                out.write(String.format(Locale.ROOT, "%-8d %12d %12d %12d%n",
+                        i, modeTransitions[i][0], modeTransitions[i][1], modeTransitions[i][2]));
+            }
+
+            out.write(String.format(Locale.ROOT, "%nspeed histogram (bucket lower bound, old count, new count)%n"));
+            for (int bucket = 0; bucket < SpeedDistribution.BUCKETS; bucket++) {
+                long oldCount = oldSpeeds.count(bucket);
+                long newCount = newSpeeds.count(bucket);
+                if (oldCount != 0 || newCount != 0) {
+                    out.write(String.format(Locale.ROOT, "%12.6f %12d %12d%n",
+                            SpeedDistribution.lowerBound(bucket), oldCount, newCount));
+                }
+            }
+        }
+    }
+}
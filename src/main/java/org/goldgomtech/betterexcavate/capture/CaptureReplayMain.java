@@ -0,0 +1,79 @@
+package org.goldgomtech.betterexcavate.capture;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import org.goldgomtech.betterexcavate.HardnessTables;
+import org.goldgomtech.betterexcavate.whatif.WhatIfEvaluator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 速度采样重放的无界面入口，可通过 gradlew replayCapture 调用：
+ *
+ *   gradlew replayCapture -PreplayArgs="--config proposed.toml --out replay.txt run/betterexcavate/capture"
+ *
+ * 注意：只初始化原版注册表，采样中的模组物品会被跳过并计入报告的 skipped。
+ * 需要完整模组包的结果时请在服务器中使用 /betterexcavate capture replay 命令
+ */
+public final class CaptureReplayMain {
+
+    private CaptureReplayMain() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path configFile = null;
+        String output = "-";
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Path> inputs = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--config" -> configFile = Path.of(requireValue(args, ++i));
+                case "--out" -> output = requireValue(args, ++i);
+                case "--threads" -> threads = Math.max(1, Integer.parseInt(requireValue(args, ++i)));
+                default -> inputs.add(Path.of(args[i]));
+            }
+        }
+        if (inputs.isEmpty()) {
+            System.err.println("Usage: CaptureReplayMain [--config <file>] [--out <file>|-] [--threads N] <capture file or directory>...");
+            System.exit(2);
+        }
+
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+
+        List<Path> files = new ArrayList<>();
+        for (Path input : inputs) {
+            files.addAll(CaptureReplay.listCaptures(input));
+        }
+        HardnessTables tables = WhatIfEvaluator.loadConfig(configFile, false);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        boolean toStdout = "-".equals(output);
+        try (Writer writer = toStdout
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(Path.of(output), StandardCharsets.UTF_8)) {
+            CaptureReplay.Report report = CaptureReplay.replay(files, tables, pool);
+            report.write(writer);
+            System.err.printf("Replayed %d records from %d files in %d ms%n",
+                    report.getRecords(), report.getFiles(), report.getElapsedMillis());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static String requireValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+}
@@ -0,0 +1,158 @@
+package org.goldgomtech.betterexcavate.capture;
+
+import net.minecraft.commands.arguments.blocks.BlockStateParser;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.level.block.Block;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 采样文件的写入线程
+ * 游戏线程把记录追加到预先分配的缓冲区中，缓冲区写满后交给这个线程写入文件并归还，
+ * 游戏线程只在交换缓冲区时做一次非阻塞的入队/出队
+ */
+final class CaptureWriter implements Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    private static final int BUFFER_RECORDS = 2048;
+    private static final int BUFFER_COUNT = 4;
+
+    // 已写满等待写入的缓冲区和可复用的空缓冲区
+    private final BlockingQueue<ByteBuffer> full = new ArrayBlockingQueue<>(BUFFER_COUNT);
+    private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(BUFFER_COUNT);
+
+    private final Path file;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private final BitSet seenStates = new BitSet();
+    private final BitSet seenItems = new BitSet();
+
+    CaptureWriter(Path file) {
+        this.file = file;
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            free.add(ByteBuffer.allocate(BUFFER_RECORDS * CaptureFormat.RECORD_SIZE).order(CaptureFormat.ORDER));
+        }
+        this.thread = new Thread(this, "BetterExcavate Capture Writer");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    Path file() {
+        return file;
+    }
+
+    /**
+     * 取一个空缓冲区，没有可用的缓冲区时返回null（写入线程跟不上）
+     */
+    ByteBuffer takeFree() {
+        return free.poll();
+    }
+
+    /**
+     * 提交写满的缓冲区；队列容量等于缓冲区总数，不会失败
+     */
+    void submit(ByteBuffer buffer) {
+        full.offer(buffer);
+    }
+
+    /**
+     * 写完已提交的缓冲区后关闭文件
+     */
+    void stop(long waitMillis) {
+        running = false;
+        try {
+            thread.join(waitMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 BufferedWriter dictionary = Files.newBufferedWriter(file.resolveSibling(
+                         CaptureFormat.dictionaryName(file.getFileName().toString())), StandardCharsets.UTF_8)) {
+                writeHeader(channel);
+                while (running || !full.isEmpty()) {
+                    ByteBuffer buffer = full.poll(100, TimeUnit.MILLISECONDS);
+                    if (buffer == null) {
+                        continue;
+                    }
+                    buffer.flip();
+                    writeDictionary(buffer, dictionary);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    buffer.clear();
+                    free.offer(buffer);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("[BetterExcavate] Speed capture stopped after a write failure in {}", file, e);
+            SpeedCapture.writerFailed(this);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(CaptureFormat.HEADER_SIZE).order(CaptureFormat.ORDER);
+        header.putInt(CaptureFormat.MAGIC_OFFSET, CaptureFormat.MAGIC);
+        header.putInt(CaptureFormat.VERSION_OFFSET, CaptureFormat.VERSION);
+        header.putInt(CaptureFormat.RECORD_SIZE_OFFSET, CaptureFormat.RECORD_SIZE);
+        header.putInt(CaptureFormat.HEADER_SIZE_OFFSET, CaptureFormat.HEADER_SIZE);
+        header.putLong(CaptureFormat.CREATED_OFFSET, System.currentTimeMillis());
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    /**
+     * 为缓冲区中第一次出现的ID写入名称
+     */
+    private void writeDictionary(ByteBuffer buffer, BufferedWriter dictionary) throws IOException {
+        for (int base = 0; base < buffer.limit(); base += CaptureFormat.RECORD_SIZE) {
+            int stateId = buffer.getInt(base + CaptureFormat.STATE_OFFSET);
+            if (!seenStates.get(stateId)) {
+                seenStates.set(stateId);
+                writeEntry(dictionary, CaptureFormat.DICT_STATE, stateId, BlockStateParser.serialize(Block.stateById(stateId)));
+            }
+            int itemId = buffer.getInt(base + CaptureFormat.ITEM_OFFSET);
+            if (!seenItems.get(itemId)) {
+                seenItems.set(itemId);
+                writeEntry(dictionary, CaptureFormat.DICT_ITEM, itemId,
+                        String.valueOf(BuiltInRegistries.ITEM.getKey(BuiltInRegistries.ITEM.byId(itemId))));
+            }
+        }
+        dictionary.flush();
+    }
+
+    private static void writeEntry(BufferedWriter dictionary, String kind, int id, String name) throws IOException {
+        dictionary.write(kind);
+        dictionary.write('\t');
+        dictionary.write(Integer.toString(id));
+        dictionary.write('\t');
+        dictionary.write(name);
+        dictionary.newLine();
+    }
+}
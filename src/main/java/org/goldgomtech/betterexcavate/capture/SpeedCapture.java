@@ -0,0 +1,175 @@
+package org.goldgomtech.betterexcavate.capture;
+
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.goldgomtech.betterexcavate.BetterExcavate;
+import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.MiningCalculator;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 采样记录 Inventory.getDestroySpeed 的输入（方块状态、硬度、物品、工具硬度、损耗、周围方块数量、原版速度），
+ * 用于之后以不同的配置离线重放，见 {@link CaptureReplay}。
+ * 由 /betterexcavate capture start|stop 控制，未启用时Mixin中只有一次布尔判断。
+ * 只记录服务端的调用，记录追加在服务端主线程独占的缓冲区中，写满后交给 {@link CaptureWriter}
+ */
+@Mod.EventBusSubscriber(modid = BetterExcavate.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public final class SpeedCapture {
+
+    // 停止时等待写入线程写完剩余记录的最长时间
+    private static final long STOP_WAIT_MILLIS = 5000;
+
+    private static volatile boolean active;
+    private static volatile float sampleRate;
+    private static CaptureWriter writer;
+    // 只在服务端主线程访问
+    private static ByteBuffer buffer;
+
+    private static final LongAdder recorded = new LongAdder();
+    private static final LongAdder dropped = new LongAdder();
+
+    private SpeedCapture() {
+    }
+
+    public static boolean isActive() {
+        return active;
+    }
+
+    /**
+     * 开始采样到新文件，只在服务端主线程调用
+     * @return 是否开始（已经在采样时返回false）
+     */
+    public static synchronized boolean start(Path file, float rate) {
+        if (writer != null) {
+            return false;
+        }
+        writer = new CaptureWriter(file);
+        writer.start();
+        buffer = writer.takeFree();
+        sampleRate = rate;
+        recorded.reset();
+        dropped.reset();
+        active = true;
+        return true;
+    }
+
+    /**
+     * 停止采样，写出剩余记录后关闭文件，只在服务端主线程调用
+     * @return 采样文件；未在采样时为null
+     */
+    public static synchronized Path stop() {
+        if (writer == null) {
+            return null;
+        }
+        active = false;
+        if (buffer != null && buffer.position() > 0) {
+            writer.submit(buffer);
+        }
+        buffer = null;
+        writer.stop(STOP_WAIT_MILLIS);
+        Path file = writer.file();
+        writer = null;
+        return file;
+    }
+
+    static synchronized void writerFailed(CaptureWriter failed) {
+        if (writer == failed) {
+            active = false;
+        }
+    }
+
+    /** 当前的采样文件，未在采样时为null */
+    public static synchronized Path getFile() {
+        return writer == null ? null : writer.file();
+    }
+
+    public static float getSampleRate() {
+        return sampleRate;
+    }
+
+    public static long getRecordedCount() {
+        return recorded.sum();
+    }
+
+    /** 写入线程跟不上时丢弃的记录数 */
+    public static long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 按采样率记录一次速度计算的输入
+     * @param toolHardness 未应用惩罚的工具硬度（含提供者、附魔和NBT修正），重放时直接使用
+     * @param wrongTool 本次计算是否按错误工具处理
+     * @param speed 本次计算返回的速度
+     */
+    public static void record(Player player, BlockState state, ItemStack heldItem, float blockHardness, double toolHardness,
+                              boolean wrongTool, int identicalBlocks, float vanillaSpeed, float speed) {
+        // 单人游戏中客户端也会调用同样的Mixin，只记录服务端
+        if (player.level().isClientSide()) {
+            return;
+        }
+        float rate = sampleRate;
+        if (rate < 1.0f && ThreadLocalRandom.current().nextFloat() >= rate) {
+            return;
+        }
+        ByteBuffer target = buffer;
+        if (target == null && (target = nextBuffer()) == null) {
+            dropped.increment();
+            return;
+        }
+
+        boolean hasTool = !heldItem.isEmpty();
+        // 重放时的配置可能绕过原版工具限制，因此总是记录工具本身的速度
+        float toolSpeed = hasTool ? heldItem.getDestroySpeed(state) : vanillaSpeed;
+        boolean correctTool = hasTool && Config.isCorrectToolType(heldItem, state);
+        double wear = Config.getWearPercentage(heldItem);
+        int mode = MiningCalculator.getMiningMode(Config.tables, blockHardness,
+                MiningCalculator.getEffectiveToolHardness(Config.tables, toolHardness, wear, hasTool, wrongTool));
+        byte flags = (byte) ((hasTool ? CaptureFormat.FLAG_HAS_TOOL : 0) | (correctTool ? CaptureFormat.FLAG_CORRECT_TOOL : 0));
+
+        int base = target.position();
+        target.putInt(base + CaptureFormat.STATE_OFFSET, Block.getId(state));
+        target.putInt(base + CaptureFormat.ITEM_OFFSET, BuiltInRegistries.ITEM.getId(heldItem.getItem()));
+        target.putInt(base + CaptureFormat.DAMAGE_OFFSET, heldItem.getDamageValue());
+        target.putInt(base + CaptureFormat.MAX_DAMAGE_OFFSET, heldItem.isDamageableItem() ? heldItem.getMaxDamage() : 0);
+        target.putFloat(base + CaptureFormat.HARDNESS_OFFSET, blockHardness);
+        target.putFloat(base + CaptureFormat.VANILLA_SPEED_OFFSET, vanillaSpeed);
+        target.putFloat(base + CaptureFormat.TOOL_SPEED_OFFSET, toolSpeed);
+        target.putFloat(base + CaptureFormat.SPEED_OFFSET, speed);
+        target.put(base + CaptureFormat.NEIGHBOURS_OFFSET, (byte) identicalBlocks);
+        target.put(base + CaptureFormat.FLAGS_OFFSET, flags);
+        target.put(base + CaptureFormat.MODE_OFFSET, (byte) mode);
+        target.putFloat(base + CaptureFormat.TOOL_HARDNESS_OFFSET, (float) toolHardness);
+        target.position(base + CaptureFormat.RECORD_SIZE);
+        recorded.increment();
+
+        if (!target.hasRemaining()) {
+            writer.submit(target);
+            buffer = null;
+        }
+    }
+
+    private static ByteBuffer nextBuffer() {
+        CaptureWriter current = writer;
+        if (current == null) {
+            return null;
+        }
+        buffer = current.takeFree();
+        return buffer;
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        stop();
+    }
+}
@@ -0,0 +1,77 @@
+package org.goldgomtech.betterexcavate.capture;
+
+/**
+ * 挖掘速度的对数分桶直方图
+ * 每个2的幂次分为4个桶，覆盖 2^-16 到 2^16，更小的值（包括0）计入第一个桶，更大的值计入最后一个桶。
+ * 分桶只用浮点数的指数和尾数最高两位，不需要计算对数
+ */
+final class SpeedDistribution {
+
+    private static final int MIN_EXPONENT = -16;
+    private static final int MAX_EXPONENT = 15;
+    private static final int SUB_BUCKETS = 4;
+    static final int BUCKETS = (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private double sum;
+
+    void record(float speed) {
+        counts[bucketOf(speed)]++;
+        count++;
+        sum += speed;
+    }
+
+    void merge(SpeedDistribution other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+    }
+
+    long count(int bucket) {
+        return counts[bucket];
+    }
+
+    double mean() {
+        return count == 0 ? 0.0 : sum / count;
+    }
+
+    /**
+     * 近似分位数，返回所在桶的下界
+     */
+    float quantile(float q) {
+        if (count == 0) {
+            return 0.0f;
+        }
+        long rank = (long) Math.ceil(q * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return lowerBound(i);
+            }
+        }
+        return lowerBound(BUCKETS - 1);
+    }
+
+    static int bucketOf(float speed) {
+        if (!(speed >= Math.scalb(1.0f, MIN_EXPONENT))) {
+            return 0;
+        }
+        int exponent = Math.getExponent(speed);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        // 尾数的最高两位
+        int sub = (Float.floatToRawIntBits(speed) >>> 21) & (SUB_BUCKETS - 1);
+        return (exponent - MIN_EXPONENT) * SUB_BUCKETS + sub;
+    }
+
+    static float lowerBound(int bucket) {
+        int exponent = bucket / SUB_BUCKETS + MIN_EXPONENT;
+        int sub = bucket % SUB_BUCKETS;
+        return Math.scalb(1.0f + (float) sub / SUB_BUCKETS, exponent);
+    }
+}
@@ -0,0 +1,91 @@
+package org.goldgomtech.betterexcavate.client;
+
+import net.minecraft.client.Minecraft;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.ClientPlayerNetworkEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.goldgomtech.betterexcavate.BetterExcavate;
+import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.HardnessTables;
+import org.goldgomtech.betterexcavate.network.BetterExcavateNetwork;
+import org.goldgomtech.betterexcavate.network.RequestTablesPacket;
+import org.goldgomtech.betterexcavate.zone.HardnessZones;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 客户端硬度表同步
+ * 连接服务器后使用服务端的硬度表计算挖掘速度，断开连接时恢复本地配置
+ */
+@Mod.EventBusSubscriber(modid = BetterExcavate.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE, value = Dist.CLIENT)
+public class ClientTablesSync {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    // 服务端同步来的硬度表，未连接或与本地一致时为null
+    // 配置重载时可能在文件监听线程中读取（reapplyServerTables）
+    private static volatile HardnessTables serverTables;
+
+    /**
+     * 收到服务端硬度表哈希
+     */
+    public static void onServerHash(long hash) {
+        // 注册表同步后物品ID可能被重新映射，按当前生效的值重新编译后再比较
+        HardnessTables current = HardnessTables.compile();
+        Config.tables = current;
+        if (current.getHash() == hash) {
+            if (Config.enableDebugLogging) {
+                LOGGER.info("[BetterExcavate] Hardness tables already match server (hash {})", Long.toHexString(hash));
+            }
+            return;
+        }
+        BetterExcavateNetwork.CHANNEL.sendToServer(new RequestTablesPacket());
+    }
+
+    /**
+     * 收到服务端完整的硬度表
+     */
+    public static void onServerTables(byte[] data) {
+        HardnessTables received;
+        try {
+            received = HardnessTables.decode(data);
+        } catch (RuntimeException e) {
+            LOGGER.error("[BetterExcavate] Failed to decode hardness tables from server: {}", e.getMessage());
+            return;
+        }
+        serverTables = received;
+        received.applyToConfig();
+        Config.tables = received;
+        LOGGER.info("[BetterExcavate] Applied server hardness tables ({} tools, hash {})",
+                received.getToolCount(), Long.toHexString(received.getHash()));
+    }
+
+    /**
+     * 本地配置重新加载后，如果正在使用服务端硬度表则重新应用
+     */
+    public static void reapplyServerTables() {
+        HardnessTables tables = serverTables;
+        if (tables != null) {
+            tables.applyToConfig();
+            Config.tables = tables;
+        }
+    }
+
+    /**
+     * 在客户端主线程执行，供不在客户端代码中的调用方使用
+     */
+    public static void execute(Runnable task) {
+        Minecraft.getInstance().execute(task);
+    }
+
+    @SubscribeEvent
+    public static void onLoggingOut(ClientPlayerNetworkEvent.LoggingOut event) {
+        HardnessZones.clearClientZones();
+        if (serverTables != null) {
+            serverTables = null;
+            // 恢复本地配置
+            Config.load();
+        }
+    }
+}
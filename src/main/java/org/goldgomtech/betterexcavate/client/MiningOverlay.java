@@ -0,0 +1,403 @@
+package org.goldgomtech.betterexcavate.client;
+
+import com.mojang.blaze3d.platform.InputConstants;
+import net.minecraft.client.KeyMapping;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.client.player.LocalPlayer;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.SectionPos;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.EmptyBlockGetter;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.ClientPlayerNetworkEvent;
+import net.minecraftforge.client.event.RegisterKeyMappingsEvent;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.goldgomtech.betterexcavate.BetterExcavate;
+import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.HardnessTables;
+import org.goldgomtech.betterexcavate.MiningCalculator;
+import org.goldgomtech.betterexcavate.PositionalHardness;
+import org.goldgomtech.betterexcavate.StackHardness;
+import org.goldgomtech.betterexcavate.zone.HardnessZone;
+import org.goldgomtech.betterexcavate.zone.HardnessZones;
+import org.lwjgl.glfw.GLFW;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 客户端挖掘叠加层：标出玩家附近手持工具无法挖掘（模式0）或只能缓慢挖掘（模式2）的方块
+ *
+ * 每个区块分段（16x16x16）由后台线程分类：先按方块状态缓存手持工具的判断（方块硬度和有效工具硬度），
+ * 再逐个位置应用位置修正和硬度区域，得到每个方块一个字节的数组，以及需要绘制的（暴露在外的）方块下标。
+ * 渲染时只读取已完成的结果（见 {@link MiningOverlayRenderer}）。
+ * 方块变化时原版标记分段需要重新渲染，LevelRendererMixin 同时把分段标记为脏，只有脏分段和新进入范围的分段会重新分类；
+ * 手持工具、硬度表或硬度区域变化时开始新的一代，所有分段重新分类，旧的结果在被替换前继续显示。
+ * 工具耐久的变化按 {@link #WEAR_BUCKETS} 分档，挖掘时每次掉耐久不会使结果作废
+ */
+@Mod.EventBusSubscriber(modid = BetterExcavate.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE, value = Dist.CLIENT)
+public final class MiningOverlay {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    /** 分段中每个方块的分类 */
+    public static final byte NORMAL = 0;
+    public static final byte SLOW = 1;
+    public static final byte UNMINEABLE = 2;
+
+    // 每tick最多提交的分段数，避免进入新区域时一次性排满队列
+    private static final int MAX_JOBS_PER_TICK = 8;
+    // 每隔多少tick清理一次超出范围的分段
+    private static final int PRUNE_INTERVAL = 20;
+    // 磨损程度的分档数，同一档内的耐久变化不重新分类
+    private static final int WEAR_BUCKETS = 20;
+
+    public static final KeyMapping TOGGLE_KEY = new KeyMapping("key.betterexcavate.toggle_overlay",
+            InputConstants.Type.KEYSYM, GLFW.GLFW_KEY_O, "key.categories.betterexcavate");
+
+    /**
+     * 一个分段的分类结果
+     * @param generation 分类时的代，与当前的代不同时需要重新分类
+     * @param codes 按 (y << 8) | (z << 4) | x 索引的分类，没有需要标出的方块时为null
+     * @param highlighted 需要绘制的方块下标（非正常分类且至少一面暴露）
+     */
+    public record Section(int x, int y, int z, int generation, byte[] codes, short[] highlighted) {
+    }
+
+    /**
+     * 分类时使用的手持工具状态，在主线程创建
+     * decisions 只由后台线程访问
+     */
+    private record ToolSnapshot(int generation, ClientLevel level, ItemStack tool, HardnessTables tables, int zoneVersion,
+                                double toolHardness, double wear, Map<BlockState, StateDecision> decisions) {
+    }
+
+    /**
+     * 方块状态对手持工具的判断，不含位置修正
+     */
+    private record StateDecision(float blockHardness, double effectiveToolHardness) {
+    }
+
+    private static final Map<Long, Section> sections = new ConcurrentHashMap<>();
+    private static final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    // 已提交给后台线程、尚未完成的分段
+    private static final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    private static volatile boolean enabled;
+    // 工具状态变化时递增，旧代的结果需要重新分类
+    private static int generation;
+    // 清空结果时的代，更早的结果不再写入
+    private static volatile int minGeneration;
+    private static ToolSnapshot snapshot;
+    private static ExecutorService worker;
+    private static int ticks;
+
+    private MiningOverlay() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 已完成的分段，渲染线程每帧读取
+     */
+    public static Collection<Section> getSections() {
+        return sections.values();
+    }
+
+    /**
+     * 原版标记分段需要重新渲染时调用（方块变化、区块加载）
+     */
+    public static void markDirty(int sectionX, int sectionY, int sectionZ) {
+        if (enabled) {
+            dirty.add(SectionPos.asLong(sectionX, sectionY, sectionZ));
+        }
+    }
+
+    private static void setEnabled(boolean value) {
+        enabled = value;
+        reset();
+    }
+
+    private static void reset() {
+        generation++;
+        minGeneration = generation;
+        snapshot = null;
+        sections.clear();
+        dirty.clear();
+    }
+
+    @SubscribeEvent
+    public static void onClientTick(TickEvent.ClientTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) {
+            return;
+        }
+        Minecraft minecraft = Minecraft.getInstance();
+        LocalPlayer player = minecraft.player;
+        ClientLevel level = minecraft.level;
+        while (TOGGLE_KEY.consumeClick()) {
+            setEnabled(!enabled);
+            if (player != null) {
+                player.displayClientMessage(Component.translatable(enabled
+                        ? "betterexcavate.overlay.enabled" : "betterexcavate.overlay.disabled"), true);
+            }
+        }
+        if (!enabled || player == null || level == null) {
+            return;
+        }
+
+        ItemStack tool = player.getMainHandItem();
+        HardnessTables tables = Config.tables;
+        int zoneVersion = HardnessZones.getClientVersion();
+        double wear = Config.getWearPercentage(tool);
+        ToolSnapshot current = snapshot;
+        if (current == null || current.level() != level) {
+            reset();
+            current = createSnapshot(level, tool, tables, zoneVersion, wear);
+        } else if (current.tables() != tables || current.zoneVersion() != zoneVersion
+                || !isSameIgnoringDamage(current.tool(), tool) || getWearBucket(current.wear()) != getWearBucket(wear)) {
+            // 保留旧的结果直到被新一代替换，dirty 中的分段也都会因为代不同而重新分类
+            generation++;
+            dirty.clear();
+            current = createSnapshot(level, tool, tables, zoneVersion, wear);
+        }
+
+        int radius = Config.overlayRadius;
+        SectionPos center = SectionPos.of(player.blockPosition());
+        if (++ticks % PRUNE_INTERVAL == 0) {
+            prune(center, radius + 1);
+        }
+        schedule(level, current, center, radius);
+    }
+
+    private static ToolSnapshot createSnapshot(ClientLevel level, ItemStack tool, HardnessTables tables, int zoneVersion,
+                                               double wear) {
+        ToolSnapshot created = new ToolSnapshot(generation, level, tool.copy(), tables, zoneVersion,
+                StackHardness.getToolHardness(tables, tool), wear, new IdentityHashMap<>());
+        snapshot = created;
+        return created;
+    }
+
+    /**
+     * 比较物品和NBT，忽略耐久值，耐久的变化由磨损分档处理
+     */
+    private static boolean isSameIgnoringDamage(ItemStack previous, ItemStack tool) {
+        if (!ItemStack.isSameItem(previous, tool)) {
+            return false;
+        }
+        if (previous.getDamageValue() == tool.getDamageValue()) {
+            return ItemStack.isSameItemSameTags(previous, tool);
+        }
+        ItemStack undamaged = tool.copy();
+        undamaged.setDamageValue(previous.getDamageValue());
+        return ItemStack.isSameItemSameTags(previous, undamaged);
+    }
+
+    private static int getWearBucket(double wear) {
+        return (int) (wear * WEAR_BUCKETS);
+    }
+
+    /**
+     * 由近到远提交缺失、脏或属于旧代的分段
+     */
+    private static void schedule(ClientLevel level, ToolSnapshot current, SectionPos center, int radius) {
+        int submitted = 0;
+        int minSection = level.getMinSection();
+        int maxSection = level.getMaxSection();
+        for (int distance = 0; distance <= radius && submitted < MAX_JOBS_PER_TICK; distance++) {
+            for (int dx = -distance; dx <= distance; dx++) {
+                for (int dy = -distance; dy <= distance; dy++) {
+                    for (int dz = -distance; dz <= distance; dz++) {
+                        if (Math.max(Math.abs(dx), Math.max(Math.abs(dy), Math.abs(dz))) != distance) {
+                            continue;
+                        }
+                        int x = center.x() + dx;
+                        int y = center.y() + dy;
+                        int z = center.z() + dz;
+                        if (y < minSection || y >= maxSection || !level.getChunkSource().hasChunk(x, z)) {
+                            continue;
+                        }
+                        long key = SectionPos.asLong(x, y, z);
+                        Section existing = sections.get(key);
+                        if (pending.contains(key) || (existing != null && existing.generation() == current.generation()
+                                && !dirty.contains(key))) {
+                            continue;
+                        }
+                        dirty.remove(key);
+                        pending.add(key);
+                        submit(current, key, x, y, z);
+                        if (++submitted >= MAX_JOBS_PER_TICK) {
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void submit(ToolSnapshot current, long key, int x, int y, int z) {
+        if (worker == null) {
+            worker = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "BetterExcavate Overlay");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        worker.execute(() -> {
+            try {
+                Section section = classify(current, x, y, z);
+                // 清空后完成的结果丢弃；不会覆盖更新一代的结果。写入旧代的结果时 schedule 会因为代不同而重新分类
+                sections.compute(key, (k, old) -> section.generation() < minGeneration
+                        || (old != null && old.generation() > section.generation()) ? old : section);
+            } catch (RuntimeException e) {
+                // 区块可能在分类期间被卸载，下次进入范围时重新分类
+                LOGGER.debug("[BetterExcavate] Could not classify section {} {} {}: {}", x, y, z, e.toString());
+            } finally {
+                pending.remove(key);
+            }
+        });
+    }
+
+    private static void prune(SectionPos center, int radius) {
+        Iterator<Map.Entry<Long, Section>> iterator = sections.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Section section = iterator.next().getValue();
+            if (Math.abs(section.x() - center.x()) > radius || Math.abs(section.y() - center.y()) > radius
+                    || Math.abs(section.z() - center.z()) > radius) {
+                iterator.remove();
+            }
+        }
+        dirty.removeIf(key -> !sections.containsKey(key));
+    }
+
+    /**
+     * 在后台线程中分类一个分段
+     */
+    private static Section classify(ToolSnapshot current, int sectionX, int sectionY, int sectionZ) {
+        ClientLevel level = current.level();
+        LevelChunk chunk = level.getChunkSource().getChunk(sectionX, sectionZ, false);
+        int index = level.getSectionIndexFromSectionY(sectionY);
+        if (chunk == null || index < 0 || index >= chunk.getSections().length) {
+            return new Section(sectionX, sectionY, sectionZ, current.generation(), null, new short[0]);
+        }
+        LevelChunkSection section = chunk.getSection(index);
+        if (section.hasOnlyAir()) {
+            return new Section(sectionX, sectionY, sectionZ, current.generation(), null, new short[0]);
+        }
+
+        HardnessTables tables = current.tables();
+        boolean dropControl = tables.isDropControlEnabled();
+        byte[] codes = new byte[4096];
+        short[] highlighted = new short[4096];
+        int count = 0;
+        boolean any = false;
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        int baseX = SectionPos.sectionToBlockCoord(sectionX);
+        int baseY = SectionPos.sectionToBlockCoord(sectionY);
+        int baseZ = SectionPos.sectionToBlockCoord(sectionZ);
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    BlockState state = section.getBlockState(x, y, z);
+                    if (state.isAir()) {
+                        continue;
+                    }
+                    StateDecision decision = current.decisions().computeIfAbsent(state, key -> decide(current, key));
+                    // 原版不可破坏的方块不标出
+                    if (decision.blockHardness() < 0) {
+                        continue;
+                    }
+                    pos.set(baseX + x, baseY + y, baseZ + z);
+                    HardnessZone zone = PositionalHardness.findZone(level, pos);
+                    int miningMode;
+                    if (dropControl) {
+                        float blockHardness = PositionalHardness.apply(level, pos, state, decision.blockHardness(), zone);
+                        miningMode = PositionalHardness.overrideMode(zone,
+                                MiningCalculator.getMiningMode(tables, blockHardness, decision.effectiveToolHardness()));
+                    } else {
+                        // 不控制掉落时只有强制无法挖掘的区域会阻止挖掘
+                        miningMode = PositionalHardness.isUnmineable(zone) ? 0 : 1;
+                    }
+                    if (miningMode == 1) {
+                        continue;
+                    }
+                    int i = (y << 8) | (z << 4) | x;
+                    codes[i] = miningMode == 0 ? UNMINEABLE : SLOW;
+                    any = true;
+                    if (isExposed(level, section, pos, x, y, z)) {
+                        highlighted[count++] = (short) i;
+                    }
+                }
+            }
+        }
+        return new Section(sectionX, sectionY, sectionZ, current.generation(), any ? codes : null, Arrays.copyOf(highlighted, count));
+    }
+
+    private static StateDecision decide(ToolSnapshot current, BlockState state) {
+        HardnessTables tables = current.tables();
+        ItemStack tool = current.tool();
+        boolean hasTool = !tool.isEmpty();
+        boolean wrongTool = tables.isWrongToolPenaltyEnabled() && hasTool && !Config.isCorrectToolType(tool, state);
+        double effectiveToolHardness = MiningCalculator.getEffectiveToolHardness(tables, current.toolHardness(),
+                current.wear(), hasTool, wrongTool);
+        return new StateDecision(state.getDestroySpeed(EmptyBlockGetter.INSTANCE, BlockPos.ZERO), effectiveToolHardness);
+    }
+
+    /**
+     * 方块是否至少有一面没有被完整方块遮挡，只绘制看得到的方块
+     */
+    private static boolean isExposed(ClientLevel level, LevelChunkSection section, BlockPos.MutableBlockPos pos,
+                                     int x, int y, int z) {
+        for (Direction direction : Direction.values()) {
+            int nx = x + direction.getStepX();
+            int ny = y + direction.getStepY();
+            int nz = z + direction.getStepZ();
+            BlockState neighbour;
+            if ((nx | ny | nz) >= 0 && nx < 16 && ny < 16 && nz < 16) {
+                neighbour = section.getBlockState(nx, ny, nz);
+            } else {
+                neighbour = level.getBlockState(pos.move(direction));
+                pos.move(direction.getOpposite());
+            }
+            if (!neighbour.canOcclude()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SubscribeEvent
+    public static void onLoggingOut(ClientPlayerNetworkEvent.LoggingOut event) {
+        reset();
+    }
+
+    /**
+     * 注册切换叠加层的按键
+     */
+    @Mod.EventBusSubscriber(modid = BetterExcavate.MODID, bus = Mod.EventBusSubscriber.Bus.MOD, value = Dist.CLIENT)
+    public static class KeyRegistration {
+
+        @SubscribeEvent
+        public static void onRegisterKeyMappings(RegisterKeyMappingsEvent event) {
+            event.register(TOGGLE_KEY);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.goldgomtech.betterexcavate.client;
+
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.LevelRenderer;
+import net.minecraft.client.renderer.MultiBufferSource;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.RenderLevelStageEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.goldgomtech.betterexcavate.BetterExcavate;
+
+/**
+ * 绘制 {@link MiningOverlay} 的分类结果，只读取已完成的分段，不在渲染线程中计算
+ * 无法挖掘的方块为红色线框，只能缓慢挖掘的为橙色线框
+ */
+@Mod.EventBusSubscriber(modid = BetterExcavate.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE, value = Dist.CLIENT)
+public final class MiningOverlayRenderer {
+
+    // 每帧最多绘制的线框数
+    private static final int MAX_BOXES = 2048;
+    // 线框略大于方块，避免与方块表面重叠闪烁
+    private static final double INFLATE = 0.002;
+
+    private MiningOverlayRenderer() {
+    }
+
+    @SubscribeEvent
+    public static void onRenderLevelStage(RenderLevelStageEvent event) {
+        if (event.getStage() != RenderLevelStageEvent.Stage.AFTER_TRANSLUCENT_BLOCKS || !MiningOverlay.isEnabled()) {
+            return;
+        }
+        Vec3 camera = event.getCamera().getPosition();
+        PoseStack poseStack = event.getPoseStack();
+        MultiBufferSource.BufferSource buffers = Minecraft.getInstance().renderBuffers().bufferSource();
+        VertexConsumer lines = buffers.getBuffer(RenderType.lines());
+        poseStack.pushPose();
+        poseStack.translate(-camera.x, -camera.y, -camera.z);
+        int drawn = 0;
+        for (MiningOverlay.Section section : MiningOverlay.getSections()) {
+            short[] highlighted = section.highlighted();
+            if (highlighted.length == 0) {
+                continue;
+            }
+            int baseX = SectionPos.sectionToBlockCoord(section.x());
+            int baseY = SectionPos.sectionToBlockCoord(section.y());
+            int baseZ = SectionPos.sectionToBlockCoord(section.z());
+            if (!event.getFrustum().isVisible(new AABB(baseX, baseY, baseZ, baseX + 16, baseY + 16, baseZ + 16))) {
+                continue;
+            }
+            byte[] codes = section.codes();
+            for (short index : highlighted) {
+                int x = baseX + (index & 15);
+                int y = baseY + ((index >> 8) & 15);
+                int z = baseZ + ((index >> 4) & 15);
+                boolean unmineable = codes[index] == MiningOverlay.UNMINEABLE;
+                LevelRenderer.renderLineBox(poseStack, lines,
+                        x - INFLATE, y - INFLATE, z - INFLATE, x + 1 + INFLATE, y + 1 + INFLATE, z + 1 + INFLATE,
+                        1.0F, unmineable ? 0.2F : 0.6F, unmineable ? 0.2F : 0.0F, 0.8F);
+                if (++drawn >= MAX_BOXES) {
+                    break;
+                }
+            }
+            if (drawn >= MAX_BOXES) {
+                break;
+            }
+        }
+        poseStack.popPose();
+        buffers.endBatch(RenderType.lines());
+    }
+}
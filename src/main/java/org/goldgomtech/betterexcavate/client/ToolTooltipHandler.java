@@ -3,6 +3,7 @@ package org.goldgomtech.betterexcavate.client;
 import net.minecraft.ChatFormatting;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.event.entity.player.ItemTooltipEvent;
@@ -11,6 +12,8 @@ import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.registries.ForgeRegistries;
 import org.goldgomtech.betterexcavate.BetterExcavate;
 import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.DepthScaling;
+import org.goldgomtech.betterexcavate.StackHardness;
 
 /**
  * 客户端工具提示处理器
@@ -43,19 +46,14 @@ public class ToolTooltipHandler {
                         itemName.contains("hoe") || 
                         itemName.contains("sword");
         
-        if (!isTool) {
+        double providedHardness = StackHardness.getProvidedHardness(itemStack);
+        if (!isTool && Double.isNaN(providedHardness)) {
             return;
         }
         
-        // 获取工具的硬度值
-        double toolHardness = Config.toolHardnessMap.getOrDefault(itemName, Config.defaultHardness);
-        
-        // 计算有效硬度（考虑耐久度惩罚）
-        double effectiveHardness = toolHardness;
-        if (Config.enableDurabilityHardnessPenalty && itemStack.isDamageableItem()) {
-            double durabilityMultiplier = Config.calculateDurabilityPenalty(itemStack, Config.maxDurabilityHardnessPenalty);
-            effectiveHardness = toolHardness * durabilityMultiplier;
-        }
+        // 获取工具的硬度值（含附魔和NBT修正）和考虑耐久度惩罚的有效硬度，缓存在物品堆上
+        double toolHardness = StackHardness.getToolHardness(itemStack);
+        double effectiveHardness = StackHardness.getEffectiveHardness(itemStack);
         
         // 添加工具硬度信息到提示框
         event.getToolTip().add(Component.literal(""));  // 空行分隔
@@ -90,6 +88,18 @@ public class ToolTooltipHandler {
             .withStyle(ChatFormatting.GREEN);
         event.getToolTip().add(mineableText);
         
+        // 玩家所在的维度和高度有硬度缩放时，显示换算成方块原始硬度的可挖掘上限
+        Player player = event.getEntity();
+        if (player != null) {
+            float depthMultiplier = DepthScaling.getMultiplier(player.level(), player.getBlockY());
+            if (depthMultiplier != 1.0f && depthMultiplier > 0.0f) {
+                Component depthText = Component.translatable("betterexcavate.tooltip.depth_scaling",
+                    String.format("%.2f", depthMultiplier), String.format("%.2f", maxMineableHardness / depthMultiplier))
+                    .withStyle(ChatFormatting.DARK_GREEN);
+                event.getToolTip().add(depthText);
+            }
+        }
+        
         // 如果启用了缓慢挖掘，显示缓慢挖掘范围
         if (Config.enableSlowMiningWithoutDrops) {
             double maxSlowMineableHardness = effectiveHardness * Config.slowMiningHardnessMultiplier;
@@ -0,0 +1,28 @@
+package org.goldgomtech.betterexcavate.command;
+
+import net.minecraft.commands.Commands;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.goldgomtech.betterexcavate.BetterExcavate;
+
+/**
+ * 注册 /betterexcavate 命令，各子命令由对应的类构建
+ * 所有子命令都需要管理员权限（等级2）
+ */
+@Mod.EventBusSubscriber(modid = BetterExcavate.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class BetterExcavateCommands {
+
+    @SubscribeEvent
+    public static void onRegisterCommands(RegisterCommandsEvent event) {
+        event.getDispatcher().register(Commands.literal(BetterExcavate.MODID)
+                .requires(source -> source.hasPermission(2))
+                .then(WhatIfCommand.build())
+                .then(ProfileCommand.build())
+                .then(TraceCommand.build())
+                .then(JournalCommand.build())
+                .then(CaptureCommand.build())
+                .then(ShadowCommand.build())
+                .then(ZoneCommand.build()));
+    }
+}
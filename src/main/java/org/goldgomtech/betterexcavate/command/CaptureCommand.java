@@ -0,0 +1,184 @@
+package org.goldgomtech.betterexcavate.command;
+
+import com.mojang.brigadier.arguments.DoubleArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+import net.minecraftforge.fml.loading.FMLPaths;
+import org.goldgomtech.betterexcavate.BetterExcavate;
+import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.HardnessTables;
+import org.goldgomtech.betterexcavate.capture.CaptureReplay;
+import org.goldgomtech.betterexcavate.capture.SpeedCapture;
+import org.goldgomtech.betterexcavate.whatif.WhatIfEvaluator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * /betterexcavate capture start &lt;name&gt; [rate] | stop | status
+ * /betterexcavate capture replay [config]
+ * 采样挖掘速度计算的输入到 &lt;游戏目录&gt;/betterexcavate/capture/&lt;name&gt;.bec，
+ * 或以配置目录中的另一个配置文件重放该目录中的所有采样，报告写入同一目录
+ */
+final class CaptureCommand {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    private static final String CURRENT_CONFIG = "current";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    // 同一时间只允许一次重放
+    private static final AtomicBoolean replaying = new AtomicBoolean();
+
+    private CaptureCommand() {
+    }
+
+    static LiteralArgumentBuilder<CommandSourceStack> build() {
+        return Commands.literal("capture")
+                .then(Commands.literal("start")
+                        .then(Commands.argument("name", StringArgumentType.word())
+                                .executes(context -> start(context.getSource(), StringArgumentType.getString(context, "name"), 0.1))
+                                .then(Commands.argument("rate", DoubleArgumentType.doubleArg(0.0001, 1.0))
+                                        .executes(context -> start(context.getSource(), StringArgumentType.getString(context, "name"),
+                                                DoubleArgumentType.getDouble(context, "rate"))))))
+                .then(Commands.literal("stop").executes(context -> stop(context.getSource())))
+                .then(Commands.literal("status").executes(context -> status(context.getSource())))
+                .then(Commands.literal("replay")
+                        .executes(context -> replay(context.getSource(), CURRENT_CONFIG))
+                        .then(Commands.argument("config", StringArgumentType.string())
+                                .executes(context -> replay(context.getSource(), StringArgumentType.getString(context, "config")))));
+    }
+
+    private static Path captureDirectory() {
+        return FMLPaths.GAMEDIR.get().resolve(BetterExcavate.MODID).resolve("capture");
+    }
+
+    private static int start(CommandSourceStack source, String name, double rate) {
+        if (!name.matches("[A-Za-z0-9_\\-]+")) {
+            source.sendFailure(Component.translatable("betterexcavate.command.capture.invalid_name", name));
+            return 0;
+        }
+        Path file = captureDirectory().resolve(name + ".bec");
+        if (Files.exists(file)) {
+            source.sendFailure(Component.translatable("betterexcavate.command.capture.exists", file.toString()));
+            return 0;
+        }
+        if (!SpeedCapture.start(file, (float) rate)) {
+            source.sendFailure(Component.translatable("betterexcavate.command.capture.running"));
+            return 0;
+        }
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.capture.started", file.toString(), rate), true);
+        return 1;
+    }
+
+    private static int stop(CommandSourceStack source) {
+        long recorded = SpeedCapture.getRecordedCount();
+        long dropped = SpeedCapture.getDroppedCount();
+        Path file = SpeedCapture.stop();
+        if (file == null) {
+            source.sendFailure(Component.translatable("betterexcavate.command.capture.not_running"));
+            return 0;
+        }
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.capture.stopped", recorded, dropped, file.toString()), true);
+        return 1;
+    }
+
+    private static int status(CommandSourceStack source) {
+        Path file = SpeedCapture.getFile();
+        if (file == null) {
+            source.sendSuccess(() -> Component.translatable("betterexcavate.command.capture.not_running"), false);
+            return 1;
+        }
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.capture.status", file.getFileName().toString(),
+                SpeedCapture.getSampleRate(), SpeedCapture.getRecordedCount(), SpeedCapture.getDroppedCount()), false);
+        return 1;
+    }
+
+    private static int replay(CommandSourceStack source, String config) {
+        // 只允许读取配置目录中的文件
+        Path configFile = null;
+        if (!CURRENT_CONFIG.equals(config)) {
+            Path configDir = FMLPaths.CONFIGDIR.get().toAbsolutePath().normalize();
+            configFile = configDir.resolve(config).normalize();
+            if (!configFile.startsWith(configDir) || !Files.isRegularFile(configFile)) {
+                source.sendFailure(Component.translatable("betterexcavate.command.whatif.config_not_found", config));
+                return 0;
+            }
+        }
+        Path directory = captureDirectory();
+        if (!Files.isDirectory(directory)) {
+            source.sendFailure(Component.translatable("betterexcavate.command.capture.no_captures", directory.toString()));
+            return 0;
+        }
+        if (!replaying.compareAndSet(false, true)) {
+            source.sendFailure(Component.translatable("betterexcavate.command.capture.replaying"));
+            return 0;
+        }
+
+        MinecraftServer server = source.getServer();
+        Path proposedConfig = configFile;
+        Path reportFile = directory.resolve("replay-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".txt");
+        Thread thread = new Thread(() -> runReplay(server, source, proposedConfig, directory, reportFile), "BetterExcavate Capture Replay");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.capture.replay_started", directory.toString()), true);
+        return 1;
+    }
+
+    private static void runReplay(MinecraftServer server, CommandSourceStack source, Path configFile, Path directory, Path reportFile) {
+        // 保留一个核心给服务端主线程
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        try {
+            HardnessTables tables = configFile == null ? Config.tables : WhatIfEvaluator.loadConfig(configFile, true);
+            List<Path> files = CaptureReplay.listCaptures(directory);
+            // 正在写入的文件不完整，跳过
+            Path active = SpeedCapture.getFile();
+            if (active != null) {
+                files = files.stream().filter(file -> !file.equals(active)).toList();
+            }
+            CaptureReplay.Report report = CaptureReplay.replay(files, tables, pool);
+            try (Writer writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+                report.write(writer);
+            }
+            LOGGER.info("[BetterExcavate] Replayed {} captured speed calculations from {} files in {} ms, report written to {}",
+                    report.getRecords(), report.getFiles(), report.getElapsedMillis(), reportFile);
+            server.execute(() -> {
+                source.sendSuccess(() -> Component.translatable("betterexcavate.command.capture.replay_done",
+                        report.getRecords(), report.getFiles(), report.getElapsedMillis(), report.getSkipped()), true);
+                source.sendSuccess(() -> Component.translatable("betterexcavate.command.capture.replay_speeds",
+                        format(report.getOldSpeedQuantile(0.5f)), format(report.getNewSpeedQuantile(0.5f)),
+                        format(report.getOldSpeedQuantile(0.9f)), format(report.getNewSpeedQuantile(0.9f)),
+                        report.getChanged()), false);
+                source.sendSuccess(() -> Component.translatable("betterexcavate.command.capture.replay_modes",
+                        report.getModeChanges(), report.getTransitions(1, 0) + report.getTransitions(2, 0),
+                        report.getTransitions(0, 1) + report.getTransitions(0, 2)), false);
+                source.sendSuccess(() -> Component.translatable("betterexcavate.command.capture.replay_written", reportFile.toString()), false);
+            });
+        } catch (Exception e) {
+            LOGGER.error("[BetterExcavate] Capture replay failed", e);
+            server.execute(() -> source.sendFailure(Component.translatable("betterexcavate.command.capture.replay_failed", e.toString())));
+        } finally {
+            pool.shutdown();
+            replaying.set(false);
+        }
+    }
+
+    private static String format(float speed) {
+        return String.format(Locale.ROOT, "%.3f", speed);
+    }
+}
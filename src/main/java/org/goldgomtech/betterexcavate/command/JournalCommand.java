@@ -0,0 +1,73 @@
+package org.goldgomtech.betterexcavate.command;
+
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+import org.goldgomtech.betterexcavate.journal.BreakJournal;
+import org.goldgomtech.betterexcavate.journal.JournalExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * /betterexcavate journal status
+ * /betterexcavate journal export
+ * 查看方块破坏日志的状态，或把日志目录中的所有文件转换为CSV（写在日志文件旁）
+ */
+final class JournalCommand {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    private JournalCommand() {
+    }
+
+    static LiteralArgumentBuilder<CommandSourceStack> build() {
+        return Commands.literal("journal")
+                .then(Commands.literal("status").executes(context -> status(context.getSource())))
+                .then(Commands.literal("export").executes(context -> export(context.getSource())));
+    }
+
+    private static int status(CommandSourceStack source) {
+        Path currentFile = BreakJournal.getCurrentFile();
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.journal.status",
+                BreakJournal.isEnabled(), currentFile == null ? "-" : currentFile.getFileName().toString(),
+                BreakJournal.getWrittenCount(), BreakJournal.getDroppedCount()), false);
+        return 1;
+    }
+
+    private static int export(CommandSourceStack source) {
+        Path directory = BreakJournal.getDirectory();
+        if (!Files.isDirectory(directory)) {
+            source.sendFailure(Component.translatable("betterexcavate.command.journal.empty", directory.toString()));
+            return 0;
+        }
+        MinecraftServer server = source.getServer();
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.journal.exporting", directory.toString()), true);
+
+        // 日志文件可能很大，在后台线程转换
+        Thread thread = new Thread(() -> {
+            try {
+                List<Path> journals = JournalExporter.listJournals(directory);
+                long records = 0;
+                for (Path journal : journals) {
+                    records += JournalExporter.export(journal, JournalExporter.csvPath(journal));
+                }
+                long total = records;
+                server.execute(() -> source.sendSuccess(() -> Component.translatable("betterexcavate.command.journal.exported",
+                        journals.size(), total, directory.toString()), true));
+            } catch (IOException e) {
+                LOGGER.error("[BetterExcavate] Could not export block break journal in {}", directory, e);
+                server.execute(() -> source.sendFailure(Component.translatable("betterexcavate.command.journal.export_failed", e.toString())));
+            }
+        }, "BetterExcavate Journal Export");
+        thread.setDaemon(true);
+        thread.start();
+        return 1;
+    }
+}
@@ -0,0 +1,117 @@
+package org.goldgomtech.betterexcavate.command;
+
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.builder.RequiredArgumentBuilder;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.commands.arguments.EntityArgument;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.fml.loading.FMLPaths;
+import org.goldgomtech.betterexcavate.BetterExcavate;
+import org.goldgomtech.betterexcavate.profile.StageProfiler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * /betterexcavate profile &lt;player|all&gt; &lt;ticks&gt; [flamegraph]
+ * 在接下来的若干tick内按阶段统计挖掘流程的耗时，结束后输出各阶段的耗时表。
+ * 加上 flamegraph 时另外把折叠栈写入 &lt;游戏目录&gt;/betterexcavate/profile/
+ */
+final class ProfileCommand {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    /** 最长分析一小时 */
+    private static final int MAX_TICKS = 72000;
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private ProfileCommand() {
+    }
+
+    static LiteralArgumentBuilder<CommandSourceStack> build() {
+        return Commands.literal("profile")
+                .then(Commands.literal("all")
+                        .then(ticksArgument(null)))
+                .then(Commands.argument("player", EntityArgument.player())
+                        .then(ticksArgument("player")));
+    }
+
+    private static RequiredArgumentBuilder<CommandSourceStack, Integer> ticksArgument(String playerArgument) {
+        return Commands.argument("ticks", IntegerArgumentType.integer(1, MAX_TICKS))
+                .executes(context -> run(context.getSource(),
+                        playerArgument == null ? null : EntityArgument.getPlayer(context, playerArgument),
+                        IntegerArgumentType.getInteger(context, "ticks"), false))
+                .then(Commands.literal("flamegraph")
+                        .executes(context -> run(context.getSource(),
+                                playerArgument == null ? null : EntityArgument.getPlayer(context, playerArgument),
+                                IntegerArgumentType.getInteger(context, "ticks"), true)));
+    }
+
+    private static int run(CommandSourceStack source, ServerPlayer player, int ticks, boolean flamegraph) {
+        UUID target = player == null ? null : player.getUUID();
+        String targetName = player == null ? "all" : player.getGameProfile().getName();
+
+        boolean started = StageProfiler.start(target, ticks, result -> report(source, targetName, result, flamegraph));
+        if (!started) {
+            source.sendFailure(Component.translatable("betterexcavate.command.profile.running"));
+            return 0;
+        }
+
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.profile.started", targetName, ticks), true);
+        return 1;
+    }
+
+    private static void report(CommandSourceStack source, String targetName, StageProfiler.Result result, boolean flamegraph) {
+        long totalNanos = result.totalNanos();
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.profile.done",
+                targetName, result.ticks(), String.format(Locale.ROOT, "%.3f", totalNanos / 1.0e6)), true);
+        LOGGER.info("[BetterExcavate] Mining profile for {} over {} ticks: {} ms total", targetName, result.ticks(),
+                String.format(Locale.ROOT, "%.3f", totalNanos / 1.0e6));
+
+        for (StageProfiler.Stage stage : StageProfiler.Stage.values()) {
+            long nanos = result.stageNanos(stage);
+            long calls = result.stageCalls(stage);
+            if (calls == 0) {
+                continue;
+            }
+            String millis = String.format(Locale.ROOT, "%.3f", nanos / 1.0e6);
+            String averageMicros = String.format(Locale.ROOT, "%.2f", nanos / 1.0e3 / calls);
+            String percent = String.format(Locale.ROOT, "%.1f", totalNanos == 0 ? 0.0 : nanos * 100.0 / totalNanos);
+            source.sendSuccess(() -> Component.translatable("betterexcavate.command.profile.row",
+                    stage.frame, millis, calls, averageMicros, percent), false);
+            LOGGER.info("[BetterExcavate]   {}: {} ms, {} calls, {} us/call, {}%", stage.frame, millis, calls, averageMicros, percent);
+        }
+
+        if (flamegraph) {
+            writeCollapsed(source, result);
+        }
+    }
+
+    private static void writeCollapsed(CommandSourceStack source, StageProfiler.Result result) {
+        Path outputFile = FMLPaths.GAMEDIR.get().resolve(BetterExcavate.MODID).resolve("profile")
+                .resolve("profile-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".collapsed");
+        try {
+            Files.createDirectories(outputFile.getParent());
+            try (Writer writer = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8)) {
+                result.writeCollapsed(writer);
+            }
+            source.sendSuccess(() -> Component.translatable("betterexcavate.command.profile.written", outputFile.toString()), true);
+        } catch (IOException e) {
+            LOGGER.error("[BetterExcavate] Could not write profile to {}", outputFile, e);
+            source.sendFailure(Component.translatable("betterexcavate.command.profile.write_failed", e.toString()));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.goldgomtech.betterexcavate.command;
+
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.network.chat.Component;
+import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.shadow.DivergenceStats;
+import org.goldgomtech.betterexcavate.shadow.ShadowEvaluator;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * /betterexcavate shadow status | reload | reset
+ * 查看影子配置与生效配置的差异统计，重新加载影子配置文件或清空统计
+ */
+final class ShadowCommand {
+
+    private static final int TOP_BLOCKS = 10;
+
+    private ShadowCommand() {
+    }
+
+    static LiteralArgumentBuilder<CommandSourceStack> build() {
+        return Commands.literal("shadow")
+                .executes(context -> status(context.getSource()))
+                .then(Commands.literal("status").executes(context -> status(context.getSource())))
+                .then(Commands.literal("reload").executes(context -> reload(context.getSource())))
+                .then(Commands.literal("reset").executes(context -> reset(context.getSource())));
+    }
+
+    private static int status(CommandSourceStack source) {
+        Path file = ShadowEvaluator.getFile();
+        DivergenceStats stats = ShadowEvaluator.getStats();
+        if (file == null || stats == null) {
+            source.sendSuccess(() -> Component.translatable("betterexcavate.command.shadow.disabled"), false);
+            return 1;
+        }
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.shadow.status",
+                file.getFileName().toString(), String.format(Locale.ROOT, "%.4f", ShadowEvaluator.getSampleRate()),
+                Config.shadowBudgetMicrosPerSecond), false);
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.shadow.speeds",
+                stats.getSpeedSamples(), stats.getFaster(), stats.getSlower(), percent(stats.getMeanRelativeDelta())), false);
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.shadow.modes",
+                stats.getModeSamples(), stats.getModeFlips(),
+                stats.getTransitions(1, 0) + stats.getTransitions(2, 0),
+                stats.getTransitions(0, 1) + stats.getTransitions(0, 2),
+                stats.getTransitions(1, 2), stats.getTransitions(2, 1)), false);
+        for (DivergenceStats.BlockDivergence row : stats.topBlocks(TOP_BLOCKS)) {
+            String block = BuiltInRegistries.BLOCK.getKey(row.block()).toString();
+            source.sendSuccess(() -> Component.translatable("betterexcavate.command.shadow.block", block,
+                    row.speedSamples(), percent(row.meanRelativeDelta()), row.modeFlips(), row.modeSamples()), false);
+        }
+        return 1;
+    }
+
+    private static int reload(CommandSourceStack source) {
+        String error = ShadowEvaluator.reload();
+        if (error != null) {
+            source.sendFailure(Component.translatable("betterexcavate.command.shadow.reload_failed", error));
+            return 0;
+        }
+        Path file = ShadowEvaluator.getFile();
+        if (file == null) {
+            source.sendSuccess(() -> Component.translatable("betterexcavate.command.shadow.disabled"), true);
+            return 1;
+        }
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.shadow.reloaded", file.toString()), true);
+        return 1;
+    }
+
+    private static int reset(CommandSourceStack source) {
+        if (!ShadowEvaluator.isActive()) {
+            source.sendFailure(Component.translatable("betterexcavate.command.shadow.disabled"));
+            return 0;
+        }
+        ShadowEvaluator.reset();
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.shadow.reset"), true);
+        return 1;
+    }
+
+    private static String percent(double relative) {
+        return String.format(Locale.ROOT, "%+.1f%%", relative * 100.0);
+    }
+}
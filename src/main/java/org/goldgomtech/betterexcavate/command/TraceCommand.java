@@ -0,0 +1,164 @@
+package org.goldgomtech.betterexcavate.command;
+
+import com.mojang.brigadier.arguments.DoubleArgumentType;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.commands.SharedSuggestionProvider;
+import net.minecraft.commands.arguments.EntityArgument;
+import net.minecraft.commands.arguments.ResourceLocationArgument;
+import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.block.Block;
+import net.minecraftforge.fml.loading.FMLPaths;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.goldgomtech.betterexcavate.BetterExcavate;
+import org.goldgomtech.betterexcavate.trace.MiningTrace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * /betterexcavate trace on|off|status|clear
+ * /betterexcavate trace player &lt;player&gt; | block &lt;block&gt; | nofilter
+ * /betterexcavate trace sample &lt;rate&gt; | limit &lt;perSecond&gt;
+ * /betterexcavate trace dump [count]
+ * 控制挖掘追踪并导出缓冲区，导出文件写入 &lt;游戏目录&gt;/betterexcavate/trace/，聊天栏只显示最后几条
+ */
+final class TraceCommand {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    /** 导出后在聊天栏显示的条数 */
+    private static final int CHAT_LINES = 10;
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private TraceCommand() {
+    }
+
+    static LiteralArgumentBuilder<CommandSourceStack> build() {
+        return Commands.literal("trace")
+                .then(Commands.literal("on").executes(context -> setEnabled(context.getSource(), true)))
+                .then(Commands.literal("off").executes(context -> setEnabled(context.getSource(), false)))
+                .then(Commands.literal("status").executes(context -> status(context.getSource())))
+                .then(Commands.literal("clear").executes(context -> clear(context.getSource())))
+                .then(Commands.literal("player")
+                        .then(Commands.argument("player", EntityArgument.player())
+                                .executes(context -> filterPlayer(context.getSource(), EntityArgument.getPlayer(context, "player")))))
+                .then(Commands.literal("block")
+                        .then(Commands.argument("block", ResourceLocationArgument.id())
+                                .suggests((context, builder) -> SharedSuggestionProvider.suggestResource(ForgeRegistries.BLOCKS.getKeys(), builder))
+                                .executes(context -> filterBlock(context.getSource(), ResourceLocationArgument.getId(context, "block")))))
+                .then(Commands.literal("nofilter").executes(context -> clearFilters(context.getSource())))
+                .then(Commands.literal("sample")
+                        .then(Commands.argument("rate", DoubleArgumentType.doubleArg(0.0, 1.0))
+                                .executes(context -> sample(context.getSource(), DoubleArgumentType.getDouble(context, "rate")))))
+                .then(Commands.literal("limit")
+                        .then(Commands.argument("perSecond", IntegerArgumentType.integer(1, 100000))
+                                .executes(context -> limit(context.getSource(), IntegerArgumentType.getInteger(context, "perSecond")))))
+                .then(Commands.literal("dump")
+                        .executes(context -> dump(context.getSource(), Integer.MAX_VALUE))
+                        .then(Commands.argument("count", IntegerArgumentType.integer(1))
+                                .executes(context -> dump(context.getSource(), IntegerArgumentType.getInteger(context, "count")))));
+    }
+
+    private static int setEnabled(CommandSourceStack source, boolean enabled) {
+        MiningTrace.setEnabled(enabled);
+        source.sendSuccess(() -> Component.translatable(enabled
+                ? "betterexcavate.command.trace.enabled" : "betterexcavate.command.trace.disabled"), true);
+        return 1;
+    }
+
+    private static int status(CommandSourceStack source) {
+        UUID playerFilter = MiningTrace.getPlayerFilter();
+        ServerPlayer player = playerFilter == null ? null : source.getServer().getPlayerList().getPlayer(playerFilter);
+        String playerName = playerFilter == null ? "*" : player != null ? player.getGameProfile().getName() : playerFilter.toString();
+        Block blockFilter = MiningTrace.getBlockFilter();
+        ResourceLocation blockId = blockFilter == null ? null : ForgeRegistries.BLOCKS.getKey(blockFilter);
+        String blockName = blockId == null ? "*" : blockId.toString();
+
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.trace.status",
+                MiningTrace.isEnabled(), playerName, blockName, MiningTrace.getSampleRate(),
+                MiningTrace.getMaxPerSecond(), MiningTrace.getRateLimitedCount()), false);
+        return 1;
+    }
+
+    private static int clear(CommandSourceStack source) {
+        MiningTrace.clear();
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.trace.cleared"), true);
+        return 1;
+    }
+
+    private static int filterPlayer(CommandSourceStack source, ServerPlayer player) {
+        MiningTrace.setFilters(player.getUUID(), MiningTrace.getBlockFilter());
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.trace.filter_player", player.getGameProfile().getName()), true);
+        return 1;
+    }
+
+    private static int filterBlock(CommandSourceStack source, ResourceLocation blockId) {
+        if (!ForgeRegistries.BLOCKS.containsKey(blockId)) {
+            source.sendFailure(Component.translatable("betterexcavate.command.trace.unknown_block", blockId.toString()));
+            return 0;
+        }
+        MiningTrace.setFilters(MiningTrace.getPlayerFilter(), ForgeRegistries.BLOCKS.getValue(blockId));
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.trace.filter_block", blockId.toString()), true);
+        return 1;
+    }
+
+    private static int clearFilters(CommandSourceStack source) {
+        MiningTrace.setFilters(null, null);
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.trace.filter_cleared"), true);
+        return 1;
+    }
+
+    private static int sample(CommandSourceStack source, double rate) {
+        MiningTrace.setSampleRate((float) rate);
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.trace.sample", rate), true);
+        return 1;
+    }
+
+    private static int limit(CommandSourceStack source, int perSecond) {
+        MiningTrace.setMaxPerSecond(perSecond);
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.trace.limit", perSecond), true);
+        return 1;
+    }
+
+    private static int dump(CommandSourceStack source, int count) {
+        Path outputFile = FMLPaths.GAMEDIR.get().resolve(BetterExcavate.MODID).resolve("trace")
+                .resolve("trace-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".log");
+        MinecraftServer server = source.getServer();
+
+        // 格式化整个缓冲区可能需要一些时间，不占用服务端主线程
+        Thread thread = new Thread(() -> {
+            try {
+                List<String> lines = MiningTrace.dump(count);
+                Files.createDirectories(outputFile.getParent());
+                Files.write(outputFile, lines, StandardCharsets.UTF_8);
+                server.execute(() -> {
+                    source.sendSuccess(() -> Component.translatable("betterexcavate.command.trace.dumped", lines.size(), outputFile.toString()), true);
+                    for (String line : lines.subList(Math.max(0, lines.size() - CHAT_LINES), lines.size())) {
+                        source.sendSuccess(() -> Component.literal(line), false);
+                    }
+                });
+            } catch (IOException e) {
+                LOGGER.error("[BetterExcavate] Could not write trace dump to {}", outputFile, e);
+                server.execute(() -> source.sendFailure(Component.translatable("betterexcavate.command.trace.dump_failed", e.toString())));
+            }
+        }, "BetterExcavate Trace Dump");
+        thread.setDaemon(true);
+        thread.start();
+        return 1;
+    }
+}
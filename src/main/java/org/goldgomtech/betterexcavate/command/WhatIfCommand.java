@@ -0,0 +1,131 @@
+package org.goldgomtech.betterexcavate.command;
+
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+import net.minecraftforge.fml.loading.FMLPaths;
+import org.goldgomtech.betterexcavate.BetterExcavate;
+import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.HardnessTables;
+import org.goldgomtech.betterexcavate.whatif.WhatIfEvaluator;
+import org.goldgomtech.betterexcavate.whatif.WhatIfMain;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * /betterexcavate whatif &lt;output&gt; [config|current] [wear levels]
+ * 在后台线程中评估所有物品 × 方块状态，结果写入 &lt;游戏目录&gt;/betterexcavate/whatif/&lt;output&gt;.csv。
+ * config 为配置目录中的配置文件名，省略或为 current 时使用当前生效的配置
+ */
+final class WhatIfCommand {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    private static final String CURRENT_CONFIG = "current";
+
+    // 同一时间只允许一次评估，避免多个评估争抢CPU
+    private static final AtomicBoolean running = new AtomicBoolean();
+
+    private WhatIfCommand() {
+    }
+
+    static LiteralArgumentBuilder<CommandSourceStack> build() {
+        return Commands.literal("whatif")
+                .then(Commands.argument("output", StringArgumentType.word())
+                        .executes(context -> run(context.getSource(),
+                                StringArgumentType.getString(context, "output"), CURRENT_CONFIG, null))
+                        .then(Commands.argument("config", StringArgumentType.string())
+                                .executes(context -> run(context.getSource(),
+                                        StringArgumentType.getString(context, "output"),
+                                        StringArgumentType.getString(context, "config"), null))
+                                .then(Commands.argument("wear", StringArgumentType.greedyString())
+                                        .executes(context -> run(context.getSource(),
+                                                StringArgumentType.getString(context, "output"),
+                                                StringArgumentType.getString(context, "config"),
+                                                StringArgumentType.getString(context, "wear"))))));
+    }
+
+    private static int run(CommandSourceStack source, String output, String config, String wear) {
+        if (!output.matches("[A-Za-z0-9_\\-]+")) {
+            source.sendFailure(Component.translatable("betterexcavate.command.whatif.invalid_name", output));
+            return 0;
+        }
+
+        double[] wearLevels = WhatIfEvaluator.DEFAULT_WEAR_LEVELS;
+        if (wear != null) {
+            try {
+                wearLevels = WhatIfMain.parseWearLevels(wear);
+            } catch (NumberFormatException e) {
+                wearLevels = new double[0];
+            }
+            if (wearLevels.length == 0) {
+                source.sendFailure(Component.translatable("betterexcavate.command.whatif.invalid_wear", wear));
+                return 0;
+            }
+        }
+
+        // 只允许读取配置目录中的文件
+        Path configFile = null;
+        if (!CURRENT_CONFIG.equals(config)) {
+            Path configDir = FMLPaths.CONFIGDIR.get().toAbsolutePath().normalize();
+            configFile = configDir.resolve(config).normalize();
+            if (!configFile.startsWith(configDir) || !Files.isRegularFile(configFile)) {
+                source.sendFailure(Component.translatable("betterexcavate.command.whatif.config_not_found", config));
+                return 0;
+            }
+        }
+
+        if (!running.compareAndSet(false, true)) {
+            source.sendFailure(Component.translatable("betterexcavate.command.whatif.running"));
+            return 0;
+        }
+
+        Path outputFile = FMLPaths.GAMEDIR.get().resolve(BetterExcavate.MODID).resolve("whatif").resolve(output + ".csv");
+        MinecraftServer server = source.getServer();
+        Path proposedConfig = configFile;
+        double[] levels = wearLevels;
+
+        Thread thread = new Thread(() -> evaluate(server, source, proposedConfig, levels, outputFile), "BetterExcavate What-If");
+        thread.setDaemon(true);
+        // 评估是离线任务，不与服务端主线程争抢
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.whatif.started", outputFile.toString()), true);
+        return 1;
+    }
+
+    private static void evaluate(MinecraftServer server, CommandSourceStack source, Path configFile,
+                                 double[] wearLevels, Path outputFile) {
+        // 保留一个核心给服务端主线程
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        try {
+            HardnessTables tables = configFile == null ? Config.tables : WhatIfEvaluator.loadConfig(configFile, true);
+            Files.createDirectories(outputFile.getParent());
+            WhatIfEvaluator.Summary summary;
+            try (Writer writer = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8)) {
+                summary = WhatIfEvaluator.evaluate(tables, wearLevels, writer, pool);
+            }
+            LOGGER.info("[BetterExcavate] What-if evaluation wrote {} rows ({} items x {} block states) to {} in {} ms",
+                    summary.rows(), summary.items(), summary.blockStates(), outputFile, summary.elapsedMillis());
+            server.execute(() -> source.sendSuccess(() -> Component.translatable("betterexcavate.command.whatif.done",
+                    summary.rows(), summary.items(), summary.blockStates(), summary.elapsedMillis(), outputFile.toString()), true));
+        } catch (Exception e) {
+            LOGGER.error("[BetterExcavate] What-if evaluation failed", e);
+            server.execute(() -> source.sendFailure(Component.translatable("betterexcavate.command.whatif.failed", e.toString())));
+        } finally {
+            pool.shutdown();
+            running.set(false);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.goldgomtech.betterexcavate.command;
+
+import com.mojang.brigadier.arguments.FloatArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.commands.SharedSuggestionProvider;
+import net.minecraft.commands.arguments.coordinates.BlockPosArgument;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
+import org.goldgomtech.betterexcavate.zone.HardnessZone;
+import org.goldgomtech.betterexcavate.zone.HardnessZones;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * /betterexcavate zone add &lt;name&gt; &lt;from&gt; &lt;to&gt; &lt;multiplier&gt; [mode]
+ * /betterexcavate zone remove &lt;name&gt; | list | here
+ * 管理执行者所在维度的硬度区域，区域随世界保存
+ */
+final class ZoneCommand {
+
+    private ZoneCommand() {
+    }
+
+    static LiteralArgumentBuilder<CommandSourceStack> build() {
+        return Commands.literal("zone")
+                .then(Commands.literal("add")
+                        .then(Commands.argument("name", StringArgumentType.word())
+                                .then(Commands.argument("from", BlockPosArgument.blockPos())
+                                        .then(Commands.argument("to", BlockPosArgument.blockPos())
+                                                .then(Commands.argument("multiplier", FloatArgumentType.floatArg(0.0F, 1000.0F))
+                                                        .executes(context -> add(context, HardnessZone.Mode.DEFAULT))
+                                                        .then(Commands.argument("mode", StringArgumentType.word())
+                                                                .suggests((context, builder) -> SharedSuggestionProvider.suggest(
+                                                                        Arrays.stream(HardnessZone.Mode.values()).map(HardnessZone.Mode::getSerializedName), builder))
+                                                                .executes(context -> add(context, null))))))))
+                .then(Commands.literal("remove")
+                        .then(Commands.argument("name", StringArgumentType.word())
+                                .suggests((context, builder) -> SharedSuggestionProvider.suggest(
+                                        HardnessZones.getZones(context.getSource().getLevel()).stream().map(HardnessZone::name), builder))
+                                .executes(context -> remove(context.getSource(), StringArgumentType.getString(context, "name")))))
+                .then(Commands.literal("list").executes(context -> list(context.getSource())))
+                .then(Commands.literal("here").executes(context -> here(context.getSource())));
+    }
+
+    /**
+     * @param mode 强制的挖掘模式，为null时从 mode 参数读取
+     */
+    private static int add(CommandContext<CommandSourceStack> context, HardnessZone.Mode mode) {
+        CommandSourceStack source = context.getSource();
+        if (mode == null) {
+            String modeName = StringArgumentType.getString(context, "mode").toLowerCase(Locale.ROOT);
+            mode = HardnessZone.Mode.byName(modeName);
+            if (!mode.getSerializedName().equals(modeName)) {
+                source.sendFailure(Component.translatable("betterexcavate.command.zone.unknown_mode", modeName));
+                return 0;
+            }
+        }
+        String name = StringArgumentType.getString(context, "name");
+        BlockPos from = BlockPosArgument.getBlockPos(context, "from");
+        BlockPos to = BlockPosArgument.getBlockPos(context, "to");
+        HardnessZone zone = HardnessZone.of(name, from, to, FloatArgumentType.getFloat(context, "multiplier"), mode);
+        if (!HardnessZones.add(source.getLevel(), zone)) {
+            source.sendFailure(Component.translatable("betterexcavate.command.zone.exists", name));
+            return 0;
+        }
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.zone.added", describe(zone)), true);
+        return 1;
+    }
+
+    private static int remove(CommandSourceStack source, String name) {
+        if (!HardnessZones.remove(source.getLevel(), name)) {
+            source.sendFailure(Component.translatable("betterexcavate.command.zone.unknown", name));
+            return 0;
+        }
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.zone.removed", name), true);
+        return 1;
+    }
+
+    private static int list(CommandSourceStack source) {
+        ServerLevel level = source.getLevel();
+        List<HardnessZone> zones = HardnessZones.getZones(level);
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.zone.list",
+                zones.size(), level.dimension().location().toString()), false);
+        for (HardnessZone zone : zones) {
+            source.sendSuccess(() -> Component.literal("  " + describe(zone)), false);
+        }
+        return zones.size();
+    }
+
+    private static int here(CommandSourceStack source) {
+        BlockPos pos = BlockPos.containing(source.getPosition());
+        HardnessZone zone = HardnessZones.find(source.getLevel(), pos);
+        if (zone == null) {
+            source.sendSuccess(() -> Component.translatable("betterexcavate.command.zone.none"), false);
+            return 0;
+        }
+        source.sendSuccess(() -> Component.translatable("betterexcavate.command.zone.here", describe(zone)), false);
+        return 1;
+    }
+
+    private static String describe(HardnessZone zone) {
+        return String.format(Locale.ROOT, "%s [%d, %d, %d] - [%d, %d, %d] x%.2f %s", zone.name(),
+                zone.minX(), zone.minY(), zone.minZ(), zone.maxX(), zone.maxY(), zone.maxZ(),
+                zone.hardnessMultiplier(), zone.mode().getSerializedName());
+    }
+}
@@ -2,20 +2,36 @@ package org.goldgomtech.betterexcavate.event;
 
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
-import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.phys.BlockHitResult;
 import net.minecraft.world.phys.HitResult;
+import net.minecraftforge.common.util.FakePlayer;
 import net.minecraftforge.event.level.BlockEvent;
 import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent;
 import net.minecraftforge.event.entity.player.AttackEntityEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
-import net.minecraftforge.registries.ForgeRegistries;
 import org.goldgomtech.betterexcavate.BetterExcavate;
 import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.HandlerTimer;
+import org.goldgomtech.betterexcavate.MiningCalculator;
+import org.goldgomtech.betterexcavate.PositionalHardness;
+import org.goldgomtech.betterexcavate.StackHardness;
+import org.goldgomtech.betterexcavate.api.MiningEvent;
+import org.goldgomtech.betterexcavate.api.MiningEvents;
+import org.goldgomtech.betterexcavate.automation.AutomationMining;
+import org.goldgomtech.betterexcavate.journal.BreakJournal;
+import org.goldgomtech.betterexcavate.metrics.Metrics;
+import org.goldgomtech.betterexcavate.profile.StageProfiler;
+import org.goldgomtech.betterexcavate.profile.StageProfiler.Handler;
+import org.goldgomtech.betterexcavate.profile.StageProfiler.Stage;
+import org.goldgomtech.betterexcavate.shadow.ShadowEvaluator;
+import org.goldgomtech.betterexcavate.trace.MiningTrace;
+import org.goldgomtech.betterexcavate.trace.TraceEntry;
+import org.goldgomtech.betterexcavate.zone.HardnessZone;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,29 +58,64 @@ public class BlockBreakHandler {
     private static final Map<String, Boolean> previousMiningState = new ConcurrentHashMap<>();
     private static final Map<String, BlockPos> previousMiningPos = new ConcurrentHashMap<>();
     
+    // 记录玩家开始挖掘当前方块的时间，用于破坏日志中的挖掘持续时间
+    // 破坏、停止挖掘和下线时移除，开始挖掘新方块时覆盖
+    private static final Map<String, Long> miningSessionStarts = new ConcurrentHashMap<>();
+    
+    static {
+        // 会话状态的大小只在导出指标时读取
+        Metrics.gauge("betterexcavate_active_mining_sessions", "Players currently tracked as actively mining", null, null,
+                () -> playerActivelyMining.values().stream().filter(Boolean::booleanValue).count());
+        Metrics.gauge("betterexcavate_session_map_entries", "Entries in the mining session maps", "map", "mining_start_times", miningStartTimes::size);
+        Metrics.gauge("betterexcavate_session_map_entries", "Entries in the mining session maps", "map", "last_damage_time", lastDamageTime::size);
+        Metrics.gauge("betterexcavate_session_map_entries", "Entries in the mining session maps", "map", "player_mining_blocks", playerMiningBlocks::size);
+        Metrics.gauge("betterexcavate_session_map_entries", "Entries in the mining session maps", "map", "last_mining_activity", lastMiningActivity::size);
+        Metrics.gauge("betterexcavate_session_map_entries", "Entries in the mining session maps", "map", "player_actively_mining", playerActivelyMining::size);
+        Metrics.gauge("betterexcavate_session_map_entries", "Entries in the mining session maps", "map", "previous_mining_state", previousMiningState::size);
+        Metrics.gauge("betterexcavate_session_map_entries", "Entries in the mining session maps", "map", "previous_mining_pos", previousMiningPos::size);
+        Metrics.gauge("betterexcavate_session_map_entries", "Entries in the mining session maps", "map", "mining_session_starts", miningSessionStarts::size);
+    }
+    
     @SubscribeEvent
     public static void onBlockBreak(BlockEvent.BreakEvent event) {
+        long start = HandlerTimer.start();
+        try {
+            handleBlockBreak(event);
+        } finally {
+            HandlerTimer.stop(start, Metrics.BLOCK_BREAK);
+        }
+    }
+    
+    private static void handleBlockBreak(BlockEvent.BreakEvent event) {
+        // 自动化挖掘没有挖掘会话，走缓存的快速路径
+        if (event.getPlayer() != null && AutomationMining.isAutomation(event.getPlayer())) {
+            handleAutomationBreak(event);
+            return;
+        }
+        
         // 清理挖掘状态记录
+        long sessionStartMillis = 0;
         if (event.getPlayer() != null) {
             String playerUUID = event.getPlayer().getUUID().toString();
+            Long sessionStart = miningSessionStarts.remove(playerUUID);
+            if (sessionStart != null) {
+                sessionStartMillis = sessionStart;
+            }
             playerMiningBlocks.remove(playerUUID);
             lastMiningActivity.remove(playerUUID);
             playerActivelyMining.remove(playerUUID);
         }
         
-        // 如果掉落物控制被禁用，直接返回
-        if (!Config.enableDropControl) {
-            return;
-        }
-        
         // 只处理玩家破坏的情况
         Player player = event.getPlayer();
         if (player == null) {
             return;
         }
         
-        // 如果是创造模式，不受限制
-        if (player.isCreative()) {
+        // 创造模式不受限制，掉落物控制被禁用时按原版处理，两者仍然记录到破坏日志
+        if (player.isCreative() || !Config.enableDropControl) {
+            BreakJournal.record(player.level(), event.getPos(), event.getState(), player.getMainHandItem(),
+                    BreakJournal.MODE_DROP_CONTROL_DISABLED, sessionStartMillis);
             return;
         }
         
@@ -76,97 +127,106 @@ public class BlockBreakHandler {
         if (blockHardness < 0) {
             return;
         }
+        // 按维度和高度等位置因素修正方块硬度
+        HardnessZone zone = PositionalHardness.findZone(player.level(), event.getPos());
+        blockHardness = PositionalHardness.apply(player.level(), event.getPos(), state, blockHardness, zone);
         
         // 获取玩家手持的工具
         ItemStack tool = player.getMainHandItem();
         
-        double toolHardness;
-        String toolName = "hand";
+        long stageStart = StageProfiler.begin(player);
         
-        // 获取工具硬度
-        if (tool.isEmpty()) {
-            toolHardness = Config.defaultHardness;
-        } else {
-            ResourceLocation itemId = ForgeRegistries.ITEMS.getKey(tool.getItem());
-            if (itemId == null) {
-                toolHardness = Config.defaultHardness;
-            } else {
-                toolName = itemId.toString();
-                toolHardness = Config.toolHardnessMap.getOrDefault(toolName, Config.defaultHardness);
-            }
-        }
-        
-        // 应用耐久度硬度惩罚
-        double effectiveToolHardness = toolHardness;
-        if (Config.enableDurabilityHardnessPenalty && !tool.isEmpty()) {
-            double durabilityHardnessMultiplier = Config.calculateDurabilityPenalty(tool, Config.maxDurabilityHardnessPenalty);
-            effectiveToolHardness = toolHardness * durabilityHardnessMultiplier;
-        }
+        // 工具硬度和应用耐久度硬度惩罚后的有效硬度都缓存在物品堆上
+        double toolHardness = StackHardness.getToolHardness(tool);
+        double effectiveToolHardness = StackHardness.getEffectiveHardness(tool);
+        stageStart = StageProfiler.lap(stageStart, Handler.BLOCK_BREAK, Stage.REGISTRY_LOOKUP);
         
         // 应用错误工具类型的硬度惩罚
+        boolean isWrongTool = false;
         if (Config.enableWrongToolPenalty && !tool.isEmpty()) {
             boolean isCorrectTool = Config.isCorrectToolType(tool, state);
             if (!isCorrectTool) {
                 // 错误工具类型时，工具硬度降低20%
-                effectiveToolHardness = effectiveToolHardness * 0.8;
-                if (Config.enableDebugLogging) {
-                    LOGGER.info("[BetterExcavate] Wrong tool type detected for {} with {}: reducing tool hardness by 20% (from {} to {})", 
-                        state.getBlock().getDescriptionId(), toolName, 
-                        String.format("%.2f", effectiveToolHardness / 0.8),
-                        String.format("%.2f", effectiveToolHardness));
-                }
+                effectiveToolHardness = effectiveToolHardness * MiningCalculator.WRONG_TOOL_HARDNESS_FACTOR;
+                isWrongTool = true;
             }
         }
         
+        stageStart = StageProfiler.lap(stageStart, Handler.BLOCK_BREAK, Stage.WRONG_TOOL);
+        
         // 检查挖掘模式
-        int miningMode = Config.getMiningMode(blockHardness, effectiveToolHardness);
-        String blockName = state.getBlock().getDescriptionId();
+        int miningMode = PositionalHardness.overrideMode(zone, Config.getMiningMode(blockHardness, effectiveToolHardness));
+        StageProfiler.lap(stageStart, Handler.BLOCK_BREAK, Stage.CURVE_MATH);
+        
+        TraceEntry trace = MiningTrace.begin(TraceEntry.Kind.BLOCK_BREAK, player, state, event.getPos().asLong());
+        if (trace != null) {
+            trace.tool(tool.getItem(), toolHardness, effectiveToolHardness, isWrongTool)
+                    .blockHardness(blockHardness)
+                    .miningMode(miningMode)
+                    .commit();
+        }
+        BreakJournal.record(player.level(), event.getPos(), state, tool, miningMode, sessionStartMillis);
+        if (ShadowEvaluator.isActive()) {
+            ShadowEvaluator.compareMode(player, state, tool, blockHardness, zone, miningMode);
+        }
         
+        applyMiningMode(event, miningMode);
+    }
+    
+    /**
+     * FakePlayer破坏方块：不跟踪会话、不做性能分析和追踪，只使用缓存的挖掘模式
+     */
+    private static void handleAutomationBreak(BlockEvent.BreakEvent event) {
+        Player player = event.getPlayer();
+        if (!Config.enableDropControl || !Config.automationDropControl) {
+            BreakJournal.record(player.level(), event.getPos(), event.getState(), player.getMainHandItem(),
+                    BreakJournal.MODE_DROP_CONTROL_DISABLED, 0);
+            return;
+        }
+        BlockState state = event.getState();
+        // 不可破坏的方块（如基岩）保持原版行为，与普通路径一致
+        if (state.getDestroySpeed(event.getLevel(), event.getPos()) < 0) {
+            return;
+        }
+        ItemStack tool = player.getMainHandItem();
+        int miningMode = AutomationMining.getMiningMode(player, state, event.getPos(), tool);
+        BreakJournal.record(player.level(), event.getPos(), state, tool, miningMode, 0);
+        applyMiningMode(event, miningMode);
+    }
+    
+    /**
+     * 按挖掘模式取消破坏或清除掉落物
+     */
+    private static void applyMiningMode(BlockEvent.BreakEvent event, int miningMode) {
         if (miningMode == 0) {
             // 无法挖掘，取消破坏事件
-            if (Config.enableDebugLogging) {
-                LOGGER.info("[BetterExcavate] Block {} too hard for tool {} - cancelling break event! Block hardness: {}, Original tool hardness: {}, Effective tool hardness: {}",
-                        blockName, toolName, blockHardness, toolHardness, effectiveToolHardness);
-            }
-            
+            Metrics.BREAKS_CANCELLED.increment();
             event.setCanceled(true);
+            publishBreakEvent(event, MiningEvent.Type.CANCELLED);
             return;
         } else if (miningMode == 1) {
             // 正常挖掘，有掉落物
-            if (Config.enableDebugLogging) {
-                LOGGER.info("[BetterExcavate] Block {} can be properly mined with {} - drops/exp enabled! Block hardness: {}, Original tool hardness: {}, Effective tool hardness: {}",
-                        blockName, toolName, blockHardness, toolHardness, effectiveToolHardness);
-            }
+            Metrics.BREAKS_NORMAL.increment();
         } else if (miningMode == 2) {
             // 缓慢挖掘，无掉落物
-            if (Config.enableDebugLogging) {
-                LOGGER.info("[BetterExcavate] Block {} can be slowly mined with {} - no drops/exp! Block hardness: {}, Original tool hardness: {}, Effective tool hardness: {}",
-                        blockName, toolName, blockHardness, toolHardness, effectiveToolHardness);
-            }
+            Metrics.BREAKS_SLOW.increment();
+            publishBreakEvent(event, MiningEvent.Type.SLOW_MINING);
             
-            // 直接清除掉落物和经验值
-            try {
-                // 尝试使用反射来访问drops列表
-                java.lang.reflect.Field dropsField = event.getClass().getDeclaredField("drops");
-                dropsField.setAccessible(true);
-                @SuppressWarnings("unchecked")
-                java.util.List<net.minecraft.world.item.ItemStack> drops = 
-                    (java.util.List<net.minecraft.world.item.ItemStack>) dropsField.get(event);
-                drops.clear();
-                
-                // 清除经验值
-                java.lang.reflect.Field expField = event.getClass().getDeclaredField("expToDrop");
-                expField.setAccessible(true);
-                expField.setInt(event, 0);
-                
-                if (Config.enableDebugLogging) {
-                    LOGGER.info("[BetterExcavate] Successfully cleared drops and experience for slow mining");
-                }
-            } catch (Exception e) {
-                if (Config.enableDebugLogging) {
-                    LOGGER.warn("[BetterExcavate] Could not clear drops for slow mining: {}", e.getMessage());
-                }
-            }
+            // 掉落物由 PlayerMixin 中的 hasCorrectToolForDrops 按同样的挖掘模式阻止，这里只清除经验值
+            event.setExpToDrop(0);
+        }
+    }
+    
+    /**
+     * 把挖掘模式的决定发布到事件流，没有监听器时不做任何事
+     */
+    private static void publishBreakEvent(BlockEvent.BreakEvent event, MiningEvent.Type type) {
+        if (MiningEvents.hasListeners()) {
+            Player player = event.getPlayer();
+            BlockState state = event.getState();
+            MiningEvents.publishBreak(type, player, event.getPos(), state, player.getMainHandItem(),
+                    PositionalHardness.apply(player.level(), event.getPos(), state,
+                            state.getDestroySpeed(event.getLevel(), event.getPos())));
         }
     }
     
@@ -176,9 +236,12 @@ public class BlockBreakHandler {
         Player player = event.getEntity();
         BlockPos pos = event.getPos();
         
-        if (player != null && pos != null) {
+        if (player != null && pos != null && !(player instanceof FakePlayer)) {
             String playerUUID = player.getUUID().toString();
-            playerMiningBlocks.put(playerUUID, pos);
+            // 开始挖掘新的方块时重新计时
+            if (!pos.equals(playerMiningBlocks.put(playerUUID, pos))) {
+                miningSessionStarts.put(playerUUID, System.currentTimeMillis());
+            }
             lastMiningActivity.put(playerUUID, System.currentTimeMillis());
             playerActivelyMining.put(playerUUID, true);
             
@@ -195,6 +258,7 @@ public class BlockBreakHandler {
             String playerUUID = player.getUUID().toString();
             
             // 检查玩家当前是否真的瞄准空气
+            Metrics.RAYCASTS.increment();
             HitResult hitResult = player.pick(5.0D, 0.0F, false);
             if (hitResult.getType() == HitResult.Type.MISS) {
                 // 确实瞄准空气，停止挖掘
@@ -216,11 +280,25 @@ public class BlockBreakHandler {
     
     @SubscribeEvent
     public static void onPlayerTick(TickEvent.PlayerTickEvent event) {
+        long start = HandlerTimer.start();
+        try {
+            handlePlayerTick(event);
+        } finally {
+            HandlerTimer.stop(start, Metrics.PLAYER_TICK);
+        }
+    }
+    
+    private static void handlePlayerTick(TickEvent.PlayerTickEvent event) {
         // 如果工具损坏功能被禁用，直接返回
         if (!Config.enableToolDamageOnInvalidMining) {
             return;
         }
         
+        // FakePlayer没有持续挖掘的概念，不跟踪会话也不做射线检测
+        if (event.player instanceof FakePlayer) {
+            return;
+        }
+        
         // 只在服务端处理
         if (event.side.isClient()) {
             return;
@@ -239,6 +317,8 @@ public class BlockBreakHandler {
             return;
         }
         
+        long stageStart = StageProfiler.begin(player);
+        
         // 在开始处理前检查挖掘状态是否被意外重置
         checkAndRestoreMiningState(player);
         
@@ -246,11 +326,14 @@ public class BlockBreakHandler {
         if (!isPlayerMiningBlock(player)) {
             // 如果玩家停止挖掘，清理所有记录
             cleanupAllMiningRecords(player);
+            StageProfiler.lap(stageStart, Handler.PLAYER_TICK, Stage.TARGET_RAYCAST);
             return;
         }
         
         // 获取玩家瞄准的方块
+        Metrics.RAYCASTS.increment();
         HitResult hitResult = player.pick(5.0D, 0.0F, false);
+        stageStart = StageProfiler.lap(stageStart, Handler.PLAYER_TICK, Stage.TARGET_RAYCAST);
         if (!(hitResult instanceof BlockHitResult blockHitResult)) {
             return;
         }
@@ -258,8 +341,8 @@ public class BlockBreakHandler {
         BlockPos pos = blockHitResult.getBlockPos();
         BlockState state = player.level().getBlockState(pos);
         
-        // 获取方块硬度
-        float blockHardness = state.getDestroySpeed(player.level(), pos);
+        // 获取方块硬度，按位置修正
+        float blockHardness = PositionalHardness.apply(player.level(), pos, state, state.getDestroySpeed(player.level(), pos));
         
         // 如果方块硬度为-1（如基岩），设置为一个很大的值用于计算
         // 这样基岩也会被纳入工具损坏的计算中
@@ -278,37 +361,20 @@ public class BlockBreakHandler {
             return;
         }
         
-        double toolHardness;
-        String toolName;
-        
-        // 获取工具硬度
-        ResourceLocation itemId = ForgeRegistries.ITEMS.getKey(tool.getItem());
-        if (itemId == null) {
-            toolHardness = Config.defaultHardness;
-            toolName = "unknown";
-        } else {
-            toolName = itemId.toString();
-            toolHardness = Config.toolHardnessMap.getOrDefault(toolName, Config.defaultHardness);
-        }
-        
-        // 应用耐久度硬度惩罚
-        double effectiveToolHardness = toolHardness;
-        if (Config.enableDurabilityHardnessPenalty && !tool.isEmpty()) {
-            double durabilityHardnessMultiplier = Config.calculateDurabilityPenalty(tool, Config.maxDurabilityHardnessPenalty);
-            effectiveToolHardness = toolHardness * durabilityHardnessMultiplier;
-        }
+        // 工具硬度和应用耐久度硬度惩罚后的有效硬度都缓存在物品堆上
+        double toolHardness = StackHardness.getToolHardness(tool);
+        double effectiveToolHardness = StackHardness.getEffectiveHardness(tool);
+        stageStart = StageProfiler.lap(stageStart, Handler.PLAYER_TICK, Stage.REGISTRY_LOOKUP);
         
         // 应用错误工具类型的硬度惩罚
         if (Config.enableWrongToolPenalty && !tool.isEmpty()) {
             boolean isCorrectTool = Config.isCorrectToolType(tool, state);
             if (!isCorrectTool) {
                 // 错误工具类型时，工具硬度降低20%
-                effectiveToolHardness = effectiveToolHardness * 0.8;
+                effectiveToolHardness = effectiveToolHardness * MiningCalculator.WRONG_TOOL_HARDNESS_FACTOR;
             }
         }
-        
-        // 检查是否可以挖掘
-        double maxMineableHardness = effectiveToolHardness * Config.hardnessMultiplier;
+        stageStart = StageProfiler.lap(stageStart, Handler.PLAYER_TICK, Stage.WRONG_TOOL);
         
         // 计算工具硬度与方块硬度的比值，用于判断是否应该损坏工具
         // 使用有效硬度进行计算，这样基岩等方块也会被计算
@@ -326,6 +392,7 @@ public class BlockBreakHandler {
             if (!miningStartTimes.containsKey(playerKey)) {
                 miningStartTimes.put(playerKey, currentTime);
                 lastDamageTime.put(playerKey, currentTime);
+                StageProfiler.lap(stageStart, Handler.PLAYER_TICK, Stage.TOOL_DAMAGE);
                 return;
             }
             
@@ -341,22 +408,31 @@ public class BlockBreakHandler {
                 // 检查工具是否即将完全损坏
                 boolean willBreak = tool.getDamageValue() + 1 >= tool.getMaxDamage();
                 
+                Metrics.INVALID_MINING_TOOL_DAMAGE.increment();
+                
                 // 如果工具即将完全损坏，直接设置为完全损坏状态
                 if (willBreak) {
                     // 设置耐久度为最大值（完全损坏）
                     tool.setDamageValue(tool.getMaxDamage());
+                    MiningEvents.publishToolDamage(player, pos, state, tool, blockHardness, true);
                     // 清理所有相关记录
                     miningStartTimes.remove(playerKey);
                     lastDamageTime.remove(playerKey);
                     cleanupAllMiningRecords(player);
                     
-                    String blockName = state.getBlock().getDescriptionId();
-                    LOGGER.info("[BetterExcavate] Tool {} completely broken while mining {} - tool destroyed!", 
-                               toolName, blockName);
+                    TraceEntry trace = MiningTrace.begin(TraceEntry.Kind.TOOL_BROKEN, player, state, pos.asLong());
+                    if (trace != null) {
+                        trace.tool(tool.getItem(), toolHardness, effectiveToolHardness, false)
+                                .blockHardness(blockHardness)
+                                .durability(0, tool.getMaxDamage())
+                                .commit();
+                    }
+                    StageProfiler.lap(stageStart, Handler.PLAYER_TICK, Stage.TOOL_DAMAGE);
                     return; // 工具已损坏，直接返回
                 } else {
                     // 正常损坏工具1点耐久
                     tool.hurt(1, player.getRandom(), null);
+                    MiningEvents.publishToolDamage(player, pos, state, tool, blockHardness, false);
                 }
                 
                 lastDamageTime.put(playerKey, currentTime);
@@ -371,21 +447,19 @@ public class BlockBreakHandler {
                     LOGGER.debug("[BetterExcavate] Restored mining state after tool damage for player {}", playerUUID2);
                 }
                 
-                String blockName = state.getBlock().getDescriptionId();
-                if (blockHardness < 0 || blockHardness > maxMineableHardness) {
-                    LOGGER.info("[BetterExcavate] Tool {} damaged while trying to mine unbreakable {} (hardness: {}, ratio: {}) - durability: {}/{}", 
-                               toolName, blockName, blockHardness < 0 ? "indestructible" : String.format("%.2f", blockHardness), 
-                               String.format("%.3f", hardnessRatio), tool.getMaxDamage() - tool.getDamageValue(), tool.getMaxDamage());
-                } else {
-                    LOGGER.info("[BetterExcavate] Tool {} damaged while slowly mining {} (hardness: {}, ratio: {}) - durability: {}/{}", 
-                               toolName, blockName, String.format("%.2f", blockHardness), 
-                               String.format("%.3f", hardnessRatio), tool.getMaxDamage() - tool.getDamageValue(), tool.getMaxDamage());
+                TraceEntry trace = MiningTrace.begin(TraceEntry.Kind.TOOL_DAMAGE, player, state, pos.asLong());
+                if (trace != null) {
+                    trace.tool(tool.getItem(), toolHardness, effectiveToolHardness, false)
+                            .blockHardness(blockHardness)
+                            .durability(tool.getMaxDamage() - tool.getDamageValue(), tool.getMaxDamage())
+                            .commit();
                 }
             }
         } else {
             // 如果可以挖掘，清理挖掘记录
             cleanupMiningRecords(player, pos);
         }
+        StageProfiler.lap(stageStart, Handler.PLAYER_TICK, Stage.TOOL_DAMAGE);
     }
     
     /**
@@ -417,6 +491,7 @@ public class BlockBreakHandler {
         }
         
         // 检查玩家当前瞄准的方块是否与记录的挖掘方块一致
+        Metrics.RAYCASTS.increment();
         HitResult hitResult = player.pick(5.0D, 0.0F, false);
         if (!(hitResult instanceof BlockHitResult blockHitResult)) {
             // 如果玩家没有瞄准方块，停止挖掘
@@ -479,6 +554,13 @@ public class BlockBreakHandler {
         playerActivelyMining.remove(playerUUID);
         previousMiningState.remove(playerUUID);
         previousMiningPos.remove(playerUUID);
+        miningSessionStarts.remove(playerUUID);
+    }
+    
+    @SubscribeEvent
+    public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        // 挖掘中途下线时玩家tick不再运行，在这里清理
+        cleanupAllMiningRecords(event.getEntity());
     }
     
     /**
@@ -498,6 +580,7 @@ public class BlockBreakHandler {
         // 如果上一tick在挖掘，但现在状态丢失了，尝试恢复
         if (previousMining != null && previousMining && previousPos != null) {
             // 检查玩家是否仍在瞄准同一个方块
+            Metrics.RAYCASTS.increment();
             HitResult hitResult = player.pick(5.0D, 0.0F, false);
             if (hitResult instanceof BlockHitResult blockHitResult) {
                 BlockPos targetPos = blockHitResult.getBlockPos();
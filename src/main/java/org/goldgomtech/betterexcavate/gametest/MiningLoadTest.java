@@ -0,0 +1,245 @@
+package org.goldgomtech.betterexcavate.gametest;
+
+import com.mojang.authlib.GameProfile;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.network.protocol.game.ServerboundPlayerActionPacket;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.common.ForgeHooks;
+import net.minecraftforge.event.ForgeEventFactory;
+import net.minecraftforge.gametest.GameTestHolder;
+import net.minecraftforge.gametest.PrefixGameTestTemplate;
+import org.goldgomtech.betterexcavate.BetterExcavate;
+import org.goldgomtech.betterexcavate.HandlerTimer;
+import org.goldgomtech.betterexcavate.SimulatedPlayer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * 挖掘负载测试
+ * 生成N个模拟玩家，各自用不同工具按脚本挖掘目标方块，
+ * 统计每tick在BetterExcavate处理器（BlockBreakHandler和各Mixin）中花费的时间，
+ * 模拟玩家不是 FakePlayer，测量的是真实玩家的处理路径而不是自动化快速路径，
+ * 平均值或p99超过阈值时测试失败。通过 gameTestServer 运行
+ *
+ * 阈值通过系统属性配置，例如在 build.gradle 的 gameTestServer 中：
+ *   property 'betterexcavate.loadtest.maxMeanMillis', '2.0'
+ *   property 'betterexcavate.loadtest.maxP99Millis.500', '12.0'
+ * 带玩家数量后缀的属性只对该规模的测试生效
+ */
+@GameTestHolder(BetterExcavate.MODID)
+@PrefixGameTestTemplate(false)
+public class MiningLoadTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    private static final String TEMPLATE = "load_arena";
+    /** 场地边长，与 load_arena 结构尺寸一致 */
+    private static final int ARENA_SIZE = 32;
+
+    /** 开始统计前运行的tick数，让JIT和各处理器的状态稳定下来 */
+    private static final int WARMUP_TICKS = 40;
+    private static final int MEASURE_TICKS = 200;
+    private static final int TIMEOUT_TICKS = WARMUP_TICKS + MEASURE_TICKS + 100;
+
+    /** 每隔多少tick清除一次掉落物，避免实体数量影响测量 */
+    private static final int CLEANUP_INTERVAL = 20;
+
+    private static final double DEFAULT_MAX_MEAN_MILLIS = 10.0;
+    private static final double DEFAULT_MAX_P99_MILLIS = 25.0;
+
+    @GameTest(template = TEMPLATE, batch = "betterexcavate_load_10", timeoutTicks = TIMEOUT_TICKS)
+    public static void mining10Players(GameTestHelper helper) {
+        runLoadTest(helper, 10);
+    }
+
+    @GameTest(template = TEMPLATE, batch = "betterexcavate_load_100", timeoutTicks = TIMEOUT_TICKS)
+    public static void mining100Players(GameTestHelper helper) {
+        runLoadTest(helper, 100);
+    }
+
+    @GameTest(template = TEMPLATE, batch = "betterexcavate_load_500", timeoutTicks = TIMEOUT_TICKS)
+    public static void mining500Players(GameTestHelper helper) {
+        runLoadTest(helper, 500);
+    }
+
+    private static void runLoadTest(GameTestHelper helper, int playerCount) {
+        Miner[] miners = spawnMiners(helper, playerCount);
+        long[] samples = new long[MEASURE_TICKS];
+        int[] tick = {0};
+
+        HandlerTimer.setEnabled(true);
+        helper.onEachTick(() -> {
+            if (tick[0] >= WARMUP_TICKS + MEASURE_TICKS) {
+                return;
+            }
+            for (Miner miner : miners) {
+                miner.tick(helper);
+            }
+            if (tick[0] % CLEANUP_INTERVAL == 0) {
+                helper.killAllEntities();
+            }
+
+            long nanos = HandlerTimer.drainNanos();
+            if (tick[0] >= WARMUP_TICKS) {
+                samples[tick[0] - WARMUP_TICKS] = nanos;
+            }
+            tick[0]++;
+        });
+
+        helper.startSequence()
+                .thenExecuteAfter(WARMUP_TICKS + MEASURE_TICKS + 1, () -> evaluate(helper, playerCount, samples))
+                .thenSucceed();
+    }
+
+    private static void evaluate(GameTestHelper helper, int playerCount, long[] samples) {
+        HandlerTimer.setEnabled(false);
+
+        long total = 0;
+        for (long sample : samples) {
+            total += sample;
+        }
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        double meanMillis = total / (double) samples.length / 1_000_000.0;
+        double p99Millis = sorted[(int) Math.ceil(sorted.length * 0.99) - 1] / 1_000_000.0;
+        double maxMillis = sorted[sorted.length - 1] / 1_000_000.0;
+
+        double maxMean = threshold("maxMeanMillis", playerCount, DEFAULT_MAX_MEAN_MILLIS);
+        double maxP99 = threshold("maxP99Millis", playerCount, DEFAULT_MAX_P99_MILLIS);
+
+        LOGGER.info("[BetterExcavate] Load test with {} miners over {} ticks: mean {} ms/tick (limit {}), p99 {} ms/tick (limit {}), max {} ms/tick",
+                playerCount, samples.length,
+                String.format("%.3f", meanMillis), maxMean,
+                String.format("%.3f", p99Millis), maxP99,
+                String.format("%.3f", maxMillis));
+
+        if (meanMillis > maxMean) {
+            helper.fail(String.format("Mean handler time %.3f ms/tick with %d miners exceeds %.3f ms", meanMillis, playerCount, maxMean));
+        }
+        if (p99Millis > maxP99) {
+            helper.fail(String.format("p99 handler time %.3f ms/tick with %d miners exceeds %.3f ms", p99Millis, playerCount, maxP99));
+        }
+    }
+
+    /**
+     * 读取阈值：优先使用带玩家数量后缀的系统属性，其次是通用属性
+     */
+    private static double threshold(String name, int playerCount, double defaultValue) {
+        String value = System.getProperty("betterexcavate.loadtest." + name + "." + playerCount);
+        if (value == null) {
+            value = System.getProperty("betterexcavate.loadtest." + name);
+        }
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            LOGGER.warn("[BetterExcavate] Invalid load test threshold {}={}, using {}", name, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 在场地中按网格排列模拟玩家，每人脚下放一个目标方块
+     * 工具和目标方块按编号轮换，覆盖正常挖掘、缓慢挖掘、无法挖掘和错误工具等情况
+     */
+    private static Miner[] spawnMiners(GameTestHelper helper, int playerCount) {
+        ItemStack[] tools = {
+                ItemStack.EMPTY,
+                new ItemStack(Items.WOODEN_PICKAXE),
+                new ItemStack(Items.STONE_PICKAXE),
+                new ItemStack(Items.IRON_PICKAXE),
+                new ItemStack(Items.DIAMOND_PICKAXE),
+                new ItemStack(Items.NETHERITE_PICKAXE),
+                new ItemStack(Items.IRON_SHOVEL),
+                new ItemStack(Items.IRON_AXE)
+        };
+        BlockState[] targets = {
+                Blocks.STONE.defaultBlockState(),
+                Blocks.DEEPSLATE.defaultBlockState(),
+                Blocks.IRON_ORE.defaultBlockState(),
+                Blocks.OBSIDIAN.defaultBlockState(),
+                Blocks.DIRT.defaultBlockState(),
+                Blocks.OAK_LOG.defaultBlockState(),
+                Blocks.BEDROCK.defaultBlockState()
+        };
+
+        int gridSize = (int) Math.ceil(Math.sqrt(playerCount));
+        int spacing = Math.max(1, ARENA_SIZE / gridSize);
+        ServerLevel level = helper.getLevel();
+        Miner[] miners = new Miner[playerCount];
+        for (int i = 0; i < playerCount; i++) {
+            BlockPos target = new BlockPos((i % gridSize) * spacing, 1, (i / gridSize) * spacing);
+            ItemStack tool = tools[i % tools.length].copy();
+            if (tool.isDamageableItem()) {
+                // 不同的初始磨损，覆盖耐久度惩罚
+                tool.setDamageValue(tool.getMaxDamage() * (i % 4) / 4);
+            }
+
+            GameProfile profile = new GameProfile(
+                    UUID.nameUUIDFromBytes(("betterexcavate-loadtest-" + i).getBytes(StandardCharsets.UTF_8)),
+                    "[BetterExcavate Load " + i + "]");
+            SimulatedPlayer player = new SimulatedPlayer(level, profile);
+            miners[i] = new Miner(player, target, targets[(i / tools.length) % targets.length], tool);
+            miners[i].reset(helper);
+        }
+        return miners;
+    }
+
+    /**
+     * 单个模拟玩家的挖掘脚本：站在目标方块上方向下看，持续挖掘，挖掉后放回目标方块重新开始
+     * 模拟玩家不在玩家列表中，不会自己tick，挖掘进度和玩家tick事件都由这里驱动
+     */
+    private static final class Miner {
+        private final SimulatedPlayer player;
+        private final BlockPos target;
+        private final BlockState targetState;
+        private final ItemStack tool;
+        private float progress;
+
+        Miner(SimulatedPlayer player, BlockPos target, BlockState targetState, ItemStack tool) {
+            this.player = player;
+            this.target = target;
+            this.targetState = targetState;
+            this.tool = tool;
+        }
+
+        void reset(GameTestHelper helper) {
+            helper.setBlock(target, targetState);
+            BlockPos absolute = helper.absolutePos(target);
+            player.moveTo(absolute.getX() + 0.5, absolute.getY() + 1, absolute.getZ() + 0.5, 0.0F, 90.0F);
+            if (player.getMainHandItem().isEmpty() || !ItemStack.isSameItem(player.getMainHandItem(), tool)) {
+                player.setItemInHand(InteractionHand.MAIN_HAND, tool.copy());
+            }
+            player.resetAttackStrengthTicker();
+            progress = 0.0F;
+            ForgeHooks.onLeftClickBlock(player, absolute, Direction.UP, ServerboundPlayerActionPacket.Action.START_DESTROY_BLOCK);
+        }
+
+        void tick(GameTestHelper helper) {
+            BlockPos absolute = helper.absolutePos(target);
+            ServerLevel level = helper.getLevel();
+
+            ForgeEventFactory.onPlayerPreTick(player);
+            progress += level.getBlockState(absolute).getDestroyProgress(player, level, absolute);
+            if (progress >= 1.0F) {
+                player.gameMode.destroyBlock(absolute);
+                reset(helper);
+            }
+            ForgeEventFactory.onPlayerPostTick(player);
+        }
+    }
+}
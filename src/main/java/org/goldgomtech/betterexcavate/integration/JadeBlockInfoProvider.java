@@ -1,12 +1,13 @@
 package org.goldgomtech.betterexcavate.integration;
 
 import net.minecraft.network.chat.Component;
-import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.block.state.BlockState;
-import net.minecraftforge.registries.ForgeRegistries;
 import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.PositionalHardness;
+import org.goldgomtech.betterexcavate.StackHardness;
+import org.goldgomtech.betterexcavate.zone.HardnessZone;
 
 /**
  * Jade集成：在方块信息面板中显示挖掘硬度和工具信息
@@ -33,33 +34,22 @@ public class JadeBlockInfoProvider {
             return info.toArray(new Component[0]);
         }
         
-        // 显示方块硬度
+        // 显示按位置修正后的方块硬度，有修正时同时显示倍数
+        HardnessZone zone = PositionalHardness.findZone(level, pos);
+        float baseHardness = blockHardness;
+        blockHardness = PositionalHardness.apply(level, pos, blockState, baseHardness, zone);
         info.add(Component.translatable("betterexcavate.jade.block_hardness", String.format("%.2f", blockHardness)));
+        if (blockHardness != baseHardness && baseHardness > 0) {
+            info.add(Component.translatable("betterexcavate.jade.hardness_scaling",
+                String.format("%.2f", blockHardness / baseHardness), String.format("%.2f", baseHardness)));
+        }
         
         // 获取玩家手持工具信息
         ItemStack heldItem = player.getMainHandItem();
         
-        double toolHardness;
-        String toolName = "hand";
-        
-        if (heldItem.isEmpty()) {
-            toolHardness = Config.defaultHardness;
-        } else {
-            ResourceLocation itemId = ForgeRegistries.ITEMS.getKey(heldItem.getItem());
-            if (itemId == null) {
-                toolHardness = Config.defaultHardness;
-            } else {
-                toolName = itemId.toString();
-                toolHardness = Config.toolHardnessMap.getOrDefault(toolName, Config.defaultHardness);
-            }
-        }
-        
-        // 应用耐久度硬度惩罚
-        double effectiveToolHardness = toolHardness;
-        if (Config.enableDurabilityHardnessPenalty && !heldItem.isEmpty()) {
-            double durabilityHardnessMultiplier = Config.calculateDurabilityPenalty(heldItem, Config.maxDurabilityHardnessPenalty);
-            effectiveToolHardness = toolHardness * durabilityHardnessMultiplier;
-        }
+        // 工具硬度（含附魔和NBT修正）和应用耐久度硬度惩罚后的有效硬度，缓存在物品堆上
+        double toolHardness = StackHardness.getToolHardness(heldItem);
+        double effectiveToolHardness = StackHardness.getEffectiveHardness(heldItem);
         
         // 显示工具硬度
         if (heldItem.isEmpty()) {
@@ -96,7 +86,12 @@ public class JadeBlockInfoProvider {
         }
         
         // 计算挖掘能力
-        int miningMode = Config.getMiningMode(blockHardness, effectiveToolHardness);
+        int miningMode = PositionalHardness.overrideMode(zone, Config.getMiningMode(blockHardness, effectiveToolHardness));
+        
+        // 方块在硬度区域中时显示区域名称
+        if (zone != null) {
+            info.add(Component.translatable("betterexcavate.jade.zone", zone.name()));
+        }
         
         // 计算挖掘速度
         float miningSpeed = calculateMiningSpeed(player, blockState, heldItem, level, pos);
@@ -154,32 +149,17 @@ public class JadeBlockInfoProvider {
      * 根据配置选择使用原版速度修正或自定义速度计算
      */
     private static float calculateMiningSpeed(Player player, BlockState blockState, ItemStack tool, net.minecraft.world.level.Level level, net.minecraft.core.BlockPos pos) {
-        // 获取方块硬度和工具硬度信息
+        // 获取方块硬度（按位置修正）和工具硬度信息
         float blockHardness = blockState.getDestroySpeed(level, pos);
         
         if (blockHardness < 0) {
             return 0.0F; // 不可破坏的方块
         }
+        HardnessZone zone = PositionalHardness.findZone(level, pos);
+        blockHardness = PositionalHardness.apply(level, pos, blockState, blockHardness, zone);
         
-        double toolHardness;
-        if (tool.isEmpty()) {
-            toolHardness = Config.defaultHardness;
-        } else {
-            net.minecraft.resources.ResourceLocation itemId = net.minecraftforge.registries.ForgeRegistries.ITEMS.getKey(tool.getItem());
-            if (itemId == null) {
-                toolHardness = Config.defaultHardness;
-            } else {
-                String toolName = itemId.toString();
-                toolHardness = Config.toolHardnessMap.getOrDefault(toolName, Config.defaultHardness);
-            }
-        }
-        
-        // 应用耐久度硬度惩罚
-        double effectiveToolHardness = toolHardness;
-        if (Config.enableDurabilityHardnessPenalty && !tool.isEmpty()) {
-            double durabilityHardnessMultiplier = Config.calculateDurabilityPenalty(tool, Config.maxDurabilityHardnessPenalty);
-            effectiveToolHardness = toolHardness * durabilityHardnessMultiplier;
-        }
+        // 应用附魔、NBT修正和耐久度硬度惩罚后的有效硬度，缓存在物品堆上
+        double effectiveToolHardness = StackHardness.getEffectiveHardness(tool);
         
         // 应用错误工具类型的硬度惩罚
         boolean isWrongTool = false;
@@ -192,8 +172,8 @@ public class JadeBlockInfoProvider {
             }
         }
         
-        // 检查挖掘模式
-        int miningMode = Config.getMiningMode(blockHardness, effectiveToolHardness);
+        // 检查挖掘模式（包括硬度区域强制的模式）
+        int miningMode = PositionalHardness.overrideMode(zone, Config.getMiningMode(blockHardness, effectiveToolHardness));
         
         if (miningMode == 0) {
             return 0.0F; // 无法挖掘
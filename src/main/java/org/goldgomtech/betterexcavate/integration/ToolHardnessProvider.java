@@ -0,0 +1,42 @@
+package org.goldgomtech.betterexcavate.integration;
+
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * 由其他模组提供工具硬度的服务接口
+ * 适用于属性由NBT决定的工具（例如模块化工具），同一物品ID的不同物品堆可以有不同的硬度。
+ *
+ * 实现类需要有公共无参构造函数，并在模组jar的
+ * META-INF/services/org.goldgomtech.betterexcavate.integration.ToolHardnessProvider 中列出，
+ * 启动后通过 {@link java.util.ServiceLoader} 发现。
+ *
+ * 结果缓存在物品堆上，只在物品堆的NBT（包括耐久）变化或配置重载后重新调用；
+ * 耐久度由BetterExcavate自己的耐久惩罚处理，实现不需要考虑。
+ * 可能在服务端和客户端线程上并发调用，实现必须线程安全且不修改物品堆
+ */
+public interface ToolHardnessProvider {
+
+    /**
+     * 表示不处理这个物品堆，交给优先级更低的提供者或内置的硬度表
+     */
+    double NOT_HANDLED = Double.NaN;
+
+    /**
+     * 优先级，数值大的先调用
+     */
+    default int getPriority() {
+        return 0;
+    }
+
+    /**
+     * 是否可能为这个物品提供硬度，返回false的物品不会调用 {@link #getToolHardness}
+     */
+    boolean handles(Item item);
+
+    /**
+     * 计算物品堆的工具硬度
+     * @return 工具硬度，不处理时返回 {@link #NOT_HANDLED}
+     */
+    double getToolHardness(ItemStack stack);
+}
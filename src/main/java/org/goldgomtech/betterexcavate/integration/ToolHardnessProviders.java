@@ -0,0 +1,119 @@
+package org.goldgomtech.betterexcavate.integration;
+
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import org.goldgomtech.betterexcavate.HardnessTables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * 通过 {@link ServiceLoader} 发现的 {@link ToolHardnessProvider}，按优先级排序
+ *
+ * 这里不缓存查询结果：结果随物品堆缓存在 {@link org.goldgomtech.betterexcavate.StackHardness} 中，
+ * 只在物品堆变化或配置重载后重新查询
+ */
+public final class ToolHardnessProviders {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    private static volatile ToolHardnessProvider[] providers;
+
+    private ToolHardnessProviders() {
+    }
+
+    private static ToolHardnessProvider[] getProviders() {
+        ToolHardnessProvider[] loaded = providers;
+        if (loaded == null) {
+            synchronized (ToolHardnessProviders.class) {
+                loaded = providers;
+                if (loaded == null) {
+                    loaded = load();
+                    providers = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private static ToolHardnessProvider[] load() {
+        List<ToolHardnessProvider> found = new ArrayList<>();
+        ServiceLoader<ToolHardnessProvider> loader = ServiceLoader.load(ToolHardnessProvider.class,
+                ToolHardnessProviders.class.getClassLoader());
+        for (var iterator = loader.iterator(); ; ) {
+            try {
+                if (!iterator.hasNext()) {
+                    break;
+                }
+                ToolHardnessProvider provider = iterator.next();
+                found.add(provider);
+                LOGGER.info("[BetterExcavate] Registered tool hardness provider {} (priority {})",
+                        provider.getClass().getName(), provider.getPriority());
+            } catch (ServiceConfigurationError e) {
+                LOGGER.error("[BetterExcavate] Could not load tool hardness provider", e);
+            }
+        }
+        found.sort(Comparator.comparingInt(ToolHardnessProvider::getPriority).reversed());
+        return found.toArray(new ToolHardnessProvider[0]);
+    }
+
+    /**
+     * 是否有提供者可能处理这个物品
+     */
+    public static boolean handles(Item item) {
+        for (ToolHardnessProvider provider : getProviders()) {
+            if (provider.handles(item)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 由提供者决定的工具硬度
+     * @return 工具硬度，没有提供者处理时返回 {@link ToolHardnessProvider#NOT_HANDLED}
+     */
+    public static double getProvidedHardness(ItemStack stack) {
+        ToolHardnessProvider[] all = getProviders();
+        if (all.length == 0 || stack.isEmpty()) {
+            return ToolHardnessProvider.NOT_HANDLED;
+        }
+        Item item = stack.getItem();
+        if (!handles(item)) {
+            return ToolHardnessProvider.NOT_HANDLED;
+        }
+
+        double hardness = ToolHardnessProvider.NOT_HANDLED;
+        for (ToolHardnessProvider provider : all) {
+            if (!provider.handles(item)) {
+                continue;
+            }
+            try {
+                hardness = provider.getToolHardness(stack);
+            } catch (RuntimeException e) {
+                LOGGER.error("[BetterExcavate] Tool hardness provider {} failed for {}", provider.getClass().getName(), stack, e);
+                hardness = ToolHardnessProvider.NOT_HANDLED;
+            }
+            if (!Double.isNaN(hardness)) {
+                break;
+            }
+        }
+        return hardness;
+    }
+
+    /**
+     * 工具硬度：提供者优先，否则使用硬度表
+     */
+    public static double getToolHardness(HardnessTables tables, ItemStack stack) {
+        if (stack.isEmpty()) {
+            return tables.getDefaultHardness();
+        }
+        double provided = getProvidedHardness(stack);
+        return Double.isNaN(provided) ? tables.getToolHardness(stack.getItem()) : provided;
+    }
+}
@@ -0,0 +1,165 @@
+package org.goldgomtech.betterexcavate.journal;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.event.server.ServerAboutToStartEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.loading.FMLPaths;
+import org.goldgomtech.betterexcavate.BetterExcavate;
+import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 方块破坏决策日志，用于离线分析平衡性
+ * 每次破坏写入一条定长二进制记录（游戏刻、维度、位置、方块状态、物品、损耗、挖掘模式、挖掘持续时间），
+ * 经无锁队列交给单独的写入线程追加到内存映射的滚动文件中，游戏线程从不等待磁盘。
+ * 队列满时丢弃记录并计数。文件格式见 {@link JournalFormat}，用 {@link JournalExporter} 转换为CSV
+ */
+@Mod.EventBusSubscriber(modid = BetterExcavate.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public final class BreakJournal {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    // 停止时等待写入线程写完剩余记录的最长时间
+    private static final long STOP_WAIT_MILLIS = 5000;
+
+    // 未启用时为null，记录时只需一次判断
+    private static volatile JournalWriter writer;
+    private static boolean serverRunning;
+    private static final LongAdder dropped = new LongAdder();
+    private static final LongAdder written = new LongAdder();
+
+    static {
+        Metrics.gauge("betterexcavate_journal_records_written", "Block break records written to the journal", null, null, BreakJournal::getWrittenCount);
+        Metrics.gauge("betterexcavate_journal_records_dropped", "Block break records dropped because the journal queue was full", null, null, dropped::sum);
+    }
+
+    /** 记录中的挖掘模式：掉落物控制不生效（已关闭或创造模式），按原版处理 */
+    public static final int MODE_DROP_CONTROL_DISABLED = 3;
+
+    private BreakJournal() {
+    }
+
+    /**
+     * 按配置启动、重启或停止写入线程；服务器未运行时只记录配置
+     */
+    public static synchronized void applyConfig() {
+        boolean wanted = Config.enableBreakJournal && serverRunning;
+        JournalWriter current = writer;
+        // 设置未变化时继续写当前文件
+        if (wanted && current != null && current.matches(getDirectory(), Config.breakJournalQueueSize,
+                Config.breakJournalFileSizeMb, Config.breakJournalMaxFiles)) {
+            return;
+        }
+        stopWriter(STOP_WAIT_MILLIS);
+        if (wanted) {
+            startWriter();
+        }
+    }
+
+    private static void startWriter() {
+        Path directory = getDirectory();
+        JournalWriter newWriter = new JournalWriter(directory, Config.breakJournalQueueSize,
+                Config.breakJournalFileSizeMb, Config.breakJournalMaxFiles);
+        newWriter.start();
+        writer = newWriter;
+        LOGGER.info("[BetterExcavate] Writing block break journal to {}", directory);
+    }
+
+    private static void stopWriter(long waitMillis) {
+        JournalWriter oldWriter = writer;
+        if (oldWriter != null) {
+            writer = null;
+            oldWriter.stop(waitMillis);
+            written.add(oldWriter.written.sum());
+        }
+    }
+
+    /**
+     * 写入线程出错后停用日志，直到下次配置重载或服务器重启
+     */
+    static synchronized void writerFailed(JournalWriter failed) {
+        if (writer == failed) {
+            writer = null;
+            written.add(failed.written.sum());
+        }
+    }
+
+    public static boolean isEnabled() {
+        return writer != null;
+    }
+
+    /**
+     * 记录一次方块破坏决策，只在游戏线程调用，不会阻塞
+     * @param miningMode 挖掘模式（0 无法挖掘，1 正常，2 缓慢无掉落），或 {@link #MODE_DROP_CONTROL_DISABLED}
+     * @param sessionStartMillis 开始挖掘这个方块的时间，未知时为0
+     */
+    public static void record(Level level, BlockPos pos, BlockState state, ItemStack tool, int miningMode, long sessionStartMillis) {
+        JournalWriter current = writer;
+        if (current == null) {
+            return;
+        }
+        JournalQueue.Slot slot = current.queue.claim();
+        if (slot == null) {
+            dropped.increment();
+            return;
+        }
+        slot.gameTime = level.getGameTime();
+        slot.packedPos = pos.asLong();
+        slot.dimension = level.dimension();
+        slot.stateId = Block.getId(state);
+        slot.itemId = BuiltInRegistries.ITEM.getId(tool.getItem());
+        slot.damage = tool.getDamageValue();
+        slot.sessionMillis = sessionStartMillis > 0
+                ? (int) Math.min(System.currentTimeMillis() - sessionStartMillis, Integer.MAX_VALUE) : -1;
+        slot.mode = (byte) miningMode;
+        current.queue.publish(slot);
+    }
+
+    /** 当前写入的文件，未启用或尚未写入时为null */
+    public static Path getCurrentFile() {
+        JournalWriter current = writer;
+        return current == null ? null : current.currentFile();
+    }
+
+    /** 日志目录 */
+    public static Path getDirectory() {
+        return FMLPaths.GAMEDIR.get().resolve(Config.breakJournalDirectory).toAbsolutePath().normalize();
+    }
+
+    public static long getWrittenCount() {
+        JournalWriter current = writer;
+        return written.sum() + (current == null ? 0 : current.written.sum());
+    }
+
+    public static long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @SubscribeEvent
+    public static void onServerAboutToStart(ServerAboutToStartEvent event) {
+        synchronized (BreakJournal.class) {
+            serverRunning = true;
+            applyConfig();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        synchronized (BreakJournal.class) {
+            serverRunning = false;
+            stopWriter(STOP_WAIT_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.goldgomtech.betterexcavate.journal;
+
+import net.minecraft.core.BlockPos;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 把方块破坏日志转换为CSV
+ * 名称从日志旁的 .dict 文件读取，不需要游戏注册表，既可以由 /betterexcavate journal export 调用，
+ * 也可以离线运行：
+ *
+ *   gradlew exportJournal -PjournalArgs="run/betterexcavate/journal"
+ *
+ * 参数可以是日志文件或目录，CSV写在日志文件旁（同名，扩展名 .csv）
+ */
+public final class JournalExporter {
+
+    private static final String CSV_HEADER = "tick,dimension,x,y,z,block_state,item,damage,mode,session_ms";
+
+    private JournalExporter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: JournalExporter <journal file or directory>...");
+            System.exit(2);
+        }
+        for (String arg : args) {
+            for (Path journal : listJournals(Path.of(arg))) {
+                Path csv = csvPath(journal);
+                long rows = export(journal, csv);
+                System.err.printf("%s: %d records -> %s%n", journal.getFileName(), rows, csv);
+            }
+        }
+    }
+
+    /**
+     * 列出目录中的日志文件，按时间顺序排列；参数是文件时直接返回该文件
+     */
+    public static List<Path> listJournals(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return List.of(path);
+        }
+        try (Stream<Path> stream = Files.list(path)) {
+            return stream.filter(file -> file.getFileName().toString().endsWith(JournalFormat.JOURNAL_EXTENSION))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * 日志文件对应的CSV文件
+     */
+    public static Path csvPath(Path journal) {
+        String name = journal.getFileName().toString();
+        return journal.resolveSibling(name.substring(0, name.length() - JournalFormat.JOURNAL_EXTENSION.length()) + ".csv");
+    }
+
+    /**
+     * 导出一个日志文件
+     * @return 导出的记录数
+     */
+    public static long export(Path journal, Path csv) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            return export(journal, writer);
+        }
+    }
+
+    public static long export(Path journal, Writer out) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(JournalFormat.ORDER);
+        if (buffer.capacity() < JournalFormat.HEADER_SIZE
+                || buffer.getInt(JournalFormat.MAGIC_OFFSET) != JournalFormat.MAGIC
+                || buffer.getInt(JournalFormat.VERSION_OFFSET) != JournalFormat.VERSION) {
+            throw new IOException("Not a BetterExcavate journal: " + journal);
+        }
+        int headerSize = buffer.getInt(JournalFormat.HEADER_SIZE_OFFSET);
+        int recordSize = buffer.getInt(JournalFormat.RECORD_SIZE_OFFSET);
+        // 写入中断时记录数可能未更新到最后一批，按文件实际大小截断
+        long count = Math.min(buffer.getLong(JournalFormat.COUNT_OFFSET), (buffer.capacity() - headerSize) / recordSize);
+
+        Dictionary dictionary = Dictionary.read(journal.resolveSibling(
+                JournalFormat.dictionaryName(journal.getFileName().toString())));
+
+        out.write(CSV_HEADER);
+        out.write('\n');
+        StringBuilder row = new StringBuilder(128);
+        for (long i = 0; i < count; i++) {
+            int base = headerSize + (int) (i * recordSize);
+            long packedPos = buffer.getLong(base + JournalFormat.POS_OFFSET);
+            row.setLength(0);
+            row.append(buffer.getLong(base + JournalFormat.TICK_OFFSET)).append(',')
+                    .append(dictionary.dimensions.getOrDefault(buffer.getInt(base + JournalFormat.DIMENSION_OFFSET), "unknown")).append(',')
+                    .append(BlockPos.getX(packedPos)).append(',')
+                    .append(BlockPos.getY(packedPos)).append(',')
+                    .append(BlockPos.getZ(packedPos)).append(',')
+                    // 方块状态的属性列表含逗号，需要加引号
+                    .append('"').append(dictionary.states.getOrDefault(buffer.getInt(base + JournalFormat.STATE_OFFSET), "unknown")).append("\",")
+                    .append(dictionary.items.getOrDefault(buffer.getInt(base + JournalFormat.ITEM_OFFSET), "unknown")).append(',')
+                    .append(buffer.getInt(base + JournalFormat.DAMAGE_OFFSET)).append(',')
+                    .append(buffer.get(base + JournalFormat.MODE_OFFSET)).append(',')
+                    .append(buffer.getInt(base + JournalFormat.SESSION_OFFSET)).append('\n');
+            out.append(row);
+        }
+        return count;
+    }
+
+    /**
+     * 一个日志文件的ID到名称映射
+     */
+    private record Dictionary(Map<Integer, String> states, Map<Integer, String> items, Map<Integer, String> dimensions) {
+
+        static Dictionary read(Path file) throws IOException {
+            Dictionary dictionary = new Dictionary(new HashMap<>(), new HashMap<>(), new HashMap<>());
+            if (!Files.exists(file)) {
+                return dictionary;
+            }
+            // 写入中断时最后一行可能不完整，跳过无法解析的行
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] parts = line.split("\t", 3);
+                if (parts.length != 3) {
+                    continue;
+                }
+                Map<Integer, String> target = switch (parts[0]) {
+                    case JournalFormat.DICT_STATE -> dictionary.states;
+                    case JournalFormat.DICT_ITEM -> dictionary.items;
+                    case JournalFormat.DICT_DIMENSION -> dictionary.dimensions;
+                    default -> null;
+                };
+                if (target != null) {
+                    try {
+                        target.put(Integer.parseInt(parts[1]), parts[2]);
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+            }
+            return dictionary;
+        }
+    }
+}
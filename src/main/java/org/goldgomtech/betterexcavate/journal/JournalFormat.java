@@ -0,0 +1,72 @@
+package org.goldgomtech.betterexcavate.journal;
+
+import java.nio.ByteOrder;
+
+/**
+ * 方块破坏日志文件的二进制格式
+ *
+ * <pre>
+ * 文件头（64字节）
+ *   0  int   魔数 "BEJ1"
+ *   4  int   版本
+ *   8  int   记录长度
+ *   12 int   文件头长度
+ *   16 long  创建时间（毫秒）
+ *   24 long  已写入的记录数，写入线程每批更新一次
+ *
+ * 记录（40字节）
+ *   0  long  游戏刻（Level.getGameTime）
+ *   8  long  方块位置（BlockPos.asLong）
+ *   16 int   维度，在同名 .dict 文件中查找
+ *   20 int   方块状态ID（Block.getId）
+ *   24 int   物品ID
+ *   28 int   工具已损耗的耐久
+ *   32 int   挖掘持续时间（毫秒），未知时为-1
+ *   36 byte  挖掘模式（0 无法挖掘，1 正常，2 缓慢无掉落，3 掉落物控制不生效）
+ * </pre>
+ *
+ * 数值ID只在写入时的注册表中有效，因此每个日志文件旁有一个 .dict 文本文件，
+ * 记录该文件中出现过的ID对应的名称，导出时不需要启动游戏
+ */
+final class JournalFormat {
+
+    static final int MAGIC = 0x42454A31;
+    static final int VERSION = 1;
+    // 小端序，便于 numpy 等工具直接读取
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    static final int HEADER_SIZE = 64;
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int RECORD_SIZE_OFFSET = 8;
+    static final int HEADER_SIZE_OFFSET = 12;
+    static final int CREATED_OFFSET = 16;
+    static final int COUNT_OFFSET = 24;
+
+    static final int RECORD_SIZE = 40;
+    static final int TICK_OFFSET = 0;
+    static final int POS_OFFSET = 8;
+    static final int DIMENSION_OFFSET = 16;
+    static final int STATE_OFFSET = 20;
+    static final int ITEM_OFFSET = 24;
+    static final int DAMAGE_OFFSET = 28;
+    static final int SESSION_OFFSET = 32;
+    static final int MODE_OFFSET = 36;
+
+    static final String JOURNAL_EXTENSION = ".bej";
+    static final String DICTIONARY_EXTENSION = ".dict";
+
+    static final String DICT_STATE = "state";
+    static final String DICT_ITEM = "item";
+    static final String DICT_DIMENSION = "dimension";
+
+    private JournalFormat() {
+    }
+
+    /**
+     * 日志文件对应的字典文件名
+     */
+    static String dictionaryName(String journalName) {
+        return journalName.substring(0, journalName.length() - JOURNAL_EXTENSION.length()) + DICTIONARY_EXTENSION;
+    }
+}
@@ -0,0 +1,94 @@
+package org.goldgomtech.betterexcavate.journal;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 游戏线程到写入线程的有界无锁队列（多生产者、单消费者）
+ * 槽位预先分配并反复复用，每个槽位用序号标记是否可写/可读，入队和出队都不分配对象也不加锁。
+ * 队列满时直接丢弃记录，调用方不会等待写入线程
+ */
+final class JournalQueue {
+
+    /** 一条待写入的记录，字段与 {@link JournalFormat} 的记录布局对应 */
+    static final class Slot {
+        // 等于位置时可写，等于位置+1时可读
+        volatile long sequence;
+
+        long gameTime;
+        long packedPos;
+        ResourceKey<Level> dimension;
+        int stateId;
+        int itemId;
+        int damage;
+        int sessionMillis;
+        byte mode;
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // 只有写入线程访问
+    private long head;
+
+    JournalQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2));
+        slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+            slots[i].sequence = i;
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * 占用一个可写槽位，填写完成后必须调用 {@link #publish}
+     * @return 槽位；队列已满时为null
+     */
+    Slot claim() {
+        while (true) {
+            long position = tail.get();
+            Slot slot = slots[(int) (position & mask)];
+            long difference = slot.sequence - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return slot;
+                }
+            } else if (difference < 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 发布已填写的槽位，写入线程此后才能读取
+     */
+    void publish(Slot slot) {
+        slot.sequence = slot.sequence + 1;
+    }
+
+    /**
+     * 取出下一条已发布的记录，只能由写入线程调用
+     * 读取完成后必须调用 {@link #release}
+     * @return 槽位；队列为空时为null
+     */
+    Slot poll() {
+        Slot slot = slots[(int) (head & mask)];
+        return slot.sequence == head + 1 ? slot : null;
+    }
+
+    /**
+     * 归还读取完的槽位，供生产者复用
+     */
+    void release(Slot slot) {
+        slot.dimension = null;
+        slot.sequence = head + slots.length;
+        head++;
+    }
+
+    boolean isEmpty() {
+        return poll() == null;
+    }
+}
@@ -0,0 +1,276 @@
+package org.goldgomtech.betterexcavate.journal;
+
+import net.minecraft.commands.arguments.blocks.BlockStateParser;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * 日志的唯一写入线程
+ * 从队列取出记录写入内存映射文件，文件写满后换下一个文件，并删除超出数量上限的旧文件。
+ * 每个文件创建时就映射为完整大小，因此磁盘占用最多为文件大小乘以文件数量。
+ * 所有磁盘操作都在这个线程中进行
+ */
+final class JournalWriter implements Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    // 队列为空时的等待时间
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    final JournalQueue queue;
+    final LongAdder written = new LongAdder();
+
+    private final Path directory;
+    private final int queueSize;
+    private final int fileSizeMb;
+    private final long fileSize;
+    private final int maxFiles;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private MappedByteBuffer buffer;
+    private BufferedWriter dictionary;
+    private volatile Path currentFile;
+    private long recordCount;
+    private long recordCapacity;
+    private int fileIndex;
+
+    // 当前文件的字典中已经写过的ID
+    private final BitSet seenStates = new BitSet();
+    private final BitSet seenItems = new BitSet();
+    private final Map<ResourceKey<Level>, Integer> dimensions = new IdentityHashMap<>();
+
+    JournalWriter(Path directory, int queueSize, int fileSizeMb, int maxFiles) {
+        this.queue = new JournalQueue(queueSize);
+        this.directory = directory;
+        this.queueSize = queueSize;
+        this.fileSizeMb = fileSizeMb;
+        this.fileSize = (long) fileSizeMb * 1024 * 1024;
+        this.maxFiles = maxFiles;
+        this.thread = new Thread(this, "BetterExcavate Journal Writer");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * 停止写入：先写完队列中剩余的记录再关闭文件
+     * @param waitMillis 等待写入线程结束的最长时间，0表示不等待
+     */
+    void stop(long waitMillis) {
+        running = false;
+        LockSupport.unpark(thread);
+        if (waitMillis > 0) {
+            try {
+                thread.join(waitMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 是否按这些设置创建
+     */
+    boolean matches(Path directory, int queueSize, int fileSizeMb, int maxFiles) {
+        return this.directory.equals(directory) && this.queueSize == queueSize
+                && this.fileSizeMb == fileSizeMb && this.maxFiles == maxFiles;
+    }
+
+    Path currentFile() {
+        return currentFile;
+    }
+
+    @Override
+    public void run() {
+        try {
+            Files.createDirectories(directory);
+            while (true) {
+                int drained = drain();
+                if (drained > 0) {
+                    buffer.putLong(JournalFormat.COUNT_OFFSET, recordCount);
+                    dictionary.flush();
+                    continue;
+                }
+                if (!running) {
+                    break;
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("[BetterExcavate] Block break journal stopped after a write failure in {}", directory, e);
+            BreakJournal.writerFailed(this);
+        } finally {
+            closeFile();
+        }
+    }
+
+    private int drain() throws IOException {
+        int drained = 0;
+        JournalQueue.Slot slot;
+        while ((slot = queue.poll()) != null) {
+            if (buffer == null || recordCount >= recordCapacity) {
+                rollFile();
+            }
+            write(slot);
+            queue.release(slot);
+            drained++;
+        }
+        written.add(drained);
+        return drained;
+    }
+
+    private void write(JournalQueue.Slot slot) throws IOException {
+        int dimension = dimensionIndex(slot.dimension);
+        if (!seenStates.get(slot.stateId)) {
+            seenStates.set(slot.stateId);
+            BlockState state = Block.stateById(slot.stateId);
+            writeDictionary(JournalFormat.DICT_STATE, slot.stateId, BlockStateParser.serialize(state));
+        }
+        if (!seenItems.get(slot.itemId)) {
+            seenItems.set(slot.itemId);
+            writeDictionary(JournalFormat.DICT_ITEM, slot.itemId, String.valueOf(BuiltInRegistries.ITEM.getKey(BuiltInRegistries.ITEM.byId(slot.itemId))));
+        }
+
+        int base = JournalFormat.HEADER_SIZE + (int) (recordCount * JournalFormat.RECORD_SIZE);
+        buffer.putLong(base + JournalFormat.TICK_OFFSET, slot.gameTime);
+        buffer.putLong(base + JournalFormat.POS_OFFSET, slot.packedPos);
+        buffer.putInt(base + JournalFormat.DIMENSION_OFFSET, dimension);
+        buffer.putInt(base + JournalFormat.STATE_OFFSET, slot.stateId);
+        buffer.putInt(base + JournalFormat.ITEM_OFFSET, slot.itemId);
+        buffer.putInt(base + JournalFormat.DAMAGE_OFFSET, slot.damage);
+        buffer.putInt(base + JournalFormat.SESSION_OFFSET, slot.sessionMillis);
+        buffer.put(base + JournalFormat.MODE_OFFSET, slot.mode);
+        recordCount++;
+    }
+
+    private int dimensionIndex(ResourceKey<Level> dimension) throws IOException {
+        Integer index = dimensions.get(dimension);
+        if (index == null) {
+            index = dimensions.size();
+            dimensions.put(dimension, index);
+            writeDictionary(JournalFormat.DICT_DIMENSION, index, dimension.location().toString());
+        }
+        return index;
+    }
+
+    private void writeDictionary(String kind, int id, String name) throws IOException {
+        dictionary.write(kind);
+        dictionary.write('\t');
+        dictionary.write(Integer.toString(id));
+        dictionary.write('\t');
+        dictionary.write(name);
+        dictionary.newLine();
+    }
+
+    /**
+     * 结束当前文件并映射下一个文件
+     */
+    private void rollFile() throws IOException {
+        closeFile();
+
+        // 序号补零，文件名排序即时间顺序；同一秒内重启写入时跳过已存在的文件
+        String name;
+        Path file;
+        do {
+            name = String.format(Locale.ROOT, "breaks-%s-%04d%s",
+                    LocalDateTime.now().format(FILE_TIMESTAMP), fileIndex++, JournalFormat.JOURNAL_EXTENSION);
+            file = directory.resolve(name);
+        } while (Files.exists(file));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // 映射在通道关闭后仍然有效
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        }
+        buffer.order(JournalFormat.ORDER);
+        buffer.putInt(JournalFormat.MAGIC_OFFSET, JournalFormat.MAGIC);
+        buffer.putInt(JournalFormat.VERSION_OFFSET, JournalFormat.VERSION);
+        buffer.putInt(JournalFormat.RECORD_SIZE_OFFSET, JournalFormat.RECORD_SIZE);
+        buffer.putInt(JournalFormat.HEADER_SIZE_OFFSET, JournalFormat.HEADER_SIZE);
+        buffer.putLong(JournalFormat.CREATED_OFFSET, System.currentTimeMillis());
+        buffer.putLong(JournalFormat.COUNT_OFFSET, 0);
+        recordCount = 0;
+        recordCapacity = (fileSize - JournalFormat.HEADER_SIZE) / JournalFormat.RECORD_SIZE;
+
+        dictionary = Files.newBufferedWriter(directory.resolve(JournalFormat.dictionaryName(name)), StandardCharsets.UTF_8);
+        seenStates.clear();
+        seenItems.clear();
+        dimensions.clear();
+        currentFile = file;
+
+        deleteOldFiles();
+    }
+
+    private void closeFile() {
+        if (buffer != null) {
+            buffer.putLong(JournalFormat.COUNT_OFFSET, recordCount);
+            buffer.force();
+            // 映射由GC释放，这里只放弃引用
+            buffer = null;
+        }
+        if (dictionary != null) {
+            try {
+                dictionary.close();
+            } catch (IOException e) {
+                LOGGER.warn("[BetterExcavate] Could not close journal dictionary: {}", e.toString());
+            }
+            dictionary = null;
+        }
+    }
+
+    /**
+     * 只保留最新的 maxFiles 个日志文件
+     * 映射在GC回收前不会释放，Windows上无法删除仍被映射的文件；删除失败的文件留到下次换文件时重试，
+     * 不中断日志写入
+     */
+    private void deleteOldFiles() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(path -> path.getFileName().toString().endsWith(JournalFormat.JOURNAL_EXTENSION))
+                    .sorted()
+                    .toList();
+        }
+        for (int i = 0; i < files.size() - maxFiles; i++) {
+            Path file = files.get(i);
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOGGER.debug("[BetterExcavate] Could not delete old journal {} yet: {}", file, e.toString());
+                // 字典随日志文件一起保留
+                continue;
+            }
+            try {
+                Files.deleteIfExists(file.resolveSibling(JournalFormat.dictionaryName(file.getFileName().toString())));
+            } catch (IOException e) {
+                LOGGER.warn("[BetterExcavate] Could not delete journal dictionary for {}: {}", file, e.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.goldgomtech.betterexcavate.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单调递增的计数器，基于分段的LongAdder，多个线程同时累加时没有竞争
+ * 指标未启用时只有一次布尔判断
+ */
+public final class Counter extends Metric implements CounterMXBean {
+
+    private final LongAdder adder = new LongAdder();
+
+    Counter(String name, String help, String labelName, String labelValue) {
+        super(name, help, labelName, labelValue);
+    }
+
+    public void increment() {
+        if (Metrics.enabled) {
+            adder.increment();
+        }
+    }
+
+    public void add(long amount) {
+        if (Metrics.enabled) {
+            adder.add(amount);
+        }
+    }
+
+    @Override
+    public long getCount() {
+        return adder.sum();
+    }
+
+    @Override
+    String type() {
+        return "counter";
+    }
+
+    @Override
+    void writeSamples(StringBuilder out) {
+        out.append(name).append(labels(null, null)).append(' ').append(getCount()).append('\n');
+    }
+}
@@ -0,0 +1,9 @@
+package org.goldgomtech.betterexcavate.metrics;
+
+/**
+ * 计数器的JMX接口
+ */
+public interface CounterMXBean {
+
+    long getCount();
+}
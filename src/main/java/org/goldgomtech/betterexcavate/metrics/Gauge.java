@@ -0,0 +1,31 @@
+package org.goldgomtech.betterexcavate.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 在读取时才计算的瞬时值（会话数量、映射大小等），不占用热路径
+ */
+public final class Gauge extends Metric implements GaugeMXBean {
+
+    private final LongSupplier supplier;
+
+    Gauge(String name, String help, String labelName, String labelValue, LongSupplier supplier) {
+        super(name, help, labelName, labelValue);
+        this.supplier = supplier;
+    }
+
+    @Override
+    public long getValue() {
+        return supplier.getAsLong();
+    }
+
+    @Override
+    String type() {
+        return "gauge";
+    }
+
+    @Override
+    void writeSamples(StringBuilder out) {
+        out.append(name).append(labels(null, null)).append(' ').append(getValue()).append('\n');
+    }
+}
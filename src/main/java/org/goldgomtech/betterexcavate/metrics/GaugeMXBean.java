@@ -0,0 +1,9 @@
+package org.goldgomtech.betterexcavate.metrics;
+
+/**
+ * 瞬时值的JMX接口
+ */
+public interface GaugeMXBean {
+
+    long getValue();
+}
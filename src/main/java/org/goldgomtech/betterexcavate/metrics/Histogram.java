@@ -0,0 +1,147 @@
+package org.goldgomtech.betterexcavate.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 耗时直方图（HDR风格的对数-线性分桶）
+ * 每个2的幂区间再线性分成16个子桶，相对误差不超过1/16，覆盖1纳秒到Long.MAX_VALUE。
+ * 记录一次只有一次原子自增和两次LongAdder累加，不分配内存；
+ * 以Prometheus summary的形式导出，分位数基于启动以来的全部样本
+ */
+public final class Histogram extends Metric implements HistogramMXBean {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private static final double[] EXPORTED_QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = 1.0e9;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    Histogram(String name, String help, String labelName, String labelValue) {
+        super(name, help, labelName, labelValue);
+    }
+
+    /**
+     * 记录一次耗时（纳秒），调用方负责检查指标是否启用
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0L);
+        buckets.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    /** 桶内的最大值，分位数取所在桶的上界 */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long lower = (long) (SUB_BUCKETS + (index & (SUB_BUCKETS - 1))) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    private long[] snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return counts;
+    }
+
+    private long quantile(long[] counts, long total, double quantile) {
+        if (total == 0) {
+            return 0L;
+        }
+        long target = Math.max(1L, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(bucketUpperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    private long quantile(double quantile) {
+        long[] counts = snapshot();
+        long total = 0;
+        for (long bucket : counts) {
+            total += bucket;
+        }
+        return quantile(counts, total, quantile);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getMeanNanos() {
+        long samples = count.sum();
+        return samples == 0 ? 0.0 : (double) sum.sum() / samples;
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return quantile(0.5);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return quantile(0.99);
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return quantile(0.999);
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    @Override
+    String type() {
+        return "summary";
+    }
+
+    @Override
+    void writeSamples(StringBuilder out) {
+        long[] counts = snapshot();
+        long total = 0;
+        for (long bucket : counts) {
+            total += bucket;
+        }
+        for (double quantile : EXPORTED_QUANTILES) {
+            out.append(name).append(labels("quantile", Double.toString(quantile))).append(' ')
+                    .append(quantile(counts, total, quantile) / NANOS_PER_SECOND).append('\n');
+        }
+        out.append(name).append("_sum").append(labels(null, null)).append(' ')
+                .append(sum.sum() / NANOS_PER_SECOND).append('\n');
+        out.append(name).append("_count").append(labels(null, null)).append(' ')
+                .append(total).append('\n');
+    }
+}
@@ -0,0 +1,19 @@
+package org.goldgomtech.betterexcavate.metrics;
+
+/**
+ * 耗时直方图的JMX接口，单位均为纳秒
+ */
+public interface HistogramMXBean {
+
+    long getCount();
+
+    double getMeanNanos();
+
+    long getP50Nanos();
+
+    long getP99Nanos();
+
+    long getP999Nanos();
+
+    long getMaxNanos();
+}
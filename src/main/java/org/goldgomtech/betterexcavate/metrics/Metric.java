@@ -0,0 +1,58 @@
+package org.goldgomtech.betterexcavate.metrics;
+
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+/**
+ * 单个指标的公共部分：名称、说明和可选的一个标签
+ * 同名的指标构成Prometheus中的一个指标族，以不同的标签值区分
+ */
+public abstract class Metric {
+
+    final String name;
+    final String help;
+    final String labelName;
+    final String labelValue;
+
+    Metric(String name, String help, String labelName, String labelValue) {
+        this.name = name;
+        this.help = help;
+        this.labelName = labelName;
+        this.labelValue = labelValue;
+    }
+
+    /** Prometheus的指标类型（counter、gauge、summary） */
+    abstract String type();
+
+    /** 以Prometheus文本格式写出样本行（不含HELP/TYPE） */
+    abstract void writeSamples(StringBuilder out);
+
+    /**
+     * 样本行的标签部分
+     * @param extraName 额外的标签名（如quantile），为null时不添加
+     */
+    final String labels(String extraName, String extraValue) {
+        if (labelName == null && extraName == null) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder("{");
+        if (labelName != null) {
+            builder.append(labelName).append("=\"").append(labelValue).append('"');
+        }
+        if (extraName != null) {
+            if (labelName != null) {
+                builder.append(',');
+            }
+            builder.append(extraName).append("=\"").append(extraValue).append('"');
+        }
+        return builder.append('}').toString();
+    }
+
+    ObjectName objectName() throws MalformedObjectNameException {
+        String objectName = "org.goldgomtech.betterexcavate:type=" + type() + ",name=" + name;
+        if (labelName != null) {
+            objectName += "," + labelName + "=" + labelValue;
+        }
+        return new ObjectName(objectName);
+    }
+}
@@ -0,0 +1,155 @@
+package org.goldgomtech.betterexcavate.metrics;
+
+import org.goldgomtech.betterexcavate.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+
+/**
+ * BetterExcavate的指标注册表
+ * 处理器耗时直方图和各类计数器在这里定义，其他模块的瞬时值（会话数量、映射大小）通过 {@link #gauge} 注册。
+ * 启用后可通过JMX（org.goldgomtech.betterexcavate域）读取，并定期写入Prometheus文本文件。
+ * 未启用时计数器和计时器都只有一次布尔判断
+ */
+public final class Metrics {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    /** 按注册顺序保存，同名指标相邻，导出时共用HELP/TYPE行 */
+    private static final List<Metric> REGISTRY = new CopyOnWriteArrayList<>();
+
+    public static volatile boolean enabled;
+    private static boolean jmxRegistered;
+
+    // 处理器耗时
+    public static final Histogram GET_DESTROY_SPEED = histogram("betterexcavate_get_destroy_speed_seconds",
+            "Time spent in the Inventory.getDestroySpeed hook");
+    public static final Histogram HAS_CORRECT_TOOL = histogram("betterexcavate_has_correct_tool_seconds",
+            "Time spent in the Player.hasCorrectToolForDrops hook");
+    public static final Histogram BLOCK_BREAK = histogram("betterexcavate_block_break_seconds",
+            "Time spent handling BlockEvent.BreakEvent");
+    public static final Histogram PLAYER_TICK = histogram("betterexcavate_player_tick_seconds",
+            "Time spent handling TickEvent.PlayerTickEvent");
+
+    // 工具硬度查找：配置或检测结果中存在的工具为命中，回退到默认硬度为未命中
+    public static final Counter TOOL_HARDNESS_HITS = counter("betterexcavate_tool_hardness_lookups_total",
+            "Tool hardness lookups by result", "result", "hit");
+    public static final Counter TOOL_HARDNESS_MISSES = counter("betterexcavate_tool_hardness_lookups_total",
+            "Tool hardness lookups by result", "result", "miss");
+
+    // 自动检测结果的持久化缓存
+    public static final Counter AUTODETECT_CACHE_HITS = counter("betterexcavate_autodetect_cache_loads_total",
+            "Auto-detection cache loads by result", "result", "hit");
+    public static final Counter AUTODETECT_CACHE_MISSES = counter("betterexcavate_autodetect_cache_loads_total",
+            "Auto-detection cache loads by result", "result", "miss");
+
+    // 射线检测
+    public static final Counter RAYCASTS = counter("betterexcavate_raycasts_total",
+            "Block raycasts performed by mining handlers", null, null);
+    public static final Counter RAYCASTS_AVOIDED = counter("betterexcavate_raycasts_avoided_total",
+            "Block raycasts skipped because the feature needing them is disabled", null, null);
+
+    // 方块破坏结果
+    public static final Counter BREAKS_CANCELLED = counter("betterexcavate_block_breaks_total",
+            "Block breaks handled by mining mode", "mode", "cancelled");
+    public static final Counter BREAKS_NORMAL = counter("betterexcavate_block_breaks_total",
+            "Block breaks handled by mining mode", "mode", "normal");
+    public static final Counter BREAKS_SLOW = counter("betterexcavate_block_breaks_total",
+            "Block breaks handled by mining mode", "mode", "slow");
+
+    // 连锁挖掘/范围挖掘额外破坏的方块
+    public static final Counter CHAIN_MINED_BLOCKS = counter("betterexcavate_multiblock_mined_blocks_total",
+            "Extra blocks broken by multi-block mining", "kind", "chain");
+    public static final Counter AREA_MINED_BLOCKS = counter("betterexcavate_multiblock_mined_blocks_total",
+            "Extra blocks broken by multi-block mining", "kind", "area");
+
+    // 自动化挖掘的决策缓存
+    public static final Counter AUTOMATION_CACHE_HITS = counter("betterexcavate_automation_decision_lookups_total",
+            "FakePlayer mining decision cache lookups by result", "result", "hit");
+    public static final Counter AUTOMATION_CACHE_MISSES = counter("betterexcavate_automation_decision_lookups_total",
+            "FakePlayer mining decision cache lookups by result", "result", "miss");
+
+    public static final Counter INVALID_MINING_TOOL_DAMAGE = counter("betterexcavate_invalid_mining_tool_damage_total",
+            "Durability points removed from tools mining blocks that are too hard", null, null);
+
+    public static final Counter MINING_EVENTS_DROPPED = counter("betterexcavate_mining_events_dropped_total",
+            "Mining events dropped because the event ring buffer was full", null, null);
+
+    private Metrics() {
+    }
+
+    private static Histogram histogram(String name, String help) {
+        return register(new Histogram(name, help, null, null));
+    }
+
+    private static Counter counter(String name, String help, String labelName, String labelValue) {
+        return register(new Counter(name, help, labelName, labelValue));
+    }
+
+    /**
+     * 注册一个瞬时值，读取时调用supplier（导出线程或JMX线程中，需要线程安全）
+     */
+    public static Gauge gauge(String name, String help, String labelName, String labelValue, LongSupplier supplier) {
+        return register(new Gauge(name, help, labelName, labelValue, supplier));
+    }
+
+    private static synchronized <T extends Metric> T register(T metric) {
+        REGISTRY.add(metric);
+        if (jmxRegistered) {
+            registerMBean(ManagementFactory.getPlatformMBeanServer(), metric);
+        }
+        return metric;
+    }
+
+    static List<Metric> all() {
+        return REGISTRY;
+    }
+
+    /**
+     * 按当前配置启用或关闭指标、JMX和文本文件导出，配置加载或重载时调用
+     */
+    public static synchronized void applyConfig() {
+        enabled = Config.enableMetrics;
+
+        boolean wantJmx = enabled && Config.enableMetricsJmx;
+        if (wantJmx != jmxRegistered) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (Metric metric : REGISTRY) {
+                if (wantJmx) {
+                    registerMBean(server, metric);
+                } else {
+                    unregisterMBean(server, metric);
+                }
+            }
+            jmxRegistered = wantJmx;
+        }
+
+        PrometheusTextfileExporter.reschedule(enabled ? Config.metricsTextfilePath : "", Config.metricsExportIntervalSeconds);
+    }
+
+    private static void registerMBean(MBeanServer server, Metric metric) {
+        try {
+            if (!server.isRegistered(metric.objectName())) {
+                server.registerMBean(metric, metric.objectName());
+            }
+        } catch (JMException e) {
+            LOGGER.warn("[BetterExcavate] Could not register MBean for {}: {}", metric.name, e.toString());
+        }
+    }
+
+    private static void unregisterMBean(MBeanServer server, Metric metric) {
+        try {
+            if (server.isRegistered(metric.objectName())) {
+                server.unregisterMBean(metric.objectName());
+            }
+        } catch (JMException e) {
+            LOGGER.warn("[BetterExcavate] Could not unregister MBean for {}: {}", metric.name, e.toString());
+        }
+    }
+}
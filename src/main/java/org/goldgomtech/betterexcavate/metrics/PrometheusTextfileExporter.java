@@ -0,0 +1,96 @@
+package org.goldgomtech.betterexcavate.metrics;
+
+import net.minecraftforge.fml.loading.FMLPaths;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定期把所有指标以Prometheus文本格式写入本地文件，供node_exporter的textfile收集器读取
+ * 先写同目录下的临时文件再原子替换，收集器不会读到写了一半的文件
+ */
+final class PrometheusTextfileExporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    private static ScheduledExecutorService executor;
+    private static ScheduledFuture<?> task;
+    private static volatile boolean warned;
+
+    private PrometheusTextfileExporter() {
+    }
+
+    /**
+     * 按新的设置重新安排导出任务
+     * @param configuredPath 输出文件，相对路径相对于游戏目录；为空时停止导出
+     */
+    static synchronized void reschedule(String configuredPath, int intervalSeconds) {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+        if (configuredPath == null || configuredPath.isBlank()) {
+            return;
+        }
+
+        Path path = FMLPaths.GAMEDIR.get().resolve(configuredPath).toAbsolutePath().normalize();
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "BetterExcavate Metrics Export");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        warned = false;
+        task = executor.scheduleAtFixedRate(() -> export(path), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        LOGGER.info("[BetterExcavate] Writing metrics to {} every {}s", path, intervalSeconds);
+    }
+
+    private static void export(Path path) {
+        try {
+            write(path);
+        } catch (IOException | RuntimeException e) {
+            // 只警告一次，避免目录不可写时每个周期刷屏
+            if (!warned) {
+                warned = true;
+                LOGGER.warn("[BetterExcavate] Could not write metrics to {}: {}", path, e.toString());
+            }
+        }
+    }
+
+    static void write(Path path) throws IOException {
+        StringBuilder out = new StringBuilder(4096);
+        String family = null;
+        for (Metric metric : Metrics.all()) {
+            if (!metric.name.equals(family)) {
+                family = metric.name;
+                out.append("# HELP ").append(metric.name).append(' ').append(metric.help).append('\n');
+                out.append("# TYPE ").append(metric.name).append(' ').append(metric.type()).append('\n');
+            }
+            metric.writeSamples(out);
+        }
+
+        Path parent = path.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.writeString(tempPath, out, StandardCharsets.UTF_8);
+        try {
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        warned = false;
+    }
+}
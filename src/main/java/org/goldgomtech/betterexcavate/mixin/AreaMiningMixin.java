@@ -0,0 +1,49 @@
+package org.goldgomtech.betterexcavate.mixin;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.network.protocol.game.ServerboundPlayerActionPacket;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.level.ServerPlayerGameMode;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.multiblock.AreaMining;
+
+@Mixin(ServerPlayerGameMode.class)
+public class AreaMiningMixin {
+    
+    @Shadow
+    protected ServerLevel level;
+    
+    @Shadow
+    @Final
+    protected ServerPlayer player;
+    
+    // 客户端上报的挖掘面，用于确定范围挖掘的区域
+    @Unique
+    private Direction betterexcavate$miningFace;
+    
+    @Inject(method = "handleBlockBreakAction", at = @At("HEAD"))
+    private void onHandleBlockBreakAction(BlockPos pos, ServerboundPlayerActionPacket.Action action, Direction face,
+                                          int maxBuildHeight, int sequence, CallbackInfo ci) {
+        betterexcavate$miningFace = face;
+    }
+    
+    /**
+     * 玩家成功破坏中心方块后一次性破坏区域中的其余方块
+     */
+    @Inject(method = "destroyBlock", at = @At("RETURN"))
+    private void onDestroyBlockReturn(BlockPos pos, CallbackInfoReturnable<Boolean> cir) {
+        if (Config.enableAreaMining && cir.getReturnValueZ()) {
+            AreaMining.onBlockDestroyed(player, level, pos, betterexcavate$miningFace);
+        }
+    }
+}
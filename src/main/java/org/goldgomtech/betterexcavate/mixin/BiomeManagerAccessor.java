@@ -0,0 +1,16 @@
+package org.goldgomtech.betterexcavate.mixin;
+
+import net.minecraft.world.level.biome.BiomeManager;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+/**
+ * 读取 BiomeManager 中由世界种子哈希得到的种子
+ * 服务端和客户端（登录时由服务端发送）持有相同的值，且无法由它还原世界种子
+ */
+@Mixin(BiomeManager.class)
+public interface BiomeManagerAccessor {
+
+    @Accessor("biomeZoomSeed")
+    long betterexcavate$getBiomeZoomSeed();
+}
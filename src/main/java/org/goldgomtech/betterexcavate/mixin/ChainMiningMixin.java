@@ -0,0 +1,51 @@
+package org.goldgomtech.betterexcavate.mixin;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.level.ServerPlayerGameMode;
+import net.minecraft.world.level.block.state.BlockState;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.multiblock.ChainMining;
+
+@Mixin(ServerPlayerGameMode.class)
+public class ChainMiningMixin {
+    
+    @Shadow
+    protected ServerLevel level;
+    
+    @Shadow
+    @Final
+    protected ServerPlayer player;
+    
+    // 破坏前的方块状态，方法返回时方块已经被移除
+    @Unique
+    private BlockState betterexcavate$destroyedState;
+    
+    /**
+     * 记录玩家将要破坏的方块
+     */
+    @Inject(method = "destroyBlock", at = @At("HEAD"))
+    private void onDestroyBlockHead(BlockPos pos, CallbackInfoReturnable<Boolean> cir) {
+        betterexcavate$destroyedState = Config.enableChainMining ? level.getBlockState(pos) : null;
+    }
+    
+    /**
+     * 玩家成功破坏方块后开始连锁挖掘，实际的破坏在之后的服务端tick中分批进行
+     */
+    @Inject(method = "destroyBlock", at = @At("RETURN"))
+    private void onDestroyBlockReturn(BlockPos pos, CallbackInfoReturnable<Boolean> cir) {
+        BlockState state = betterexcavate$destroyedState;
+        betterexcavate$destroyedState = null;
+        if (state != null && cir.getReturnValueZ()) {
+            ChainMining.onBlockDestroyed(player, level, pos, state);
+        }
+    }
+}
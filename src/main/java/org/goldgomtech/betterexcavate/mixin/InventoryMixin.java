@@ -4,26 +4,34 @@ import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.item.ItemStack;
-import net.minecraft.resources.ResourceLocation;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.phys.BlockHitResult;
 import net.minecraft.world.phys.HitResult;
-import net.minecraftforge.registries.ForgeRegistries;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 import org.goldgomtech.betterexcavate.Config;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.goldgomtech.betterexcavate.HandlerTimer;
+import org.goldgomtech.betterexcavate.MiningCalculator;
+import org.goldgomtech.betterexcavate.PositionalHardness;
+import org.goldgomtech.betterexcavate.StackHardness;
+import org.goldgomtech.betterexcavate.automation.AutomationMining;
+import org.goldgomtech.betterexcavate.capture.SpeedCapture;
+import org.goldgomtech.betterexcavate.metrics.Metrics;
+import org.goldgomtech.betterexcavate.profile.StageProfiler;
+import org.goldgomtech.betterexcavate.profile.StageProfiler.Handler;
+import org.goldgomtech.betterexcavate.profile.StageProfiler.Stage;
+import org.goldgomtech.betterexcavate.shadow.ShadowEvaluator;
+import org.goldgomtech.betterexcavate.trace.MiningTrace;
+import org.goldgomtech.betterexcavate.trace.TraceEntry;
+import org.goldgomtech.betterexcavate.zone.HardnessZone;
 
 @Mixin(Inventory.class)
 public class InventoryMixin {
     
-    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
-    
     @Shadow
     public Player player;
     
@@ -33,254 +41,106 @@ public class InventoryMixin {
      */
     @Inject(method = "getDestroySpeed", at = @At("RETURN"), cancellable = true)
     private void onGetDestroySpeed(BlockState blockState, CallbackInfoReturnable<Float> cir) {
+        long start = HandlerTimer.start();
+        try {
+            applyHardnessSpeed(blockState, cir);
+        } finally {
+            HandlerTimer.stop(start, Metrics.GET_DESTROY_SPEED);
+        }
+    }
+    
+    private void applyHardnessSpeed(BlockState blockState, CallbackInfoReturnable<Float> cir) {
         ItemStack heldItem = player.getMainHandItem();
         
         // 获取原版计算的挖掘速度
         float originalSpeed = cir.getReturnValue();
         
-        // 获取方块信息
-        String blockName = blockState.getBlock().getDescriptionId();
-        float blockHardness = blockState.getDestroySpeed(player.level(), null);
+        // 获取方块信息，经由 Player.getDigSpeed 调用时按方块位置修正硬度
+        BlockPos digPos = PositionalHardness.getDigPos(player);
+        float blockHardness = blockState.getDestroySpeed(player.level(), digPos);
         
         // 如果方块硬度为-1（如基岩），则无法挖掘
         if (blockHardness < 0) {
-            if (Config.enableDebugLogging) {
-                LOGGER.info("[BetterExcavate] Block {} is unbreakable (hardness: {})", blockName, blockHardness);
-            }
             return; // 保持原版行为
         }
+        // 强制无法挖掘的硬度区域中不产生挖掘进度
+        HardnessZone zone = PositionalHardness.findZone(player.level(), digPos);
+        if (PositionalHardness.isUnmineable(zone)) {
+            cir.setReturnValue(0.0F);
+            return;
+        }
         
-        // 根据配置决定是否绕过原版的工具类型限制
-        boolean wasLimitedByVanilla = false;
-        if (Config.bypassVanillaToolRestrictions && !heldItem.isEmpty()) {
-            // 完全绕过原版限制，总是使用工具的真实挖掘速度
-            float toolSpeed = heldItem.getDestroySpeed(blockState);
-            if (toolSpeed > originalSpeed) {
-                // 如果工具速度比原版计算的速度更高，说明原版施加了限制
-                originalSpeed = toolSpeed;
-                wasLimitedByVanilla = true;
-                if (Config.enableDebugLogging) {
-                    LOGGER.info("[BetterExcavate] Bypassing vanilla tool type limitation for {} with {}, using tool speed: {} instead of vanilla speed: {}", 
-                        blockName, heldItem.getItem().toString(), originalSpeed, cir.getReturnValue());
-                }
-            } else if (toolSpeed > 1.0f && originalSpeed == 1.0f) {
-                // 特殊情况：原版强制为1.0但工具本身有挖掘能力
-                originalSpeed = toolSpeed;
-                wasLimitedByVanilla = true;
-                if (Config.enableDebugLogging) {
-                    LOGGER.info("[BetterExcavate] Overriding vanilla forced 1.0 speed for {} with {}, using tool speed: {}", 
-                        blockName, heldItem.getItem().toString(), originalSpeed);
-                }
-            }
-        } else if (!heldItem.isEmpty()) {
-            // 如果不绕过原版限制，只在检测到明显的错误工具惩罚时才调整
-            if (originalSpeed == 1.0f) {
-                float toolSpeed = heldItem.getDestroySpeed(blockState);
-                if (toolSpeed > 1.0f) {
-                    originalSpeed = toolSpeed;
-                    wasLimitedByVanilla = true;
-                    if (Config.enableDebugLogging) {
-                        LOGGER.info("[BetterExcavate] Detected vanilla tool limitation for {} with {}, using tool speed: {} instead of forced 1.0", 
-                            blockName, heldItem.getItem().toString(), originalSpeed);
-                    }
-                }
-            }
+        // 自动化挖掘走缓存的快速路径（需要统计周围方块时除外），区域硬度修正在其中按需计算
+        if (!Config.automationCountNeighbours && AutomationMining.isAutomation(player)) {
+            cir.setReturnValue(AutomationMining.getDestroySpeed(player, blockState, digPos, zone, heldItem, originalSpeed));
+            return;
         }
+        blockHardness = PositionalHardness.apply(player.level(), digPos, blockState, blockHardness, zone);
         
-        double toolHardness;
-        String toolName = "hand";
+        boolean hasTool = !heldItem.isEmpty();
         
-        // 如果没有手持物品，使用默认硬度
-        if (heldItem.isEmpty()) {
-            toolHardness = Config.defaultHardness;
-        } else {
-            // 获取工具的注册名
-            ResourceLocation itemId = ForgeRegistries.ITEMS.getKey(heldItem.getItem());
-            if (itemId == null) {
-                toolHardness = Config.defaultHardness;
-            } else {
-                toolName = itemId.toString();
-                toolHardness = Config.toolHardnessMap.getOrDefault(toolName, Config.defaultHardness);
-            }
+        // 工具本身的挖掘速度，只在可能需要绕过原版限制时才计算
+        float toolSpeed = originalSpeed;
+        if (hasTool && (Config.bypassVanillaToolRestrictions || originalSpeed == 1.0f)) {
+            toolSpeed = heldItem.getDestroySpeed(blockState);
         }
         
-        // 应用耐久度惩罚到工具硬度
-        double effectiveToolHardness = toolHardness;
-        if (Config.enableDurabilityHardnessPenalty && !heldItem.isEmpty()) {
-            double hardnessPenalty = Config.calculateDurabilityPenalty(heldItem, Config.maxDurabilityHardnessPenalty);
-            effectiveToolHardness = toolHardness * hardnessPenalty;
-        }
+        long stageStart = StageProfiler.begin(player);
         
-        // 应用错误工具类型的硬度惩罚
-        boolean isWrongTool = false;
-        if (Config.enableWrongToolPenalty && !heldItem.isEmpty()) {
-            boolean isCorrectTool = Config.isCorrectToolType(heldItem, blockState);
-            if (!isCorrectTool) {
-                isWrongTool = true;
-                // 错误工具类型时，工具硬度降低20%
-                effectiveToolHardness = effectiveToolHardness * 0.8;
-                if (Config.enableDebugLogging) {
-                    LOGGER.info("[BetterExcavate] Wrong tool type detected for {} with {}: reducing tool hardness by 20% (from {} to {})", 
-                        blockName, toolName, 
-                        String.format("%.2f", effectiveToolHardness / 0.8),
-                        String.format("%.2f", effectiveToolHardness));
-                }
-            }
-        }
+        // 工具硬度（含附魔和NBT修正）缓存在物品堆上，空手时为默认硬度
+        double toolHardness = StackHardness.getToolHardness(heldItem);
         
-        // 计算工具硬度与方块硬度的比值
-        double hardnessRatio = effectiveToolHardness / blockHardness;
+        stageStart = StageProfiler.lap(stageStart, Handler.GET_DESTROY_SPEED, Stage.REGISTRY_LOOKUP);
         
-        // 根据配置选择速度计算方法
-        float finalSpeed;
-        if (Config.useCustomSpeedCalculation) {
-            // 使用自定义速度计算，完全基于硬度计算
-            float customSpeed = Config.calculateCustomMiningSpeed(effectiveToolHardness, blockHardness);
-            if (Config.enableDebugLogging) {
-                LOGGER.info("[BetterExcavate] Using custom speed calculation for {} with {}: {} (method: {}, tool hardness: {}, block hardness: {})", 
-                    blockName, toolName, String.format("%.3f", customSpeed), Config.speedCalculationMethod, 
-                    String.format("%.2f", effectiveToolHardness), String.format("%.2f", blockHardness));
-            }
-            finalSpeed = customSpeed;
-        } else {
-            // 使用原有的基于原版速度的修正方法
-            float speedMultiplier = calculateSpeedMultiplier(hardnessRatio, Config.hardnessMultiplier);
-            finalSpeed = originalSpeed * speedMultiplier;
-        }
+        // 错误工具类型检测
+        boolean isWrongTool = Config.enableWrongToolPenalty && hasTool && !Config.isCorrectToolType(heldItem, blockState);
+        stageStart = StageProfiler.lap(stageStart, Handler.GET_DESTROY_SPEED, Stage.WRONG_TOOL);
         
-        // 如果启用了周围方块修正，计算周围方块影响
-        float surroundingMultiplier = 1.0f;
+        // 如果启用了周围方块修正，统计周围相同方块数量
+        int identicalBlocks = MiningCalculator.NO_SURROUNDING_COUNT;
         if (Config.enableSurroundingBlocksModifier) {
-            BlockPos targetPos = getTargetBlockPos();
+            BlockPos targetPos = digPos != null ? digPos : getTargetBlockPos();
+            stageStart = StageProfiler.lap(stageStart, Handler.GET_DESTROY_SPEED, Stage.TARGET_RAYCAST);
             if (targetPos != null) {
-                int identicalBlocks = countIdenticalSurroundingBlocks(blockState, targetPos, player.level());
-                surroundingMultiplier = calculateSurroundingBlocksMultiplier(identicalBlocks);
-                if (Config.enableDebugLogging) {
-                    LOGGER.info("[BetterExcavate] Found {} identical surrounding blocks for {}", identicalBlocks, blockName);
-                }
-            }
-        }
-        
-        // 应用耐久度速度惩罚
-        float durabilitySpeedMultiplier = 1.0f;
-        if (Config.enableDurabilitySpeedPenalty && !heldItem.isEmpty()) {
-            durabilitySpeedMultiplier = (float) Config.calculateDurabilityPenalty(heldItem, Config.maxDurabilitySpeedPenalty);
-        }
-        
-        // 应用错误工具类型惩罚（速度惩罚）
-        float wrongToolMultiplier = 1.0f;
-        if (Config.enableWrongToolPenalty && isWrongTool) {
-            wrongToolMultiplier = 1.0f - (float) Config.wrongToolSpeedPenalty;
-            if (Config.enableDebugLogging) {
-                LOGGER.info("[BetterExcavate] Wrong tool type detected for {} with {}: applying {}% speed penalty (multiplier: {})", 
-                    blockName, toolName, 
-                    String.format("%.0f", Config.wrongToolSpeedPenalty * 100),
-                    String.format("%.3f", wrongToolMultiplier));
+                identicalBlocks = countIdenticalSurroundingBlocks(blockState, targetPos, player.level());
+                stageStart = StageProfiler.lap(stageStart, Handler.GET_DESTROY_SPEED, Stage.NEIGHBOUR_SCAN);
             }
+        } else {
+            Metrics.RAYCASTS_AVOIDED.increment();
         }
         
-        // 应用其他修正因子（周围方块修正、耐久度修正、错误工具修正）
-        float newSpeed = finalSpeed * surroundingMultiplier * durabilitySpeedMultiplier * wrongToolMultiplier;
+        float newSpeed = MiningCalculator.calculateDestroySpeed(Config.tables, originalSpeed, toolSpeed, hasTool,
+                toolHardness, Config.getWearPercentage(heldItem), isWrongTool, blockHardness, identicalBlocks);
+        StageProfiler.lap(stageStart, Handler.GET_DESTROY_SPEED, Stage.CURVE_MATH);
         
         // 记录挖掘信息
-        if (Config.enableDebugLogging) {
-            if (Config.useCustomSpeedCalculation) {
-                LOGGER.info("[BetterExcavate] Custom speed calculation for {} with {}: Base speed: {}, Surrounding multiplier: {}, Durability multiplier: {}, Wrong tool multiplier: {}, Final speed: {}",
-                        blockName, toolName, 
-                        String.format("%.3f", finalSpeed),
-                        String.format("%.3f", surroundingMultiplier),
-                        String.format("%.3f", durabilitySpeedMultiplier),
-                        String.format("%.3f", wrongToolMultiplier), 
-                        String.format("%.3f", newSpeed));
-            } else {
-                // 原有的日志记录逻辑
-                float speedMultiplier = finalSpeed / Math.max(originalSpeed, 0.001f);
-                if (speedMultiplier < 0.1f) {
-                    LOGGER.info("[BetterExcavate] Mining {} with {} (severely limited): Block hardness: {}, Tool hardness: {}, Ratio: {}, Speed multiplier: {}, Surrounding multiplier: {}, Durability multiplier: {}, Wrong tool multiplier: {}, Original speed: {}, Final speed: {}",
-                            blockName, toolName, 
-                            String.format("%.2f", blockHardness), 
-                            String.format("%.2f", toolHardness), 
-                            String.format("%.2f", hardnessRatio), 
-                            String.format("%.3f", speedMultiplier),
-                            String.format("%.3f", surroundingMultiplier),
-                            String.format("%.3f", durabilitySpeedMultiplier),
-                            String.format("%.3f", wrongToolMultiplier), 
-                            String.format("%.3f", originalSpeed), 
-                            String.format("%.3f", newSpeed));
-                } else if (speedMultiplier < 1.0f || surroundingMultiplier < 1.0f || durabilitySpeedMultiplier < 1.0f || wrongToolMultiplier < 1.0f) {
-                    LOGGER.info("[BetterExcavate] Mining {} with {} (reduced speed): Block hardness: {}, Tool hardness: {}, Ratio: {}, Speed multiplier: {}, Surrounding multiplier: {}, Durability multiplier: {}, Wrong tool multiplier: {}, Original speed: {}, Final speed: {}",
-                            blockName, toolName, 
-                            String.format("%.2f", blockHardness), 
-                            String.format("%.2f", toolHardness), 
-                            String.format("%.2f", hardnessRatio), 
-                            String.format("%.3f", speedMultiplier),
-                            String.format("%.3f", surroundingMultiplier),
-                            String.format("%.3f", durabilitySpeedMultiplier),
-                            String.format("%.3f", wrongToolMultiplier), 
-                            String.format("%.3f", originalSpeed), 
-                            String.format("%.3f", newSpeed));
-                } else {
-                    LOGGER.info("[BetterExcavate] Mining {} with {} (normal speed): Block hardness: {}, Tool hardness: {}, Ratio: {}, Speed multiplier: {}, Surrounding multiplier: {}, Durability multiplier: {}, Wrong tool multiplier: {}, Original speed: {}, Final speed: {}",
-                            blockName, toolName, 
-                            String.format("%.2f", blockHardness), 
-                            String.format("%.2f", toolHardness), 
-                            String.format("%.2f", hardnessRatio), 
-                            String.format("%.3f", speedMultiplier),
-                            String.format("%.3f", surroundingMultiplier),
-                            String.format("%.3f", durabilitySpeedMultiplier),
-                            String.format("%.3f", wrongToolMultiplier), 
-                            String.format("%.3f", originalSpeed), 
-                            String.format("%.3f", newSpeed));
-                }
-            }
+        TraceEntry trace = MiningTrace.begin(TraceEntry.Kind.DESTROY_SPEED, player, blockState, TraceEntry.NO_POS);
+        if (trace != null) {
+            double effectiveToolHardness = MiningCalculator.getEffectiveToolHardness(Config.tables, toolHardness,
+                    Config.getWearPercentage(heldItem), hasTool, isWrongTool);
+            trace.tool(heldItem.getItem(), toolHardness, effectiveToolHardness, isWrongTool)
+                    .blockHardness(blockHardness)
+                    .speeds(originalSpeed, toolSpeed, newSpeed, identicalBlocks)
+                    .commit();
         }
         
-        cir.setReturnValue(newSpeed);
-    }
-    
-    /**
-     * 使用ln()曲线计算挖掘速度修正系数
-     * @param hardnessRatio 工具硬度/方块硬度的比值
-     * @param multiplier 硬度倍数配置
-     * @return 速度修正系数 (0.0 到 1.0+)
-     */
-    private float calculateSpeedMultiplier(double hardnessRatio, double multiplier) {
-        // 如果工具硬度足够（比值 >= 倍数），保持原速度或稍微提升
-        if (hardnessRatio >= multiplier) {
-            // 可以稍微提升速度，但不要过分
-            return Math.min(1.0f + (float)(hardnessRatio - multiplier) * 0.1f, 2.0f);
+        if (SpeedCapture.isActive()) {
+            SpeedCapture.record(player, blockState, heldItem, blockHardness, toolHardness, isWrongTool,
+                    identicalBlocks, originalSpeed, newSpeed);
         }
-        
-        // 如果工具硬度不足，使用ln()曲线急剧降低速度
-        // 当hardnessRatio接近0时，速度接近0
-        // 当hardnessRatio = multiplier时，速度 = 1
-        
-        // 使用修正的ln函数：ln(hardnessRatio / multiplier + e) / e
-        // 这样当hardnessRatio = multiplier时，结果约为1
-        // 当hardnessRatio趋近于0时，结果趋近于1/e ≈ 0.37，然后我们再进一步压缩
-        
-        double x = hardnessRatio / multiplier;
-        
-        if (x <= 0.001) {
-            // 极小的比值，几乎无法挖掘
-            return 0.001f;
+        if (ShadowEvaluator.isActive()) {
+            ShadowEvaluator.compareSpeed(player, blockState, heldItem, blockHardness, originalSpeed, toolSpeed,
+                    identicalBlocks, newSpeed);
         }
         
-        // 使用 ln(x + 1) / ln(2) 的变形，使得x=1时结果为1，x=0时结果为0
-        // 进一步调整为更陡峭的曲线
-        double logValue = Math.log(x * Math.E + 1) / Math.E;
-        
-        // 再应用一个平方来让曲线更陡峭
-        float result = (float)(logValue * logValue);
-        
-        // 确保结果在合理范围内
-        return Math.max(0.001f, Math.min(result, 1.0f));
+        cir.setReturnValue(newSpeed);
     }
     
     /**
      * 获取玩家瞄准的方块位置
      */
     private BlockPos getTargetBlockPos() {
+        Metrics.RAYCASTS.increment();
         HitResult hitResult = player.pick(5.0D, 0.0F, false);
         if (hitResult instanceof BlockHitResult blockHitResult) {
             return blockHitResult.getBlockPos();
@@ -313,34 +173,4 @@ public class InventoryMixin {
         
         return count;
     }
-    
-    /**
-     * 根据周围相同方块数量计算速度修正系数
-     * @param identicalBlocks 周围相同方块数量 (0-6)
-     * @return 速度修正系数
-     */
-    private float calculateSurroundingBlocksMultiplier(int identicalBlocks) {
-        if (identicalBlocks == 0) {
-            return (float) Config.maxSpeedMultiplier;
-        }
-        
-        // 计算归一化的方块数量 (0到1之间)
-        double normalizedCount = identicalBlocks / 6.0;
-        
-        double multiplier;
-        if ("logarithmic".equals(Config.speedCurveType)) {
-            // 对数曲线：开始下降很快，后面趋于平缓
-            // 使用 1 - log(1 + x * 9) / log(10) 这样当x=0时结果为1，当x=1时结果约为0
-            multiplier = 1.0 - Math.log(1 + normalizedCount * 9) / Math.log(10);
-        } else {
-            // 线性曲线：均匀下降
-            multiplier = 1.0 - normalizedCount;
-        }
-        
-        // 将结果映射到配置的范围内
-        double range = Config.maxSpeedMultiplier - Config.minSpeedMultiplier;
-        multiplier = Config.minSpeedMultiplier + multiplier * range;
-        
-        return (float) Math.max(Config.minSpeedMultiplier, Math.min(multiplier, Config.maxSpeedMultiplier));
-    }
 }
@@ -0,0 +1,43 @@
+package org.goldgomtech.betterexcavate.mixin;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.ItemStack;
+import org.goldgomtech.betterexcavate.StackHardness;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * 在物品堆上增加一个瞬态字段，保存 {@link StackHardness} 计算的工具硬度
+ * 字段不参与NBT序列化和 ItemStack.copy，复制出的物品堆会重新计算。
+ * 调用可能修改NBT的方法时清除缓存：耐久（setDamageValue）、附魔（enchant）等都经过 getOrCreateTag
+ */
+@Mixin(ItemStack.class)
+public class ItemStackHardnessMixin implements StackHardness.Holder {
+
+    @Unique
+    private Object betterexcavate$hardnessCache;
+
+    @Override
+    public Object betterexcavate$getHardnessCache() {
+        return betterexcavate$hardnessCache;
+    }
+
+    @Override
+    public void betterexcavate$setHardnessCache(Object cache) {
+        betterexcavate$hardnessCache = cache;
+    }
+
+    @Inject(method = {"getOrCreateTag", "getOrCreateTagElement"}, at = @At("HEAD"))
+    private void onGetOrCreateTag(CallbackInfoReturnable<CompoundTag> cir) {
+        betterexcavate$hardnessCache = null;
+    }
+
+    @Inject(method = {"setTag", "addTagElement", "removeTagKey"}, at = @At("HEAD"))
+    private void onModifyTag(CallbackInfo ci) {
+        betterexcavate$hardnessCache = null;
+    }
+}
@@ -0,0 +1,20 @@
+package org.goldgomtech.betterexcavate.mixin;
+
+import net.minecraft.client.renderer.LevelRenderer;
+import org.goldgomtech.betterexcavate.client.MiningOverlay;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(LevelRenderer.class)
+public class LevelRendererMixin {
+
+    /**
+     * 方块变化和区块加载时原版通过这里重新编译分段，叠加层也只需要重新分类这些分段
+     */
+    @Inject(method = "setSectionDirty(IIIZ)V", at = @At("HEAD"))
+    private void onSetSectionDirty(int sectionX, int sectionY, int sectionZ, boolean reRenderOnMainThread, CallbackInfo ci) {
+        MiningOverlay.markDirty(sectionX, sectionY, sectionZ);
+    }
+}
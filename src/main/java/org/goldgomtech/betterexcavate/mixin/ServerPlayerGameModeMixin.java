@@ -0,0 +1,34 @@
+package org.goldgomtech.betterexcavate.mixin;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.level.ServerPlayerGameMode;
+import org.goldgomtech.betterexcavate.PositionalHardness;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(ServerPlayerGameMode.class)
+public class ServerPlayerGameModeMixin {
+
+    @Shadow
+    @Final
+    protected ServerPlayer player;
+
+    /**
+     * destroyBlock 经由 canHarvestBlock 和 BreakEvent 调用 Player.hasCorrectToolForDrops，后者只有方块状态，
+     * 因此在这里记录被破坏的方块位置，使掉落判断与破坏处理使用同样按位置修正的硬度，返回时清除
+     */
+    @Inject(method = "destroyBlock", at = @At("HEAD"))
+    private void onDestroyBlockHead(BlockPos pos, CallbackInfoReturnable<Boolean> cir) {
+        ((PositionalHardness.DigTarget) player).betterexcavate$setHarvestPos(pos);
+    }
+
+    @Inject(method = "destroyBlock", at = @At("RETURN"))
+    private void onDestroyBlockReturn(BlockPos pos, CallbackInfoReturnable<Boolean> cir) {
+        ((PositionalHardness.DigTarget) player).betterexcavate$setHarvestPos(null);
+    }
+}
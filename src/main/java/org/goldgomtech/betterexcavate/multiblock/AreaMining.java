@@ -0,0 +1,234 @@
+package org.goldgomtech.betterexcavate.multiblock;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.phys.BlockHitResult;
+import net.minecraft.world.phys.HitResult;
+import net.minecraftforge.common.util.FakePlayer;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.goldgomtech.betterexcavate.BetterExcavate;
+import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.PositionalHardness;
+import org.goldgomtech.betterexcavate.metrics.Metrics;
+import org.goldgomtech.betterexcavate.zone.HardnessZone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 范围挖掘（锤子 3x3 / 挖掘机 5x5）
+ * 区域垂直于玩家挖掘的那一面，以目标方块为中心。区域中只包含工具类型正确、且BetterExcavate判断可以挖掘的方块，
+ * 所以木镐挖不动的黑曜石不会被一起挖掉。
+ *
+ * 挖掘时间由区域中最慢的方块决定；中心方块破坏后，其余方块通过 {@link BlockBreaker#breakBatch} 一次性破坏。
+ * 客户端和服务端都会计算挖掘速度，保证挖掘进度一致
+ */
+@Mod.EventBusSubscriber(modid = BetterExcavate.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public final class AreaMining {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    // 区域速度每隔多少tick重新计算一次，用于发现区域中的方块变化
+    private static final long SPEED_CACHE_TICKS = 10;
+
+    // 编译后的 areaMiningTools 配置：物品 -> 边长
+    private static volatile Map<Item, Integer> areaTools = Map.of();
+
+    // 计算区域中其他方块的挖掘进度时会再次触发BreakSpeed事件
+    private static final ThreadLocal<boolean[]> computing = ThreadLocal.withInitial(() -> new boolean[1]);
+
+    /**
+     * 区域挖掘速度的缓存，玩家一直挖同一个方块时不用每tick扫描整个区域
+     */
+    private record SpeedCache(long pos, Direction face, ItemStack tool, int damage, long gameTime, float ratio) {
+    }
+
+    // 单人游戏中客户端和服务端的玩家UUID相同，分开缓存
+    private static final Map<UUID, SpeedCache> serverSpeedCache = new ConcurrentHashMap<>();
+    private static final Map<UUID, SpeedCache> clientSpeedCache = new ConcurrentHashMap<>();
+
+    private AreaMining() {
+    }
+
+    /**
+     * 配置加载后调用：解析 'modid:item:size' 格式的范围工具
+     */
+    public static void applyConfig() {
+        Map<Item, Integer> tools = new HashMap<>();
+        for (String entry : Config.areaMiningTools) {
+            int separator = entry.lastIndexOf(':');
+            ResourceLocation id = separator > 0 ? ResourceLocation.tryParse(entry.substring(0, separator)) : null;
+            if (id == null || !ForgeRegistries.ITEMS.containsKey(id)) {
+                LOGGER.warn("[BetterExcavate] Ignoring unknown area mining tool {}", entry);
+                continue;
+            }
+            try {
+                tools.put(ForgeRegistries.ITEMS.getValue(id), Integer.parseInt(entry.substring(separator + 1)));
+            } catch (NumberFormatException e) {
+                LOGGER.warn("[BetterExcavate] Ignoring invalid area mining tool {}", entry);
+            }
+        }
+        areaTools = tools;
+        serverSpeedCache.clear();
+        clientSpeedCache.clear();
+    }
+
+    /**
+     * 玩家当前是否进行范围挖掘
+     * @return 区域边长，不进行范围挖掘时返回0
+     */
+    public static int getAreaSize(Player player) {
+        if (!Config.enableAreaMining || player.isCreative() || player instanceof FakePlayer) {
+            return 0;
+        }
+        if (Config.areaMiningSneakToDisable && player.isShiftKeyDown()) {
+            return 0;
+        }
+        Integer size = areaTools.get(player.getMainHandItem().getItem());
+        return size == null ? 0 : size;
+    }
+
+    /**
+     * 区域中除中心外的方块位置，区域垂直于face所在的轴
+     */
+    public static List<BlockPos> getRegion(BlockPos center, Direction face, int size) {
+        int radius = size / 2;
+        List<BlockPos> positions = new ArrayList<>(size * size - 1);
+        Direction.Axis axis = face.getAxis();
+        for (int a = -radius; a <= radius; a++) {
+            for (int b = -radius; b <= radius; b++) {
+                if (a == 0 && b == 0) {
+                    continue;
+                }
+                positions.add(switch (axis) {
+                    case X -> center.offset(0, a, b);
+                    case Y -> center.offset(a, 0, b);
+                    case Z -> center.offset(a, b, 0);
+                });
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * 方块是否随范围挖掘一起破坏：工具类型正确且BetterExcavate判断可以挖掘
+     */
+    private static boolean isIncluded(Level level, BlockPos pos, BlockState state, ItemStack tool) {
+        if (state.isAir()) {
+            return false;
+        }
+        HardnessZone zone = PositionalHardness.findZone(level, pos);
+        float blockHardness = PositionalHardness.apply(level, pos, state, state.getDestroySpeed(level, pos), zone);
+        return blockHardness >= 0 && Config.isCorrectToolType(tool, state)
+                && BlockBreaker.getMiningMode(zone, state, blockHardness, tool) != 0;
+    }
+
+    @SubscribeEvent
+    public static void onBreakSpeed(PlayerEvent.BreakSpeed event) {
+        boolean[] guard = computing.get();
+        if (guard[0]) {
+            return;
+        }
+        Player player = event.getEntity();
+        int size = getAreaSize(player);
+        Optional<BlockPos> position = event.getPosition();
+        if (size == 0 || position.isEmpty()) {
+            return;
+        }
+        BlockPos center = position.get();
+
+        Metrics.RAYCASTS.increment();
+        HitResult hitResult = player.pick(5.0D, 0.0F, false);
+        if (!(hitResult instanceof BlockHitResult blockHit) || !blockHit.getBlockPos().equals(center)) {
+            return;
+        }
+        Direction face = blockHit.getDirection();
+        ItemStack tool = player.getMainHandItem();
+        Level level = player.level();
+        Map<UUID, SpeedCache> cache = level.isClientSide() ? clientSpeedCache : serverSpeedCache;
+        SpeedCache cached = cache.get(player.getUUID());
+        long gameTime = level.getGameTime();
+        if (cached != null && cached.pos() == center.asLong() && cached.face() == face && cached.tool() == tool
+                && cached.damage() == tool.getDamageValue() && gameTime - cached.gameTime() < SPEED_CACHE_TICKS) {
+            event.setNewSpeed(event.getNewSpeed() * cached.ratio());
+            return;
+        }
+
+        float ratio = 1.0f;
+        guard[0] = true;
+        try {
+            float centerProgress = event.getState().getDestroyProgress(player, level, center);
+            if (centerProgress > 0) {
+                for (BlockPos pos : getRegion(center, face, size)) {
+                    BlockState state = level.getBlockState(pos);
+                    if (isIncluded(level, pos, state, tool)) {
+                        ratio = Math.min(ratio, state.getDestroyProgress(player, level, pos) / centerProgress);
+                    }
+                }
+            }
+        } finally {
+            guard[0] = false;
+        }
+        cache.put(player.getUUID(), new SpeedCache(center.asLong(), face, tool, tool.getDamageValue(), gameTime, ratio));
+        event.setNewSpeed(event.getNewSpeed() * ratio);
+    }
+
+    /**
+     * 玩家成功破坏中心方块后调用（见 AreaMiningMixin），一次性破坏区域中的其余方块
+     * @param face 玩家挖掘的面，未知时为null（此时重新做射线检测）
+     */
+    public static void onBlockDestroyed(ServerPlayer player, ServerLevel level, BlockPos center, Direction face) {
+        int size = getAreaSize(player);
+        if (size == 0) {
+            return;
+        }
+        serverSpeedCache.remove(player.getUUID());
+        if (face == null) {
+            Metrics.RAYCASTS.increment();
+            if (!(player.pick(5.0D, 0.0F, false) instanceof BlockHitResult blockHit)) {
+                return;
+            }
+            face = blockHit.getDirection();
+        }
+
+        ItemStack tool = player.getMainHandItem();
+        List<BlockPos> positions = new ArrayList<>();
+        for (BlockPos pos : getRegion(center, face, size)) {
+            if (level.isLoaded(pos) && isIncluded(level, pos, level.getBlockState(pos), tool)) {
+                positions.add(pos);
+            }
+        }
+        if (positions.isEmpty()) {
+            return;
+        }
+        DropCollector drops = new DropCollector();
+        int broken = BlockBreaker.breakBatch(player, level, center, positions, drops);
+        Metrics.AREA_MINED_BLOCKS.add(broken);
+        if (!drops.isEmpty()) {
+            drops.spawn(level, center);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        serverSpeedCache.remove(event.getEntity().getUUID());
+    }
+}
@@ -0,0 +1,212 @@
+package org.goldgomtech.betterexcavate.multiblock;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.stats.Stats;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.common.ForgeHooks;
+import net.minecraftforge.event.ForgeEventFactory;
+import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.HardnessTables;
+import org.goldgomtech.betterexcavate.MiningCalculator;
+import org.goldgomtech.betterexcavate.PositionalHardness;
+import org.goldgomtech.betterexcavate.StackHardness;
+import org.goldgomtech.betterexcavate.zone.HardnessZone;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 以玩家身份破坏连锁挖掘/范围挖掘中的额外方块
+ * 流程与原版 ServerPlayerGameMode.destroyBlock 一致，区别是掉落物和经验交给 {@link DropCollector} 汇总，
+ * 并由BetterExcavate的挖掘模式决定是否掉落
+ */
+final class BlockBreaker {
+
+    private BlockBreaker() {
+    }
+
+    /**
+     * 用BetterExcavate的规则判断玩家当前工具对方块的挖掘模式
+     * 掉落物控制关闭时总是正常挖掘，否则应用硬度区域强制的模式
+     * @param zone 方块所在的硬度区域（{@link PositionalHardness#findZone}）
+     * @param blockHardness 已按位置修正的方块硬度
+     * @return 0=无法挖掘，1=正常挖掘有掉落，2=缓慢挖掘无掉落
+     */
+    static int getMiningMode(HardnessZone zone, BlockState state, float blockHardness, ItemStack tool) {
+        if (blockHardness < 0) {
+            return 0;
+        }
+        if (!Config.enableDropControl) {
+            return 1;
+        }
+        HardnessTables tables = Config.tables;
+        boolean hasTool = !tool.isEmpty();
+        double toolHardness = StackHardness.getToolHardness(tables, tool);
+        boolean wrongTool = tables.isWrongToolPenaltyEnabled() && hasTool && !Config.isCorrectToolType(tool, state);
+        double effectiveToolHardness = MiningCalculator.getEffectiveToolHardness(tables, toolHardness,
+                Config.getWearPercentage(tool), hasTool, wrongTool);
+        return PositionalHardness.overrideMode(zone, Config.getMiningMode(blockHardness, effectiveToolHardness));
+    }
+
+    /**
+     * 破坏一个方块：触发破坏事件（保护类模组和BetterExcavate自身都可以取消），消耗工具耐久，
+     * 按挖掘模式把掉落物和经验加入collector
+     * @return 实际使用的挖掘模式，方块未被破坏时返回0
+     */
+    static int breakBlock(ServerPlayer player, ServerLevel level, BlockPos pos, BlockState state, DropCollector drops) {
+        PositionalHardness.DigTarget target = (PositionalHardness.DigTarget) player;
+        BlockPos previous = target.betterexcavate$getHarvestPos();
+        // 破坏事件和 canHarvestBlock 都会调用 hasCorrectToolForDrops，按这个方块的位置判断
+        target.betterexcavate$setHarvestPos(pos);
+        try {
+            return breakBlockAt(player, level, pos, state, drops);
+        } finally {
+            target.betterexcavate$setHarvestPos(previous);
+        }
+    }
+
+    private static int breakBlockAt(ServerPlayer player, ServerLevel level, BlockPos pos, BlockState state, DropCollector drops) {
+        int experience = ForgeHooks.onBlockBreakEvent(level, player.gameMode.getGameModeForPlayer(), player, pos);
+        if (experience == -1) {
+            return 0;
+        }
+        ItemStack tool = player.getMainHandItem();
+        HardnessZone zone = PositionalHardness.findZone(level, pos);
+        int miningMode = getMiningMode(zone, state,
+                PositionalHardness.apply(level, pos, state, state.getDestroySpeed(level, pos), zone), tool);
+        if (miningMode == 0) {
+            return 0;
+        }
+
+        BlockEntity blockEntity = level.getBlockEntity(pos);
+        ItemStack toolCopy = tool.copy();
+        boolean canHarvest = state.canHarvestBlock(level, pos, player);
+        tool.mineBlock(level, state, pos, player);
+        if (tool.isEmpty() && !toolCopy.isEmpty()) {
+            ForgeEventFactory.onPlayerDestroyItem(player, toolCopy, InteractionHand.MAIN_HAND);
+        }
+
+        boolean removed = state.onDestroyedByPlayer(level, pos, player, canHarvest, level.getFluidState(pos));
+        if (!removed) {
+            return 0;
+        }
+        Block block = state.getBlock();
+        block.destroy(level, pos, state);
+        player.awardStat(Stats.BLOCK_MINED.get(block));
+        player.causeFoodExhaustion(0.005F);
+
+        // 缓慢挖掘与BlockBreakHandler一致：没有掉落物也没有经验
+        if (canHarvest && miningMode == 1) {
+            for (ItemStack drop : Block.getDrops(state, level, pos, blockEntity, player, toolCopy)) {
+                drops.add(drop);
+            }
+            state.spawnAfterBreak(level, pos, toolCopy, false);
+            drops.addExperience(experience);
+        }
+        return miningMode;
+    }
+
+    /**
+     * 一次破坏一组方块（范围挖掘），centerPos 是玩家本来破坏、已经由原版处理过的方块。
+     *
+     * 与逐个调用 {@link #breakBlock} 的区别：
+     * 移除方块时不通知邻居也不更新邻居形状，全部移除后只对这组方块外侧的邻居各通知一次；
+     * 工具耐久在最后按总数一次扣除。光照更新和发给客户端的方块变化本来就由光照引擎和区块按tick合并。
+     * 因此不会调用方块自定义的 onDestroyedByPlayer。
+     * 范围挖掘发生在中心方块的 destroyBlock 之中，收获位置此时是中心方块，这里对每个方块临时改为它自己的位置
+     * @return 实际破坏的方块数
+     */
+    static int breakBatch(ServerPlayer player, ServerLevel level, BlockPos centerPos, List<BlockPos> positions, DropCollector drops) {
+        ItemStack tool = player.getMainHandItem();
+        ItemStack toolCopy = tool.copy();
+        LongHashSet removed = new LongHashSet(positions.size() + 1);
+        removed.add(centerPos.asLong());
+        List<BlockPos> removedPositions = new ArrayList<>(positions.size());
+        List<BlockState> removedStates = new ArrayList<>(positions.size());
+        int durabilityCost = 0;
+
+        PositionalHardness.DigTarget target = (PositionalHardness.DigTarget) player;
+        BlockPos previous = target.betterexcavate$getHarvestPos();
+        try {
+            for (BlockPos pos : positions) {
+                BlockState state = level.getBlockState(pos);
+                target.betterexcavate$setHarvestPos(pos);
+                HardnessZone zone = PositionalHardness.findZone(level, pos);
+                float blockHardness = PositionalHardness.apply(level, pos, state, state.getDestroySpeed(level, pos), zone);
+                int experience = ForgeHooks.onBlockBreakEvent(level, player.gameMode.getGameModeForPlayer(), player, pos);
+                if (experience == -1) {
+                    continue;
+                }
+                int miningMode = getMiningMode(zone, state, blockHardness, toolCopy);
+                if (miningMode == 0) {
+                    continue;
+                }
+                BlockEntity blockEntity = level.getBlockEntity(pos);
+                boolean canHarvest = state.canHarvestBlock(level, pos, player);
+                Block block = state.getBlock();
+
+                block.playerWillDestroy(level, pos, state, player);
+                if (!level.setBlock(pos, level.getFluidState(pos).createLegacyBlock(), Block.UPDATE_CLIENTS | Block.UPDATE_KNOWN_SHAPE)) {
+                    continue;
+                }
+                block.destroy(level, pos, state);
+                removed.add(pos.asLong());
+                removedPositions.add(pos);
+                removedStates.add(state);
+                player.awardStat(Stats.BLOCK_MINED.get(block));
+                player.causeFoodExhaustion(0.005F);
+                // 与 DiggerItem.mineBlock 一致：硬度为0的方块不消耗耐久
+                if (blockHardness != 0.0f) {
+                    durabilityCost++;
+                }
+
+                if (canHarvest && miningMode == 1) {
+                    for (ItemStack drop : Block.getDrops(state, level, pos, blockEntity, player, toolCopy)) {
+                        drops.add(drop);
+                    }
+                    state.spawnAfterBreak(level, pos, toolCopy, false);
+                    drops.addExperience(experience);
+                }
+            }
+        } finally {
+            target.betterexcavate$setHarvestPos(previous);
+        }
+
+        // 合并的邻居更新：只处理这组方块之外的相邻方块
+        BlockPos.MutableBlockPos neighbourPos = new BlockPos.MutableBlockPos();
+        for (int i = 0; i < removedPositions.size(); i++) {
+            BlockPos pos = removedPositions.get(i);
+            BlockState newState = level.getBlockState(pos);
+            Block oldBlock = removedStates.get(i).getBlock();
+            for (Direction direction : Direction.values()) {
+                neighbourPos.setWithOffset(pos, direction);
+                if (removed.contains(neighbourPos.asLong())) {
+                    continue;
+                }
+                BlockState neighbour = level.getBlockState(neighbourPos);
+                if (!neighbour.is(Blocks.AIR)) {
+                    BlockState updated = neighbour.updateShape(direction.getOpposite(), newState, level, neighbourPos, pos);
+                    Block.updateOrDestroy(neighbour, updated, level, neighbourPos, Block.UPDATE_ALL);
+                }
+                level.neighborChanged(neighbourPos, oldBlock, pos);
+            }
+        }
+
+        if (durabilityCost > 0 && tool.isDamageableItem()) {
+            tool.hurtAndBreak(durabilityCost, player, owner -> owner.broadcastBreakEvent(InteractionHand.MAIN_HAND));
+            player.awardStat(Stats.ITEM_USED.get(toolCopy.getItem()), durabilityCost);
+            if (tool.isEmpty()) {
+                ForgeEventFactory.onPlayerDestroyItem(player, toolCopy, InteractionHand.MAIN_HAND);
+            }
+        }
+        return removedPositions.size();
+    }
+}
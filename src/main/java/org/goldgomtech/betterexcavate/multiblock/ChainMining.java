@@ -0,0 +1,259 @@
+package org.goldgomtech.betterexcavate.multiblock;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.common.util.FakePlayer;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.goldgomtech.betterexcavate.BetterExcavate;
+import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 连锁挖掘（矿脉/原木）
+ * 玩家破坏一个可连锁的方块后，从该位置对相同方块做有上限的洪水填充，在之后的若干tick内逐步破坏。
+ * 每tick的方块数和耗时都有预算，500个方块的矿脉也会分摊到多个tick，不会卡住服务器。
+ *
+ * 每个方块都单独按BetterExcavate的挖掘模式判断：无法挖掘的方块不破坏也不继续扩展，
+ * 缓慢挖掘的方块没有掉落物，工具耐久按方块逐个消耗；同一tick内的掉落物汇总后生成一次。
+ * 自动化挖掘（FakePlayer）不触发连锁。只在服务端主线程访问
+ */
+@Mod.EventBusSubscriber(modid = BetterExcavate.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public final class ChainMining {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    /**
+     * 一个玩家正在进行的连锁挖掘
+     */
+    private static final class Job {
+        final ServerPlayer player;
+        final ServerLevel level;
+        final Block block;
+        final BlockPos origin;
+        // 开始时的手持物品，切换物品后停止
+        final ItemStack tool;
+        final boolean hadTool;
+        final LongQueue pending;
+        final LongHashSet visited;
+        final DropCollector drops = new DropCollector();
+        int broken;
+
+        Job(ServerPlayer player, ServerLevel level, Block block, BlockPos origin, int maxBlocks) {
+            this.player = player;
+            this.level = level;
+            this.block = block;
+            this.origin = origin;
+            this.tool = player.getMainHandItem();
+            this.hadTool = !tool.isEmpty();
+            this.pending = new LongQueue(Math.min(maxBlocks, 64));
+            this.visited = new LongHashSet(Math.min(maxBlocks, 64));
+        }
+    }
+
+    private static final ArrayDeque<Job> jobs = new ArrayDeque<>();
+    // jobs的大小，供指标导出线程读取
+    private static final AtomicInteger jobCount = new AtomicInteger();
+
+    // 编译后的 chainMiningBlocks 配置
+    private static volatile Set<Block> chainBlocks = Set.of();
+    private static volatile List<TagKey<Block>> chainTags = List.of();
+
+    // 同时进行的连锁挖掘上限
+    private static final int MAX_JOBS = 64;
+
+    static {
+        Metrics.gauge("betterexcavate_chain_mining_jobs", "Chain mining jobs in progress", null, null, jobCount::get);
+    }
+
+    private ChainMining() {
+    }
+
+    /**
+     * 配置加载后调用：解析可连锁的方块和标签
+     */
+    public static void applyConfig() {
+        Set<Block> blocks = new HashSet<>();
+        List<TagKey<Block>> tags = new ArrayList<>();
+        for (String entry : Config.chainMiningBlocks) {
+            boolean isTag = entry.startsWith("#");
+            ResourceLocation id = ResourceLocation.tryParse(isTag ? entry.substring(1) : entry);
+            if (id == null) {
+                LOGGER.warn("[BetterExcavate] Ignoring invalid chain mining entry {}", entry);
+            } else if (isTag) {
+                tags.add(TagKey.create(Registries.BLOCK, id));
+            } else if (ForgeRegistries.BLOCKS.containsKey(id)) {
+                blocks.add(ForgeRegistries.BLOCKS.getValue(id));
+            } else {
+                LOGGER.warn("[BetterExcavate] Ignoring unknown chain mining block {}", entry);
+            }
+        }
+        chainBlocks = blocks;
+        chainTags = tags;
+    }
+
+    /**
+     * 方块是否可以连锁挖掘
+     */
+    public static boolean isChainable(BlockState state) {
+        if (chainBlocks.contains(state.getBlock())) {
+            return true;
+        }
+        for (TagKey<Block> tag : chainTags) {
+            if (state.is(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 玩家成功破坏一个方块后调用（见 ChainMiningMixin），满足条件时开始连锁挖掘
+     */
+    public static void onBlockDestroyed(ServerPlayer player, ServerLevel level, BlockPos pos, BlockState state) {
+        if (!Config.enableChainMining || player instanceof FakePlayer || player.isCreative() || player.isSpectator()) {
+            return;
+        }
+        if (Config.chainMiningRequiresSneak && !player.isShiftKeyDown()) {
+            return;
+        }
+        if (!isChainable(state) || jobs.size() >= MAX_JOBS) {
+            return;
+        }
+        UUID playerId = player.getUUID();
+        for (Job job : jobs) {
+            if (job.player.getUUID().equals(playerId)) {
+                return;
+            }
+        }
+
+        Job job = new Job(player, level, state.getBlock(), pos.immutable(), Config.chainMiningMaxBlocks);
+        long origin = pos.asLong();
+        job.visited.add(origin);
+        expand(job, origin);
+        if (!job.pending.isEmpty()) {
+            jobs.add(job);
+            jobCount.set(jobs.size());
+        }
+    }
+
+    /**
+     * 把相邻（包括斜向的26个方向）的相同方块加入待破坏队列，总数不超过 chainMiningMaxBlocks
+     */
+    private static void expand(Job job, long packed) {
+        BlockPos.MutableBlockPos cursor = new BlockPos.MutableBlockPos();
+        int limit = Config.chainMiningMaxBlocks;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    // visited包含起点，因此已发现的方块数为 visited.size() - 1
+                    if (job.visited.size() > limit) {
+                        return;
+                    }
+                    long neighbour = BlockPos.offset(packed, dx, dy, dz);
+                    if (neighbour == packed || job.visited.contains(neighbour)) {
+                        continue;
+                    }
+                    cursor.set(neighbour);
+                    if (job.level.isLoaded(cursor) && job.level.getBlockState(cursor).is(job.block)) {
+                        job.visited.add(neighbour);
+                        job.pending.add(neighbour);
+                    }
+                }
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || jobs.isEmpty()) {
+            return;
+        }
+        long deadline = System.nanoTime() + Config.chainMiningMicrosPerTick * 1000L;
+        int budget = Config.chainMiningBlocksPerTick;
+        // 多个玩家同时连锁时平分每tick的方块预算，轮流处理
+        int share = Math.max(1, budget / jobs.size());
+        int rounds = jobs.size();
+        for (int i = 0; i < rounds && budget > 0 && System.nanoTime() < deadline; i++) {
+            Job job = jobs.poll();
+            int broken = process(job, Math.min(share, budget), deadline);
+            budget -= broken;
+            if (isFinished(job)) {
+                Metrics.CHAIN_MINED_BLOCKS.add(job.broken);
+            } else {
+                jobs.add(job);
+            }
+        }
+        jobCount.set(jobs.size());
+    }
+
+    private static boolean isFinished(Job job) {
+        return job.pending.isEmpty() || !canContinue(job);
+    }
+
+    /**
+     * 玩家下线、换了维度、切换了手持物品或工具损坏后停止
+     */
+    private static boolean canContinue(Job job) {
+        ServerPlayer player = job.player;
+        return !player.isRemoved() && player.level() == job.level && player.getMainHandItem() == job.tool
+                && !(job.hadTool && job.tool.isEmpty());
+    }
+
+    /**
+     * 破坏最多limit个方块，超过deadline时提前结束
+     * @return 实际破坏的方块数
+     */
+    private static int process(Job job, int limit, long deadline) {
+        BlockPos.MutableBlockPos cursor = new BlockPos.MutableBlockPos();
+        int broken = 0;
+        while (broken < limit && !job.pending.isEmpty() && canContinue(job)) {
+            long packed = job.pending.poll();
+            cursor.set(packed);
+            BlockState state = job.level.getBlockState(cursor);
+            // 排队期间可能已被其他方式破坏
+            if (!state.is(job.block)) {
+                continue;
+            }
+            int miningMode = BlockBreaker.breakBlock(job.player, job.level, cursor.immutable(), state, job.drops);
+            if (miningMode != 0) {
+                broken++;
+                job.broken++;
+                expand(job, packed);
+            }
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+        if (!job.drops.isEmpty()) {
+            job.drops.spawn(job.level, job.origin);
+        }
+        return broken;
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        jobs.clear();
+        jobCount.set(0);
+    }
+}
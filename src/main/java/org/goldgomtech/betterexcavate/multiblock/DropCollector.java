@@ -0,0 +1,61 @@
+package org.goldgomtech.betterexcavate.multiblock;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.ExperienceOrb;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.GameRules;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.phys.Vec3;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 汇总一批方块的掉落物和经验
+ * 相同物品合并到满堆叠，整批破坏结束后在一个位置统一生成，避免每个方块生成一堆掉落物实体
+ */
+final class DropCollector {
+
+    private final List<ItemStack> stacks = new ArrayList<>();
+    private int experience;
+
+    void add(ItemStack stack) {
+        for (ItemStack existing : stacks) {
+            if (stack.isEmpty()) {
+                return;
+            }
+            int room = existing.getMaxStackSize() - existing.getCount();
+            if (room > 0 && ItemStack.isSameItemSameTags(existing, stack)) {
+                int moved = Math.min(room, stack.getCount());
+                existing.grow(moved);
+                stack.shrink(moved);
+            }
+        }
+        if (!stack.isEmpty()) {
+            stacks.add(stack);
+        }
+    }
+
+    void addExperience(int amount) {
+        experience += amount;
+    }
+
+    boolean isEmpty() {
+        return stacks.isEmpty() && experience == 0;
+    }
+
+    /**
+     * 在指定位置生成汇总的掉落物和经验并清空
+     */
+    void spawn(ServerLevel level, BlockPos pos) {
+        for (ItemStack stack : stacks) {
+            Block.popResource(level, pos, stack);
+        }
+        if (experience > 0 && level.getGameRules().getBoolean(GameRules.RULE_DOBLOCKDROPS)) {
+            ExperienceOrb.award(level, Vec3.atCenterOf(pos), experience);
+        }
+        stacks.clear();
+        experience = 0;
+    }
+}
@@ -0,0 +1,83 @@
+package org.goldgomtech.betterexcavate.multiblock;
+
+/**
+ * 打包方块坐标的集合：开放寻址、线性探测，负载超过一半时翻倍扩容
+ * 0 用作空槽标记，坐标 (0, 0, 0) 单独用一个字段记录
+ */
+final class LongHashSet {
+
+    private long[] keys;
+    private int size;
+    private boolean containsZero;
+
+    LongHashSet(int expectedSize) {
+        keys = new long[Math.max(4, Integer.highestOneBit(Math.max(expectedSize, 1)) << 2)];
+    }
+
+    /**
+     * @return 值原本不在集合中时返回true
+     */
+    boolean add(long value) {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int mask = keys.length - 1;
+        int slot = mix(value) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = value;
+        if (++size * 2 > keys.length) {
+            rehash();
+        }
+        return true;
+    }
+
+    boolean contains(long value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        int mask = keys.length - 1;
+        int slot = mix(value) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void rehash() {
+        long[] old = keys;
+        keys = new long[old.length << 1];
+        int mask = keys.length - 1;
+        for (long value : old) {
+            if (value != 0) {
+                int slot = mix(value) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = value;
+            }
+        }
+    }
+
+    // 打包坐标的低位是Y，相邻方块只差几位，先打散再取模
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,52 @@
+package org.goldgomtech.betterexcavate.multiblock;
+
+/**
+ * 存放打包方块坐标（{@link net.minecraft.core.BlockPos#asLong}）的先进先出队列
+ * 基于2的幂次长度的环形数组，满时翻倍扩容，不对坐标装箱
+ */
+final class LongQueue {
+
+    private long[] elements;
+    private int head;
+    private int size;
+
+    LongQueue(int initialCapacity) {
+        elements = new long[Math.max(2, Integer.highestOneBit(Math.max(initialCapacity, 1) - 1) << 1)];
+    }
+
+    void add(long value) {
+        if (size == elements.length) {
+            grow();
+        }
+        elements[(head + size) & (elements.length - 1)] = value;
+        size++;
+    }
+
+    /**
+     * 取出队首元素，调用前需确认队列不为空
+     */
+    long poll() {
+        long value = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return value;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] grown = new long[elements.length << 1];
+        // 把环形数组展开到新数组的开头
+        int firstPart = elements.length - head;
+        System.arraycopy(elements, head, grown, 0, firstPart);
+        System.arraycopy(elements, 0, grown, firstPart, head);
+        elements = grown;
+        head = 0;
+    }
+}
@@ -0,0 +1,50 @@
+package org.goldgomtech.betterexcavate.network;
+
+import net.minecraft.resources.ResourceLocation;
+import net.minecraftforge.network.NetworkDirection;
+import net.minecraftforge.network.NetworkRegistry;
+import net.minecraftforge.network.simple.SimpleChannel;
+import org.goldgomtech.betterexcavate.BetterExcavate;
+
+/**
+ * 网络通道注册
+ */
+public class BetterExcavateNetwork {
+
+    private static final String PROTOCOL_VERSION = "2";
+
+    public static final SimpleChannel CHANNEL = NetworkRegistry.newSimpleChannel(
+            new ResourceLocation(BetterExcavate.MODID, "main"),
+            () -> PROTOCOL_VERSION,
+            PROTOCOL_VERSION::equals,
+            PROTOCOL_VERSION::equals
+    );
+
+    public static void register() {
+        int id = 0;
+
+        CHANNEL.messageBuilder(TablesHashPacket.class, id++, NetworkDirection.PLAY_TO_CLIENT)
+                .encoder(TablesHashPacket::encode)
+                .decoder(TablesHashPacket::decode)
+                .consumerMainThread(TablesHashPacket::handle)
+                .add();
+
+        CHANNEL.messageBuilder(RequestTablesPacket.class, id++, NetworkDirection.PLAY_TO_SERVER)
+                .encoder(RequestTablesPacket::encode)
+                .decoder(RequestTablesPacket::decode)
+                .consumerMainThread(RequestTablesPacket::handle)
+                .add();
+
+        CHANNEL.messageBuilder(SyncTablesPacket.class, id++, NetworkDirection.PLAY_TO_CLIENT)
+                .encoder(SyncTablesPacket::encode)
+                .decoder(SyncTablesPacket::decode)
+                .consumerMainThread(SyncTablesPacket::handle)
+                .add();
+
+        CHANNEL.messageBuilder(SyncZonesPacket.class, id++, NetworkDirection.PLAY_TO_CLIENT)
+                .encoder(SyncZonesPacket::encode)
+                .decoder(SyncZonesPacket::decode)
+                .consumerMainThread(SyncZonesPacket::handle)
+                .add();
+    }
+}
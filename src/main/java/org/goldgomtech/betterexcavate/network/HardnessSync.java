@@ -0,0 +1,68 @@
+package org.goldgomtech.betterexcavate.network;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.DistExecutor;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.network.PacketDistributor;
+import net.minecraftforge.server.ServerLifecycleHooks;
+import org.goldgomtech.betterexcavate.BetterExcavate;
+import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.HardnessTables;
+import org.goldgomtech.betterexcavate.client.ClientTablesSync;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 服务端硬度表同步
+ * 玩家登录和配置重载时向客户端发送硬度表哈希，客户端按需请求完整数据，
+ * 避免客户端使用本地配置预测挖掘结果而与服务端不一致（幽灵方块）
+ */
+@Mod.EventBusSubscriber(modid = BetterExcavate.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class HardnessSync {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    @SubscribeEvent
+    public static void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+        HardnessTables tables = Config.tables;
+        if (tables != null && event.getEntity() instanceof ServerPlayer player) {
+            BetterExcavateNetwork.CHANNEL.send(PacketDistributor.PLAYER.with(() -> player),
+                    new TablesHashPacket(tables.getHash()));
+        }
+    }
+
+    /**
+     * 向指定玩家发送完整的硬度表
+     */
+    static void sendTables(ServerPlayer player) {
+        HardnessTables tables = Config.tables;
+        if (tables == null) {
+            return;
+        }
+        BetterExcavateNetwork.CHANNEL.send(PacketDistributor.PLAYER.with(() -> player),
+                new SyncTablesPacket(tables.getEncoded()));
+        if (Config.enableDebugLogging) {
+            LOGGER.info("[BetterExcavate] Sent hardness tables to {} ({} bytes, hash {})",
+                    player.getGameProfile().getName(), tables.getEncoded().length, Long.toHexString(tables.getHash()));
+        }
+    }
+
+    /**
+     * 硬度表重新编译后调用
+     * 服务端运行中时向所有玩家广播新哈希；客户端若正在使用服务端硬度表则重新应用，避免被本地配置覆盖
+     */
+    public static void onTablesCompiled(HardnessTables tables) {
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server != null) {
+            // 配置重载可能发生在文件监听线程，切换到服务端线程发送
+            server.execute(() -> BetterExcavateNetwork.CHANNEL.send(PacketDistributor.ALL.noArg(),
+                    new TablesHashPacket(tables.getHash())));
+        }
+
+        DistExecutor.unsafeRunWhenOn(Dist.CLIENT, () -> ClientTablesSync::reapplyServerTables);
+    }
+}
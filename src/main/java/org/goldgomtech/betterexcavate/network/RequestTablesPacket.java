@@ -0,0 +1,28 @@
+package org.goldgomtech.betterexcavate.network;
+
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.function.Supplier;
+
+/**
+ * 客户端 -> 服务端：请求完整的硬度表
+ */
+public class RequestTablesPacket {
+
+    public static void encode(RequestTablesPacket packet, FriendlyByteBuf buf) {
+    }
+
+    public static RequestTablesPacket decode(FriendlyByteBuf buf) {
+        return new RequestTablesPacket();
+    }
+
+    public static void handle(RequestTablesPacket packet, Supplier<NetworkEvent.Context> context) {
+        ServerPlayer player = context.get().getSender();
+        if (player != null) {
+            HardnessSync.sendTables(player);
+        }
+        context.get().setPacketHandled(true);
+    }
+}
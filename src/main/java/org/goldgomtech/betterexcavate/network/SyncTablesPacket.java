@@ -0,0 +1,37 @@
+package org.goldgomtech.betterexcavate.network;
+
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.fml.DistExecutor;
+import net.minecraftforge.network.NetworkEvent;
+import org.goldgomtech.betterexcavate.client.ClientTablesSync;
+
+import java.util.function.Supplier;
+
+/**
+ * 服务端 -> 客户端：完整硬度表的二进制形式
+ */
+public class SyncTablesPacket {
+
+    /** 单个数据包允许的最大硬度表大小 */
+    private static final int MAX_SIZE = 1 << 21;
+
+    private final byte[] data;
+
+    public SyncTablesPacket(byte[] data) {
+        this.data = data;
+    }
+
+    public static void encode(SyncTablesPacket packet, FriendlyByteBuf buf) {
+        buf.writeByteArray(packet.data);
+    }
+
+    public static SyncTablesPacket decode(FriendlyByteBuf buf) {
+        return new SyncTablesPacket(buf.readByteArray(MAX_SIZE));
+    }
+
+    public static void handle(SyncTablesPacket packet, Supplier<NetworkEvent.Context> context) {
+        DistExecutor.unsafeRunWhenOn(Dist.CLIENT, () -> () -> ClientTablesSync.onServerTables(packet.data));
+        context.get().setPacketHandled(true);
+    }
+}
@@ -0,0 +1,59 @@
+package org.goldgomtech.betterexcavate.network;
+
+import net.minecraft.core.registries.Registries;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.fml.DistExecutor;
+import net.minecraftforge.network.NetworkEvent;
+import org.goldgomtech.betterexcavate.zone.HardnessZone;
+import org.goldgomtech.betterexcavate.zone.HardnessZones;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 服务端 -> 客户端：一个维度的全部硬度区域
+ * 玩家登录、切换维度和区域变化时发送
+ */
+public class SyncZonesPacket {
+
+    /** 单个数据包允许的最大区域数 */
+    private static final int MAX_ZONES = 1 << 16;
+
+    private final ResourceKey<Level> dimension;
+    private final List<HardnessZone> zones;
+
+    public SyncZonesPacket(ResourceKey<Level> dimension, List<HardnessZone> zones) {
+        this.dimension = dimension;
+        this.zones = zones;
+    }
+
+    public static void encode(SyncZonesPacket packet, FriendlyByteBuf buf) {
+        buf.writeResourceKey(packet.dimension);
+        buf.writeVarInt(packet.zones.size());
+        for (HardnessZone zone : packet.zones) {
+            zone.write(buf);
+        }
+    }
+
+    public static SyncZonesPacket decode(FriendlyByteBuf buf) {
+        ResourceKey<Level> dimension = buf.readResourceKey(Registries.DIMENSION);
+        int count = buf.readVarInt();
+        if (count < 0 || count > MAX_ZONES) {
+            throw new IllegalArgumentException("Invalid zone count " + count);
+        }
+        List<HardnessZone> zones = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            zones.add(HardnessZone.read(buf));
+        }
+        return new SyncZonesPacket(dimension, zones);
+    }
+
+    public static void handle(SyncZonesPacket packet, Supplier<NetworkEvent.Context> context) {
+        DistExecutor.unsafeRunWhenOn(Dist.CLIENT, () -> () -> HardnessZones.applyClientZones(packet.dimension, packet.zones));
+        context.get().setPacketHandled(true);
+    }
+}
@@ -0,0 +1,35 @@
+package org.goldgomtech.betterexcavate.network;
+
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.fml.DistExecutor;
+import net.minecraftforge.network.NetworkEvent;
+import org.goldgomtech.betterexcavate.client.ClientTablesSync;
+
+import java.util.function.Supplier;
+
+/**
+ * 服务端 -> 客户端：通知当前硬度表的内容哈希
+ * 客户端哈希不一致时才会请求完整的硬度表
+ */
+public class TablesHashPacket {
+
+    private final long hash;
+
+    public TablesHashPacket(long hash) {
+        this.hash = hash;
+    }
+
+    public static void encode(TablesHashPacket packet, FriendlyByteBuf buf) {
+        buf.writeLong(packet.hash);
+    }
+
+    public static TablesHashPacket decode(FriendlyByteBuf buf) {
+        return new TablesHashPacket(buf.readLong());
+    }
+
+    public static void handle(TablesHashPacket packet, Supplier<NetworkEvent.Context> context) {
+        DistExecutor.unsafeRunWhenOn(Dist.CLIENT, () -> () -> ClientTablesSync.onServerHash(packet.hash));
+        context.get().setPacketHandled(true);
+    }
+}
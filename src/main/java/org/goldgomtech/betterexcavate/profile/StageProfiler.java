@@ -0,0 +1,222 @@
+package org.goldgomtech.betterexcavate.profile;
+
+import net.minecraft.world.entity.player.Player;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.goldgomtech.betterexcavate.BetterExcavate;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 挖掘流程的分阶段采样分析
+ * 只在 /betterexcavate profile 指定的tick窗口内对指定玩家（或所有玩家）计时，
+ * 处理器在各阶段之间调用 {@link #lap}，把两次调用之间的耗时计入对应阶段。
+ * 没有分析在运行时，{@link #begin} 只有一次布尔判断并返回0，之后的 lap 都直接返回
+ */
+@Mod.EventBusSubscriber(modid = BetterExcavate.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public final class StageProfiler {
+
+    /** 被计时的处理器，作为火焰图中的上一层调用栈 */
+    public enum Handler {
+        GET_DESTROY_SPEED("getDestroySpeed"),
+        HAS_CORRECT_TOOL("hasCorrectToolForDrops"),
+        BLOCK_BREAK("onBlockBreak"),
+        PLAYER_TICK("onPlayerTick");
+
+        final String frame;
+
+        Handler(String frame) {
+            this.frame = frame;
+        }
+    }
+
+    /** 挖掘流程的阶段 */
+    public enum Stage {
+        REGISTRY_LOOKUP("registry_lookup"),
+        WRONG_TOOL("wrong_tool_classification"),
+        TARGET_RAYCAST("target_raycast"),
+        NEIGHBOUR_SCAN("neighbour_scan"),
+        CURVE_MATH("curve_math"),
+        TOOL_DAMAGE("tool_damage");
+
+        public final String frame;
+
+        Stage(String frame) {
+            this.frame = frame;
+        }
+    }
+
+    private static final int HANDLERS = Handler.values().length;
+    private static final int STAGES = Stage.values().length;
+
+    private static volatile boolean active;
+    private static volatile UUID target;
+
+    private static final LongAdder[] nanos = newAdders();
+    private static final LongAdder[] calls = newAdders();
+
+    private static int remainingTicks;
+    private static int windowTicks;
+    private static Consumer<Result> onFinish;
+
+    private StageProfiler() {
+    }
+
+    private static LongAdder[] newAdders() {
+        LongAdder[] adders = new LongAdder[HANDLERS * STAGES];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * 处理器进入第一个计时阶段前调用
+     * @return 计时起点；没有分析在运行或玩家不在分析范围内时为0
+     */
+    public static long begin(Player player) {
+        if (!active) {
+            return 0L;
+        }
+        // 单人游戏中客户端也会调用同样的Mixin，只统计服务端
+        if (player != null && player.level().isClientSide()) {
+            return 0L;
+        }
+        UUID filter = target;
+        if (filter != null && (player == null || !filter.equals(player.getUUID()))) {
+            return 0L;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * 结束一个阶段，把自上一次 begin/lap 以来的耗时计入该阶段
+     * @return 下一阶段的计时起点，未计时时为0
+     */
+    public static long lap(long start, Handler handler, Stage stage) {
+        if (start == 0L) {
+            return 0L;
+        }
+        long now = System.nanoTime();
+        int index = handler.ordinal() * STAGES + stage.ordinal();
+        nanos[index].add(now - start);
+        calls[index].increment();
+        return now;
+    }
+
+    /**
+     * 开始一次分析
+     * @param player 只分析这个玩家，为null时分析所有玩家
+     * @param ticks 分析持续的服务端tick数
+     * @param finish 窗口结束后在服务端主线程中调用
+     * @return 已有分析在运行时返回false
+     */
+    public static synchronized boolean start(UUID player, int ticks, Consumer<Result> finish) {
+        if (active) {
+            return false;
+        }
+        for (int i = 0; i < nanos.length; i++) {
+            nanos[i].reset();
+            calls[i].reset();
+        }
+        target = player;
+        remainingTicks = ticks;
+        windowTicks = ticks;
+        onFinish = finish;
+        active = true;
+        return true;
+    }
+
+    public static boolean isActive() {
+        return active;
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (!active || event.phase != TickEvent.Phase.END) {
+            return;
+        }
+        Consumer<Result> finish;
+        Result result;
+        synchronized (StageProfiler.class) {
+            if (--remainingTicks > 0) {
+                return;
+            }
+            active = false;
+            result = snapshot(windowTicks);
+            finish = onFinish;
+            onFinish = null;
+        }
+        finish.accept(result);
+    }
+
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        synchronized (StageProfiler.class) {
+            active = false;
+            onFinish = null;
+        }
+    }
+
+    private static Result snapshot(int ticks) {
+        long[] nanoValues = new long[nanos.length];
+        long[] callValues = new long[calls.length];
+        for (int i = 0; i < nanos.length; i++) {
+            nanoValues[i] = nanos[i].sum();
+            callValues[i] = calls[i].sum();
+        }
+        return new Result(ticks, nanoValues, callValues);
+    }
+
+    /**
+     * 一次分析的结果，按 处理器 × 阶段 保存累计耗时和次数
+     */
+    public record Result(int ticks, long[] nanos, long[] calls) {
+
+        public long stageNanos(Stage stage) {
+            long total = 0;
+            for (int handler = 0; handler < HANDLERS; handler++) {
+                total += nanos[handler * STAGES + stage.ordinal()];
+            }
+            return total;
+        }
+
+        public long stageCalls(Stage stage) {
+            long total = 0;
+            for (int handler = 0; handler < HANDLERS; handler++) {
+                total += calls[handler * STAGES + stage.ordinal()];
+            }
+            return total;
+        }
+
+        public long totalNanos() {
+            long total = 0;
+            for (long value : nanos) {
+                total += value;
+            }
+            return total;
+        }
+
+        /**
+         * 以折叠栈格式写出（flamegraph.pl / speedscope 可直接读取），样本权重为微秒
+         */
+        public void writeCollapsed(Writer out) throws IOException {
+            for (Handler handler : Handler.values()) {
+                for (Stage stage : Stage.values()) {
+                    long micros = nanos[handler.ordinal() * STAGES + stage.ordinal()] / 1_000L;
+                    if (micros > 0) {
+                        out.write(String.format(Locale.ROOT, "%s;%s;%s %d\n",
+                                BetterExcavate.MODID, handler.frame, stage.frame, micros));
+                    }
+                }
+            }
+        }
+    }
+}
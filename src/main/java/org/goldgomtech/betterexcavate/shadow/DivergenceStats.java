@@ -0,0 +1,144 @@
+package org.goldgomtech.betterexcavate.shadow;
+
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.level.block.Block;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 影子配置与生效配置之间的差异统计
+ * 按方块注册ID索引的原子数组，记录时只做无锁的加法，不分配对象
+ */
+public final class DivergenceStats {
+
+    // 相对速度变化以百万分之一为单位累加，限制在±1000倍以内避免溢出
+    private static final double DELTA_SCALE = 1_000_000.0;
+    private static final double MAX_RELATIVE_DELTA = 1000.0;
+    // 相对变化小于这个值视为相同
+    private static final double EQUAL_THRESHOLD = 0.001;
+
+    private final int blockCount;
+    private final AtomicLongArray speedSamples;
+    private final AtomicLongArray deltaMicros;
+    private final AtomicLongArray modeSamples;
+    private final AtomicLongArray modeFlips;
+    // [生效模式 * 3 + 影子模式]
+    private final AtomicLongArray transitions = new AtomicLongArray(9);
+
+    private final LongAdder faster = new LongAdder();
+    private final LongAdder slower = new LongAdder();
+    private final LongAdder unchanged = new LongAdder();
+    private final LongAdder totalDeltaMicros = new LongAdder();
+
+    DivergenceStats(int blockCount) {
+        this.blockCount = blockCount;
+        this.speedSamples = new AtomicLongArray(blockCount);
+        this.deltaMicros = new AtomicLongArray(blockCount);
+        this.modeSamples = new AtomicLongArray(blockCount);
+        this.modeFlips = new AtomicLongArray(blockCount);
+    }
+
+    void recordSpeed(int blockId, float liveSpeed, float shadowSpeed) {
+        double relative = (shadowSpeed - liveSpeed) / Math.max(Math.abs(liveSpeed), 1e-6);
+        relative = Math.max(-MAX_RELATIVE_DELTA, Math.min(relative, MAX_RELATIVE_DELTA));
+        long micros = Math.round(relative * DELTA_SCALE);
+        if (relative > EQUAL_THRESHOLD) {
+            faster.increment();
+        } else if (relative < -EQUAL_THRESHOLD) {
+            slower.increment();
+        } else {
+            unchanged.increment();
+        }
+        totalDeltaMicros.add(micros);
+        if (blockId >= 0 && blockId < blockCount) {
+            speedSamples.getAndIncrement(blockId);
+            deltaMicros.getAndAdd(blockId, micros);
+        }
+    }
+
+    void recordMode(int blockId, int liveMode, int shadowMode) {
+        if (liveMode >= 0 && liveMode < 3 && shadowMode >= 0 && shadowMode < 3) {
+            transitions.getAndIncrement(liveMode * 3 + shadowMode);
+        }
+        if (blockId >= 0 && blockId < blockCount) {
+            modeSamples.getAndIncrement(blockId);
+            if (liveMode != shadowMode) {
+                modeFlips.getAndIncrement(blockId);
+            }
+        }
+    }
+
+    public long getSpeedSamples() {
+        return faster.sum() + slower.sum() + unchanged.sum();
+    }
+
+    /** 影子配置下更快的速度样本数 */
+    public long getFaster() {
+        return faster.sum();
+    }
+
+    /** 影子配置下更慢的速度样本数 */
+    public long getSlower() {
+        return slower.sum();
+    }
+
+    /** 平均相对速度变化，0.1表示影子配置快10% */
+    public double getMeanRelativeDelta() {
+        long samples = getSpeedSamples();
+        return samples == 0 ? 0.0 : totalDeltaMicros.sum() / DELTA_SCALE / samples;
+    }
+
+    public long getModeSamples() {
+        long total = 0;
+        for (int i = 0; i < 9; i++) {
+            total += transitions.get(i);
+        }
+        return total;
+    }
+
+    /** 生效配置为liveMode、影子配置为shadowMode的样本数 */
+    public long getTransitions(int liveMode, int shadowMode) {
+        return transitions.get(liveMode * 3 + shadowMode);
+    }
+
+    public long getModeFlips() {
+        long total = 0;
+        for (int live = 0; live < 3; live++) {
+            for (int shadow = 0; shadow < 3; shadow++) {
+                if (live != shadow) {
+                    total += transitions.get(live * 3 + shadow);
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 单个方块的差异
+     */
+    public record BlockDivergence(Block block, long speedSamples, double meanRelativeDelta, long modeSamples, long modeFlips) {
+    }
+
+    /**
+     * 差异最大的方块：先按模式翻转次数，再按平均相对速度变化的绝对值排序
+     */
+    public List<BlockDivergence> topBlocks(int limit) {
+        List<BlockDivergence> rows = new ArrayList<>();
+        for (int id = 0; id < blockCount; id++) {
+            long samples = speedSamples.get(id);
+            long modes = modeSamples.get(id);
+            if (samples == 0 && modes == 0) {
+                continue;
+            }
+            double mean = samples == 0 ? 0.0 : deltaMicros.get(id) / DELTA_SCALE / samples;
+            rows.add(new BlockDivergence(BuiltInRegistries.BLOCK.byId(id), samples, mean, modes, modeFlips.get(id)));
+        }
+        rows.sort(Comparator.comparingLong(BlockDivergence::modeFlips).reversed()
+                .thenComparing(Comparator.comparingDouble((BlockDivergence row) -> Math.abs(row.meanRelativeDelta())).reversed()));
+        return rows.size() > limit ? rows.subList(0, limit) : rows;
+    }
+}
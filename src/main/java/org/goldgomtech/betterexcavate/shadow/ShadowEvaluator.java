@@ -0,0 +1,232 @@
+package org.goldgomtech.betterexcavate.shadow;
+
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerAboutToStartEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.loading.FMLPaths;
+import org.goldgomtech.betterexcavate.BetterExcavate;
+import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.HardnessTables;
+import org.goldgomtech.betterexcavate.MiningCalculator;
+import org.goldgomtech.betterexcavate.PositionalHardness;
+import org.goldgomtech.betterexcavate.StackHardness;
+import org.goldgomtech.betterexcavate.whatif.WhatIfEvaluator;
+import org.goldgomtech.betterexcavate.zone.HardnessZone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 影子配置评估
+ * 在生效配置之外加载一个"影子"配置文件，对按比例采样的挖掘速度计算和方块破坏决策
+ * 再用影子配置计算一次，只统计两者的差异（见 {@link DivergenceStats}），不影响游戏。
+ *
+ * 采样率自动调整：每秒统计影子计算实际花费的时间，按 shadowBudgetMicrosPerSecond 等比例缩放采样率；
+ * 本秒的时间已用完时直接跳过，因此额外开销不会超过预算
+ */
+@Mod.EventBusSubscriber(modid = BetterExcavate.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public final class ShadowEvaluator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("BetterExcavate");
+
+    private static final float MIN_SAMPLE_RATE = 1.0e-4f;
+    private static final int TICKS_PER_WINDOW = 20;
+
+    /**
+     * 一次加载的影子配置和它的统计
+     */
+    private record Shadow(Path file, HardnessTables tables, DivergenceStats stats) {
+    }
+
+    // 未启用时为null，调用方只需一次判断
+    private static volatile Shadow shadow;
+    private static boolean serverRunning;
+
+    private static volatile float sampleRate = 1.0f;
+    private static volatile long budgetNanos;
+    private static final AtomicLong windowNanos = new AtomicLong();
+    private static int windowTicks;
+
+    private ShadowEvaluator() {
+    }
+
+    public static boolean isActive() {
+        return shadow != null;
+    }
+
+    /**
+     * 配置加载后调用：影子配置文件变化时重新加载，否则只更新预算
+     */
+    public static synchronized void applyConfig() {
+        budgetNanos = Config.shadowBudgetMicrosPerSecond * 1000L;
+        Shadow current = shadow;
+        String configured = Config.shadowConfigFile;
+        boolean unchanged = current == null ? configured == null || configured.isBlank()
+                : current.file().equals(FMLPaths.CONFIGDIR.get().toAbsolutePath().normalize().resolve(configured).normalize());
+        if (!unchanged) {
+            reload();
+        }
+    }
+
+    /**
+     * 按配置重新加载影子配置文件并清空统计；服务器未运行时只记录配置
+     * @return 加载失败时的错误信息，成功或未配置时为null
+     */
+    public static synchronized String reload() {
+        budgetNanos = Config.shadowBudgetMicrosPerSecond * 1000L;
+        shadow = null;
+        String configured = Config.shadowConfigFile;
+        if (!serverRunning || configured == null || configured.isBlank()) {
+            return null;
+        }
+
+        // 只允许读取配置目录中的文件
+        Path configDir = FMLPaths.CONFIGDIR.get().toAbsolutePath().normalize();
+        Path file = configDir.resolve(configured).normalize();
+        if (!file.startsWith(configDir) || !Files.isRegularFile(file)) {
+            LOGGER.warn("[BetterExcavate] Shadow config {} not found in the config directory", configured);
+            return "not found: " + configured;
+        }
+        try {
+            HardnessTables tables = WhatIfEvaluator.loadConfig(file, true);
+            sampleRate = 1.0f;
+            windowNanos.set(0);
+            shadow = new Shadow(file, tables, new DivergenceStats(BuiltInRegistries.BLOCK.size()));
+            LOGGER.info("[BetterExcavate] Evaluating shadow config {} within {} µs/s", file, Config.shadowBudgetMicrosPerSecond);
+            return null;
+        } catch (RuntimeException e) {
+            LOGGER.error("[BetterExcavate] Could not load shadow config {}", file, e);
+            return e.toString();
+        }
+    }
+
+    /**
+     * 清空统计，保留已加载的影子配置
+     */
+    public static synchronized void reset() {
+        Shadow current = shadow;
+        if (current != null) {
+            shadow = new Shadow(current.file(), current.tables(), new DivergenceStats(BuiltInRegistries.BLOCK.size()));
+        }
+    }
+
+    /** 当前的影子配置文件，未启用时为null */
+    public static Path getFile() {
+        Shadow current = shadow;
+        return current == null ? null : current.file();
+    }
+
+    /** 当前的统计，未启用时为null */
+    public static DivergenceStats getStats() {
+        Shadow current = shadow;
+        return current == null ? null : current.stats();
+    }
+
+    public static float getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * 是否采样这次调用：服务端、本秒预算未用完且被随机选中
+     */
+    private static boolean sample(Player player) {
+        if (player.level().isClientSide()) {
+            return false;
+        }
+        if (windowNanos.get() >= budgetNanos) {
+            return false;
+        }
+        float rate = sampleRate;
+        return rate >= 1.0f || ThreadLocalRandom.current().nextFloat() < rate;
+    }
+
+    /**
+     * 用影子配置重新计算 Inventory.getDestroySpeed 的结果并统计速度差异
+     * @param toolSpeed 生效配置计算时使用的工具速度
+     * @param liveSpeed 生效配置计算出的速度
+     */
+    public static void compareSpeed(Player player, BlockState state, ItemStack heldItem, float blockHardness,
+                                    float vanillaSpeed, float toolSpeed, int identicalBlocks, float liveSpeed) {
+        Shadow current = shadow;
+        if (current == null || !sample(player)) {
+            return;
+        }
+        long start = System.nanoTime();
+        HardnessTables tables = current.tables();
+        boolean hasTool = !heldItem.isEmpty();
+        // 生效配置可能没有计算工具本身的速度
+        if (hasTool && toolSpeed == vanillaSpeed) {
+            toolSpeed = heldItem.getDestroySpeed(state);
+        }
+        double toolHardness = StackHardness.getToolHardness(tables, heldItem);
+        boolean wrongTool = tables.isWrongToolPenaltyEnabled() && hasTool && !Config.isCorrectToolType(heldItem, state);
+        float shadowSpeed = MiningCalculator.calculateDestroySpeed(tables, vanillaSpeed, toolSpeed, hasTool, toolHardness,
+                Config.getWearPercentage(heldItem), wrongTool, blockHardness, identicalBlocks);
+        current.stats().recordSpeed(BuiltInRegistries.BLOCK.getId(state.getBlock()), liveSpeed, shadowSpeed);
+        windowNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    /**
+     * 用影子配置重新判断方块破坏的挖掘模式并统计模式翻转
+     * 硬度区域强制的模式与配置无关，两边同样应用，否则区域中的每次破坏都会被统计为翻转
+     * @param zone 方块所在的硬度区域（{@link PositionalHardness#findZone}）
+     * @param liveMode 生效配置判断的挖掘模式（已应用区域强制的模式）
+     */
+    public static void compareMode(Player player, BlockState state, ItemStack tool, float blockHardness,
+                                   HardnessZone zone, int liveMode) {
+        Shadow current = shadow;
+        if (current == null || !sample(player)) {
+            return;
+        }
+        long start = System.nanoTime();
+        HardnessTables tables = current.tables();
+        boolean hasTool = !tool.isEmpty();
+        double toolHardness = StackHardness.getToolHardness(tables, tool);
+        boolean wrongTool = tables.isWrongToolPenaltyEnabled() && hasTool && !Config.isCorrectToolType(tool, state);
+        double effectiveToolHardness = MiningCalculator.getEffectiveToolHardness(tables, toolHardness,
+                Config.getWearPercentage(tool), hasTool, wrongTool);
+        int shadowMode = PositionalHardness.overrideMode(zone,
+                MiningCalculator.getMiningMode(tables, blockHardness, effectiveToolHardness));
+        current.stats().recordMode(BuiltInRegistries.BLOCK.getId(state.getBlock()), liveMode, shadowMode);
+        windowNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || shadow == null || ++windowTicks < TICKS_PER_WINDOW) {
+            return;
+        }
+        windowTicks = 0;
+        long spent = windowNanos.getAndSet(0);
+        float rate = sampleRate;
+        // 按实际花费与预算的比例缩放采样率，没有花费时逐步放开
+        rate = spent > 0 ? (float) (rate * ((double) budgetNanos / spent)) : rate * 2.0f;
+        sampleRate = Math.max(MIN_SAMPLE_RATE, Math.min(rate, 1.0f));
+    }
+
+    @SubscribeEvent
+    public static void onServerAboutToStart(ServerAboutToStartEvent event) {
+        synchronized (ShadowEvaluator.class) {
+            serverRunning = true;
+            reload();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        synchronized (ShadowEvaluator.class) {
+            serverRunning = false;
+            shadow = null;
+        }
+    }
+}
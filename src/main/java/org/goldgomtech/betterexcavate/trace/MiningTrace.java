@@ -0,0 +1,204 @@
+package org.goldgomtech.betterexcavate.trace;
+
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import org.goldgomtech.betterexcavate.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 挖掘决策的采样追踪
+ * 代替热路径中的调试日志：记录写入预先分配的环形缓冲区，按玩家/方块过滤、按比例采样并限制每秒条数，
+ * 通过 /betterexcavate trace dump 导出时才格式化。
+ * 未启用时 {@link #begin} 只有一次布尔判断并返回null，调用方不会计算任何参数
+ *
+ * <pre>
+ * TraceEntry entry = MiningTrace.begin(Kind.BLOCK_BREAK, player, state, pos.asLong());
+ * if (entry != null) {
+ *     entry.tool(item, toolHardness, effectiveToolHardness, wrongTool).miningMode(mode).commit();
+ * }
+ * </pre>
+ */
+public final class MiningTrace {
+
+    private static volatile boolean enabled;
+    private static volatile UUID playerFilter;
+    private static volatile Block blockFilter;
+    private static volatile float sampleRate = 1.0f;
+    private static volatile int maxPerSecond = 200;
+
+    private static volatile TraceEntry[] entries = allocate(4096);
+    private static final AtomicLong nextSequence = new AtomicLong();
+
+    private static final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private static final AtomicInteger windowCount = new AtomicInteger();
+    private static final LongAdder rateLimited = new LongAdder();
+
+    private MiningTrace() {
+    }
+
+    private static TraceEntry[] allocate(int size) {
+        TraceEntry[] slots = new TraceEntry[Integer.highestOneBit(Math.max(size, 1))];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new TraceEntry();
+        }
+        return slots;
+    }
+
+    /**
+     * 按配置设置采样率、速率限制和缓冲区大小，并按 enableDebugLogging 开启或关闭追踪
+     */
+    public static synchronized void applyConfig() {
+        sampleRate = (float) Config.traceSampleRate;
+        maxPerSecond = Config.traceMaxPerSecond;
+        int size = Integer.highestOneBit(Config.traceBufferSize);
+        if (entries.length != size) {
+            entries = allocate(size);
+            nextSequence.set(0);
+        }
+        enabled = Config.enableDebugLogging;
+    }
+
+    /**
+     * 开始一条追踪记录
+     * @param packedPos BlockPos.asLong()，位置未知时为 {@link TraceEntry#NO_POS}
+     * @return 要填写的槽位；未启用、被过滤、未被采样或超过速率限制时为null
+     */
+    public static TraceEntry begin(TraceEntry.Kind kind, Player player, BlockState state, long packedPos) {
+        if (!enabled) {
+            return null;
+        }
+        return claim(kind, player, state, packedPos);
+    }
+
+    private static TraceEntry claim(TraceEntry.Kind kind, Player player, BlockState state, long packedPos) {
+        // 单人游戏中客户端也会调用同样的Mixin，只记录服务端
+        if (player != null && player.level().isClientSide()) {
+            return null;
+        }
+        UUID filterId = playerFilter;
+        if (filterId != null && (player == null || !filterId.equals(player.getUUID()))) {
+            return null;
+        }
+        Block block = blockFilter;
+        if (block != null && (state == null || state.getBlock() != block)) {
+            return null;
+        }
+        float rate = sampleRate;
+        if (rate < 1.0f && ThreadLocalRandom.current().nextFloat() >= rate) {
+            return null;
+        }
+        if (!acquirePermit()) {
+            rateLimited.increment();
+            return null;
+        }
+
+        TraceEntry[] slots = entries;
+        long sequence = nextSequence.getAndIncrement();
+        TraceEntry entry = slots[(int) (sequence & (slots.length - 1))];
+        // 先使旧记录失效，导出线程不会读到写了一半的槽位
+        entry.sequence = -1;
+        entry.claimed = sequence;
+        entry.reset(kind, player == null ? "-" : player.getGameProfile().getName(), state, packedPos);
+        return entry;
+    }
+
+    private static boolean acquirePermit() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= 1_000_000_000L && windowStart.compareAndSet(start, now)) {
+            windowCount.set(0);
+        }
+        return windowCount.incrementAndGet() <= maxPerSecond;
+    }
+
+    static void commit(TraceEntry entry) {
+        entry.sequence = entry.claimed;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    /**
+     * 设置过滤条件，为null表示不过滤
+     */
+    public static void setFilters(UUID player, Block block) {
+        playerFilter = player;
+        blockFilter = block;
+    }
+
+    public static void setSampleRate(float rate) {
+        sampleRate = rate;
+    }
+
+    public static void setMaxPerSecond(int limit) {
+        maxPerSecond = limit;
+    }
+
+    public static UUID getPlayerFilter() {
+        return playerFilter;
+    }
+
+    public static Block getBlockFilter() {
+        return blockFilter;
+    }
+
+    public static float getSampleRate() {
+        return sampleRate;
+    }
+
+    public static int getMaxPerSecond() {
+        return maxPerSecond;
+    }
+
+    /** 因速率限制丢弃的记录数 */
+    public static long getRateLimitedCount() {
+        return rateLimited.sum();
+    }
+
+    /**
+     * 清空缓冲区
+     */
+    public static synchronized void clear() {
+        entries = allocate(entries.length);
+        nextSequence.set(0);
+        rateLimited.reset();
+    }
+
+    /**
+     * 格式化缓冲区中最近的记录，按时间从旧到新排列
+     * 导出期间被覆盖的槽位会被跳过
+     * @param limit 最多导出的条数
+     */
+    public static List<String> dump(int limit) {
+        TraceEntry[] slots = entries;
+        long end = nextSequence.get();
+        long start = Math.max(0, end - Math.min(limit, slots.length));
+        List<String> lines = new ArrayList<>((int) (end - start));
+        StringBuilder builder = new StringBuilder(256);
+        for (long sequence = start; sequence < end; sequence++) {
+            TraceEntry entry = slots[(int) (sequence & (slots.length - 1))];
+            if (entry.sequence != sequence) {
+                continue;
+            }
+            builder.setLength(0);
+            entry.format(builder);
+            if (entry.sequence == sequence) {
+                lines.add(builder.toString());
+            }
+        }
+        return lines;
+    }
+}
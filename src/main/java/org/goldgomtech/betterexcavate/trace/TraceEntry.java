@@ -0,0 +1,159 @@
+package org.goldgomtech.betterexcavate.trace;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * 追踪环形缓冲区中的一个槽位
+ * 槽位在启动时预先分配并反复复用，写入时只保存原始值和对象引用，
+ * 直到导出时才格式化为文本
+ */
+public final class TraceEntry {
+
+    /** 追踪记录的类型 */
+    public enum Kind {
+        /** Inventory.getDestroySpeed 的速度计算 */
+        DESTROY_SPEED,
+        /** Player.hasCorrectToolForDrops 的判断 */
+        CORRECT_TOOL,
+        /** 方块破坏事件的挖掘模式 */
+        BLOCK_BREAK,
+        /** 硬度不足时的工具耐久损耗 */
+        TOOL_DAMAGE,
+        /** 硬度不足时工具被完全损坏 */
+        TOOL_BROKEN
+    }
+
+    /** 没有方块位置时的packedPos */
+    public static final long NO_POS = Long.MIN_VALUE;
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    // 写入完成后才更新，读取时用于检测槽位是否已被覆盖
+    volatile long sequence = -1;
+    // 写入方持有的序号，commit时发布
+    long claimed;
+
+    Kind kind;
+    long timeMillis;
+    String playerName;
+    BlockState state;
+    long packedPos;
+    Item item;
+    float blockHardness;
+    double toolHardness;
+    double effectiveToolHardness;
+    boolean wrongTool;
+    int identicalBlocks;
+    float originalSpeed;
+    float toolSpeed;
+    float finalSpeed;
+    int miningMode;
+    boolean result;
+    int durability;
+    int maxDurability;
+
+    TraceEntry() {
+    }
+
+    void reset(Kind kind, String playerName, BlockState state, long packedPos) {
+        this.kind = kind;
+        this.timeMillis = System.currentTimeMillis();
+        this.playerName = playerName;
+        this.state = state;
+        this.packedPos = packedPos;
+        this.item = Items.AIR;
+        this.blockHardness = 0.0f;
+        this.toolHardness = 0.0;
+        this.effectiveToolHardness = 0.0;
+        this.wrongTool = false;
+        this.identicalBlocks = -1;
+        this.originalSpeed = 0.0f;
+        this.toolSpeed = 0.0f;
+        this.finalSpeed = 0.0f;
+        this.miningMode = -1;
+        this.result = false;
+        this.durability = 0;
+        this.maxDurability = 0;
+    }
+
+    public TraceEntry tool(Item item, double toolHardness, double effectiveToolHardness, boolean wrongTool) {
+        this.item = item;
+        this.toolHardness = toolHardness;
+        this.effectiveToolHardness = effectiveToolHardness;
+        this.wrongTool = wrongTool;
+        return this;
+    }
+
+    public TraceEntry blockHardness(float blockHardness) {
+        this.blockHardness = blockHardness;
+        return this;
+    }
+
+    public TraceEntry speeds(float originalSpeed, float toolSpeed, float finalSpeed, int identicalBlocks) {
+        this.originalSpeed = originalSpeed;
+        this.toolSpeed = toolSpeed;
+        this.finalSpeed = finalSpeed;
+        this.identicalBlocks = identicalBlocks;
+        return this;
+    }
+
+    public TraceEntry miningMode(int miningMode) {
+        this.miningMode = miningMode;
+        return this;
+    }
+
+    public TraceEntry result(boolean result) {
+        this.result = result;
+        return this;
+    }
+
+    public TraceEntry durability(int durability, int maxDurability) {
+        this.durability = durability;
+        this.maxDurability = maxDurability;
+        return this;
+    }
+
+    /**
+     * 写入完成，发布这条记录
+     */
+    public void commit() {
+        MiningTrace.commit(this);
+    }
+
+    /**
+     * 把记录格式化为一行文本，只在导出时调用
+     */
+    void format(StringBuilder out) {
+        ResourceLocation blockId = state == null ? null : ForgeRegistries.BLOCKS.getKey(state.getBlock());
+        ResourceLocation itemId = ForgeRegistries.ITEMS.getKey(item);
+        out.append(TIME_FORMAT.format(Instant.ofEpochMilli(timeMillis))).append(' ')
+                .append(kind).append(' ')
+                .append(playerName).append(' ')
+                .append(blockId == null ? "unknown" : blockId.toString());
+        if (packedPos != NO_POS) {
+            out.append(" @").append(BlockPos.of(packedPos).toShortString());
+        }
+        out.append(" tool=").append(itemId == null ? "unknown" : itemId.toString());
+        out.append(String.format(Locale.ROOT, " blockHardness=%.2f toolHardness=%.2f effectiveToolHardness=%.2f",
+                blockHardness, toolHardness, effectiveToolHardness));
+
+        switch (kind) {
+            case DESTROY_SPEED -> out.append(String.format(Locale.ROOT,
+                    " wrongTool=%s identicalBlocks=%d originalSpeed=%.3f toolSpeed=%.3f finalSpeed=%.3f",
+                    wrongTool, identicalBlocks, originalSpeed, toolSpeed, finalSpeed));
+            case CORRECT_TOOL -> out.append(" correctTool=").append(result);
+            case BLOCK_BREAK -> out.append(" wrongTool=").append(wrongTool).append(" mode=").append(miningMode);
+            case TOOL_DAMAGE, TOOL_BROKEN -> out.append(" durability=").append(durability).append('/').append(maxDurability);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package org.goldgomtech.betterexcavate.whatif;
+
+import com.electronwood.nightconfig.core.CommentedConfig;
+import com.electronwood.nightconfig.core.file.CommentedFileConfig;
+import net.minecraft.commands.arguments.blocks.BlockStateParser;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.EmptyBlockGetter;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.goldgomtech.betterexcavate.Config;
+import org.goldgomtech.betterexcavate.HardnessTables;
+import org.goldgomtech.betterexcavate.MiningCalculator;
+import org.goldgomtech.betterexcavate.ToolHardnessDetector;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 离线"假设"评估
+ * 在给定配置下对每个已注册物品 × 方块状态 × 耐久度等级计算挖掘模式和挖掘速度，
+ * 用fork/join并行计算，结果以CSV形式分块流式写出，不在内存中保留完整结果。
+ * 不同物品的行之间的顺序不固定，同一物品的行保持在一起
+ */
+public final class WhatIfEvaluator {
+
+    /** 默认评估的磨损百分比 */
+    public static final double[] DEFAULT_WEAR_LEVELS = {0.0, 0.5, 0.9};
+
+    private static final String HEADER = "item,wear,block_state,block_hardness,tool_hardness,effective_tool_hardness,correct_tool,mining_mode,speed\n";
+
+    /** 每个叶子任务处理的物品数量 */
+    private static final int ITEMS_PER_TASK = 4;
+    /** 缓冲区超过这个长度就写出，限制每个线程占用的内存 */
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+
+    private WhatIfEvaluator() {
+    }
+
+    /**
+     * 评估结果摘要
+     */
+    public record Summary(int items, int blockStates, long rows, long elapsedMillis) {
+    }
+
+    /**
+     * 读取待评估的配置文件（与模组配置文件格式相同）
+     * 文件中缺少或无效的项使用默认值，不影响当前生效的配置
+     * @param file 配置文件，为null时使用全部默认值
+     * @param mergeDetected 是否合并本次运行中已自动检测到的工具硬度（配置启用自动检测时）
+     */
+    public static HardnessTables loadConfig(Path file, boolean mergeDetected) {
+        CommentedConfig config = CommentedConfig.inMemory();
+        if (file != null) {
+            try (CommentedFileConfig fileConfig = CommentedFileConfig.of(file)) {
+                fileConfig.load();
+                config.putAll(fileConfig);
+            }
+        }
+        Config.SPEC.correct(config);
+
+        Map<String, Object> values = config.valueMap();
+        @SuppressWarnings("unchecked")
+        List<? extends String> toolHardness = (List<? extends String>) values.get("toolHardness");
+        Map<String, Double> hardnessMap = Config.parseToolHardness(toolHardness);
+        if (mergeDetected && Boolean.TRUE.equals(values.get("autoDetectToolHardness"))) {
+            hardnessMap = ToolHardnessDetector.merge(hardnessMap);
+        }
+        return HardnessTables.compile(hardnessMap, values);
+    }
+
+    /**
+     * 评估所有物品 × 方块状态 × 耐久度等级，并以CSV写入out
+     * 不可损坏的物品只评估一次（磨损为0）
+     * @param pool 用于并行计算的线程池
+     */
+    public static Summary evaluate(HardnessTables tables, double[] wearLevels, Writer out, ForkJoinPool pool) throws IOException {
+        long start = System.nanoTime();
+
+        List<Item> items = new ArrayList<>(ForgeRegistries.ITEMS.getValues());
+        List<BlockState> stateList = new ArrayList<>();
+        for (Block block : ForgeRegistries.BLOCKS.getValues()) {
+            stateList.addAll(block.getStateDefinition().getPossibleStates());
+        }
+
+        // 方块状态的名称和硬度与工具无关，预先计算一次
+        BlockState[] states = stateList.toArray(new BlockState[0]);
+        String[] stateNames = new String[states.length];
+        float[] blockHardness = new float[states.length];
+        for (int i = 0; i < states.length; i++) {
+            stateNames[i] = quote(BlockStateParser.serialize(states[i]));
+            blockHardness[i] = states[i].getDestroySpeed(EmptyBlockGetter.INSTANCE, BlockPos.ZERO);
+        }
+
+        out.write(HEADER);
+        Job job = new Job(tables, wearLevels, items, states, stateNames, blockHardness, out);
+        try {
+            pool.invoke(new EvaluateTask(job, 0, items.size()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+        return new Summary(items.size(), states.length, job.rows.sum(), elapsedMillis);
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * 一次评估的共享数据，除输出外只读
+     */
+    private static final class Job {
+        final HardnessTables tables;
+        final double[] wearLevels;
+        final List<Item> items;
+        final BlockState[] states;
+        final String[] stateNames;
+        final float[] blockHardness;
+        final Writer out;
+        final LongAdder rows = new LongAdder();
+
+        Job(HardnessTables tables, double[] wearLevels, List<Item> items, BlockState[] states,
+            String[] stateNames, float[] blockHardness, Writer out) {
+            this.tables = tables;
+            this.wearLevels = wearLevels;
+            this.items = items;
+            this.states = states;
+            this.stateNames = stateNames;
+            this.blockHardness = blockHardness;
+            this.out = out;
+        }
+
+        void flush(StringBuilder buffer) {
+            if (buffer.length() == 0) {
+                return;
+            }
+            synchronized (out) {
+                try {
+                    out.append(buffer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            buffer.setLength(0);
+        }
+    }
+
+    /**
+     * 按物品范围二分的fork/join任务
+     */
+    private static final class EvaluateTask extends RecursiveAction {
+        private final Job job;
+        private final int from;
+        private final int to;
+
+        EvaluateTask(Job job, int from, int to) {
+            this.job = job;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > ITEMS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new EvaluateTask(job, from, mid), new EvaluateTask(job, mid, to));
+                return;
+            }
+
+            StringBuilder buffer = new StringBuilder(FLUSH_THRESHOLD + 1024);
+            for (int i = from; i < to; i++) {
+                evaluateItem(job.items.get(i), buffer);
+            }
+            job.flush(buffer);
+        }
+
+        private void evaluateItem(Item item, StringBuilder buffer) {
+            HardnessTables tables = job.tables;
+            ItemStack base = new ItemStack(item);
+            boolean hasTool = !base.isEmpty();
+            ResourceLocation itemId = ForgeRegistries.ITEMS.getKey(item);
+            String itemName = itemId == null ? "unknown" : itemId.toString();
+            double toolHardness = hasTool ? tables.getToolHardness(item) : tables.getDefaultHardness();
+
+            double[] wearLevels = base.isDamageableItem() ? job.wearLevels : new double[] {0.0};
+            for (double wearLevel : wearLevels) {
+                ItemStack stack = base;
+                if (wearLevel > 0) {
+                    stack = base.copy();
+                    stack.setDamageValue((int) Math.round(wearLevel * base.getMaxDamage()));
+                }
+                double wear = Config.getWearPercentage(stack);
+
+                for (int i = 0; i < job.states.length; i++) {
+                    BlockState state = job.states[i];
+                    float blockHardness = job.blockHardness[i];
+                    // 原版背包的挖掘速度即手持物品对该方块的速度（不含附魔和药水效果）
+                    float vanillaSpeed = stack.getDestroySpeed(state);
+                    boolean correctTool = !hasTool || Config.isCorrectToolType(stack, state);
+                    boolean wrongTool = tables.isWrongToolPenaltyEnabled() && !correctTool;
+
+                    double effectiveToolHardness = MiningCalculator.getEffectiveToolHardness(tables, toolHardness, wear, hasTool, wrongTool);
+                    int miningMode = MiningCalculator.getMiningMode(tables, blockHardness, effectiveToolHardness);
+                    float speed = blockHardness < 0 ? vanillaSpeed
+                            : MiningCalculator.calculateDestroySpeed(tables, vanillaSpeed, vanillaSpeed, hasTool,
+                                    toolHardness, wear, wrongTool, blockHardness, MiningCalculator.NO_SURROUNDING_COUNT);
+
+                    buffer.append(itemName).append(',')
+                            .append(wear).append(',')
+                            .append(job.stateNames[i]).append(',')
+                            .append(blockHardness).append(',')
+                            .append(toolHardness).append(',')
+                            .append(effectiveToolHardness).append(',')
+                            .append(correctTool).append(',')
+                            .append(miningMode).append(',')
+                            .append(speed).append('\n');
+
+                    if (buffer.length() >= FLUSH_THRESHOLD) {
+                        job.flush(buffer);
+                    }
+                }
+                job.rows.add(job.states.length);
+            }
+        }
+    }
+}
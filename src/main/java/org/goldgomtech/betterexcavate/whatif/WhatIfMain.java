@@ -0,0 +1,88 @@
+package org.goldgomtech.betterexcavate.whatif;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import org.goldgomtech.betterexcavate.HardnessTables;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * "假设"评估的无界面入口
+ * 不启动游戏，只初始化原版注册表后运行评估，可通过 gradlew whatif 调用：
+ *
+ *   gradlew whatif -PwhatifArgs="--config proposed.toml --out whatif.csv --wear 0,0.5,0.9 --threads 8"
+ *
+ * 注意：不加载其他模组，也不加载数据包，因此只包含原版物品和方块，
+ * 依赖方块标签的原版挖掘速度按未绑定标签计算。需要完整模组包的结果时请在服务器中使用
+ * /betterexcavate whatif 命令
+ */
+public final class WhatIfMain {
+
+    private WhatIfMain() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path configFile = null;
+        String output = "-";
+        double[] wearLevels = WhatIfEvaluator.DEFAULT_WEAR_LEVELS;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--config" -> configFile = Path.of(requireValue(args, ++i));
+                case "--out" -> output = requireValue(args, ++i);
+                case "--wear" -> wearLevels = parseWearLevels(requireValue(args, ++i));
+                case "--threads" -> threads = Math.max(1, Integer.parseInt(requireValue(args, ++i)));
+                default -> {
+                    System.err.println("Unknown argument: " + args[i]);
+                    System.err.println("Usage: WhatIfMain [--config <file>] [--out <file>|-] [--wear 0,0.5,0.9] [--threads N]");
+                    System.exit(2);
+                }
+            }
+        }
+
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+
+        HardnessTables tables = WhatIfEvaluator.loadConfig(configFile, false);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        boolean toStdout = "-".equals(output);
+        try (Writer writer = toStdout
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(Path.of(output), StandardCharsets.UTF_8)) {
+            WhatIfEvaluator.Summary summary = WhatIfEvaluator.evaluate(tables, wearLevels, writer, pool);
+            System.err.printf("Evaluated %d items x %d block states: %d rows in %d ms%n",
+                    summary.items(), summary.blockStates(), summary.rows(), summary.elapsedMillis());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 解析逗号分隔的磨损百分比列表，数值限制在0到1之间
+     */
+    public static double[] parseWearLevels(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .mapToDouble(Double::parseDouble)
+                .map(level -> Math.max(0.0, Math.min(level, 1.0)))
+                .distinct()
+                .toArray();
+    }
+
+    private static String requireValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+}
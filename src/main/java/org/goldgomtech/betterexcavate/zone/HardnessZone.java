@@ -0,0 +1,116 @@
+package org.goldgomtech.betterexcavate.zone;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
+
+import java.util.Locale;
+
+/**
+ * 一个长方体硬度区域（包含两个角上的方块）
+ * 区域内的方块硬度乘以 hardnessMultiplier，并可以强制指定挖掘模式
+ * @param name 区域名称，同一维度中唯一
+ * @param hardnessMultiplier 方块硬度倍数
+ * @param mode 强制的挖掘模式，{@link Mode#DEFAULT} 表示按硬度计算
+ */
+public record HardnessZone(String name, int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                           float hardnessMultiplier, Mode mode) {
+
+    /**
+     * 区域强制的挖掘模式
+     */
+    public enum Mode {
+        DEFAULT(-1),
+        UNMINEABLE(0),
+        NORMAL(1),
+        SLOW(2);
+
+        private final int miningMode;
+
+        Mode(int miningMode) {
+            this.miningMode = miningMode;
+        }
+
+        /**
+         * 对应的挖掘模式：0=无法挖掘，1=正常挖掘有掉落，2=缓慢挖掘无掉落，-1=不强制
+         */
+        public int getMiningMode() {
+            return miningMode;
+        }
+
+        public String getSerializedName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        /**
+         * @return 对应的模式，未知名称时为 {@link #DEFAULT}
+         */
+        public static Mode byName(String name) {
+            for (Mode mode : values()) {
+                if (mode.getSerializedName().equals(name)) {
+                    return mode;
+                }
+            }
+            return DEFAULT;
+        }
+    }
+
+    /**
+     * 由任意两个对角创建区域
+     */
+    public static HardnessZone of(String name, BlockPos from, BlockPos to, float hardnessMultiplier, Mode mode) {
+        return new HardnessZone(name,
+                Math.min(from.getX(), to.getX()), Math.min(from.getY(), to.getY()), Math.min(from.getZ(), to.getZ()),
+                Math.max(from.getX(), to.getX()), Math.max(from.getY(), to.getY()), Math.max(from.getZ(), to.getZ()),
+                hardnessMultiplier, mode);
+    }
+
+    public boolean contains(int x, int y, int z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    /**
+     * 区域包含的方块数，重叠时体积较小（更具体）的区域优先
+     */
+    public long volume() {
+        return (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+    }
+
+    public CompoundTag save() {
+        CompoundTag tag = new CompoundTag();
+        tag.putString("name", name);
+        tag.putIntArray("bounds", new int[]{minX, minY, minZ, maxX, maxY, maxZ});
+        tag.putFloat("hardnessMultiplier", hardnessMultiplier);
+        tag.putString("mode", mode.getSerializedName());
+        return tag;
+    }
+
+    /**
+     * @return 区域，数据不完整时为null
+     */
+    public static HardnessZone load(CompoundTag tag) {
+        int[] bounds = tag.getIntArray("bounds");
+        if (bounds.length != 6 || tag.getString("name").isEmpty()) {
+            return null;
+        }
+        return new HardnessZone(tag.getString("name"), bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5],
+                tag.getFloat("hardnessMultiplier"), Mode.byName(tag.getString("mode")));
+    }
+
+    public void write(FriendlyByteBuf buf) {
+        buf.writeUtf(name);
+        buf.writeInt(minX);
+        buf.writeInt(minY);
+        buf.writeInt(minZ);
+        buf.writeInt(maxX);
+        buf.writeInt(maxY);
+        buf.writeInt(maxZ);
+        buf.writeFloat(hardnessMultiplier);
+        buf.writeEnum(mode);
+    }
+
+    public static HardnessZone read(FriendlyByteBuf buf) {
+        return new HardnessZone(buf.readUtf(), buf.readInt(), buf.readInt(), buf.readInt(),
+                buf.readInt(), buf.readInt(), buf.readInt(), buf.readFloat(), buf.readEnum(Mode.class));
+    }
+}
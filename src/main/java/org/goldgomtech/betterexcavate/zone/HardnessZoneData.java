@@ -0,0 +1,50 @@
+package org.goldgomtech.betterexcavate.zone;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.saveddata.SavedData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一个维度的硬度区域，保存在该维度的 data/betterexcavate_zones.dat 中
+ */
+final class HardnessZoneData extends SavedData {
+
+    private static final String DATA_NAME = "betterexcavate_zones";
+
+    private final List<HardnessZone> zones = new ArrayList<>();
+
+    static HardnessZoneData get(ServerLevel level) {
+        return level.getDataStorage().computeIfAbsent(HardnessZoneData::load, HardnessZoneData::new, DATA_NAME);
+    }
+
+    private static HardnessZoneData load(CompoundTag tag) {
+        HardnessZoneData data = new HardnessZoneData();
+        ListTag list = tag.getList("zones", Tag.TAG_COMPOUND);
+        for (int i = 0; i < list.size(); i++) {
+            HardnessZone zone = HardnessZone.load(list.getCompound(i));
+            if (zone != null) {
+                data.zones.add(zone);
+            }
+        }
+        return data;
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag) {
+        ListTag list = new ListTag();
+        for (HardnessZone zone : zones) {
+            list.add(zone.save());
+        }
+        tag.put("zones", list);
+        return tag;
+    }
+
+    List<HardnessZone> getZones() {
+        return zones;
+    }
+}
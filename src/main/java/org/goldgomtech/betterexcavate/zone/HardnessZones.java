@@ -0,0 +1,178 @@
+package org.goldgomtech.betterexcavate.zone;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.network.PacketDistributor;
+import org.goldgomtech.betterexcavate.BetterExcavate;
+import org.goldgomtech.betterexcavate.network.BetterExcavateNetwork;
+import org.goldgomtech.betterexcavate.network.SyncZonesPacket;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 硬度区域的查询和管理
+ * 服务端的区域保存在各维度的 {@link HardnessZoneData} 中，加载维度时建立 {@link ZoneIndex}；
+ * 客户端使用服务端同步来的区域预测挖掘速度。两边分开保存，单人游戏中互不影响。
+ * 查询只读取volatile的不可变索引，修改区域时在服务端线程重建索引并同步给该维度的玩家
+ */
+@Mod.EventBusSubscriber(modid = BetterExcavate.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public final class HardnessZones {
+
+    // 只包含有区域的维度
+    private static final Map<ResourceKey<Level>, ZoneIndex> serverZones = new ConcurrentHashMap<>();
+    private static final Map<ResourceKey<Level>, ZoneIndex> clientZones = new ConcurrentHashMap<>();
+    // 客户端区域每次变化时递增
+    private static volatile int clientVersion;
+
+    private HardnessZones() {
+    }
+
+    /**
+     * 查找包含该位置的区域，多个区域重叠时返回体积最小的
+     * @return 区域，不在任何区域中时为null
+     */
+    public static HardnessZone find(Level level, BlockPos pos) {
+        return find(level, pos.asLong());
+    }
+
+    /**
+     * @param packedPos BlockPos.asLong
+     */
+    public static HardnessZone find(Level level, long packedPos) {
+        Map<ResourceKey<Level>, ZoneIndex> zones = level.isClientSide() ? clientZones : serverZones;
+        if (zones.isEmpty()) {
+            return null;
+        }
+        ZoneIndex index = zones.get(level.dimension());
+        return index == null ? null : index.find(packedPos);
+    }
+
+    /**
+     * 维度中的所有区域
+     */
+    public static List<HardnessZone> getZones(ServerLevel level) {
+        return List.copyOf(HardnessZoneData.get(level).getZones());
+    }
+
+    /**
+     * 添加区域，必须在服务端线程调用
+     * @return 同名区域已存在时返回false
+     */
+    public static boolean add(ServerLevel level, HardnessZone zone) {
+        HardnessZoneData data = HardnessZoneData.get(level);
+        for (HardnessZone existing : data.getZones()) {
+            if (existing.name().equals(zone.name())) {
+                return false;
+            }
+        }
+        data.getZones().add(zone);
+        data.setDirty();
+        rebuild(level, data);
+        return true;
+    }
+
+    /**
+     * 删除区域，必须在服务端线程调用
+     * @return 区域不存在时返回false
+     */
+    public static boolean remove(ServerLevel level, String name) {
+        HardnessZoneData data = HardnessZoneData.get(level);
+        if (!data.getZones().removeIf(zone -> zone.name().equals(name))) {
+            return false;
+        }
+        data.setDirty();
+        rebuild(level, data);
+        return true;
+    }
+
+    private static void rebuild(ServerLevel level, HardnessZoneData data) {
+        ZoneIndex index = new ZoneIndex(data.getZones());
+        if (index.isEmpty()) {
+            serverZones.remove(level.dimension());
+        } else {
+            serverZones.put(level.dimension(), index);
+        }
+        BetterExcavateNetwork.CHANNEL.send(PacketDistributor.DIMENSION.with(level::dimension),
+                new SyncZonesPacket(level.dimension(), index.getZones()));
+    }
+
+    /**
+     * 收到服务端同步的区域
+     */
+    public static void applyClientZones(ResourceKey<Level> dimension, List<HardnessZone> zones) {
+        if (zones.isEmpty()) {
+            clientZones.remove(dimension);
+        } else {
+            clientZones.put(dimension, new ZoneIndex(zones));
+        }
+        clientVersion++;
+    }
+
+    /**
+     * 客户端区域的版本，区域变化后不同，用于使按区域计算的客户端缓存失效
+     */
+    public static int getClientVersion() {
+        return clientVersion;
+    }
+
+    /**
+     * 断开连接时清除客户端的区域
+     */
+    public static void clearClientZones() {
+        clientZones.clear();
+        clientVersion++;
+    }
+
+    private static void sendZones(ServerPlayer player) {
+        ServerLevel level = player.serverLevel();
+        ZoneIndex index = serverZones.getOrDefault(level.dimension(), ZoneIndex.EMPTY);
+        BetterExcavateNetwork.CHANNEL.send(PacketDistributor.PLAYER.with(() -> player),
+                new SyncZonesPacket(level.dimension(), index.getZones()));
+    }
+
+    @SubscribeEvent
+    public static void onLevelLoad(LevelEvent.Load event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            ZoneIndex index = new ZoneIndex(HardnessZoneData.get(level).getZones());
+            if (!index.isEmpty()) {
+                serverZones.put(level.dimension(), index);
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            serverZones.remove(level.dimension());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            sendZones(player);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onPlayerChangedDimension(PlayerEvent.PlayerChangedDimensionEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            sendZones(player);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        serverZones.clear();
+    }
+}
@@ -0,0 +1,123 @@
+package org.goldgomtech.betterexcavate.zone;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一个维度中硬度区域的不可变空间索引
+ * 按区块坐标分桶：开放寻址、线性探测的哈希表，键是 ChunkPos.asLong，值是与该区块相交的区域（按体积升序），
+ * 查询只需一次探测加上桶内少量的包含判断，与区域总数无关。
+ * 覆盖区块过多的大区域不放入桶中，每次查询单独检查。区域变化时整体重建
+ */
+final class ZoneIndex {
+
+    static final ZoneIndex EMPTY = new ZoneIndex(List.of());
+
+    // 覆盖区块数超过此值的区域不放入区块索引，避免一个巨大的区域占用大量槽位
+    private static final int MAX_INDEXED_CHUNKS = 4096;
+
+    private static final Comparator<HardnessZone> BY_VOLUME = Comparator.comparingLong(HardnessZone::volume);
+
+    private final List<HardnessZone> zones;
+    // 槽位为空时 buckets[slot] 为null
+    private final long[] keys;
+    private final HardnessZone[][] buckets;
+    private final HardnessZone[] largeZones;
+
+    ZoneIndex(List<HardnessZone> zones) {
+        this.zones = List.copyOf(zones);
+
+        Map<Long, List<HardnessZone>> byChunk = new HashMap<>();
+        List<HardnessZone> large = new ArrayList<>();
+        for (HardnessZone zone : this.zones) {
+            int minChunkX = zone.minX() >> 4;
+            int maxChunkX = zone.maxX() >> 4;
+            int minChunkZ = zone.minZ() >> 4;
+            int maxChunkZ = zone.maxZ() >> 4;
+            long chunks = (long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1);
+            if (chunks > MAX_INDEXED_CHUNKS) {
+                large.add(zone);
+                continue;
+            }
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                    byChunk.computeIfAbsent(ChunkPos.asLong(chunkX, chunkZ), key -> new ArrayList<>()).add(zone);
+                }
+            }
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(byChunk.size(), 1)) << 2;
+        this.keys = new long[capacity];
+        this.buckets = new HardnessZone[capacity][];
+        int mask = capacity - 1;
+        for (Map.Entry<Long, List<HardnessZone>> entry : byChunk.entrySet()) {
+            long key = entry.getKey();
+            int slot = mix(key) & mask;
+            while (buckets[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            List<HardnessZone> bucket = entry.getValue();
+            bucket.sort(BY_VOLUME);
+            keys[slot] = key;
+            buckets[slot] = bucket.toArray(new HardnessZone[0]);
+        }
+        large.sort(BY_VOLUME);
+        this.largeZones = large.toArray(new HardnessZone[0]);
+    }
+
+    List<HardnessZone> getZones() {
+        return zones;
+    }
+
+    boolean isEmpty() {
+        return zones.isEmpty();
+    }
+
+    /**
+     * 查找包含该位置的区域，多个区域重叠时返回体积最小的
+     * @param packedPos BlockPos.asLong
+     * @return 区域，不在任何区域中时为null
+     */
+    HardnessZone find(long packedPos) {
+        int x = BlockPos.getX(packedPos);
+        int y = BlockPos.getY(packedPos);
+        int z = BlockPos.getZ(packedPos);
+
+        HardnessZone result = null;
+        long key = ChunkPos.asLong(x >> 4, z >> 4);
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (buckets[slot] != null) {
+            if (keys[slot] == key) {
+                for (HardnessZone zone : buckets[slot]) {
+                    if (zone.contains(x, y, z)) {
+                        result = zone;
+                        break;
+                    }
+                }
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        for (HardnessZone zone : largeZones) {
+            if (result != null && zone.volume() >= result.volume()) {
+                break;
+            }
+            if (zone.contains(x, y, z)) {
+                return zone;
+            }
+        }
+        return result;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,76 @@
+package org.goldgomtech.betterexcavate;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 批量速度计算的向量路径（jdk.incubator.vector）
+ * 位于单独的 vector 源码集，只有它的编译使用 --add-modules jdk.incubator.vector，也不打包进模组jar。
+ * 由 {@link BatchEvaluator} 按类名反射加载，构造时确认模块可用，否则加载或构造会失败
+ */
+final class VectorBatchKernel implements BatchEvaluator.SpeedKernel {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    /** 与DOUBLES通道数相同的float类型，用于读取方块硬度和写出速度 */
+    private static final VectorSpecies<Float> FLOATS =
+            VectorSpecies.of(float.class, VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+
+    private static final double LN2 = Math.log(2);
+
+    VectorBatchKernel() {
+        if (FLOATS.length() != DOUBLES.length()) {
+            throw new IllegalStateException("Mismatched vector lanes " + FLOATS.length() + "/" + DOUBLES.length());
+        }
+    }
+
+    /**
+     * 与 {@link BatchEvaluator#speeds} 相同的计算，剩余不足一个向量的部分交给标量路径
+     */
+    @Override
+    public void speeds(HardnessTables tables, double[] toolHardness, float[] blockHardness, float[] outSpeed, int length) {
+        double base = tables.getBaseMiningSpeed();
+        double maxMultiplier = tables.getMaxSpeedMultiplierCustom();
+        String method = tables.getSpeedCalculationMethod();
+        int lanes = DOUBLES.length();
+        int upperBound = length - length % lanes;
+
+        for (int i = 0; i < upperBound; i += lanes) {
+            DoubleVector tool = DoubleVector.fromArray(DOUBLES, toolHardness, i);
+            DoubleVector block = (DoubleVector) FloatVector.fromArray(FLOATS, blockHardness, i)
+                    .convertShape(VectorOperators.F2D, DOUBLES, 0);
+            DoubleVector ratio = tool.div(block);
+
+            DoubleVector curve = switch (method) {
+                case "linear" -> ratio;
+                case "inverse" -> tool.div(block.max(0.1));
+                case "exponential" -> ratio.mul(ratio).blend(ratio.sqrt(), ratio.compare(VectorOperators.GE, 1.0));
+                case "quadratic" -> ratio.mul(ratio).blend(ratio.sub(1.0).mul(0.5).add(1.0), ratio.compare(VectorOperators.GE, 1.0));
+                default -> ratio.add(1.0).lanewise(VectorOperators.LOG).div(LN2);
+            };
+            DoubleVector multiplier = curve.min(maxMultiplier);
+            if ("logarithmic".equals(method)) {
+                multiplier = multiplier.blend(0.01, ratio.compare(VectorOperators.LE, 0.001));
+            }
+            multiplier = multiplier.max(0.01);
+
+            VectorMask<Double> noHardness = block.compare(VectorOperators.LE, 0.0);
+            DoubleVector speed = multiplier.mul(base).blend(base, noHardness);
+            ((FloatVector) speed.convertShape(VectorOperators.D2F, FLOATS, 0)).intoArray(outSpeed, i);
+        }
+
+        if (upperBound < length) {
+            int tail = length - upperBound;
+            double[] toolTail = new double[tail];
+            float[] blockTail = new float[tail];
+            float[] speedTail = new float[tail];
+            System.arraycopy(toolHardness, upperBound, toolTail, 0, tail);
+            System.arraycopy(blockHardness, upperBound, blockTail, 0, tail);
+            BatchEvaluator.speeds(tables, toolTail, blockTail, speedTail, tail);
+            System.arraycopy(speedTail, 0, outSpeed, upperBound, tail);
+        }
+    }
+}